@@ -0,0 +1,98 @@
+package com.example.digigoods.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Read replica configuration, active when {@code datasource.replica.url} is set.
+ *
+ * <p>The primary and the replica get their own connection pools, named {@code primary} and
+ * {@code replica} in the {@code hikaricp} metrics and sized by {@code spring.datasource.hikari}
+ * and {@code datasource.replica.hikari}. The application uses a routing data source over both.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+  private final long readYourWritesWindowMillis;
+
+  public ReadReplicaConfig(
+      @Value("${datasource.replica.read-your-writes-ms:2000}") long readYourWritesWindowMillis) {
+    this.readYourWritesWindowMillis = readYourWritesWindowMillis;
+  }
+
+  /**
+   * Connection pool of the primary database.
+   *
+   * @param properties the primary data source properties
+   * @return the primary pool
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  /**
+   * Connection pool of the replica database, with the primary credentials unless overridden.
+   *
+   * @param properties the primary data source properties
+   * @param url the replica JDBC URL
+   * @param username the replica username
+   * @param password the replica password
+   * @return the replica pool
+   */
+  @Bean
+  @ConfigurationProperties("datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties properties,
+      @Value("${datasource.replica.url}") String url,
+      @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+      @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+    HikariDataSource dataSource = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .driverClassName(properties.determineDriverClassName())
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+    dataSource.setPoolName("replica");
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  /**
+   * Data source of the application, routing each connection to the primary or the replica.
+   *
+   * @param primary the primary pool
+   * @param replica the replica pool
+   * @return the routing data source
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                               @Qualifier("replicaDataSource") DataSource replica) {
+    return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindowMillis));
+  }
+}
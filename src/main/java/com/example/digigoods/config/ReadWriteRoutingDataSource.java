@@ -0,0 +1,69 @@
+package com.example.digigoods.config;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending read-only transactions to the replica, and everything else to the primary.
+ *
+ * <p>Only threads that allow it read from the replica, which the web layer does for requests
+ * that cannot see stale data of their own. Background work, write requests and reads outside
+ * a read-only transaction always use the primary. The route is chosen when a statement first
+ * needs a connection, so this data source must be wrapped in a lazy connection proxy.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+  private static final ThreadLocal<Boolean> REPLICA_ALLOWED =
+      ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+  /**
+   * Target of a connection.
+   */
+  public enum Route {
+    PRIMARY,
+    REPLICA
+  }
+
+  /**
+   * Constructor with the primary and replica data sources.
+   *
+   * @param primary the primary data source
+   * @param replica the replica data source
+   */
+  public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+    setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  /**
+   * Allow or forbid read-only transactions of the current thread to use the replica.
+   *
+   * @param allowed whether the replica may be used
+   */
+  public static void setReplicaAllowed(boolean allowed) {
+    if (allowed) {
+      REPLICA_ALLOWED.set(Boolean.TRUE);
+    } else {
+      REPLICA_ALLOWED.remove();
+    }
+  }
+
+  /**
+   * Get the route of a connection requested now by the current thread.
+   *
+   * @return the replica inside a read-only transaction of a thread allowed to use it,
+   *     the primary otherwise
+   */
+  public static Route currentRoute() {
+    return REPLICA_ALLOWED.get() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        ? Route.REPLICA : Route.PRIMARY;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return currentRoute();
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.digigoods.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor letting read requests use the replica, unless their user wrote recently.
+ *
+ * <p>Every write request of an authenticated user opens a window during which the reads of
+ * that user keep going to the primary, so users see their own orders and cart changes even
+ * while the replica lags behind. Reads of other users and anonymous reads are not affected.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+  private static final int PRUNE_THRESHOLD = 10_000;
+
+  private final long windowNanos;
+  private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor with the read-your-writes window.
+   *
+   * @param windowMillis how long the reads of a user go to the primary after a write
+   */
+  public ReadYourWritesInterceptor(long windowMillis) {
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler) {
+    ReadWriteRoutingDataSource.setReplicaAllowed(
+        isRead(request) && !wroteRecently(currentUsername()));
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                              Object handler, Exception ex) {
+    ReadWriteRoutingDataSource.setReplicaAllowed(false);
+    String username = currentUsername();
+    if (!isRead(request) && username != null) {
+      recordWrite(username);
+    }
+  }
+
+  private boolean wroteRecently(String username) {
+    if (username == null) {
+      return false;
+    }
+    Long lastWrite = lastWrites.get(username);
+    return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+  }
+
+  private void recordWrite(String username) {
+    long now = System.nanoTime();
+    lastWrites.put(username, now);
+    if (lastWrites.size() > PRUNE_THRESHOLD) {
+      lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+  }
+
+  private static boolean isRead(HttpServletRequest request) {
+    return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+  }
+
+  private static String currentUsername() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !authentication.isAuthenticated()
+        || authentication instanceof AnonymousAuthenticationToken) {
+      return null;
+    }
+    return authentication.getName();
+  }
+}
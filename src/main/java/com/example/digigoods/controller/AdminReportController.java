@@ -0,0 +1,70 @@
+package com.example.digigoods.controller;
+
+import com.example.digigoods.dto.DailyRevenueReport;
+import com.example.digigoods.dto.DiscountRedemptionReport;
+import com.example.digigoods.dto.ProductSalesReport;
+import com.example.digigoods.service.SalesRollupService;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for sales report endpoints, restricted to administrators.
+ */
+@RestController
+@RequestMapping("/admin/reports")
+public class AdminReportController {
+
+  private final SalesRollupService salesRollupService;
+
+  public AdminReportController(SalesRollupService salesRollupService) {
+    this.salesRollupService = salesRollupService;
+  }
+
+  /**
+   * Get daily revenue endpoint.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the revenue of each day with sales, oldest first
+   */
+  @GetMapping("/revenue")
+  public ResponseEntity<List<DailyRevenueReport>> getDailyRevenue(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    return ResponseEntity.ok(salesRollupService.getDailyRevenue(from, to));
+  }
+
+  /**
+   * Get product sales endpoint.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the sales of each product sold in the period, highest revenue first
+   */
+  @GetMapping("/products")
+  public ResponseEntity<List<ProductSalesReport>> getProductSales(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    return ResponseEntity.ok(salesRollupService.getProductSales(from, to));
+  }
+
+  /**
+   * Get discount redemptions endpoint.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the redemptions of each code redeemed in the period, by code
+   */
+  @GetMapping("/discounts")
+  public ResponseEntity<List<DiscountRedemptionReport>> getDiscountRedemptions(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    return ResponseEntity.ok(salesRollupService.getDiscountRedemptions(from, to));
+  }
+}
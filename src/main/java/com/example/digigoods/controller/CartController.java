@@ -2,23 +2,31 @@ package com.example.digigoods.controller;
 
 import com.example.digigoods.dto.AddToCartRequest;
 import com.example.digigoods.dto.AddToCartResponse;
+import com.example.digigoods.dto.CartResponse;
 import com.example.digigoods.dto.GetCartResponse;
+import com.example.digigoods.dto.UpdateCartRequest;
 import com.example.digigoods.exception.MissingJwtTokenException;
 import com.example.digigoods.service.CartService;
 import com.example.digigoods.service.JwtService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/carts")
 @RequiredArgsConstructor
 public class CartController {
 
+  // Private to the user, and revalidated with the ETag before each reuse
+  private static final CacheControl CART_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
   private final CartService cartService;
   private final JwtService jwtService;
 
@@ -32,14 +40,77 @@ public class CartController {
     return ResponseEntity.ok(cartService.addToCart(addToCartRequest, authenticatedUserId));
   }
 
+  @PatchMapping
+  public ResponseEntity<CartResponse> updateCart(
+      @Valid @RequestBody UpdateCartRequest updateCartRequest, HttpServletRequest request) {
+    String token = extractTokenFromRequest(request);
+    if (token == null) {
+      throw new MissingJwtTokenException();
+    }
+    Long authenticatedUserId = jwtService.extractUserId(token);
+    CartResponse cart = cartService.updateCart(updateCartRequest, authenticatedUserId);
+    return ResponseEntity.ok()
+      .eTag(cartEtag(cart))
+      .cacheControl(CART_CACHE_CONTROL)
+      .body(cart);
+  }
+
+  /**
+   * Get the cart of the authenticated user with current prices, totals and stock warnings.
+   * A request whose {@code If-None-Match} holds the ETag of the cart as it still is gets a 304
+   * without a body.
+   */
   @GetMapping
-  public ResponseEntity<List<GetCartResponse>> getCart(HttpServletRequest request) {
+  public ResponseEntity<CartResponse> getCart(HttpServletRequest request) {
     String token = extractTokenFromRequest(request);
     if (token == null) {
       throw new MissingJwtTokenException();
     }
     Long authenticatedUserId = jwtService.extractUserId(token);
-    return ResponseEntity.ok(cartService.getCart(authenticatedUserId));
+    CartResponse cart = cartService.getCart(authenticatedUserId);
+    String etag = cartEtag(cart);
+    if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(etag)
+        .cacheControl(CART_CACHE_CONTROL)
+        .build();
+    }
+    return ResponseEntity.ok()
+      .eTag(etag)
+      .cacheControl(CART_CACHE_CONTROL)
+      .body(cart);
+  }
+
+  private String cartEtag(CartResponse cart) {
+    // Every field shown, so that any change of the cart, a price or a stock warning changes it
+    StringBuilder content = new StringBuilder();
+    for (GetCartResponse item : cart.getItems()) {
+      content.append(item.getProductId()).append(':')
+        .append(item.getProductName()).append(':')
+        .append(item.getQuantity()).append(':')
+        .append(item.getUnitPrice()).append(':')
+        .append(item.getStockWarning()).append(':')
+        .append(item.getAvailableStock()).append('\n');
+    }
+    content.append(cart.getSubtotal());
+    return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8))
+        + "\"";
+  }
+
+  private boolean matchesEtag(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals("*") || tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private String extractTokenFromRequest(HttpServletRequest request) {
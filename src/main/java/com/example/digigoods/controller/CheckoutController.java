@@ -1,53 +1,226 @@
 package com.example.digigoods.controller;
 
+import com.example.digigoods.dto.BatchCheckoutRequest;
+import com.example.digigoods.dto.BatchCheckoutResponse;
+import com.example.digigoods.dto.CartCheckoutRequest;
 import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.CheckoutStatusResponse;
+import com.example.digigoods.dto.OrderHistoryResponse;
 import com.example.digigoods.dto.OrderResponse;
 import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.service.AsyncCheckoutService;
+import com.example.digigoods.service.CheckoutAdmissionGate;
 import com.example.digigoods.service.CheckoutService;
+import com.example.digigoods.service.GroupCommitCheckoutService;
+import com.example.digigoods.service.IdempotencyService;
 import com.example.digigoods.service.JwtService;
+import com.example.digigoods.service.OrderHistoryService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.net.URI;
+import java.util.List;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
- * Controller for checkout endpoints.
+ * Controller for checkout and order history endpoints.
  */
 @RestController
 @RequestMapping("/orders")
 public class CheckoutController {
 
   private final CheckoutService checkoutService;
+  private final GroupCommitCheckoutService groupCommitCheckoutService;
+  private final IdempotencyService idempotencyService;
+  private final AsyncCheckoutService asyncCheckoutService;
+  private final CheckoutAdmissionGate checkoutAdmissionGate;
+  private final OrderHistoryService orderHistoryService;
   private final JwtService jwtService;
 
-  public CheckoutController(CheckoutService checkoutService, JwtService jwtService) {
+  /**
+   * Constructor with checkout, group commit, idempotency, asynchronous checkout, admission,
+   * order history and JWT services.
+   *
+   * @param checkoutService the checkout service
+   * @param groupCommitCheckoutService the group commit checkout service
+   * @param idempotencyService the idempotency service
+   * @param asyncCheckoutService the asynchronous checkout service
+   * @param checkoutAdmissionGate the gate turning buyers of sold out products away
+   * @param orderHistoryService the order history service
+   * @param jwtService the JWT service
+   */
+  public CheckoutController(CheckoutService checkoutService,
+                            GroupCommitCheckoutService groupCommitCheckoutService,
+                            IdempotencyService idempotencyService,
+                            AsyncCheckoutService asyncCheckoutService,
+                            CheckoutAdmissionGate checkoutAdmissionGate,
+                            OrderHistoryService orderHistoryService,
+                            JwtService jwtService) {
     this.checkoutService = checkoutService;
+    this.groupCommitCheckoutService = groupCommitCheckoutService;
+    this.idempotencyService = idempotencyService;
+    this.asyncCheckoutService = asyncCheckoutService;
+    this.checkoutAdmissionGate = checkoutAdmissionGate;
+    this.orderHistoryService = orderHistoryService;
     this.jwtService = jwtService;
   }
 
   /**
    * Create order endpoint.
    *
+   * <p>When an {@code Idempotency-Key} header is sent, retrying the request with the same key
+   * returns the response of the first order instead of placing another one.
+   *
    * @param checkoutRequest the checkout request
+   * @param idempotencyKey the optional idempotency key
    * @param request the HTTP servlet request
    * @return order response
    */
   @PostMapping
   public ResponseEntity<OrderResponse> createOrder(
       @Valid @RequestBody CheckoutRequest checkoutRequest,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    OrderResponse response = placeOrder(checkoutRequest, idempotencyKey, authenticatedUserId);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Create order endpoint for clients sending {@code Prefer: respond-async}.
+   *
+   * <p>The order is queued and placed in the background. The response carries a token, also
+   * in the {@code Location} header, to poll {@link #getOrderStatus} with.
+   *
+   * @param checkoutRequest the checkout request
+   * @param idempotencyKey the optional idempotency key
+   * @param request the HTTP servlet request
+   * @return 202 with the queued checkout status
+   */
+  @PostMapping(headers = "Prefer=respond-async")
+  public ResponseEntity<CheckoutStatusResponse> createOrderAsync(
+      @Valid @RequestBody CheckoutRequest checkoutRequest,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
       HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    CheckoutStatusResponse response = asyncCheckoutService.submit(checkoutRequest,
+        authenticatedUserId,
+        () -> placeOrder(checkoutRequest, idempotencyKey, authenticatedUserId));
+    return ResponseEntity.accepted()
+        .location(URI.create("/orders/" + response.getToken()))
+        .header("Preference-Applied", "respond-async")
+        .body(response);
+  }
+
+  /**
+   * Create orders in bulk endpoint.
+   *
+   * <p>Every order is placed or rejected on its own, and the response reports the outcome of
+   * each at its index in the request. Orders are committed in chunks that read their products
+   * and discounts once and take stock with one update per product.
+   *
+   * @param batchCheckoutRequest the orders to place
+   * @param request the HTTP servlet request
+   * @return the outcome of each order
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<BatchCheckoutResponse> createOrders(
+      @Valid @RequestBody BatchCheckoutRequest batchCheckoutRequest,
+      HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    return ResponseEntity.ok(groupCommitCheckoutService.processBatch(
+        batchCheckoutRequest.getOrders(), authenticatedUserId));
+  }
+
+  /**
+   * Create order from cart endpoint.
+   *
+   * <p>Places an order for every item of the authenticated user's cart, at its quantity, and
+   * empties the cart. The request body is optional and only carries discount codes.
+   *
+   * @param cartCheckoutRequest the optional cart checkout request
+   * @param request the HTTP servlet request
+   * @return order response
+   */
+  @PostMapping("/from-cart")
+  public ResponseEntity<OrderResponse> createOrderFromCart(
+      @RequestBody(required = false) CartCheckoutRequest cartCheckoutRequest,
+      HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    List<String> discountCodes = cartCheckoutRequest != null
+        ? cartCheckoutRequest.getDiscountCodes() : null;
+    return ResponseEntity.ok(
+        checkoutService.processCartCheckout(discountCodes, authenticatedUserId));
+  }
+
+  /**
+   * List the orders of the authenticated user, newest first.
+   *
+   * <p>Pages are chained with cursors: the {@code nextCursor} of a page is passed as
+   * {@code before} to get the next, older page, and is null on the last page.
+   *
+   * @param before the cursor of the previous page, omitted for the first page
+   * @param limit the number of orders per page
+   * @param request the HTTP servlet request
+   * @return the page of orders
+   */
+  @GetMapping
+  public ResponseEntity<OrderHistoryResponse> getOrders(
+      @RequestParam(required = false) String before,
+      @RequestParam(defaultValue = "20") int limit,
+      HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    return ResponseEntity.ok(
+        orderHistoryService.getOrderHistory(authenticatedUserId, before, limit));
+  }
+
+  /**
+   * Get the status of an order created asynchronously.
+   *
+   * @param orderToken the token returned when the order was accepted
+   * @param request the HTTP servlet request
+   * @return the checkout status
+   */
+  @GetMapping("/{orderToken}")
+  public ResponseEntity<CheckoutStatusResponse> getOrderStatus(
+      @PathVariable String orderToken,
+      HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    return ResponseEntity.ok(asyncCheckoutService.getStatus(orderToken, authenticatedUserId));
+  }
+
+  private OrderResponse placeOrder(CheckoutRequest checkoutRequest, String idempotencyKey,
+                                   Long authenticatedUserId) {
+    // A keyed checkout must commit in the transaction that stores its key, so it is never grouped.
+    // Its replays return the stored response, so only its first run goes through the gate.
+    return idempotencyKey == null
+        ? checkoutAdmissionGate.admit(checkoutRequest,
+            () -> groupCommitCheckoutService.processCheckout(checkoutRequest, authenticatedUserId))
+        : idempotencyService.execute(authenticatedUserId, idempotencyKey, checkoutRequest,
+            () -> checkoutAdmissionGate.admit(checkoutRequest,
+                () -> checkoutService.processCheckout(checkoutRequest, authenticatedUserId)));
+  }
+
+  private Long extractAuthenticatedUserId(HttpServletRequest request) {
     // Extract user ID from JWT token
     String token = extractTokenFromRequest(request);
     if (token == null) {
       throw new MissingJwtTokenException();
     }
-    Long authenticatedUserId = jwtService.extractUserId(token);
-
-    OrderResponse response = checkoutService.processCheckout(checkoutRequest, authenticatedUserId);
-    return ResponseEntity.ok(response);
+    return jwtService.extractUserId(token);
   }
 
   private String extractTokenFromRequest(HttpServletRequest request) {
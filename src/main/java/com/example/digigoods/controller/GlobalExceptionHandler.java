@@ -1,16 +1,27 @@
 package com.example.digigoods.controller;
 
 import com.example.digigoods.dto.ErrorResponse;
+import com.example.digigoods.exception.CheckoutNotFoundException;
+import com.example.digigoods.exception.CheckoutQueueFullException;
+import com.example.digigoods.exception.EmptyCartException;
 import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
 import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidCursorException;
 import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
 import com.example.digigoods.exception.MissingJwtTokenException;
 import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.exception.SoldOutException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.exception.UserNotFoundException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -36,7 +47,8 @@ public class GlobalExceptionHandler {
   }
 
   @ExceptionHandler({InvalidDiscountException.class, ExcessiveDiscountException.class,
-                     InsufficientStockException.class})
+                     InsufficientStockException.class, InvalidIdempotencyKeyException.class,
+                     EmptyCartException.class, InvalidCursorException.class})
   public ResponseEntity<ErrorResponse> handleBadRequestExceptions(
       RuntimeException ex, HttpServletRequest request) {
     ErrorResponse error = new ErrorResponse(
@@ -48,6 +60,68 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
   }
 
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(
+      IdempotencyKeyReusedException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.UNPROCESSABLE_ENTITY.value(),
+        "Unprocessable Entity",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+  }
+
+  @ExceptionHandler(CheckoutNotFoundException.class)
+  public ResponseEntity<ErrorResponse> handleCheckoutNotFoundException(
+      CheckoutNotFoundException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.NOT_FOUND.value(),
+        "Not Found",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+  }
+
+  @ExceptionHandler(UserNotFoundException.class)
+  public ResponseEntity<ErrorResponse> handleUserNotFoundException(
+      UserNotFoundException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.NOT_FOUND.value(),
+        "Not Found",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+  }
+
+  @ExceptionHandler(CheckoutQueueFullException.class)
+  public ResponseEntity<ErrorResponse> handleCheckoutQueueFullException(
+      CheckoutQueueFullException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        "Service Unavailable",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(error);
+  }
+
+  @ExceptionHandler(SoldOutException.class)
+  public ResponseEntity<ErrorResponse> handleSoldOutException(
+      SoldOutException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.CONFLICT.value(),
+        "Conflict",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
   @ExceptionHandler(UnauthorizedAccessException.class)
   public ResponseEntity<ErrorResponse> handleUnauthorizedAccessException(
       UnauthorizedAccessException ex, HttpServletRequest request) {
@@ -100,6 +174,23 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
   }
 
+  @ExceptionHandler(HttpMessageNotReadableException.class)
+  public ResponseEntity<ErrorResponse> handleMessageNotReadableException(
+      HttpMessageNotReadableException ex, HttpServletRequest request) {
+    // Mapping errors, including exceeded request limits, say which value was wrong
+    String message = ex.getCause() instanceof JsonMappingException mappingException
+        ? mappingException.getOriginalMessage()
+        : "Malformed request body";
+
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.BAD_REQUEST.value(),
+        "Bad Request",
+        message,
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGenericException(
       Exception ex, HttpServletRequest request) {
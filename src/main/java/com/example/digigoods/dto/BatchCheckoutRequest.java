@@ -0,0 +1,26 @@
+package com.example.digigoods.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for placing many orders in one request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCheckoutRequest {
+
+  public static final int MAX_ORDERS = 1_000;
+
+  @NotEmpty(message = "Orders cannot be empty")
+  @Valid
+  @JsonDeserialize(using = BoundedListDeserializer.Orders.class)
+  private List<@NotNull(message = "Orders cannot contain null") CheckoutRequest> orders;
+}
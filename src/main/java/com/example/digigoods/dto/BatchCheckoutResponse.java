@@ -0,0 +1,19 @@
+package com.example.digigoods.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcomes of a batch of orders, in request order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCheckoutResponse {
+
+  private int placed;
+  private int failed;
+  private List<BatchOrderResult> results;
+}
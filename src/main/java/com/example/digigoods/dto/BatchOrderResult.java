@@ -0,0 +1,21 @@
+package com.example.digigoods.dto;
+
+import com.example.digigoods.model.CheckoutStatus;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of one order of a batch, either COMPLETED or FAILED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResult {
+
+  private int index;
+  private CheckoutStatus status;
+  private String message;
+  private BigDecimal finalPrice;
+}
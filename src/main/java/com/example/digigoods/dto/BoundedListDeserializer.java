@@ -0,0 +1,98 @@
+package com.example.digigoods.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deserializer for request lists with a maximum size.
+ *
+ * <p>The size is checked while the array is read, so an oversized list is rejected at its first
+ * extra element instead of being parsed and boxed completely before bean validation runs.
+ *
+ * @param <T> the element type
+ */
+public abstract class BoundedListDeserializer<T> extends StdDeserializer<List<T>> {
+
+  private final Class<T> elementType;
+  private final String fieldName;
+  private final int maxSize;
+
+  /**
+   * Constructor with element type and limit.
+   *
+   * @param elementType the element type
+   * @param fieldName the name of the field, for the error message
+   * @param maxSize the maximum number of elements
+   */
+  protected BoundedListDeserializer(Class<T> elementType, String fieldName, int maxSize) {
+    super(List.class);
+    this.elementType = elementType;
+    this.fieldName = fieldName;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<T> deserialize(JsonParser parser, DeserializationContext context)
+      throws IOException {
+    if (!parser.isExpectedStartArrayToken()) {
+      return (List<T>) context.handleUnexpectedToken(List.class, parser);
+    }
+
+    List<T> elements = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (elements.size() == maxSize) {
+        throw JsonMappingException.from(parser,
+            fieldName + " must not contain more than " + maxSize + " entries");
+      }
+      elements.add(context.readValue(parser, elementType));
+    }
+    return elements;
+  }
+
+  /**
+   * Deserializer for {@link CheckoutRequest#getProductIds()}.
+   */
+  public static class ProductIds extends BoundedListDeserializer<Long> {
+
+    public ProductIds() {
+      super(Long.class, "productIds", CheckoutRequest.MAX_PRODUCT_IDS);
+    }
+  }
+
+  /**
+   * Deserializer for {@link CheckoutRequest#getLines()}.
+   */
+  public static class Lines extends BoundedListDeserializer<CheckoutLine> {
+
+    public Lines() {
+      super(CheckoutLine.class, "lines", CheckoutRequest.MAX_LINES);
+    }
+  }
+
+  /**
+   * Deserializer for {@link BatchCheckoutRequest#getOrders()}.
+   */
+  public static class Orders extends BoundedListDeserializer<CheckoutRequest> {
+
+    public Orders() {
+      super(CheckoutRequest.class, "orders", BatchCheckoutRequest.MAX_ORDERS);
+    }
+  }
+
+  /**
+   * Deserializer for {@link UpdateCartRequest#getOperations()}.
+   */
+  public static class Operations extends BoundedListDeserializer<CartOperation> {
+
+    public Operations() {
+      super(CartOperation.class, "operations", UpdateCartRequest.MAX_OPERATIONS);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.digigoods.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for checkout of the authenticated user's cart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartCheckoutRequest {
+
+  private List<String> discountCodes;
+}
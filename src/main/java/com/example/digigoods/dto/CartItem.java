@@ -0,0 +1,17 @@
+package com.example.digigoods.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an item of a cart, as kept by the cart store.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItem {
+
+  private Long productId;
+  private Integer quantity;
+}
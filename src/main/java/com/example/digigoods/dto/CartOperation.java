@@ -0,0 +1,51 @@
+package com.example.digigoods.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one operation of a cart update: set the quantity of a product, remove a product or
+ * clear the cart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+
+  /**
+   * Kind of cart operation.
+   */
+  public enum Type {
+    SET_QUANTITY,
+    REMOVE,
+    CLEAR
+  }
+
+  @NotNull(message = "Operation type is required")
+  private Type type;
+
+  private Long productId;
+
+  @Min(value = 1, message = "Quantity must be at least 1")
+  @Max(value = CheckoutLine.MAX_QUANTITY,
+      message = "Quantity must be at most " + CheckoutLine.MAX_QUANTITY)
+  private Integer quantity;
+
+  @JsonIgnore
+  @AssertTrue(message = "Product ID is required")
+  public boolean isProductPresent() {
+    return type == null || type == Type.CLEAR || productId != null;
+  }
+
+  @JsonIgnore
+  @AssertTrue(message = "Quantity is required")
+  public boolean isQuantityPresent() {
+    return type != Type.SET_QUANTITY || quantity != null;
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the catalog fields of a product shown in a cart, read without loading the product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartProductView {
+
+  private Long productId;
+  private String name;
+  private BigDecimal price;
+  private Integer stock;
+}
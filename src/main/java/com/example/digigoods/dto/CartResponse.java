@@ -0,0 +1,23 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a cart with the current price of its items.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+
+  private List<GetCartResponse> items;
+
+  /**
+   * Sum of the line totals of the items still sold.
+   */
+  private BigDecimal subtotal;
+}
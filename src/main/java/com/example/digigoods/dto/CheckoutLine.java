@@ -0,0 +1,27 @@
+package com.example.digigoods.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one line of a checkout request: a product and how many units of it to buy.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutLine {
+
+  public static final int MAX_QUANTITY = 10_000;
+
+  @NotNull(message = "Product ID is required")
+  private Long productId;
+
+  @NotNull(message = "Quantity is required")
+  @Min(value = 1, message = "Quantity must be at least 1")
+  @Max(value = MAX_QUANTITY, message = "Quantity must be at most " + MAX_QUANTITY)
+  private Integer quantity;
+}
@@ -1,6 +1,9 @@
 package com.example.digigoods.dto;
 
-import jakarta.validation.constraints.NotEmpty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -9,17 +12,45 @@ import lombok.NoArgsConstructor;
 
 /**
  * DTO for checkout request.
+ *
+ * <p>Products are given either as {@code lines} with a quantity each, or in the older
+ * {@code productIds} form where an ID is repeated once per unit. Both may be combined.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CheckoutRequest {
 
+  /** Enough for any order that can also be expressed as a single line. */
+  public static final int MAX_PRODUCT_IDS = CheckoutLine.MAX_QUANTITY;
+  public static final int MAX_LINES = 1_000;
+
   @NotNull(message = "User ID is required")
   private Long userId;
 
-  @NotEmpty(message = "Product IDs cannot be empty")
-  private List<Long> productIds;
+  @JsonDeserialize(using = BoundedListDeserializer.ProductIds.class)
+  private List<@NotNull(message = "Product IDs cannot contain null") Long> productIds;
 
   private List<String> discountCodes;
+
+  @Valid
+  @JsonDeserialize(using = BoundedListDeserializer.Lines.class)
+  private List<@NotNull(message = "Lines cannot contain null") CheckoutLine> lines;
+
+  /**
+   * Constructor for the product IDs form.
+   *
+   * @param userId the user ID
+   * @param productIds the product IDs, repeated once per unit
+   * @param discountCodes the discount codes, may be null
+   */
+  public CheckoutRequest(Long userId, List<Long> productIds, List<String> discountCodes) {
+    this(userId, productIds, discountCodes, null);
+  }
+
+  @JsonIgnore
+  @AssertTrue(message = "Product IDs or lines cannot be empty")
+  public boolean isProductsPresent() {
+    return (productIds != null && !productIds.isEmpty()) || (lines != null && !lines.isEmpty());
+  }
 }
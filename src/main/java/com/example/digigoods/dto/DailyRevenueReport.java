@@ -0,0 +1,21 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the revenue of a day, before and after discounts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRevenueReport {
+
+  private LocalDate date;
+  private Long orderCount;
+  private BigDecimal grossRevenue;
+  private BigDecimal netRevenue;
+}
@@ -0,0 +1,17 @@
+package com.example.digigoods.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the number of orders a discount code was applied to over a period.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountRedemptionReport {
+
+  private String code;
+  private Long redemptions;
+}
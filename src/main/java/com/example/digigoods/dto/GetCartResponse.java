@@ -1,5 +1,6 @@
 package com.example.digigoods.dto;
 
+import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -11,4 +12,33 @@ public class GetCartResponse {
   private String productName;
   private Integer quantity;
 
+  /**
+   * Current price of one unit, null if the product is no longer sold.
+   */
+  private BigDecimal unitPrice;
+
+  /**
+   * Unit price times quantity, null if the product is no longer sold.
+   */
+  private BigDecimal lineTotal;
+
+  /**
+   * Why the item cannot be checked out as it is, null if it can.
+   */
+  private StockWarning stockWarning;
+
+  /**
+   * Units in stock, only given with a stock warning.
+   */
+  private Integer availableStock;
+
+  /**
+   * Reason an item of a cart cannot be checked out in its quantity.
+   */
+  public enum StockWarning {
+    UNAVAILABLE,
+    OUT_OF_STOCK,
+    INSUFFICIENT_STOCK
+  }
+
 }
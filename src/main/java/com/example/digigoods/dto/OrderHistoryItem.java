@@ -0,0 +1,20 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an item of the order history, with the prices paid at checkout.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryItem {
+
+  private Long productId;
+  private Integer quantity;
+  private BigDecimal unitPrice;
+  private BigDecimal discountedPrice;
+}
@@ -0,0 +1,22 @@
+package com.example.digigoods.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a page of the order history, newest orders first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryResponse {
+
+  private List<OrderHistoryEntry> orders;
+
+  /**
+   * Cursor of the next, older page, null on the last page.
+   */
+  private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the units sold and revenue of a product over a period.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesReport {
+
+  private Long productId;
+  private Long units;
+  private BigDecimal netRevenue;
+}
@@ -0,0 +1,26 @@
+package com.example.digigoods.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for updating a cart with a list of operations, applied in order in one transaction.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateCartRequest {
+
+  public static final int MAX_OPERATIONS = 1_000;
+
+  @NotEmpty(message = "Operations cannot be empty")
+  @Valid
+  @JsonDeserialize(using = BoundedListDeserializer.Operations.class)
+  private List<@NotNull(message = "Operations cannot contain null") CartOperation> operations;
+}
@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when an asynchronous checkout token is unknown.
+ */
+public class CheckoutNotFoundException extends RuntimeException {
+
+  public CheckoutNotFoundException(String token) {
+    super("Order not found with token: " + token);
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when a checkout queue cannot take more orders.
+ */
+public class CheckoutQueueFullException extends RuntimeException {
+
+  public CheckoutQueueFullException() {
+    super("Too many pending orders, please retry later");
+  }
+}
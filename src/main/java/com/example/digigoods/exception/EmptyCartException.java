@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when checking out a cart that has no items.
+ */
+public class EmptyCartException extends RuntimeException {
+
+  public EmptyCartException() {
+    super("Cart is empty");
+  }
+}
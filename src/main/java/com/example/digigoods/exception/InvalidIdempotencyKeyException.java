@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when an idempotency key is blank or too long.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+  public InvalidIdempotencyKeyException(int maxLength) {
+    super("Idempotency-Key header must be between 1 and " + maxLength + " characters");
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when a product has no stock left for new checkouts.
+ */
+public class SoldOutException extends RuntimeException {
+
+  public SoldOutException(Long productId) {
+    super("Product " + productId + " is sold out");
+  }
+}
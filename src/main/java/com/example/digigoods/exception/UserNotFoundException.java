@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when the authenticated user no longer exists.
+ */
+public class UserNotFoundException extends RuntimeException {
+
+  public UserNotFoundException(Long userId) {
+    super("User not found with ID: " + userId);
+  }
+}
@@ -7,11 +7,15 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "cart_details")
+@Table(name = "cart_details",
+    uniqueConstraints = @UniqueConstraint(name = "uk_cart_details_cart_header_id_product_id",
+        columnNames = {"cart_header_id", "product_id"}))
 public class CartDetail {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_details_seq")
+  @SequenceGenerator(name = "cart_details_seq", sequenceName = "cart_details_seq",
+      allocationSize = 50)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -10,11 +10,14 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "cart_headers")
+@Table(name = "cart_headers", uniqueConstraints =
+    @UniqueConstraint(name = "uk_cart_headers_user_id", columnNames = "user_id"))
 public class CartHeader {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_headers_seq")
+  @SequenceGenerator(name = "cart_headers_seq", sequenceName = "cart_headers_seq",
+      allocationSize = 50)
   private Long id;
 
   @ManyToOne
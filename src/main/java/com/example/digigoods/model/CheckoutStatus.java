@@ -0,0 +1,27 @@
+package com.example.digigoods.model;
+
+/**
+ * Progress of a checkout accepted for asynchronous processing.
+ */
+public enum CheckoutStatus {
+
+  /**
+   * Waiting in the checkout queue.
+   */
+  QUEUED,
+
+  /**
+   * Picked up by a checkout worker.
+   */
+  PROCESSING,
+
+  /**
+   * The order was placed.
+   */
+  COMPLETED,
+
+  /**
+   * The checkout was rejected or failed, and no order was placed.
+   */
+  FAILED
+}
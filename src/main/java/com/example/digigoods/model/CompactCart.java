@@ -0,0 +1,40 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Cart of a user stored as a single row, its items encoded in one binary column and its
+ * concurrent edits detected by the version.
+ */
+@Entity
+@Table(name = "compact_carts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactCart {
+
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @JdbcTypeCode(SqlTypes.LONG32VARBINARY)
+  @Column(nullable = false)
+  private byte[] items;
+
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Daily sales rollup entity, maintained by checkouts as they commit.
+ *
+ * <p>Every checkout adds to the row of its day and of a random slot, so that concurrent
+ * checkouts rarely wait for the same row lock. The totals of a day are the sums over its slots.
+ */
+@Entity
+@Table(name = "daily_sales")
+@IdClass(DailySalesId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySales {
+
+  @Id
+  @Column(name = "sales_date")
+  private LocalDate salesDate;
+
+  @Id
+  @Column(name = "slot")
+  private Integer slot;
+
+  @Column(name = "order_count", nullable = false)
+  private Long orderCount;
+
+  @Column(name = "gross_revenue", nullable = false, precision = 15, scale = 2)
+  private BigDecimal grossRevenue;
+
+  @Column(name = "net_revenue", nullable = false, precision = 15, scale = 2)
+  private BigDecimal netRevenue;
+}
@@ -0,0 +1,20 @@
+package com.example.digigoods.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Composite primary key of {@link DailySales}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesId implements Serializable {
+
+  private LocalDate salesDate;
+
+  private Integer slot;
+}
@@ -0,0 +1,34 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Daily redemptions rollup entity of a discount code, maintained by checkouts as they commit.
+ */
+@Entity
+@Table(name = "discount_daily_redemptions")
+@IdClass(DiscountDailyRedemptionsId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountDailyRedemptions {
+
+  @Id
+  @Column(name = "sales_date")
+  private LocalDate salesDate;
+
+  @Id
+  @Column(name = "discount_code")
+  private String discountCode;
+
+  @Column(name = "redemptions", nullable = false)
+  private Long redemptions;
+}
@@ -0,0 +1,20 @@
+package com.example.digigoods.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Composite primary key of {@link DiscountDailyRedemptions}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountDailyRedemptionsId implements Serializable {
+
+  private LocalDate salesDate;
+
+  private String discountCode;
+}
@@ -0,0 +1,24 @@
+package com.example.digigoods.model;
+
+/**
+ * Enum representing how concurrent stock updates of a product are serialized.
+ */
+public enum InventoryLockMode {
+  /**
+   * Conditional {@code UPDATE ... WHERE stock >= ?} without reading the row first.
+   */
+  ATOMIC,
+  /**
+   * Read without locking and detect concurrent changes with the version column.
+   */
+  OPTIMISTIC,
+  /**
+   * Lock the row with {@code SELECT ... FOR UPDATE} before changing it.
+   */
+  PESSIMISTIC,
+  /**
+   * Take stock from an in-memory counter, journaled locally and written to the database in
+   * periodic batches.
+   */
+  IN_MEMORY
+}
@@ -0,0 +1,44 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order item entity recording how many units of a product an order bought, and at which price.
+ *
+ * <p>Prices are copied at checkout, so that order history and revenue never depend on the
+ * current product prices. The discounted price is the unit price after all discounts of the
+ * order, rounded per unit, so line totals may differ from the order final price by a few cents.
+ */
+@Entity
+@Table(name = "order_items")
+@IdClass(OrderItemId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItem {
+
+  @Id
+  @Column(name = "order_id")
+  private Long orderId;
+
+  @Id
+  @Column(name = "product_id")
+  private Long productId;
+
+  @Column(nullable = false)
+  private Integer quantity;
+
+  @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+  private BigDecimal unitPrice;
+
+  @Column(name = "discounted_price", nullable = false, precision = 10, scale = 2)
+  private BigDecimal discountedPrice;
+}
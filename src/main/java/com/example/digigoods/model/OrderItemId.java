@@ -0,0 +1,19 @@
+package com.example.digigoods.model;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Composite primary key of {@link OrderItem}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemId implements Serializable {
+
+  private Long orderId;
+
+  private Long productId;
+}
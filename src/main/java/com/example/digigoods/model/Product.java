@@ -1,11 +1,16 @@
 package com.example.digigoods.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -22,7 +27,8 @@ import lombok.NoArgsConstructor;
 public class Product {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false)
@@ -33,4 +39,32 @@ public class Product {
 
   @Column(nullable = false)
   private Integer stock;
+
+  @JsonIgnore
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
+  /**
+   * Lock mode used for stock updates of this product, or null to use the global default.
+   */
+  @JsonIgnore
+  @Enumerated(EnumType.STRING)
+  @Column(name = "lock_mode")
+  private InventoryLockMode lockMode;
+
+  /**
+   * Constructor with the catalog fields of a product.
+   *
+   * @param id product ID
+   * @param name product name
+   * @param price unit price
+   * @param stock units in stock
+   */
+  public Product(Long id, String name, BigDecimal price, Integer stock) {
+    this.id = id;
+    this.name = name;
+    this.price = price;
+    this.stock = stock;
+  }
 }
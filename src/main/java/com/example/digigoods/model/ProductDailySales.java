@@ -0,0 +1,41 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Daily sales rollup entity of a product, maintained by checkouts as they commit.
+ *
+ * <p>Revenue is the sum of the discounted unit prices of the order items, so it may differ
+ * from the daily revenue by the few cents of per-unit rounding.
+ */
+@Entity
+@Table(name = "product_daily_sales")
+@IdClass(ProductDailySalesId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDailySales {
+
+  @Id
+  @Column(name = "sales_date")
+  private LocalDate salesDate;
+
+  @Id
+  @Column(name = "product_id")
+  private Long productId;
+
+  @Column(name = "units", nullable = false)
+  private Long units;
+
+  @Column(name = "net_revenue", nullable = false, precision = 15, scale = 2)
+  private BigDecimal netRevenue;
+}
@@ -0,0 +1,20 @@
+package com.example.digigoods.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Composite primary key of {@link ProductDailySales}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDailySalesId implements Serializable {
+
+  private LocalDate salesDate;
+
+  private Long productId;
+}
@@ -0,0 +1,25 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of a product locked while its stock is held for a cart, so that holds of a product take
+ * turns without locking the product row that checkouts update.
+ */
+@Entity
+@Table(name = "stock_hold_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldLock {
+
+  @Id
+  @Column(name = "product_id")
+  private Long productId;
+}
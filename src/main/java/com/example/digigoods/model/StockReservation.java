@@ -0,0 +1,50 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock reservation entity holding items of a user's cart until checkout or expiry.
+ */
+@Entity
+@Table(name = "stock_reservations",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_reservations_user_id_product_id",
+        columnNames = {"user_id", "product_id"}),
+    indexes = {
+        @Index(name = "idx_stock_reservations_product_id_expires_at",
+            columnList = "product_id, expires_at"),
+        @Index(name = "idx_stock_reservations_expires_at", columnList = "expires_at")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+  @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq",
+      allocationSize = 50)
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "product_id", nullable = false)
+  private Long productId;
+
+  @Column(nullable = false)
+  private Integer quantity;
+
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.example.digigoods.repository;
 
+import com.example.digigoods.dto.CartItem;
 import com.example.digigoods.model.CartDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -7,9 +8,13 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
-public interface CartDetailRepository extends JpaRepository<CartDetail, Long> {
+public interface CartDetailRepository extends JpaRepository<CartDetail, Long>, CartWriteRepository {
 
   @Query("SELECT cd FROM CartDetail cd JOIN FETCH cd.cartHeader ch JOIN FETCH cd.product cp WHERE ch.user.id = :userId")
   List<CartDetail> findByUserId(@Param("userId") Long userId);
 
+  @Query("SELECT new com.example.digigoods.dto.CartItem(cd.product.id, cd.quantity) "
+      + "FROM CartDetail cd WHERE cd.cartHeader.user.id = :userId ORDER BY cd.id")
+  List<CartItem> findItemsByUserId(@Param("userId") Long userId);
+
 }
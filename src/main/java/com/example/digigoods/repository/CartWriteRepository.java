@@ -0,0 +1,56 @@
+package com.example.digigoods.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Repository fragment writing cart items with plain statements, without loading the cart.
+ */
+public interface CartWriteRepository {
+
+  /**
+   * Set the quantity of a product in the cart of a user, creating the cart and its item if
+   * missing, with one statement for the cart and one for the item.
+   *
+   * @param userId the user ID
+   * @param productId the product ID
+   * @param quantity the quantity the item ends up with
+   */
+  void upsertItem(Long userId, Long productId, int quantity);
+
+  /**
+   * Set the quantities of several products in the cart of a user, creating the cart and its
+   * items if missing, with one statement for the cart and one batch for the items.
+   *
+   * @param userId the user ID
+   * @param quantities the quantity each product ends up with
+   */
+  void upsertItems(Long userId, Map<Long, Integer> quantities);
+
+  /**
+   * Lock the cart of a user until the transaction ends, so that concurrent lockers of the same
+   * cart take turns.
+   *
+   * @param userId the user ID
+   * @return false for a user without a cart
+   */
+  boolean lockCart(Long userId);
+
+  /**
+   * Remove products from the cart of a user, with one statement.
+   *
+   * @param userId the user ID
+   * @param productIds the IDs of the products to remove
+   */
+  void deleteItems(Long userId, Collection<Long> productIds);
+
+  /**
+   * Replace the items of several carts, creating the missing carts, with one batch of
+   * statements for the carts, one for deleting their items and one for inserting them. Meant
+   * for a caller that is the only writer of these carts.
+   *
+   * @param itemsByUser the quantity of each product by user ID, users sorted so that
+   *     concurrent batches lock carts in the same order
+   */
+  void replaceItems(Map<Long, Map<Long, Integer>> itemsByUser);
+}
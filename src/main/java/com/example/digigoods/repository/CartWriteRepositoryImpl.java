@@ -0,0 +1,143 @@
+package com.example.digigoods.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link CartWriteRepository}.
+ *
+ * <p>The unique indexes on the user of a cart and on the cart and product of an item make both
+ * writes safe when two requests add to the same cart at once: PostgreSQL gets
+ * {@code INSERT ... ON CONFLICT}, which waits for the other insert and then updates or skips
+ * instead of failing. Other databases get the standard {@code MERGE}, which fails on such a race
+ * and is then run again, without a race this time. New rows take their IDs from the pooled
+ * sequences, one sequence value each, which no Hibernate block ever overlaps.
+ */
+class CartWriteRepositoryImpl implements CartWriteRepository {
+
+  private static final String POSTGRES_HEADER = "INSERT INTO cart_headers (id, user_id) "
+      + "VALUES (nextval('cart_headers_seq'), ?) ON CONFLICT (user_id) DO NOTHING";
+  private static final String POSTGRES_ITEM = "INSERT INTO cart_details "
+      + "(id, cart_header_id, product_id, quantity) "
+      + "SELECT nextval('cart_details_seq'), h.id, ?, ? FROM cart_headers h WHERE h.user_id = ? "
+      + "ON CONFLICT (cart_header_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity";
+  private static final String MERGE_HEADER = "MERGE INTO cart_headers t "
+      + "USING (VALUES (CAST(? AS BIGINT))) s (user_id) ON t.user_id = s.user_id "
+      + "WHEN NOT MATCHED THEN INSERT (id, user_id) "
+      + "VALUES (NEXT VALUE FOR cart_headers_seq, s.user_id)";
+  private static final String MERGE_ITEM = "MERGE INTO cart_details t "
+      + "USING (SELECT h.id, CAST(? AS BIGINT), CAST(? AS INTEGER) FROM cart_headers h "
+      + "WHERE h.user_id = ?) s (cart_header_id, product_id, quantity) "
+      + "ON t.cart_header_id = s.cart_header_id AND t.product_id = s.product_id "
+      + "WHEN MATCHED THEN UPDATE SET quantity = s.quantity "
+      + "WHEN NOT MATCHED THEN INSERT (id, cart_header_id, product_id, quantity) "
+      + "VALUES (NEXT VALUE FOR cart_details_seq, s.cart_header_id, s.product_id, s.quantity)";
+  private static final String LOCK_HEADER =
+      "SELECT id FROM cart_headers WHERE user_id = ? FOR UPDATE";
+  private static final String DELETE_ITEMS = "DELETE FROM cart_details "
+      + "WHERE cart_header_id IN (SELECT id FROM cart_headers WHERE user_id = ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DatabaseProduct database;
+
+  CartWriteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.database = new DatabaseProduct(jdbcTemplate);
+  }
+
+  @Override
+  public void upsertItem(Long userId, Long productId, int quantity) {
+    if (database.isPostgres()) {
+      jdbcTemplate.update(POSTGRES_HEADER, userId);
+      jdbcTemplate.update(POSTGRES_ITEM, productId, quantity, userId);
+      return;
+    }
+    mergeOnce(MERGE_HEADER, userId);
+    if (!mergeOnce(MERGE_ITEM, productId, quantity, userId)) {
+      // The concurrent insert has committed, so the merge now updates it
+      jdbcTemplate.update(MERGE_ITEM, productId, quantity, userId);
+    }
+  }
+
+  @Override
+  public void upsertItems(Long userId, Map<Long, Integer> quantities) {
+    if (quantities.isEmpty()) {
+      return;
+    }
+    List<Object[]> items = new ArrayList<>();
+    quantities.forEach((productId, quantity) ->
+        items.add(new Object[] {productId, quantity, userId}));
+    if (database.isPostgres()) {
+      jdbcTemplate.update(POSTGRES_HEADER, userId);
+      jdbcTemplate.batchUpdate(POSTGRES_ITEM, items);
+      return;
+    }
+    mergeOnce(MERGE_HEADER, userId);
+    try {
+      jdbcTemplate.batchUpdate(MERGE_ITEM, items);
+    } catch (DuplicateKeyException e) {
+      // The concurrent inserts have committed, so the merges now update them
+      jdbcTemplate.batchUpdate(MERGE_ITEM, items);
+    }
+  }
+
+  @Override
+  public boolean lockCart(Long userId) {
+    return !jdbcTemplate.queryForList(LOCK_HEADER, Long.class, userId).isEmpty();
+  }
+
+  @Override
+  public void deleteItems(Long userId, Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return;
+    }
+    List<Object> args = new ArrayList<>();
+    args.add(userId);
+    args.addAll(productIds);
+    jdbcTemplate.update(DELETE_ITEMS + " AND product_id IN ("
+        + String.join(", ", Collections.nCopies(productIds.size(), "?")) + ")", args.toArray());
+  }
+
+  @Override
+  public void replaceItems(Map<Long, Map<Long, Integer>> itemsByUser) {
+    if (itemsByUser.isEmpty()) {
+      return;
+    }
+    List<Object[]> users = new ArrayList<>();
+    List<Object[]> items = new ArrayList<>();
+    itemsByUser.forEach((userId, quantities) -> {
+      users.add(new Object[] {userId});
+      quantities.forEach((productId, quantity) ->
+          items.add(new Object[] {productId, quantity, userId}));
+    });
+    // The caller is the only writer of these carts, so none of the merges can race
+    boolean postgres = database.isPostgres();
+    jdbcTemplate.batchUpdate(postgres ? POSTGRES_HEADER : MERGE_HEADER, users);
+    jdbcTemplate.batchUpdate(DELETE_ITEMS, users);
+    if (!items.isEmpty()) {
+      jdbcTemplate.batchUpdate(postgres ? POSTGRES_ITEM : MERGE_ITEM, items);
+    }
+  }
+
+  /**
+   * Run a merge, which fails when a concurrent transaction inserted the same key after the
+   * merge looked for it.
+   *
+   * @param sql the merge statement
+   * @param args the statement parameters
+   * @return false if the row was inserted concurrently
+   */
+  private boolean mergeOnce(String sql, Object... args) {
+    try {
+      jdbcTemplate.update(sql, args);
+      return true;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.CompactCart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for CompactCart entity.
+ */
+@Repository
+public interface CompactCartRepository
+    extends JpaRepository<CompactCart, Long>, CompactCartWriteRepository {
+}
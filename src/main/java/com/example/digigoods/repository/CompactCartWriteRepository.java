@@ -0,0 +1,40 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.CompactCart;
+import java.util.Optional;
+
+/**
+ * Repository fragment reading and writing single-row carts with plain statements, outside the
+ * persistence context.
+ */
+public interface CompactCartWriteRepository {
+
+  /**
+   * Read the cart of a user as currently committed, bypassing the persistence context, so that
+   * a write retried after a conflict sees the version that won.
+   *
+   * @param userId the user ID
+   * @return the cart, detached, or empty for a user without a cart
+   */
+  Optional<CompactCart> findLatest(Long userId);
+
+  /**
+   * Create the cart of a user, unless another request created it first.
+   *
+   * @param userId the user ID
+   * @param items the encoded items
+   * @return false if the cart already existed
+   */
+  boolean insertIfAbsent(Long userId, byte[] items);
+
+  /**
+   * Replace the items of the cart of a user and bump its version, unless the cart has changed
+   * since it was read.
+   *
+   * @param userId the user ID
+   * @param version the version the items were read at
+   * @param items the encoded items
+   * @return false if the cart is no longer at that version
+   */
+  boolean updateIfVersion(Long userId, long version, byte[] items);
+}
@@ -0,0 +1,61 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.CompactCart;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link CompactCartWriteRepository}.
+ *
+ * <p>A cart read is one primary key lookup and a cart write one single-row statement. An update
+ * only applies at the version it was read at, so a lost race shows as no updated row rather
+ * than as an error. On PostgreSQL a lost insert race is skipped with {@code ON CONFLICT}, which
+ * leaves the transaction usable, and on other databases it fails with a duplicate key.
+ */
+class CompactCartWriteRepositoryImpl implements CompactCartWriteRepository {
+
+  private static final String SELECT = "SELECT items, version, updated_at FROM compact_carts "
+      + "WHERE user_id = ?";
+  private static final String INSERT = "INSERT INTO compact_carts "
+      + "(user_id, items, version, updated_at) VALUES (?, ?, 0, ?)";
+  private static final String POSTGRES_INSERT = INSERT + " ON CONFLICT (user_id) DO NOTHING";
+  private static final String UPDATE = "UPDATE compact_carts "
+      + "SET items = ?, version = version + 1, updated_at = ? WHERE user_id = ? AND version = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DatabaseProduct database;
+
+  CompactCartWriteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.database = new DatabaseProduct(jdbcTemplate);
+  }
+
+  @Override
+  public Optional<CompactCart> findLatest(Long userId) {
+    return jdbcTemplate.query(SELECT, (rs, rowNum) -> new CompactCart(userId,
+            rs.getBytes("items"), rs.getLong("version"),
+            rs.getTimestamp("updated_at").toLocalDateTime()), userId)
+        .stream()
+        .findFirst();
+  }
+
+  @Override
+  public boolean insertIfAbsent(Long userId, byte[] items) {
+    LocalDateTime now = LocalDateTime.now();
+    if (database.isPostgres()) {
+      return jdbcTemplate.update(POSTGRES_INSERT, userId, items, now) == 1;
+    }
+    try {
+      return jdbcTemplate.update(INSERT, userId, items, now) == 1;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public boolean updateIfVersion(Long userId, long version, byte[] items) {
+    return jdbcTemplate.update(UPDATE, items, LocalDateTime.now(), userId, version) == 1;
+  }
+}
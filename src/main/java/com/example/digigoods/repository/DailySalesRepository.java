@@ -0,0 +1,32 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.dto.DailyRevenueReport;
+import com.example.digigoods.model.DailySales;
+import com.example.digigoods.model.DailySalesId;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for DailySales entity, and for additions to all sales rollups.
+ */
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, DailySalesId>,
+    SalesRollupRepository {
+
+  /**
+   * Sum the slots of each day of a period.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the revenue of each day with sales, oldest first
+   */
+  @Query("SELECT new com.example.digigoods.dto.DailyRevenueReport(d.salesDate, "
+      + "SUM(d.orderCount), SUM(d.grossRevenue), SUM(d.netRevenue)) FROM DailySales d "
+      + "WHERE d.salesDate BETWEEN :from AND :to GROUP BY d.salesDate ORDER BY d.salesDate")
+  List<DailyRevenueReport> findDailyRevenue(@Param("from") LocalDate from,
+                                            @Param("to") LocalDate to);
+}
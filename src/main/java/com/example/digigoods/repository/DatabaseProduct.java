@@ -0,0 +1,35 @@
+package com.example.digigoods.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The database behind a {@link JdbcTemplate}, for the JDBC repositories whose statements differ
+ * between PostgreSQL and the other databases. It is read from the connection metadata on first
+ * use rather than at startup, so that building a repository needs no connection.
+ */
+final class DatabaseProduct {
+
+  private final JdbcTemplate jdbcTemplate;
+  private volatile Boolean postgres;
+
+  DatabaseProduct(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Whether the database is PostgreSQL.
+   *
+   * @return true if the database is PostgreSQL
+   */
+  boolean isPostgres() {
+    Boolean current = postgres;
+    if (current == null) {
+      String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+          connection.getMetaData().getDatabaseProductName());
+      current = "PostgreSQL".equalsIgnoreCase(productName);
+      postgres = current;
+    }
+    return current;
+  }
+}
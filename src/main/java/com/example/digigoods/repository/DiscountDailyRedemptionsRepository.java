@@ -0,0 +1,33 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.dto.DiscountRedemptionReport;
+import com.example.digigoods.model.DiscountDailyRedemptions;
+import com.example.digigoods.model.DiscountDailyRedemptionsId;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for DiscountDailyRedemptions entity.
+ */
+@Repository
+public interface DiscountDailyRedemptionsRepository
+    extends JpaRepository<DiscountDailyRedemptions, DiscountDailyRedemptionsId> {
+
+  /**
+   * Sum the daily redemptions of each discount code over a period.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the redemptions of each code redeemed in the period, by code
+   */
+  @Query("SELECT new com.example.digigoods.dto.DiscountRedemptionReport(r.discountCode, "
+      + "SUM(r.redemptions)) FROM DiscountDailyRedemptions r "
+      + "WHERE r.salesDate BETWEEN :from AND :to GROUP BY r.discountCode "
+      + "ORDER BY r.discountCode")
+  List<DiscountRedemptionReport> findDiscountRedemptions(@Param("from") LocalDate from,
+                                                         @Param("to") LocalDate to);
+}
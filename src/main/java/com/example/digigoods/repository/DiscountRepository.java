@@ -3,6 +3,7 @@ package com.example.digigoods.repository;
 import com.example.digigoods.model.Discount;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,7 +11,8 @@ import org.springframework.stereotype.Repository;
  * Repository interface for Discount entity.
  */
 @Repository
-public interface DiscountRepository extends JpaRepository<Discount, Long> {
+public interface DiscountRepository extends JpaRepository<Discount, Long>,
+    DiscountUsageRepository {
 
   /**
    * Find a discount by its code.
@@ -21,10 +23,11 @@ public interface DiscountRepository extends JpaRepository<Discount, Long> {
   Optional<Discount> findByCode(String code);
 
   /**
-   * Find all discounts by their codes.
+   * Find all discounts by their codes, together with their applicable products.
    *
    * @param codes the list of discount codes
    * @return list of discounts
    */
+  @EntityGraph(attributePaths = "applicableProducts")
   List<Discount> findAllByCodeIn(List<String> codes);
 }
@@ -0,0 +1,20 @@
+package com.example.digigoods.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Usage operations for Discount entity that bypass the usual repository methods.
+ */
+public interface DiscountUsageRepository {
+
+  /**
+   * Decrement the remaining uses of all given discounts in a single JDBC batch. Each discount is
+   * only decremented when it still has enough uses left, so concurrent callers can never use a
+   * discount more often than allowed.
+   *
+   * @param uses the number of uses taken keyed by discount code
+   * @return codes of discounts whose remaining uses were not decremented
+   */
+  List<String> decrementRemainingUses(Map<String, Integer> uses);
+}
@@ -0,0 +1,58 @@
+package com.example.digigoods.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link DiscountUsageRepository}.
+ *
+ * <p>The remaining uses are decremented relative to their current value rather than written
+ * back from a loaded discount, so concurrent checkouts using the same discount do not overwrite
+ * each other's decrements.
+ */
+class DiscountUsageRepositoryImpl implements DiscountUsageRepository {
+
+  private static final String DECREMENT_REMAINING_USES_SQL = "UPDATE discounts "
+      + "SET remaining_uses = remaining_uses - ? WHERE code = ? AND remaining_uses >= ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  DiscountUsageRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public List<String> decrementRemainingUses(Map<String, Integer> uses) {
+    List<Map.Entry<String, Integer>> entries = new ArrayList<>(uses.entrySet());
+
+    int[] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_REMAINING_USES_SQL,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            Map.Entry<String, Integer> entry = entries.get(i);
+            ps.setInt(1, entry.getValue());
+            ps.setString(2, entry.getKey());
+            ps.setInt(3, entry.getValue());
+          }
+
+          @Override
+          public int getBatchSize() {
+            return entries.size();
+          }
+        });
+
+    // An update count of zero means the discount is missing or has too few uses left
+    List<String> failedCodes = new ArrayList<>();
+    for (int i = 0; i < updateCounts.length; i++) {
+      if (updateCounts[i] == 0) {
+        failedCodes.add(entries.get(i).getKey());
+      }
+    }
+    return failedCodes;
+  }
+}
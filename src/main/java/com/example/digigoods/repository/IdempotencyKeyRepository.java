@@ -0,0 +1,37 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.IdempotencyKey;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for IdempotencyKey entity.
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+  /**
+   * Find the stored checkout of a user by its idempotency key.
+   *
+   * @param userId the user ID
+   * @param idempotencyKey the idempotency key sent by the client
+   * @return an Optional containing the stored checkout if found
+   */
+  Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+  /**
+   * Find the IDs of keys stored before a given time, oldest first.
+   *
+   * @param before the creation time keys must be older than
+   * @param pageable the batch to read
+   * @return the key IDs
+   */
+  @Query("SELECT k.id FROM IdempotencyKey k WHERE k.createdAt < :before ORDER BY k.createdAt, k.id")
+  List<Long> findIdsCreatedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.OrderItem;
+import java.util.List;
+
+/**
+ * Write operations for OrderItem entity that bypass the persistence context.
+ */
+public interface OrderItemBatchRepository {
+
+  /**
+   * Insert all given items in a single JDBC batch. Pending entity changes are flushed first, so
+   * that the orders the items belong to already exist.
+   *
+   * @param items the items to insert, with their order ID set
+   */
+  void insertAll(List<OrderItem> items);
+}
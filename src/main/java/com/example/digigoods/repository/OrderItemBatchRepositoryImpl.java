@@ -0,0 +1,51 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.OrderItem;
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link OrderItemBatchRepository}.
+ */
+class OrderItemBatchRepositoryImpl implements OrderItemBatchRepository {
+
+  private static final String INSERT_ITEM_SQL = "INSERT INTO order_items "
+      + "(order_id, product_id, quantity, unit_price, discounted_price) VALUES (?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+
+  OrderItemBatchRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public void insertAll(List<OrderItem> items) {
+    if (items.isEmpty()) {
+      return;
+    }
+    entityManager.flush();
+
+    jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        OrderItem item = items.get(i);
+        ps.setLong(1, item.getOrderId());
+        ps.setLong(2, item.getProductId());
+        ps.setInt(3, item.getQuantity());
+        ps.setBigDecimal(4, item.getUnitPrice());
+        ps.setBigDecimal(5, item.getDiscountedPrice());
+      }
+
+      @Override
+      public int getBatchSize() {
+        return items.size();
+      }
+    });
+  }
+}
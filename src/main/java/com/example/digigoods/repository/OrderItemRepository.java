@@ -0,0 +1,32 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.OrderItemId;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for OrderItem entity.
+ */
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, OrderItemId>,
+    OrderItemBatchRepository {
+
+  /**
+   * Find all items of an order.
+   *
+   * @param orderId the order ID
+   * @return list of order items
+   */
+  List<OrderItem> findAllByOrderId(Long orderId);
+
+  /**
+   * Find all items of some orders, with one query.
+   *
+   * @param orderIds the order IDs
+   * @return list of order items
+   */
+  List<OrderItem> findAllByOrderIdIn(Collection<Long> orderIds);
+}
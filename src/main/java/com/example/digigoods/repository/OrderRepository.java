@@ -1,7 +1,13 @@
 package com.example.digigoods.repository;
 
 import com.example.digigoods.model.Order;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +15,43 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+  /**
+   * Find the newest orders of a user, using the user, order date and ID index.
+   *
+   * @param userId the user ID
+   * @param pageable the number of orders to read
+   * @return the orders, newest first
+   */
+  @Query("SELECT o FROM Order o JOIN FETCH o.user WHERE o.user.id = :userId "
+      + "ORDER BY o.orderDate DESC, o.id DESC")
+  List<Order> findNewestByUserId(@Param("userId") Long userId, Pageable pageable);
+
+  /**
+   * Find the orders of a user placed before a position of the history, newest first. The
+   * position is a key of the user, order date and ID index, so reading a page costs the same
+   * however far back it is.
+   *
+   * @param userId the user ID
+   * @param orderDate the order date of the position
+   * @param id the order ID of the position
+   * @param pageable the number of orders to read
+   * @return the orders older than the position, newest first
+   */
+  @Query("SELECT o FROM Order o JOIN FETCH o.user WHERE o.user.id = :userId "
+      + "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) "
+      + "ORDER BY o.orderDate DESC, o.id DESC")
+  List<Order> findByUserIdBefore(@Param("userId") Long userId,
+                                 @Param("orderDate") LocalDateTime orderDate,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+
+  /**
+   * Load the applied discounts of orders already read, with one query.
+   *
+   * @param orders the orders
+   * @return the same orders, with their applied discounts initialized
+   */
+  @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.appliedDiscounts WHERE o IN :orders")
+  List<Order> fetchAppliedDiscounts(@Param("orders") Collection<Order> orders);
 }
@@ -0,0 +1,38 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.OutboxEvent;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  /**
+   * Lock the oldest unpublished events by ID, skipping the ones another relay has locked. The
+   * ID order of the unpublished events is the order of the published date and ID index.
+   *
+   * @param limit the maximum number of events to lock
+   * @return the locked events, oldest first
+   */
+  @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL ORDER BY id "
+      + "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<OutboxEvent> lockUnpublished(@Param("limit") int limit);
+
+  /**
+   * Find the IDs of events published before a given time, oldest first.
+   *
+   * @param before the publication time events must be older than
+   * @param pageable the batch to read
+   * @return the event IDs
+   */
+  @Query("SELECT e.id FROM OutboxEvent e WHERE e.publishedAt < :before ORDER BY e.id")
+  List<Long> findPublishedIdsBefore(@Param("before") LocalDateTime before, Pageable pageable);
+}
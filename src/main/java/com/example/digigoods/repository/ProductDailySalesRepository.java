@@ -0,0 +1,33 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.dto.ProductSalesReport;
+import com.example.digigoods.model.ProductDailySales;
+import com.example.digigoods.model.ProductDailySalesId;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for ProductDailySales entity.
+ */
+@Repository
+public interface ProductDailySalesRepository
+    extends JpaRepository<ProductDailySales, ProductDailySalesId> {
+
+  /**
+   * Sum the daily sales of each product over a period.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the sales of each product sold in the period, highest revenue first
+   */
+  @Query("SELECT new com.example.digigoods.dto.ProductSalesReport(p.productId, "
+      + "SUM(p.units), SUM(p.netRevenue)) FROM ProductDailySales p "
+      + "WHERE p.salesDate BETWEEN :from AND :to GROUP BY p.productId "
+      + "ORDER BY SUM(p.netRevenue) DESC, p.productId")
+  List<ProductSalesReport> findProductSales(@Param("from") LocalDate from,
+                                            @Param("to") LocalDate to);
+}
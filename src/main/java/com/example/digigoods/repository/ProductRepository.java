@@ -1,15 +1,23 @@
 package com.example.digigoods.repository;
 
+import com.example.digigoods.dto.CartProductView;
 import com.example.digigoods.model.Product;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for Product entity.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>,
+    ProductStockRepository {
 
   /**
    * Find all products by their IDs.
@@ -18,4 +26,34 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
    * @return list of products
    */
   List<Product> findAllByIdIn(List<Long> ids);
+
+  /**
+   * Find the catalog fields of products shown in a cart, without loading the products.
+   *
+   * @param ids the product IDs
+   * @return the catalog fields of the products found, in no particular order
+   */
+  @Query("SELECT new com.example.digigoods.dto.CartProductView(p.id, p.name, p.price, p.stock) "
+      + "FROM Product p WHERE p.id IN :ids")
+  List<CartProductView> findCartViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Find all products by their IDs and lock their rows for the rest of the transaction.
+   * Rows are locked in ascending ID order.
+   *
+   * @param ids the product IDs
+   * @return list of locked products, sorted by ID
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+  List<Product> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Read the current stock of a product directly from the database.
+   *
+   * @param id the product ID
+   * @return an Optional containing the stock if the product exists
+   */
+  @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+  Optional<Integer> findStockById(@Param("id") Long id);
 }
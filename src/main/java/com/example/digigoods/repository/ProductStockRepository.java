@@ -0,0 +1,35 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.Product;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock operations for Product entity that bypass the usual repository methods.
+ */
+public interface ProductStockRepository {
+
+  /**
+   * Decrement stock for all given products in a single JDBC batch. Each product is only
+   * decremented when it still has enough stock, so concurrent callers can never oversell.
+   *
+   * @param quantities the requested quantity keyed by product ID
+   * @return IDs of products whose stock was not decremented
+   */
+  List<Long> decrementStock(Map<Long, Integer> quantities);
+
+  /**
+   * Set the stock of the given products in a single JDBC batch, whatever their current stock.
+   *
+   * @param stock the new stock keyed by product ID
+   */
+  void overwriteStock(Map<Long, Integer> stock);
+
+  /**
+   * Lock the row of an already loaded product for the rest of the transaction. Fails with an
+   * optimistic locking failure when the row changed since the product was read.
+   *
+   * @param product the managed product
+   */
+  void lockForUpdate(Product product);
+}
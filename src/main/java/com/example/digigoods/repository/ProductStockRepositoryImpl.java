@@ -0,0 +1,89 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC and JPA implementation of {@link ProductStockRepository}.
+ *
+ * <p>Stock statements bump the version like a JPA update would, so that a concurrent optimistic
+ * writer of the same product fails its version check instead of overwriting them.
+ */
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+  private static final String DECREMENT_STOCK_SQL = "UPDATE products "
+      + "SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+  private static final String OVERWRITE_STOCK_SQL =
+      "UPDATE products SET stock = ?, version = version + 1 WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+
+  ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<Long> decrementStock(Map<Long, Integer> quantities) {
+    List<Map.Entry<Long, Integer>> entries = new ArrayList<>(quantities.entrySet());
+
+    int[] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            Map.Entry<Long, Integer> entry = entries.get(i);
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setInt(3, entry.getValue());
+          }
+
+          @Override
+          public int getBatchSize() {
+            return entries.size();
+          }
+        });
+
+    // An update count of zero means the product is missing or has too little stock left
+    List<Long> failedIds = new ArrayList<>();
+    for (int i = 0; i < updateCounts.length; i++) {
+      if (updateCounts[i] == 0) {
+        failedIds.add(entries.get(i).getKey());
+      }
+    }
+    return failedIds;
+  }
+
+  @Override
+  public void overwriteStock(Map<Long, Integer> stock) {
+    List<Map.Entry<Long, Integer>> entries = new ArrayList<>(stock.entrySet());
+
+    jdbcTemplate.batchUpdate(OVERWRITE_STOCK_SQL, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        Map.Entry<Long, Integer> entry = entries.get(i);
+        ps.setInt(1, entry.getValue());
+        ps.setLong(2, entry.getKey());
+      }
+
+      @Override
+      public int getBatchSize() {
+        return entries.size();
+      }
+    });
+  }
+
+  @Override
+  public void lockForUpdate(Product product) {
+    // No-op when the product was already loaded with a row lock
+    entityManager.lock(product, LockModeType.PESSIMISTIC_WRITE);
+  }
+}
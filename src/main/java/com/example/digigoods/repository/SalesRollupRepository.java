@@ -0,0 +1,41 @@
+package com.example.digigoods.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Repository fragment adding checkout totals to the sales rollups, creating missing rows.
+ */
+public interface SalesRollupRepository {
+
+  /**
+   * Add orders to the daily sales of a day and slot.
+   *
+   * @param salesDate the day of the orders
+   * @param slot the slot of the day to add to
+   * @param orderCount the number of orders
+   * @param grossRevenue the revenue before discounts
+   * @param netRevenue the revenue after discounts
+   */
+  void addDailySales(LocalDate salesDate, int slot, long orderCount, BigDecimal grossRevenue,
+                     BigDecimal netRevenue);
+
+  /**
+   * Add sold units and revenue to the daily sales of products, in one batch.
+   *
+   * @param salesDate the day of the sales
+   * @param units the units sold by product ID, iterated in product ID order
+   * @param netRevenue the revenue after discounts by product ID
+   */
+  void addProductSales(LocalDate salesDate, Map<Long, Long> units,
+                       Map<Long, BigDecimal> netRevenue);
+
+  /**
+   * Add redemptions to the daily redemptions of discounts, in one batch.
+   *
+   * @param salesDate the day of the redemptions
+   * @param redemptions the redemptions by discount code, iterated in code order
+   */
+  void addDiscountRedemptions(LocalDate salesDate, Map<String, Long> redemptions);
+}
@@ -0,0 +1,152 @@
+package com.example.digigoods.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link SalesRollupRepository}.
+ *
+ * <p>Each addition is a single upsert that increments the existing row or inserts it. PostgreSQL
+ * gets {@code INSERT ... ON CONFLICT DO UPDATE}, which is safe when two transactions create the
+ * same row concurrently. Other databases get the standard {@code MERGE}.
+ */
+class SalesRollupRepositoryImpl implements SalesRollupRepository {
+
+  private static final Upsert DAILY_SALES = new Upsert("daily_sales",
+      List.of(new Column("sales_date", "DATE"), new Column("slot", "INTEGER")),
+      List.of(new Column("order_count", "BIGINT"),
+          new Column("gross_revenue", "DECIMAL(15,2)"),
+          new Column("net_revenue", "DECIMAL(15,2)")));
+  private static final Upsert PRODUCT_SALES = new Upsert("product_daily_sales",
+      List.of(new Column("sales_date", "DATE"), new Column("product_id", "BIGINT")),
+      List.of(new Column("units", "BIGINT"), new Column("net_revenue", "DECIMAL(15,2)")));
+  private static final Upsert DISCOUNT_REDEMPTIONS = new Upsert("discount_daily_redemptions",
+      List.of(new Column("sales_date", "DATE"), new Column("discount_code", "VARCHAR(255)")),
+      List.of(new Column("redemptions", "BIGINT")));
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DatabaseProduct database;
+  private volatile Statements statements;
+
+  SalesRollupRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.database = new DatabaseProduct(jdbcTemplate);
+  }
+
+  @Override
+  public void addDailySales(LocalDate salesDate, int slot, long orderCount,
+                            BigDecimal grossRevenue, BigDecimal netRevenue) {
+    jdbcTemplate.update(statements().dailySales(), Date.valueOf(salesDate), slot,
+        orderCount, grossRevenue, netRevenue);
+  }
+
+  @Override
+  public void addProductSales(LocalDate salesDate, Map<Long, Long> units,
+                              Map<Long, BigDecimal> netRevenue) {
+    List<Long> productIds = new ArrayList<>(units.keySet());
+    batchUpsert(statements().productSales(), productIds.size(), (ps, i) -> {
+      Long productId = productIds.get(i);
+      ps.setDate(1, Date.valueOf(salesDate));
+      ps.setLong(2, productId);
+      ps.setLong(3, units.get(productId));
+      ps.setBigDecimal(4, netRevenue.get(productId));
+    });
+  }
+
+  @Override
+  public void addDiscountRedemptions(LocalDate salesDate, Map<String, Long> redemptions) {
+    List<String> codes = new ArrayList<>(redemptions.keySet());
+    batchUpsert(statements().discountRedemptions(), codes.size(), (ps, i) -> {
+      ps.setDate(1, Date.valueOf(salesDate));
+      ps.setString(2, codes.get(i));
+      ps.setLong(3, redemptions.get(codes.get(i)));
+    });
+  }
+
+  private void batchUpsert(String sql, int size, RowSetter rowSetter) {
+    if (size == 0) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        rowSetter.setValues(ps, i);
+      }
+
+      @Override
+      public int getBatchSize() {
+        return size;
+      }
+    });
+  }
+
+  private Statements statements() {
+    Statements current = statements;
+    if (current == null) {
+      boolean postgres = database.isPostgres();
+      current = new Statements(DAILY_SALES.sql(postgres), PRODUCT_SALES.sql(postgres),
+          DISCOUNT_REDEMPTIONS.sql(postgres));
+      statements = current;
+    }
+    return current;
+  }
+
+  @FunctionalInterface
+  private interface RowSetter {
+
+    void setValues(PreparedStatement ps, int i) throws SQLException;
+  }
+
+  private record Column(String name, String type) {
+  }
+
+  private record Statements(String dailySales, String productSales,
+                            String discountRedemptions) {
+  }
+
+  /**
+   * Statement adding its value columns to the row of its key columns.
+   */
+  private record Upsert(String table, List<Column> keys, List<Column> values) {
+
+    String sql(boolean postgres) {
+      List<Column> columns = new ArrayList<>(keys);
+      columns.addAll(values);
+      String names = join(columns, Column::name);
+      if (postgres) {
+        return "INSERT INTO " + table + " (" + names + ") VALUES ("
+            + join(columns, column -> "?") + ") ON CONFLICT (" + join(keys, Column::name)
+            + ") DO UPDATE SET " + join(values, column -> column.name() + " = " + table + "."
+            + column.name() + " + EXCLUDED." + column.name());
+      }
+      return "MERGE INTO " + table + " t USING (VALUES ("
+          + join(columns, column -> "CAST(? AS " + column.type() + ")") + ")) s (" + names
+          + ") ON " + join(keys, " AND ", column -> "t." + column.name() + " = s." + column.name())
+          + " WHEN MATCHED THEN UPDATE SET "
+          + join(values, column -> column.name() + " = t." + column.name() + " + s."
+              + column.name())
+          + " WHEN NOT MATCHED THEN INSERT (" + names + ") VALUES ("
+          + join(columns, column -> "s." + column.name()) + ")";
+    }
+
+    private static String join(List<Column> columns,
+                               Function<Column, String> mapper) {
+      return join(columns, ", ", mapper);
+    }
+
+    private static String join(List<Column> columns, String delimiter,
+                               Function<Column, String> mapper) {
+      return columns.stream().map(mapper).collect(Collectors.joining(delimiter));
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.digigoods.repository;
+
+import java.util.Collection;
+
+/**
+ * Repository fragment locking the holds of products with plain statements, on rows of their
+ * own rather than on the products.
+ */
+public interface StockHoldLockRepository {
+
+  /**
+   * Lock the holds of some products until the transaction ends, creating their lock rows if
+   * missing, so that concurrent holds of a product take turns. The product rows stay unlocked.
+   *
+   * @param productIds the IDs of existing products
+   */
+  void lockHolds(Collection<Long> productIds);
+}
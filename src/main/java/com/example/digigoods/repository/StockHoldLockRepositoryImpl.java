@@ -0,0 +1,68 @@
+package com.example.digigoods.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link StockHoldLockRepository}.
+ *
+ * <p>Once a product has been held, locking its holds is one {@code SELECT ... FOR UPDATE} in
+ * ascending product ID order. The lock row of a product held for the first time is inserted
+ * first: PostgreSQL gets {@code INSERT ... ON CONFLICT}, which waits for a concurrent insert of
+ * the same row and then skips it, other databases a plain insert whose duplicate key is ignored.
+ */
+class StockHoldLockRepositoryImpl implements StockHoldLockRepository {
+
+  private static final String LOCK = "SELECT product_id FROM stock_hold_locks "
+      + "WHERE product_id IN (%s) ORDER BY product_id FOR UPDATE";
+  private static final String INSERT = "INSERT INTO stock_hold_locks (product_id) VALUES (?)";
+  private static final String POSTGRES_INSERT = INSERT + " ON CONFLICT (product_id) DO NOTHING";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DatabaseProduct database;
+
+  StockHoldLockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.database = new DatabaseProduct(jdbcTemplate);
+  }
+
+  @Override
+  public void lockHolds(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return;
+    }
+    Set<Long> missing = new TreeSet<>(productIds);
+    missing.removeAll(lock(missing));
+    if (missing.isEmpty()) {
+      return;
+    }
+
+    if (database.isPostgres()) {
+      List<Object[]> rows = new ArrayList<>();
+      missing.forEach(productId -> rows.add(new Object[] {productId}));
+      jdbcTemplate.batchUpdate(POSTGRES_INSERT, rows);
+    } else {
+      for (Long productId : missing) {
+        try {
+          jdbcTemplate.update(INSERT, productId);
+        } catch (DuplicateKeyException e) {
+          // Inserted by a concurrent hold, which has committed since
+        }
+      }
+    }
+    lock(missing);
+  }
+
+  private Set<Long> lock(Collection<Long> productIds) {
+    String sql = String.format(LOCK, String.join(", ",
+        Collections.nCopies(productIds.size(), "?")));
+    return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, productIds.toArray()));
+  }
+}
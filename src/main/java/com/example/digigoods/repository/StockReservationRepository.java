@@ -0,0 +1,89 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.StockReservation;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for StockReservation entity.
+ */
+@Repository
+public interface StockReservationRepository
+    extends JpaRepository<StockReservation, Long>, StockHoldLockRepository {
+
+  /**
+   * Find the reservation of a user for a product, active or expired.
+   *
+   * @param userId the user ID
+   * @param productId the product ID
+   * @return an Optional containing the reservation if found
+   */
+  Optional<StockReservation> findByUserIdAndProductId(Long userId, Long productId);
+
+  /**
+   * Find the reservations of a user for some products, active or expired.
+   *
+   * @param userId the user ID
+   * @param productIds the product IDs
+   * @return the reservations found
+   */
+  List<StockReservation> findByUserIdAndProductIdIn(Long userId, Collection<Long> productIds);
+
+  /**
+   * Delete the reservations of a user for some products, with one bulk delete.
+   *
+   * @param userId the user ID
+   * @param productIds the product IDs
+   * @return the number of deleted reservations
+   */
+  @Modifying
+  @Query("DELETE FROM StockReservation r "
+      + "WHERE r.userId = :userId AND r.productId IN :productIds")
+  int deleteByUserIdAndProductIds(@Param("userId") Long userId,
+                                  @Param("productIds") Collection<Long> productIds);
+
+  /**
+   * Sum the quantities of a product held by other users' active reservations, using the
+   * product and expiry index.
+   *
+   * @param productId the product ID
+   * @param userId the user whose own reservation is left out
+   * @param now the current time
+   * @return the held quantity, zero when nothing is held
+   */
+  @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM StockReservation r "
+      + "WHERE r.productId = :productId AND r.expiresAt > :now AND r.userId <> :userId")
+  long sumActiveQuantityHeldByOthers(@Param("productId") Long productId,
+                                     @Param("userId") Long userId,
+                                     @Param("now") LocalDateTime now);
+
+  /**
+   * Find the active reservations of some products.
+   *
+   * @param productIds the product IDs
+   * @param now the current time
+   * @return the reservations that expire after now
+   */
+  @Query("SELECT r FROM StockReservation r "
+      + "WHERE r.productId IN :productIds AND r.expiresAt > :now")
+  List<StockReservation> findActiveByProductIds(@Param("productIds") Collection<Long> productIds,
+                                                @Param("now") LocalDateTime now);
+
+  /**
+   * Find the IDs of expired reservations, oldest IDs first.
+   *
+   * @param now the current time
+   * @param pageable the batch to read
+   * @return the IDs of reservations that expired at or before now
+   */
+  @Query("SELECT r.id FROM StockReservation r WHERE r.expiresAt <= :now ORDER BY r.id")
+  List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
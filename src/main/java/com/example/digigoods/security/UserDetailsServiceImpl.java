@@ -2,7 +2,10 @@ package com.example.digigoods.security;
 
 import com.example.digigoods.model.User;
 import com.example.digigoods.repository.UserRepository;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,14 +13,19 @@ import org.springframework.stereotype.Service;
 
 /**
  * User details service implementation.
+ *
+ * <p>Users named in {@code security.admin-usernames} are granted the ADMIN role.
  */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
   private final UserRepository userRepository;
+  private final Set<String> adminUsernames;
 
-  public UserDetailsServiceImpl(UserRepository userRepository) {
+  public UserDetailsServiceImpl(UserRepository userRepository,
+                                @Value("${security.admin-usernames:}") Set<String> adminUsernames) {
     this.userRepository = userRepository;
+    this.adminUsernames = adminUsernames;
   }
 
   @Override
@@ -28,7 +36,9 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     return new org.springframework.security.core.userdetails.User(
         user.getUsername(),
         user.getPassword(),
-        new ArrayList<>()
+        adminUsernames.contains(user.getUsername())
+            ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+            : List.of()
     );
   }
 }
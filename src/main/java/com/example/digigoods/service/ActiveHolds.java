@@ -0,0 +1,74 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.StockReservation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The active stock reservations of the products of a checkout, or of a checkout group, read
+ * once and then checked and converted in memory.
+ */
+final class ActiveHolds {
+
+  private final List<StockReservation> reservations;
+  private final List<Long> convertedIds = new ArrayList<>();
+
+  ActiveHolds(List<StockReservation> reservations) {
+    this.reservations = new ArrayList<>(reservations);
+  }
+
+  /**
+   * Check that the quantities of a user fit in the stock that other users do not hold.
+   *
+   * @param userId the buying user ID
+   * @param quantities the quantity by product ID
+   * @param stock the stock by product ID, including at least the bought products
+   * @throws InsufficientStockException if other users hold too much of a product
+   */
+  void checkAvailable(Long userId, Map<Long, Integer> quantities, Map<Long, Integer> stock) {
+    quantities.forEach((id, quantity) -> {
+      int held = heldByOthers(userId, id);
+      if (held == 0) {
+        // The stock update of the checkout checks the stock itself
+        return;
+      }
+      int available = stock.get(id) - held;
+      if (available < quantity) {
+        throw new InsufficientStockException(id, quantity, Math.max(available, 0));
+      }
+    });
+  }
+
+  /**
+   * Convert the holds of a user on some products into an order. They no longer count against
+   * other buyers, and are deleted by {@link ReservationService#releaseConverted(ActiveHolds)}.
+   *
+   * @param userId the buying user ID
+   * @param productIds the bought product IDs
+   */
+  void convert(Long userId, Collection<Long> productIds) {
+    reservations.removeIf(reservation -> {
+      boolean converted = reservation.getUserId().equals(userId)
+          && productIds.contains(reservation.getProductId());
+      if (converted) {
+        convertedIds.add(reservation.getId());
+      }
+      return converted;
+    });
+  }
+
+  List<Long> getConvertedIds() {
+    return convertedIds;
+  }
+
+  private int heldByOthers(Long userId, Long productId) {
+    return reservations.stream()
+        .filter(reservation -> reservation.getProductId().equals(productId)
+            && !reservation.getUserId().equals(userId))
+        .mapToInt(StockReservation::getQuantity)
+        .sum();
+  }
+}
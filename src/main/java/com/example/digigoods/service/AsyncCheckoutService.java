@@ -0,0 +1,165 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.CheckoutStatusResponse;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.CheckoutNotFoundException;
+import com.example.digigoods.exception.CheckoutQueueFullException;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
+import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.model.CheckoutStatus;
+import jakarta.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for asynchronous checkout operations.
+ *
+ * <p>Accepted checkouts wait in a bounded in-process queue and are placed by a fixed number of
+ * worker threads, so the request thread returns as soon as the order is queued. When the queue
+ * is full new checkouts are rejected instead of piling up. Queued orders are lost if the
+ * instance stops abruptly, which is why clients keep polling the status and may retry with the
+ * same idempotency key.
+ */
+@Service
+public class AsyncCheckoutService {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncCheckoutService.class);
+
+  private final ThreadPoolExecutor workers;
+  private final Map<String, Ticket> tickets;
+
+  /**
+   * Constructor with worker and queue settings.
+   *
+   * @param workerCount the number of checkout workers, at most the connection pool size
+   * @param queueCapacity the number of checkouts that may wait for a worker
+   * @param statusRetention the number of checkout statuses kept for polling
+   */
+  public AsyncCheckoutService(@Value("${checkout.async.workers:8}") int workerCount,
+                              @Value("${checkout.async.queue-capacity:1000}") int queueCapacity,
+                              @Value("${checkout.async.status-retention:10000}")
+                              int statusRetention) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> new Thread(runnable, "checkout-worker-" + threadNumber.incrementAndGet()),
+        new ThreadPoolExecutor.AbortPolicy());
+    this.tickets = Collections.synchronizedMap(new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Ticket> eldest) {
+        // Checkouts still queued or running are never forgotten
+        return size() > statusRetention && eldest.getValue().isFinished();
+      }
+    });
+  }
+
+  /**
+   * Queue a checkout after the checks that need no database access.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @param checkout the checkout to run on a worker thread
+   * @return the queued status, with the token to poll
+   * @throws UnauthorizedAccessException if the order is placed for another user
+   * @throws CheckoutQueueFullException if the queue is full
+   */
+  public CheckoutStatusResponse submit(CheckoutRequest request, Long authenticatedUserId,
+                                       Supplier<OrderResponse> checkout) {
+    if (!request.getUserId().equals(authenticatedUserId)) {
+      throw new UnauthorizedAccessException("User cannot place order for another user");
+    }
+
+    String token = UUID.randomUUID().toString();
+    CheckoutStatusResponse queued =
+        new CheckoutStatusResponse(token, CheckoutStatus.QUEUED, null, null);
+    Ticket ticket = new Ticket(authenticatedUserId, queued);
+    tickets.put(token, ticket);
+    try {
+      workers.execute(() -> run(ticket, checkout));
+    } catch (RejectedExecutionException e) {
+      tickets.remove(token);
+      throw new CheckoutQueueFullException();
+    }
+    return queued;
+  }
+
+  /**
+   * Get the status of a checkout placed by the authenticated user.
+   *
+   * @param token the token returned when the checkout was queued
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return the checkout status
+   * @throws CheckoutNotFoundException if the token is unknown or belongs to another user
+   */
+  public CheckoutStatusResponse getStatus(String token, Long authenticatedUserId) {
+    Ticket ticket = tickets.get(token);
+    if (ticket == null || !ticket.userId.equals(authenticatedUserId)) {
+      throw new CheckoutNotFoundException(token);
+    }
+    return ticket.status;
+  }
+
+  /**
+   * Stop taking checkouts and let the workers drain the queue.
+   *
+   * @throws InterruptedException if interrupted while waiting for the workers
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    workers.shutdown();
+    if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+      log.warn("{} queued checkouts were not placed before shutdown", workers.getQueue().size());
+      workers.shutdownNow();
+    }
+  }
+
+  private void run(Ticket ticket, Supplier<OrderResponse> checkout) {
+    String token = ticket.status.getToken();
+    ticket.status = new CheckoutStatusResponse(token, CheckoutStatus.PROCESSING, null, null);
+    try {
+      OrderResponse response = checkout.get();
+      ticket.status = new CheckoutStatusResponse(token, CheckoutStatus.COMPLETED,
+          response.getMessage(), response.getFinalPrice());
+    } catch (RuntimeException ex) {
+      ticket.status = new CheckoutStatusResponse(token, CheckoutStatus.FAILED,
+          failureMessage(ex), null);
+    }
+  }
+
+  private String failureMessage(RuntimeException ex) {
+    if (CheckoutService.isRejection(ex) || ex instanceof IdempotencyKeyReusedException) {
+      return ex.getMessage();
+    }
+    log.error("Asynchronous checkout failed", ex);
+    return "An unexpected error occurred";
+  }
+
+  private static final class Ticket {
+
+    private final Long userId;
+    private volatile CheckoutStatusResponse status;
+
+    private Ticket(Long userId, CheckoutStatusResponse status) {
+      this.userId = userId;
+      this.status = status;
+    }
+
+    private boolean isFinished() {
+      CheckoutStatus current = status.getStatus();
+      return current == CheckoutStatus.COMPLETED || current == CheckoutStatus.FAILED;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.digigoods.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary encoding of the items of a compact cart: a format byte, then the product ID and the
+ * quantity of each item as unsigned variable-length integers, seven bits per byte. A typical
+ * item takes three to five bytes.
+ */
+final class CartItemCodec {
+
+  private static final byte FORMAT = 1;
+
+  private CartItemCodec() {
+  }
+
+  /**
+   * Encode cart items.
+   *
+   * @param items the quantity of each product, in cart order
+   * @return the encoded items
+   */
+  static byte[] encode(Map<Long, Integer> items) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1 + items.size() * 5);
+    out.write(FORMAT);
+    items.forEach((productId, quantity) -> {
+      writeVarLong(out, productId);
+      writeVarLong(out, quantity);
+    });
+    return out.toByteArray();
+  }
+
+  /**
+   * Decode cart items.
+   *
+   * @param bytes the encoded items
+   * @return the quantity of each product, in cart order
+   * @throws IllegalArgumentException if the bytes are not encoded items
+   */
+  static Map<Long, Integer> decode(byte[] bytes) {
+    if (bytes.length == 0 || bytes[0] != FORMAT) {
+      throw new IllegalArgumentException("Unknown cart item format");
+    }
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    int[] position = {1};
+    while (position[0] < bytes.length) {
+      long productId = readVarLong(bytes, position);
+      items.put(productId, Math.toIntExact(readVarLong(bytes, position)));
+    }
+    return items;
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Cart items cannot hold negative value " + value);
+    }
+    while (value >= 0x80) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(byte[] bytes, int[] position) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      if (position[0] >= bytes.length) {
+        break;
+      }
+      byte next = bytes[position[0]++];
+      value |= (long) (next & 0x7F) << shift;
+      if ((next & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed cart items");
+  }
+}
@@ -2,86 +2,166 @@ package com.example.digigoods.service;
 
 import com.example.digigoods.dto.AddToCartRequest;
 import com.example.digigoods.dto.AddToCartResponse;
+import com.example.digigoods.dto.CartOperation;
+import com.example.digigoods.dto.CartProductView;
+import com.example.digigoods.dto.CartResponse;
 import com.example.digigoods.dto.GetCartResponse;
+import com.example.digigoods.dto.GetCartResponse.StockWarning;
+import com.example.digigoods.dto.UpdateCartRequest;
 import com.example.digigoods.exception.InsufficientStockException;
-import com.example.digigoods.model.CartHeader;
-import com.example.digigoods.model.Product;
-import com.example.digigoods.model.User;
-import com.example.digigoods.repository.CartDetailRepository;
-import com.example.digigoods.repository.CartHeaderRepository;
+import com.example.digigoods.exception.UserNotFoundException;
 import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 @Service
 @RequiredArgsConstructor
 public class CartService {
 
   private final UserRepository userRepository;
   private final ProductService productService;
-  private final CartHeaderRepository cartHeaderRepository;
-  private final CartDetailRepository cartDetailRepository;
+  private final CartStore cartStore;
+  private final ReservationService reservationService;
+  private final TransactionRetryExecutor transactionRetryExecutor;
 
-  @Transactional
   public AddToCartResponse addToCart(AddToCartRequest addToCartRequest, Long authenticatedUserId) {
-
-    User user = userRepository.findById(authenticatedUserId)
-      .orElseThrow(() -> new RuntimeException("User not found"));
-
-    Product product = productService.getProductById(addToCartRequest.getProductId());
-
-    validateAvailableStock(product, addToCartRequest.getQuantity());
-
-    addCart(product, addToCartRequest.getQuantity(), user);
-
+    Long productId = addToCartRequest.getProductId();
+    int quantity = addToCartRequest.getQuantity();
+    try {
+      transactionRetryExecutor.execute("add-to-cart", () -> {
+        // The stock alone, as the product is not needed and the user only referenced
+        int stock = productService.getStockById(productId);
+        validateAvailableStock(productId, quantity, stock);
+        reservationService.reserve(authenticatedUserId, productId, quantity, stock);
+        cartStore.setQuantity(authenticatedUserId, productId, quantity);
+        return null;
+      });
+    } catch (DataIntegrityViolationException ex) {
+      // A deleted user shows up as a foreign key violation
+      if (!userRepository.existsById(authenticatedUserId)) {
+        throw new UserNotFoundException(authenticatedUserId);
+      }
+      throw ex;
+    }
     return new AddToCartResponse("Product added to cart successfully!", "Product Name");
   }
 
-  private void validateAvailableStock(Product product, int quantity) {
-    if (product.getStock() < quantity) {
-      throw new InsufficientStockException(
-          product.getId(),
-          quantity,
-          product.getStock()
-      );
+  private void validateAvailableStock(Long productId, int quantity, int stock) {
+    if (stock < quantity) {
+      throw new InsufficientStockException(productId, quantity, stock);
     }
   }
 
-  private void addCart(Product product, int quantity, User user) {
-
-    CartHeader cartHeader = cartHeaderRepository.findByUser(user)
-      .orElseGet(() -> {
-        CartHeader newCartHeader = new CartHeader();
-        newCartHeader.setUser(user);
-        return cartHeaderRepository.save(newCartHeader);
-      });
-
-    if(cartHeader.isProductExists(product.getId())) {
-      cartHeader.modifyQuantity(product.getId(), quantity);
-    } else {
-      cartHeader.addProductToCart(product, quantity);
+  @Transactional
+  public CartResponse updateCart(UpdateCartRequest updateCartRequest,
+                                 Long authenticatedUserId) {
+    // Fold the operations into what they leave: the products set, removed, and whether the cart
+    // is cleared first
+    Map<Long, Integer> quantities = new LinkedHashMap<>();
+    Set<Long> removed = new HashSet<>();
+    boolean cleared = false;
+    for (CartOperation operation : updateCartRequest.getOperations()) {
+      switch (operation.getType()) {
+        case SET_QUANTITY -> {
+          quantities.put(operation.getProductId(), operation.getQuantity());
+          removed.remove(operation.getProductId());
+        }
+        case REMOVE -> {
+          quantities.remove(operation.getProductId());
+          removed.add(operation.getProductId());
+        }
+        case CLEAR -> {
+          quantities.clear();
+          removed.clear();
+          cleared = true;
+        }
+        default -> throw new IllegalArgumentException(
+            "Unknown cart operation: " + operation.getType());
+      }
     }
 
-    cartHeaderRepository.save(cartHeader);
+    if (!quantities.isEmpty()) {
+      // All products set, in one query
+      productService.getProductsByIds(new ArrayList<>(quantities.keySet()))
+          .forEach(product -> validateAvailableStock(product.getId(),
+              quantities.get(product.getId()), product.getStock()));
+      reservationService.reserveAll(authenticatedUserId, quantities);
+    }
 
+    Set<Long> released = new HashSet<>(removed);
+    if (cleared) {
+      released.addAll(cartStore.getItems(authenticatedUserId).keySet());
+    }
+    released.removeAll(quantities.keySet());
+    reservationService.release(authenticatedUserId, released);
+
+    boolean clear = cleared;
+    cartStore.updateItems(authenticatedUserId, items -> {
+      if (clear) {
+        items.clear();
+      }
+      removed.forEach(items::remove);
+      items.putAll(quantities);
+    });
+    return getCart(authenticatedUserId);
   }
 
   @Transactional(readOnly = true)
-  public List<GetCartResponse> getCart(Long authenticatedUserId) {
-    return cartDetailRepository
-      .findByUserId(authenticatedUserId)
-      .stream()
-      .map(cartDetail ->
-          GetCartResponse.builder()
-            .productId(cartDetail.getProduct().getId())
-            .productName(cartDetail.getProduct().getName())
-            .quantity(cartDetail.getQuantity())
-            .build()
-      )
-      .toList();
+  public CartResponse getCart(Long authenticatedUserId) {
+    Map<Long, Integer> items = cartStore.getItems(authenticatedUserId);
+    if (items.isEmpty()) {
+      return new CartResponse(List.of(), BigDecimal.ZERO);
+    }
+    // Prices and stock in one projection query, no product entities
+    Map<Long, CartProductView> products = productService.getCartProducts(items.keySet())
+        .stream()
+        .collect(Collectors.toMap(CartProductView::getProductId, Function.identity()));
+    List<GetCartResponse> lines = items.entrySet()
+        .stream()
+        .map(item -> toCartLine(item.getKey(), item.getValue(), products.get(item.getKey())))
+        .toList();
+    BigDecimal subtotal = lines.stream()
+        .map(GetCartResponse::getLineTotal)
+        .filter(Objects::nonNull)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    return new CartResponse(lines, subtotal);
+  }
+
+  private GetCartResponse toCartLine(Long productId, int quantity, CartProductView product) {
+    if (product == null) {
+      return GetCartResponse.builder()
+        .productId(productId)
+        .quantity(quantity)
+        .stockWarning(StockWarning.UNAVAILABLE)
+        .build();
+    }
+    StockWarning stockWarning = null;
+    if (product.getStock() == 0) {
+      stockWarning = StockWarning.OUT_OF_STOCK;
+    } else if (product.getStock() < quantity) {
+      stockWarning = StockWarning.INSUFFICIENT_STOCK;
+    }
+    return GetCartResponse.builder()
+        .productId(productId)
+        .productName(product.getName())
+        .quantity(quantity)
+        .unitPrice(product.getPrice())
+        .lineTotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+        .stockWarning(stockWarning)
+        .availableStock(stockWarning != null ? product.getStock() : null)
+        .build();
   }
 
 }
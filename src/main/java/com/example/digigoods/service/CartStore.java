@@ -0,0 +1,49 @@
+package com.example.digigoods.service;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Store of the carts, selected with {@code cart.store}.
+ */
+public interface CartStore {
+
+  /**
+   * Get the items of the cart of a user.
+   *
+   * @param userId the user ID
+   * @return the quantity of each product, in the order the products were added, empty for a
+   *     user without a cart
+   */
+  Map<Long, Integer> getItems(Long userId);
+
+  /**
+   * Set the quantity of a product in the cart of a user, creating the cart if missing.
+   *
+   * @param userId the user ID
+   * @param productId the product ID
+   * @param quantity the quantity the item ends up with
+   */
+  void setQuantity(Long userId, Long productId, int quantity);
+
+  /**
+   * Take the items of the cart of a user for a checkout, so that a concurrent checkout of the
+   * same cart finds it empty. Within a transaction, the items only leave the cart once the
+   * transaction commits, and stay in it if the transaction rolls back.
+   *
+   * @param userId the user ID
+   * @return the quantity of each product taken, in cart order, empty for a cart that is empty
+   *     or taken by another checkout
+   */
+  Map<Long, Integer> checkOutItems(Long userId);
+
+  /**
+   * Apply a change to the items of the cart of a user as one update of the cart, creating the
+   * cart if missing.
+   *
+   * @param userId the user ID
+   * @param change the change, given the quantity of each product in cart order to modify, run
+   *     again on the newer items by a store that lost a race with another update
+   */
+  void updateItems(Long userId, Consumer<Map<Long, Integer>> change);
+}
@@ -0,0 +1,159 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.SoldOutException;
+import com.example.digigoods.repository.ProductRepository;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service admitting checkouts of a product only while its remaining stock can serve them.
+ *
+ * <p>Every product gets as many permits as it had stock when it was first checked out, and a
+ * checkout holds permits for its quantities while it runs. Once the permits of a product are
+ * gone, further checkouts are rejected with a {@link SoldOutException} without reaching the
+ * database, so a drop of a few hundred items costs a few hundred checkout transactions however
+ * many buyers arrive. A failed checkout gives its permits back, a placed one keeps them.
+ *
+ * <p>Permits only filter: the stock update of the checkout stays the authority. A product out
+ * of permits reads its stock again at most once per refresh interval, which picks up restocks
+ * and stock freed by checkouts of other instances.
+ */
+@Service
+public class CheckoutAdmissionGate {
+
+  private final ProductRepository productRepository;
+  private final boolean enabled;
+  private final long refreshNanos;
+  private final Map<Long, Permits> permits = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor with product repository and gate settings.
+   *
+   * @param productRepository the product repository
+   * @param enabled whether checkouts are gated at all
+   * @param refreshMillis how often a product out of permits reads its stock again
+   */
+  public CheckoutAdmissionGate(ProductRepository productRepository,
+                               @Value("${checkout.admission.enabled:false}") boolean enabled,
+                               @Value("${checkout.admission.refresh-ms:1000}")
+                               long refreshMillis) {
+    this.productRepository = productRepository;
+    this.enabled = enabled;
+    this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+  }
+
+  /**
+   * Run a checkout if permits are left for all its products.
+   *
+   * @param request the checkout request
+   * @param checkout the checkout to run once admitted
+   * @return order response
+   * @throws SoldOutException if a product has fewer permits left than the requested quantity
+   */
+  public OrderResponse admit(CheckoutRequest request, Supplier<OrderResponse> checkout) {
+    if (!enabled) {
+      return checkout.get();
+    }
+
+    Map<Permits, Integer> acquired = new LinkedHashMap<>();
+    // Sorted, so that checkouts sharing products acquire them in the same order
+    Map<Long, Integer> quantities = new TreeMap<>(CheckoutService.countQuantities(request));
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      Permits productPermits = permitsOf(entry.getKey());
+      if (productPermits == null) {
+        // Unknown products are left to the checkout to reject
+        continue;
+      }
+      if (!productPermits.tryAcquire(entry.getValue())) {
+        acquired.forEach(Permits::release);
+        throw new SoldOutException(entry.getKey());
+      }
+      acquired.put(productPermits, entry.getValue());
+    }
+
+    try {
+      OrderResponse response = checkout.get();
+      acquired.forEach(Permits::consume);
+      return response;
+    } catch (RuntimeException ex) {
+      acquired.forEach(Permits::release);
+      throw ex;
+    }
+  }
+
+  private Permits permitsOf(Long productId) {
+    Permits productPermits = permits.get(productId);
+    if (productPermits != null) {
+      return productPermits;
+    }
+    Optional<Integer> stock = productRepository.findStockById(productId);
+    if (stock.isEmpty()) {
+      return null;
+    }
+    Permits created = new Permits(productId, stock.get());
+    Permits existing = permits.putIfAbsent(productId, created);
+    return existing != null ? existing : created;
+  }
+
+  private final class Permits {
+
+    private final Long productId;
+    private final AtomicInteger available;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong refreshedAt = new AtomicLong(System.nanoTime());
+
+    private Permits(Long productId, int stock) {
+      this.productId = productId;
+      this.available = new AtomicInteger(Math.max(0, stock));
+    }
+
+    private boolean tryAcquire(int quantity) {
+      boolean refreshed = false;
+      while (true) {
+        int current = available.get();
+        if (current < quantity) {
+          if (refreshed || !refresh()) {
+            return false;
+          }
+          refreshed = true;
+        } else if (available.compareAndSet(current, current - quantity)) {
+          inFlight.addAndGet(quantity);
+          return true;
+        }
+      }
+    }
+
+    private void consume(int quantity) {
+      inFlight.addAndGet(-quantity);
+    }
+
+    private void release(int quantity) {
+      inFlight.addAndGet(-quantity);
+      available.addAndGet(quantity);
+    }
+
+    private boolean refresh() {
+      long last = refreshedAt.get();
+      long now = System.nanoTime();
+      if (now - last < refreshNanos || !refreshedAt.compareAndSet(last, now)) {
+        return false;
+      }
+      // Checkouts still running may already have taken their stock, which at worst turns
+      // buyers away until the next refresh
+      int stock = productRepository.findStockById(productId).orElse(0);
+      available.set(Math.max(0, stock - inFlight.get()));
+      return true;
+    }
+  }
+}
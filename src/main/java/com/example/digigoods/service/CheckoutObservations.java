@@ -0,0 +1,109 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.EmptyCartException;
+import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.exception.UserNotFoundException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.function.Supplier;
+
+/**
+ * Observations of checkouts, their steps and groups, shared by the services placing orders so
+ * that their timers carry the same names and outcome tags.
+ */
+final class CheckoutObservations {
+
+  private CheckoutObservations() {
+  }
+
+  /**
+   * Create the observation of one checkout, not started yet.
+   *
+   * @param registry the observation registry
+   * @param source where the checkout comes from
+   * @return the observation
+   */
+  static Observation checkout(ObservationRegistry registry, String source) {
+    return Observation.createNotStarted("checkout", registry)
+        .lowCardinalityKeyValue("source", source);
+  }
+
+  /**
+   * Create the observation of a step of a checkout, not started yet.
+   *
+   * @param registry the observation registry
+   * @param step the step
+   * @return the observation
+   */
+  static Observation step(ObservationRegistry registry, String step) {
+    return Observation.createNotStarted("checkout.step", registry)
+        .contextualName("checkout " + step)
+        .lowCardinalityKeyValue("step", step);
+  }
+
+  /**
+   * Create the observation of the transaction of a group of checkouts, not started yet.
+   *
+   * @param registry the observation registry
+   * @return the observation
+   */
+  static Observation group(ObservationRegistry registry) {
+    return Observation.createNotStarted("checkout.group", registry);
+  }
+
+  /**
+   * Observe work, tagged with its outcome.
+   *
+   * @param observation the observation, not started yet
+   * @param work the work
+   * @param <T> the result type
+   * @return the result of the work
+   */
+  static <T> T observe(Observation observation, Supplier<T> work) {
+    observation.start();
+    try (Observation.Scope scope = observation.openScope()) {
+      T result = work.get();
+      stop(observation, null);
+      return result;
+    } catch (RuntimeException ex) {
+      stop(observation, ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Stop a started observation, tagged with the outcome of its work.
+   *
+   * @param observation the started observation
+   * @param failure the exception the work failed with, or null if it succeeded
+   */
+  static void stop(Observation observation, RuntimeException failure) {
+    if (failure == null) {
+      observation.lowCardinalityKeyValue("outcome", "success");
+    } else {
+      observation.lowCardinalityKeyValue("outcome", outcome(failure));
+      observation.error(failure);
+    }
+    observation.stop();
+  }
+
+  private static String outcome(RuntimeException ex) {
+    if (ex instanceof InsufficientStockException) {
+      return "insufficient_stock";
+    } else if (ex instanceof InvalidDiscountException) {
+      return "invalid_discount";
+    } else if (ex instanceof ExcessiveDiscountException) {
+      return "excessive_discount";
+    } else if (ex instanceof UnauthorizedAccessException) {
+      return "unauthorized";
+    } else if (ex instanceof ProductNotFoundException || ex instanceof EmptyCartException
+        || ex instanceof UserNotFoundException) {
+      return "not_found";
+    }
+    return "error";
+  }
+}
@@ -2,27 +2,47 @@ package com.example.digigoods.service;
 
 import com.example.digigoods.dto.CheckoutRequest;
 import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.EmptyCartException;
 import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.exception.SoldOutException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.exception.UserNotFoundException;
 import com.example.digigoods.model.Discount;
 import com.example.digigoods.model.DiscountType;
 import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
 import com.example.digigoods.model.Product;
 import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderItemRepository;
 import com.example.digigoods.repository.OrderRepository;
 import com.example.digigoods.repository.UserRepository;
+import io.micrometer.observation.ObservationRegistry;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service for checkout operations.
+ *
+ * <p>Every checkout is observed as {@code checkout}, tagged with its source, and each of its
+ * steps as {@code checkout.step}, tagged with the step. Both are tagged with the outcome, so
+ * the timers show whether the latency of failed checkouts goes into lookups, pricing or the
+ * commit. The time of {@code checkout} not spent in any step is the transaction commit itself,
+ * and its retries.
  */
 @Service
 public class CheckoutService {
@@ -33,119 +53,365 @@ public class CheckoutService {
   private final ProductService productService;
   private final DiscountService discountService;
   private final OrderRepository orderRepository;
+  private final OrderItemRepository orderItemRepository;
   private final UserRepository userRepository;
+  private final CartStore cartStore;
+  private final ReservationService reservationService;
+  private final SalesRollupService salesRollupService;
+  private final OutboxService outboxService;
+  private final TransactionRetryExecutor transactionRetryExecutor;
+  private final ObservationRegistry observationRegistry;
 
   public CheckoutService(ProductService productService,
                          DiscountService discountService,
                          OrderRepository orderRepository,
-                         UserRepository userRepository) {
+                         OrderItemRepository orderItemRepository,
+                         UserRepository userRepository,
+                         CartStore cartStore,
+                         ReservationService reservationService,
+                         SalesRollupService salesRollupService,
+                         OutboxService outboxService,
+                         TransactionRetryExecutor transactionRetryExecutor,
+                         ObservationRegistry observationRegistry) {
     this.productService = productService;
     this.discountService = discountService;
     this.orderRepository = orderRepository;
+    this.orderItemRepository = orderItemRepository;
     this.userRepository = userRepository;
+    this.cartStore = cartStore;
+    this.reservationService = reservationService;
+    this.salesRollupService = salesRollupService;
+    this.outboxService = outboxService;
+    this.transactionRetryExecutor = transactionRetryExecutor;
+    this.observationRegistry = observationRegistry;
   }
 
   /**
    * Process checkout request.
    *
+   * <p>Steps 2 to 7 run in one transaction, which is replayed when the database aborts it
+   * because of a deadlock or a serialization failure.
+   *
    * @param request the checkout request
    * @param authenticatedUserId the ID of the authenticated user
    * @return order response
    */
-  @Transactional
   public OrderResponse processCheckout(CheckoutRequest request, Long authenticatedUserId) {
-    // 1. Authentication & Authorization
-    validateUserAuthorization(request.getUserId(), authenticatedUserId);
+    return observeCheckout("request", () -> {
+      // 1. Authentication & Authorization
+      observeStep("authorization",
+          () -> validateUserAuthorization(request.getUserId(), authenticatedUserId));
 
-    // 2. Product Validation
-    List<Product> products = productService.getProductsByIds(request.getProductIds());
+      return processAuthorizedCheckout(request);
+    });
+  }
 
-    // 3. Original Subtotal Calculation
-    BigDecimal originalSubtotal = calculateOriginalSubtotal(request.getProductIds(), products);
+  /**
+   * Process checkout request whose user is already authorized, without observing it as a
+   * checkout of its own, for a caller observing it.
+   *
+   * @param request the checkout request
+   * @return order response
+   */
+  OrderResponse processAuthorizedCheckout(CheckoutRequest request) {
+    return inCheckoutTransaction(request.getUserId(), () -> placeOrder(request));
+  }
+
+  /**
+   * Place an order for the content of the authenticated user's cart, and empty the cart.
+   *
+   * <p>The cart items are read from the {@link CartStore}, their products with one query, and
+   * priced by quantity, so the cost of the checkout depends on the number of distinct products,
+   * not on the quantities. The items are taken from the cart before anything else, so that of
+   * two concurrent checkouts of the same cart only one places an order, and they leave the cart
+   * once the order transaction commits.
+   *
+   * @param discountCodes the discount codes to apply, may be null
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return order response
+   * @throws EmptyCartException if the cart has no items, or is taken by another checkout
+   */
+  public OrderResponse processCartCheckout(List<String> discountCodes, Long authenticatedUserId) {
+    return observeCheckout("cart", () -> inCheckoutTransaction(authenticatedUserId,
+        () -> placeCartOrder(discountCodes, authenticatedUserId)));
+  }
+
+  private OrderResponse inCheckoutTransaction(Long userId, Supplier<OrderResponse> placeOrder) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      // Joining the caller's transaction, as a keyed checkout does: the violation aborts it on
+      // PostgreSQL, so the user can only be checked by the caller, once it has ended
+      return transactionRetryExecutor.execute("checkout", placeOrder);
+    }
+    try {
+      return transactionRetryExecutor.execute("checkout", placeOrder);
+    } catch (DataIntegrityViolationException ex) {
+      // The user is only referenced, so a deleted user shows up as a foreign key violation
+      if (!userRepository.existsById(userId)) {
+        throw new UserNotFoundException(userId);
+      }
+      throw ex;
+    }
+  }
+
+  private OrderResponse placeCartOrder(List<String> discountCodes, Long userId) {
+    Map<Long, Integer> quantities = new LinkedHashMap<>();
+    List<Product> products = observeStep("product-validation", () -> {
+      // Claimed first, so a concurrent checkout of the same cart finds it empty
+      quantities.putAll(cartStore.checkOutItems(userId));
+      if (quantities.isEmpty()) {
+        throw new EmptyCartException();
+      }
+      return productService.getProductsForUpdate(new ArrayList<>(quantities.keySet()));
+    });
+
+    return placeOrder(userId, quantities, products, discountCodes);
+  }
+
+  private OrderResponse placeOrder(CheckoutRequest request) {
+    Map<Long, Integer> quantities = countQuantities(request);
+
+    // 2. Product Validation (the only product read of the checkout)
+    List<Product> products = observeStep("product-validation",
+        () -> productService.getProductsForUpdate(new ArrayList<>(quantities.keySet())));
+
+    return placeOrder(request.getUserId(), quantities, products, request.getDiscountCodes());
+  }
+
+  private OrderResponse placeOrder(Long userId, Map<Long, Integer> quantities,
+                                   List<Product> products, List<String> discountCodes) {
+    // Items held in other users' carts are not for sale
+    ActiveHolds holds = observeStep("stock-holds", () -> {
+      ActiveHolds activeHolds = reservationService.getActiveHolds(quantities.keySet());
+      Map<Long, Integer> stock = new HashMap<>();
+      products.forEach(product -> stock.put(product.getId(), product.getStock()));
+      activeHolds.checkAvailable(userId, quantities, stock);
+      return activeHolds;
+    });
 
     // 4. Discount Validation
-    List<Discount> discounts = discountService.validateAndGetDiscounts(request.getDiscountCodes());
+    List<Discount> discounts = observeStep("discount-validation",
+        () -> discountService.validateAndGetDiscounts(discountCodes));
+
+    // 3, 5 and 6. Pricing
+    Order order = createOrder(userId, quantities, products, discounts);
+    List<OrderItem> items = observeStep("item-pricing",
+        () -> createOrderItems(quantities, products, discounts));
+
+    // 7. Final Commit
+    observeStep("commit",
+        () -> commitTransaction(order, items, products, quantities, discounts));
+    holds.convert(userId, quantities.keySet());
+    reservationService.releaseConverted(holds);
+
+    return new OrderResponse("Order created successfully!", order.getFinalPrice());
+  }
+
+  /**
+   * Price a checkout and build its unsaved order.
+   *
+   * @param request the checkout request
+   * @param products the loaded products, including at least those of the request
+   * @param discounts the validated discounts of the request
+   * @return the order to save
+   * @throws ExcessiveDiscountException if the discounts exceed the maximum discount
+   */
+  Order createOrder(CheckoutRequest request, List<Product> products, List<Discount> discounts) {
+    return createOrder(request.getUserId(), countQuantities(request), products, discounts);
+  }
+
+  private Order createOrder(Long userId, Map<Long, Integer> quantities, List<Product> products,
+                            List<Discount> discounts) {
+    Map<Long, Product> productMap = products.stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    // 3. Original Subtotal Calculation
+    BigDecimal originalSubtotal = observeStep("subtotal",
+        () -> calculateOriginalSubtotal(quantities, productMap));
 
     // 5. Discount Application
-    BigDecimal finalPrice = applyDiscounts(request.getProductIds(), products, discounts,
-        originalSubtotal);
+    BigDecimal finalPrice = observeStep("discount-application",
+        () -> applyDiscounts(quantities, productMap, discounts, originalSubtotal));
 
     // 6. Maximum Discount Rule
-    validateMaximumDiscount(originalSubtotal, finalPrice);
+    observeStep("max-discount-rule",
+        () -> validateMaximumDiscount(originalSubtotal, finalPrice));
 
-    // 7. Final Commit
-    commitTransaction(request, products, discounts, originalSubtotal, finalPrice);
+    // The authenticated user only provides the foreign key, so no need to load it
+    User user = userRepository.getReferenceById(userId);
+
+    Order order = new Order();
+    order.setUser(user);
+    order.setProducts(quantities.keySet().stream()
+        .map(productMap::get)
+        .collect(Collectors.toCollection(HashSet::new)));
+    order.setAppliedDiscounts(new HashSet<>(discounts));
+    order.setOriginalSubtotal(originalSubtotal);
+    order.setFinalPrice(finalPrice);
+    return order;
+  }
+
+  /**
+   * Build the unsaved items of a checkout, one per distinct product, with the prices paid.
+   *
+   * @param request the checkout request
+   * @param products the loaded products, including at least those of the request
+   * @param discounts the validated discounts of the request
+   * @return the items to insert once the order has an ID, in request order
+   */
+  List<OrderItem> createOrderItems(CheckoutRequest request, List<Product> products,
+                                   List<Discount> discounts) {
+    return createOrderItems(countQuantities(request), products, discounts);
+  }
+
+  private List<OrderItem> createOrderItems(Map<Long, Integer> quantities, List<Product> products,
+                                           List<Discount> discounts) {
+    Map<Long, Product> productMap = products.stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<Discount> productSpecificDiscounts = filterByType(discounts,
+        DiscountType.PRODUCT_SPECIFIC);
+    List<Discount> generalDiscounts = filterByType(discounts, DiscountType.GENERAL);
+
+    return quantities.entrySet().stream()
+        .map(entry -> {
+          Product product = productMap.get(entry.getKey());
+          // Same steps as the order total, applied to a single unit
+          BigDecimal discountedPrice = applyGeneralDiscounts(
+              applyProductSpecificDiscounts(product, productSpecificDiscounts),
+              generalDiscounts);
+          return new OrderItem(null, product.getId(), entry.getValue(), product.getPrice(),
+              discountedPrice);
+        })
+        .toList();
+  }
 
-    return new OrderResponse("Order created successfully!", finalPrice);
+  /**
+   * Tell whether a checkout was rejected because of what it asked for, rather than failed
+   * unexpectedly. The message of a rejection is meant for the buyer.
+   *
+   * @param ex the failure of the checkout
+   * @return true if the checkout was rejected
+   */
+  static boolean isRejection(RuntimeException ex) {
+    return ex instanceof InsufficientStockException || ex instanceof InvalidDiscountException
+        || ex instanceof ExcessiveDiscountException || ex instanceof ProductNotFoundException
+        || ex instanceof UnauthorizedAccessException || ex instanceof SoldOutException
+        || ex instanceof UserNotFoundException;
+  }
+
+  /**
+   * Count the quantity of each distinct product of a checkout, from its lines and product IDs.
+   *
+   * @param request the checkout request
+   * @return the quantity by product ID, in request order
+   */
+  static Map<Long, Integer> countQuantities(CheckoutRequest request) {
+    Map<Long, Integer> quantities = new LinkedHashMap<>();
+    if (request.getLines() != null) {
+      request.getLines().forEach(line ->
+          quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+    }
+    if (request.getProductIds() != null) {
+      request.getProductIds().forEach(id -> quantities.merge(id, 1, Integer::sum));
+    }
+    return quantities;
   }
 
-  private void validateUserAuthorization(Long requestUserId, Long authenticatedUserId) {
+  /**
+   * Check that the authenticated user places the order for themselves.
+   *
+   * @param requestUserId the user ID of the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @throws UnauthorizedAccessException if the IDs differ
+   */
+  void validateUserAuthorization(Long requestUserId, Long authenticatedUserId) {
     if (!requestUserId.equals(authenticatedUserId)) {
       throw new UnauthorizedAccessException("User cannot place order for another user");
     }
   }
 
-  private BigDecimal calculateOriginalSubtotal(List<Long> productIds, List<Product> products) {
-    Map<Long, Product> productMap = products.stream()
-        .collect(Collectors.toMap(Product::getId, Function.identity()));
+  private <T> T observeCheckout(String source, Supplier<T> checkout) {
+    return CheckoutObservations.observe(
+        CheckoutObservations.checkout(observationRegistry, source), checkout);
+  }
 
-    return productIds.stream()
-        .map(productMap::get)
-        .map(Product::getPrice)
+  private <T> T observeStep(String step, Supplier<T> work) {
+    return CheckoutObservations.observe(CheckoutObservations.step(observationRegistry, step), work);
+  }
+
+  private void observeStep(String step, Runnable work) {
+    observeStep(step, () -> {
+      work.run();
+      return null;
+    });
+  }
+
+  private BigDecimal calculateOriginalSubtotal(Map<Long, Integer> quantities,
+                                               Map<Long, Product> productMap) {
+    return quantities.entrySet().stream()
+        .map(entry -> productMap.get(entry.getKey()).getPrice()
+            .multiply(BigDecimal.valueOf(entry.getValue())))
         .reduce(BigDecimal.ZERO, BigDecimal::add);
   }
 
-  private BigDecimal applyDiscounts(List<Long> productIds, List<Product> products,
+  private BigDecimal applyDiscounts(Map<Long, Integer> quantities, Map<Long, Product> productMap,
                                     List<Discount> discounts,
                                     BigDecimal originalSubtotal) {
-    Map<Long, Product> productMap = products.stream()
-        .collect(Collectors.toMap(Product::getId, Function.identity()));
-
     // Separate discounts by type
-    List<Discount> productSpecificDiscounts = discounts.stream()
-        .filter(d -> d.getType() == DiscountType.PRODUCT_SPECIFIC)
-        .toList();
+    List<Discount> productSpecificDiscounts = filterByType(discounts,
+        DiscountType.PRODUCT_SPECIFIC);
 
-    List<Discount> generalDiscounts = discounts.stream()
-        .filter(d -> d.getType() == DiscountType.GENERAL)
-        .toList();
+    List<Discount> generalDiscounts = filterByType(discounts, DiscountType.GENERAL);
 
     // Apply product-specific discounts first
     BigDecimal intermediateSubtotal = applyProductSpecificDiscounts(
-        productIds, productMap, productSpecificDiscounts);
+        quantities, productMap, productSpecificDiscounts);
 
     // Apply general discounts to intermediate subtotal
     return applyGeneralDiscounts(intermediateSubtotal, generalDiscounts);
   }
 
-  private BigDecimal applyProductSpecificDiscounts(List<Long> productIds,
+  private BigDecimal applyProductSpecificDiscounts(Map<Long, Integer> quantities,
                                                    Map<Long, Product> productMap,
                                                    List<Discount> productSpecificDiscounts) {
     BigDecimal total = BigDecimal.ZERO;
 
-    for (Long productId : productIds) {
-      Product product = productMap.get(productId);
-      BigDecimal itemPrice = product.getPrice();
-
-      // Find applicable discounts for this product
-      BigDecimal totalDiscountPercentage = productSpecificDiscounts.stream()
-          .filter(discount -> discount.getApplicableProducts().contains(product))
-          .map(Discount::getPercentage)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-      // Apply discount
-      if (totalDiscountPercentage.compareTo(BigDecimal.ZERO) > 0) {
-        BigDecimal discountAmount = itemPrice.multiply(totalDiscountPercentage)
-            .divide(HUNDRED, 2, RoundingMode.HALF_UP);
-        itemPrice = itemPrice.subtract(discountAmount);
-      }
-
-      total = total.add(itemPrice);
+    // Discounts are rounded per unit, so each distinct product is priced once
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      BigDecimal itemPrice = applyProductSpecificDiscounts(productMap.get(entry.getKey()),
+          productSpecificDiscounts);
+      total = total.add(itemPrice.multiply(BigDecimal.valueOf(entry.getValue())));
     }
 
     return total;
   }
 
+  private BigDecimal applyProductSpecificDiscounts(Product product,
+                                                   List<Discount> productSpecificDiscounts) {
+    BigDecimal itemPrice = product.getPrice();
+
+    // Find applicable discounts for this product
+    BigDecimal totalDiscountPercentage = productSpecificDiscounts.stream()
+        .filter(discount -> discount.getApplicableProducts().contains(product))
+        .map(Discount::getPercentage)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+    // Apply discount
+    if (totalDiscountPercentage.compareTo(BigDecimal.ZERO) > 0) {
+      BigDecimal discountAmount = itemPrice.multiply(totalDiscountPercentage)
+          .divide(HUNDRED, 2, RoundingMode.HALF_UP);
+      itemPrice = itemPrice.subtract(discountAmount);
+    }
+
+    return itemPrice;
+  }
+
+  private List<Discount> filterByType(List<Discount> discounts, DiscountType type) {
+    return discounts.stream()
+        .filter(d -> d.getType() == type)
+        .toList();
+  }
+
   private BigDecimal applyGeneralDiscounts(BigDecimal subtotal, List<Discount> generalDiscounts) {
     BigDecimal currentPrice = subtotal;
 
@@ -168,27 +434,24 @@ public class CheckoutService {
     }
   }
 
-  private void commitTransaction(CheckoutRequest request, List<Product> products,
-                                 List<Discount> discounts, BigDecimal originalSubtotal,
-                                 BigDecimal finalPrice) {
-    // Get user
-    User user = userRepository.findById(request.getUserId())
-        .orElseThrow(() -> new RuntimeException("User not found"));
-
-    // Create order
-    Order order = new Order();
-    order.setUser(user);
-    order.setProducts(new HashSet<>(products));
-    order.setAppliedDiscounts(new HashSet<>(discounts));
-    order.setOriginalSubtotal(originalSubtotal);
-    order.setFinalPrice(finalPrice);
-
+  private void commitTransaction(Order order, List<OrderItem> items, List<Product> products,
+                                 Map<Long, Integer> quantities, List<Discount> discounts) {
     orderRepository.save(order);
 
     // Update product stock
-    productService.validateAndUpdateStock(request.getProductIds());
+    productService.validateAndUpdateStock(products, quantities);
 
     // Update discount usage
     discountService.updateDiscountUsage(discounts);
+
+    // Record quantities and prices paid, last so that a single flush writes the order
+    items.forEach(item -> item.setOrderId(order.getId()));
+    orderItemRepository.insertAll(items);
+
+    // Add to the sales rollups, which commit or roll back with the order
+    salesRollupService.record(List.of(order), items);
+
+    // Announce the order through the outbox, published after commit by the relay
+    outboxService.record(List.of(order), items);
   }
 }
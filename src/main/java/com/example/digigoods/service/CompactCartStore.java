@@ -0,0 +1,94 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.CompactCart;
+import com.example.digigoods.repository.CompactCartRepository;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cart store keeping each cart as a single row of {@code compact_carts}, its items encoded in
+ * one binary column.
+ *
+ * <p>A cart read is one primary key lookup and a cart change one row write, whatever the size
+ * of the cart. Changes are optimistic: the row is only written at the version it was read at,
+ * and a change that lost a race with another change of the same cart is applied again on the
+ * cart as that change left it.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "compact")
+public class CompactCartStore implements CartStore {
+
+  private static final int MAX_ATTEMPTS = 10;
+
+  private final CompactCartRepository compactCartRepository;
+
+  /**
+   * Constructor with the compact cart repository.
+   *
+   * @param compactCartRepository the compact cart repository
+   */
+  public CompactCartStore(CompactCartRepository compactCartRepository) {
+    this.compactCartRepository = compactCartRepository;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, Integer> getItems(Long userId) {
+    return compactCartRepository.findLatest(userId)
+        .map(cart -> CartItemCodec.decode(cart.getItems()))
+        .orElseGet(LinkedHashMap::new);
+  }
+
+  @Override
+  @Transactional
+  public void setQuantity(Long userId, Long productId, int quantity) {
+    change(userId, items -> items.put(productId, quantity));
+  }
+
+  @Override
+  @Transactional
+  public Map<Long, Integer> checkOutItems(Long userId) {
+    // Emptied at the version read, so of two concurrent checkouts only one takes the items
+    Map<Long, Integer> taken = new LinkedHashMap<>();
+    change(userId, items -> {
+      taken.clear();
+      taken.putAll(items);
+      items.clear();
+    });
+    return taken;
+  }
+
+  @Override
+  @Transactional
+  public void updateItems(Long userId, Consumer<Map<Long, Integer>> change) {
+    change(userId, change);
+  }
+
+  private void change(Long userId, Consumer<Map<Long, Integer>> change) {
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      Optional<CompactCart> cart = compactCartRepository.findLatest(userId);
+      Map<Long, Integer> items = cart.map(current -> CartItemCodec.decode(current.getItems()))
+          .orElseGet(LinkedHashMap::new);
+      change.accept(items);
+      if (cart.isEmpty() && items.isEmpty()) {
+        return;
+      }
+
+      byte[] encoded = CartItemCodec.encode(items);
+      boolean written = cart.isPresent()
+          ? compactCartRepository.updateIfVersion(userId, cart.get().getVersion(), encoded)
+          : compactCartRepository.insertIfAbsent(userId, encoded);
+      if (written) {
+        return;
+      }
+    }
+    throw new OptimisticLockingFailureException(
+        "Cart of user " + userId + " kept changing during " + MAX_ATTEMPTS + " attempts");
+  }
+}
@@ -4,8 +4,11 @@ import com.example.digigoods.exception.InvalidDiscountException;
 import com.example.digigoods.model.Discount;
 import com.example.digigoods.repository.DiscountRepository;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for discount operations.
@@ -24,6 +27,7 @@ public class DiscountService {
    *
    * @return list of all discounts
    */
+  @Transactional(readOnly = true)
   public List<Discount> getAllDiscounts() {
     return discountRepository.findAll();
   }
@@ -40,7 +44,55 @@ public class DiscountService {
       return List.of();
     }
 
-    List<Discount> discounts = discountRepository.findAllByCodeIn(discountCodes);
+    return validateDiscounts(discountCodes, discountRepository.findAllByCodeIn(discountCodes));
+  }
+
+  /**
+   * Get discounts by their codes, without validating them.
+   *
+   * @param discountCodes the discount codes
+   * @return the discounts found, possibly fewer than the codes
+   */
+  public List<Discount> getDiscountsByCodes(List<String> discountCodes) {
+    if (discountCodes.isEmpty()) {
+      return List.of();
+    }
+    return discountRepository.findAllByCodeIn(discountCodes);
+  }
+
+  /**
+   * Pick and validate the discounts of a request among discounts already loaded.
+   *
+   * @param discountCodes the list of discount codes of the request
+   * @param loadedDiscounts the loaded discounts, including at least those of the request
+   * @return list of valid discounts
+   * @throws InvalidDiscountException if any discount is invalid
+   */
+  public List<Discount> validateDiscounts(List<String> discountCodes,
+                                          List<Discount> loadedDiscounts) {
+    return validateDiscounts(discountCodes, loadedDiscounts, Map.of());
+  }
+
+  /**
+   * Pick and validate the discounts of a request among discounts already loaded, some of whose
+   * uses were already taken by other orders not written yet.
+   *
+   * @param discountCodes the list of discount codes of the request
+   * @param loadedDiscounts the loaded discounts, including at least those of the request
+   * @param takenUses the uses already taken keyed by discount code
+   * @return list of valid discounts
+   * @throws InvalidDiscountException if any discount is invalid
+   */
+  public List<Discount> validateDiscounts(List<String> discountCodes,
+                                          List<Discount> loadedDiscounts,
+                                          Map<String, Integer> takenUses) {
+    if (discountCodes == null || discountCodes.isEmpty()) {
+      return List.of();
+    }
+
+    List<Discount> discounts = loadedDiscounts.stream()
+        .filter(discount -> discountCodes.contains(discount.getCode()))
+        .toList();
 
     // Check if all codes were found
     if (discounts.size() != discountCodes.size()) {
@@ -59,25 +111,43 @@ public class DiscountService {
     // Validate each discount
     LocalDate today = LocalDate.now();
     for (Discount discount : discounts) {
-      validateDiscount(discount, today);
+      validateDiscount(discount, today, takenUses.getOrDefault(discount.getCode(), 0));
     }
 
     return discounts;
   }
 
   /**
-   * Update remaining uses for discounts.
+   * Update remaining uses for discounts, one use each.
    *
    * @param discounts the list of discounts to update
+   * @throws InvalidDiscountException if a discount has no remaining uses left
    */
   public void updateDiscountUsage(List<Discount> discounts) {
-    for (Discount discount : discounts) {
-      discount.setRemainingUses(discount.getRemainingUses() - 1);
-      discountRepository.save(discount);
+    Map<String, Integer> uses = new LinkedHashMap<>();
+    discounts.forEach(discount -> uses.merge(discount.getCode(), 1, Integer::sum));
+    updateDiscountUsage(uses);
+  }
+
+  /**
+   * Update remaining uses for discounts, with one conditional update per discount sent as a
+   * single batch. The loaded discounts are left as they were read.
+   *
+   * @param uses the number of uses taken keyed by discount code
+   * @throws InvalidDiscountException if a discount has fewer remaining uses left than taken
+   */
+  public void updateDiscountUsage(Map<String, Integer> uses) {
+    if (uses.isEmpty()) {
+      return;
+    }
+    List<String> failedCodes = discountRepository.decrementRemainingUses(uses);
+    if (!failedCodes.isEmpty()) {
+      // Used up meanwhile by a concurrent checkout
+      throw new InvalidDiscountException(failedCodes.get(0), "discount has no remaining uses");
     }
   }
 
-  private void validateDiscount(Discount discount, LocalDate today) {
+  private void validateDiscount(Discount discount, LocalDate today, int takenUses) {
     // Check if discount is expired
     if (today.isBefore(discount.getValidFrom())) {
       throw new InvalidDiscountException(discount.getCode(), "discount is not yet valid");
@@ -88,7 +158,7 @@ public class DiscountService {
     }
 
     // Check if discount has remaining uses
-    if (discount.getRemainingUses() <= 0) {
+    if (discount.getRemainingUses() - takenUses <= 0) {
       throw new InvalidDiscountException(discount.getCode(), "discount has no remaining uses");
     }
   }
@@ -0,0 +1,75 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Outbox sink appending events as JSON lines to a local file, a stand-in for a broker.
+ *
+ * <p>A batch is forced to disk before it counts as published, so a crash can repeat events in
+ * the file but never lose them.
+ */
+@Service
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+  private final Path file;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructor with the file events are appended to and the mapper writing them.
+   *
+   * @param file the path of the file, created with its directories if missing
+   * @param objectMapper the object mapper writing each event as a JSON line
+   */
+  public FileOutboxSink(@Value("${outbox.sink.file:data/outbox/events.jsonl}") Path file,
+                        ObjectMapper objectMapper) {
+    this.file = file;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public synchronized void publish(List<OutboxEvent> events) {
+    StringBuilder lines = new StringBuilder();
+    try {
+      for (OutboxEvent event : events) {
+        ObjectNode line = objectMapper.createObjectNode()
+            .put("id", event.getId())
+            .put("type", event.getEventType())
+            .put("aggregateId", event.getAggregateId())
+            .put("createdAt", String.valueOf(event.getCreatedAt()));
+        // The payload is JSON written by the outbox service already and goes in as is
+        line.putRawValue("payload", new RawValue(event.getPayload()));
+        lines.append(objectMapper.writeValueAsString(line)).append('\n');
+      }
+      Path directory = file.toAbsolutePath().getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(false);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
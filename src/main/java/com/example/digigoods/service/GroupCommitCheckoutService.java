@@ -0,0 +1,478 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.BatchCheckoutResponse;
+import com.example.digigoods.dto.BatchOrderResult;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.CheckoutQueueFullException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.CheckoutStatus;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.OrderItemRepository;
+import com.example.digigoods.repository.OrderRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service placing concurrent checkouts together, in one transaction per group.
+ *
+ * <p>Checkouts arriving within a short window are collected into a group. The group reads its
+ * products and discounts once, takes stock with one conditional update per product and remaining
+ * uses with one update per discount, whatever the number of orders, and inserts all orders and
+ * their items before a single commit. Hot products therefore take one row lock and one log
+ * flush per group instead of one per order.
+ *
+ * <p>Members are priced one after the other against the stock and discount uses left by the
+ * members before them, so a member that would fail on its own is rejected alone and the others
+ * still commit. When the group transaction itself fails, for example because a concurrent
+ * checkout outside the group took the last items, every member is placed again on its own.
+ * Items held in other users' carts are kept out of the stock each member may take, and a
+ * member's own holds stop counting against the members after it once it is placed.
+ *
+ * <p>Checkouts waiting for a group are bounded in number and in time. A checkout arriving when
+ * the queue is full, or still not taken into a group when its wait is over, is refused without
+ * having been placed, so it is safe to retry. A checkout taken into a group waits for the group
+ * to commit.
+ *
+ * <p>Batches of orders sent together by one client are placed the same way, in chunks of a
+ * fixed size, whether or not concurrent checkouts are grouped.
+ *
+ * <p>Each member of a group of several checkouts is observed as {@code checkout} with the source
+ * {@code group}, from the start of its group until its outcome, including its placement on its
+ * own when the group fails. The group transaction is observed as {@code checkout.group}, and
+ * its shared reads and its writes as the {@code checkout.step} steps of a single checkout. A
+ * checkout alone in its group is observed as a checkout of its own.
+ */
+@Service
+public class GroupCommitCheckoutService {
+
+  private static final Logger log = LoggerFactory.getLogger(GroupCommitCheckoutService.class);
+
+  private final CheckoutService checkoutService;
+  private final ProductService productService;
+  private final DiscountService discountService;
+  private final OrderRepository orderRepository;
+  private final OrderItemRepository orderItemRepository;
+  private final ReservationService reservationService;
+  private final SalesRollupService salesRollupService;
+  private final OutboxService outboxService;
+  private final TransactionRetryExecutor transactionRetryExecutor;
+  private final ObservationRegistry observationRegistry;
+  private final boolean enabled;
+  private final long windowNanos;
+  private final int maxGroupSize;
+  private final int batchChunkSize;
+  private final long queueTimeoutMillis;
+  private final BlockingQueue<PendingCheckout> pendingCheckouts;
+  private final ExecutorService committers;
+
+  /**
+   * Constructor with services and group settings.
+   *
+   * @param checkoutService the checkout service pricing and placing single orders
+   * @param productService the product service
+   * @param discountService the discount service
+   * @param orderRepository the order repository
+   * @param orderItemRepository the order item repository
+   * @param reservationService the reservation service
+   * @param salesRollupService the sales rollup service
+   * @param outboxService the outbox service
+   * @param transactionRetryExecutor the executor running the group transaction
+   * @param observationRegistry the registry observing the groups and their members
+   * @param enabled whether checkouts are grouped at all
+   * @param windowMillis how long a group waits for more checkouts after its first one
+   * @param maxGroupSize the number of checkouts that closes a group before the window ends
+   * @param committerCount the number of groups committed in parallel
+   * @param batchChunkSize the number of orders of a batch placed in one transaction
+   * @param queueCapacity the number of checkouts that may wait for a group
+   * @param queueTimeoutMillis how long a checkout may wait to be taken into a group
+   */
+  public GroupCommitCheckoutService(CheckoutService checkoutService,
+                                    ProductService productService,
+                                    DiscountService discountService,
+                                    OrderRepository orderRepository,
+                                    OrderItemRepository orderItemRepository,
+                                    ReservationService reservationService,
+                                    SalesRollupService salesRollupService,
+                                    OutboxService outboxService,
+                                    TransactionRetryExecutor transactionRetryExecutor,
+                                    ObservationRegistry observationRegistry,
+                                    @Value("${checkout.group-commit.enabled:false}")
+                                    boolean enabled,
+                                    @Value("${checkout.group-commit.window-ms:3}")
+                                    long windowMillis,
+                                    @Value("${checkout.group-commit.max-size:50}")
+                                    int maxGroupSize,
+                                    @Value("${checkout.group-commit.committers:4}")
+                                    int committerCount,
+                                    @Value("${checkout.batch.chunk-size:250}")
+                                    int batchChunkSize,
+                                    @Value("${checkout.group-commit.queue-capacity:1000}")
+                                    int queueCapacity,
+                                    @Value("${checkout.group-commit.queue-timeout-ms:5000}")
+                                    long queueTimeoutMillis) {
+    this.checkoutService = checkoutService;
+    this.productService = productService;
+    this.discountService = discountService;
+    this.orderRepository = orderRepository;
+    this.orderItemRepository = orderItemRepository;
+    this.reservationService = reservationService;
+    this.salesRollupService = salesRollupService;
+    this.outboxService = outboxService;
+    this.transactionRetryExecutor = transactionRetryExecutor;
+    this.observationRegistry = observationRegistry;
+    this.enabled = enabled;
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    this.maxGroupSize = maxGroupSize;
+    this.batchChunkSize = Math.max(1, batchChunkSize);
+    this.queueTimeoutMillis = queueTimeoutMillis;
+    this.pendingCheckouts = new ArrayBlockingQueue<>(queueCapacity);
+    if (enabled) {
+      AtomicInteger threadNumber = new AtomicInteger();
+      this.committers = Executors.newFixedThreadPool(committerCount, runnable ->
+          new Thread(runnable, "checkout-group-commit-" + threadNumber.incrementAndGet()));
+      for (int i = 0; i < committerCount; i++) {
+        committers.execute(this::collectAndCommit);
+      }
+    } else {
+      this.committers = null;
+    }
+  }
+
+  /**
+   * Process checkout request as a member of the next group, and wait for the group to commit.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return order response
+   * @throws CheckoutQueueFullException if the checkout could not be taken into a group in time
+   */
+  public OrderResponse processCheckout(CheckoutRequest request, Long authenticatedUserId) {
+    if (!enabled) {
+      return checkoutService.processCheckout(request, authenticatedUserId);
+    }
+    checkoutService.validateUserAuthorization(request.getUserId(), authenticatedUserId);
+
+    PendingCheckout pending = new PendingCheckout(request, authenticatedUserId);
+    if (!pendingCheckouts.offer(pending)) {
+      throw new CheckoutQueueFullException();
+    }
+    try {
+      return pending.result.get(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      if (pending.abandon()) {
+        throw new CheckoutQueueFullException();
+      }
+      // Already in a group, whose transaction decides the outcome
+      return join(pending);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new CompletionException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (pending.abandon()) {
+        throw new CancellationException("Checkout was interrupted before being placed");
+      }
+      return join(pending);
+    }
+  }
+
+  private OrderResponse join(PendingCheckout pending) {
+    try {
+      return pending.result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Place a batch of orders of the authenticated user, in chunks of at most the chunk size.
+   *
+   * <p>Each chunk is placed as one group, so a chunk of hundreds of orders reads its products
+   * and discounts once and takes the stock of each product with one update. Orders rejected
+   * on their own, for example for lack of stock, are reported in their result and do not stop
+   * the others.
+   *
+   * @param requests the checkout requests
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return the outcome of each order, in request order
+   */
+  public BatchCheckoutResponse processBatch(List<CheckoutRequest> requests,
+                                            Long authenticatedUserId) {
+    List<PendingCheckout> batch = new ArrayList<>();
+    List<PendingCheckout> authorized = new ArrayList<>();
+    for (CheckoutRequest request : requests) {
+      PendingCheckout pending = new PendingCheckout(request, authenticatedUserId);
+      batch.add(pending);
+      try {
+        checkoutService.validateUserAuthorization(request.getUserId(), authenticatedUserId);
+        authorized.add(pending);
+      } catch (RuntimeException ex) {
+        pending.result.completeExceptionally(ex);
+      }
+    }
+    for (int from = 0; from < authorized.size(); from += batchChunkSize) {
+      commit(authorized.subList(from, Math.min(from + batchChunkSize, authorized.size())));
+    }
+
+    List<BatchOrderResult> results = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      results.add(batch.get(i).toResult(i));
+    }
+    int placed = (int) results.stream()
+        .filter(result -> result.getStatus() == CheckoutStatus.COMPLETED)
+        .count();
+    return new BatchCheckoutResponse(placed, results.size() - placed, results);
+  }
+
+  /**
+   * Stop collecting checkouts and fail the ones still waiting for a group.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (committers != null) {
+      committers.shutdownNow();
+      List<PendingCheckout> abandoned = new ArrayList<>();
+      pendingCheckouts.drainTo(abandoned);
+      abandoned.forEach(pending -> pending.result.completeExceptionally(
+          new CancellationException("Checkout service is shutting down")));
+    }
+  }
+
+  private void collectAndCommit() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        List<PendingCheckout> group = new ArrayList<>();
+        PendingCheckout first = pendingCheckouts.take();
+        if (!first.start()) {
+          continue;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < maxGroupSize) {
+          PendingCheckout next = pendingCheckouts.poll(deadline - System.nanoTime(),
+              TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          // A checkout whose wait is over was already refused
+          if (next.start()) {
+            group.add(next);
+          }
+        }
+        commit(group);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void commit(List<PendingCheckout> group) {
+    if (group.size() == 1) {
+      PendingCheckout pending = group.get(0);
+      try {
+        pending.result.complete(
+            checkoutService.processCheckout(pending.request, pending.authenticatedUserId));
+      } catch (RuntimeException ex) {
+        pending.result.completeExceptionally(ex);
+      }
+      return;
+    }
+
+    List<Observation> members = new ArrayList<>();
+    for (int i = 0; i < group.size(); i++) {
+      members.add(CheckoutObservations.checkout(observationRegistry, "group").start());
+    }
+    try {
+      CheckoutObservations.observe(CheckoutObservations.group(observationRegistry), () ->
+          transactionRetryExecutor.execute("checkout-group", () -> {
+            placeOrders(group);
+            return null;
+          }));
+      for (int i = 0; i < group.size(); i++) {
+        CheckoutObservations.stop(members.get(i), group.get(i).failure);
+        group.get(i).complete();
+      }
+      return;
+    } catch (RuntimeException ex) {
+      log.debug("Group of {} checkouts failed, placing them one by one", group.size(), ex);
+    }
+
+    for (int i = 0; i < group.size(); i++) {
+      PendingCheckout pending = group.get(i);
+      Observation member = members.get(i);
+      try (Observation.Scope scope = member.openScope()) {
+        OrderResponse response = checkoutService.processAuthorizedCheckout(pending.request);
+        CheckoutObservations.stop(member, null);
+        pending.result.complete(response);
+      } catch (RuntimeException ex) {
+        CheckoutObservations.stop(member, ex);
+        pending.result.completeExceptionally(ex);
+      }
+    }
+  }
+
+  private void placeOrders(List<PendingCheckout> group) {
+    List<Long> productIds = group.stream()
+        .flatMap(pending -> CheckoutService.countQuantities(pending.request).keySet().stream())
+        .distinct()
+        .toList();
+    List<String> discountCodes = group.stream()
+        .map(pending -> pending.request.getDiscountCodes())
+        .filter(Objects::nonNull)
+        .flatMap(List::stream)
+        .distinct()
+        .toList();
+    List<Product> products = observeStep("product-validation",
+        () -> productService.getProductsForUpdate(productIds));
+    List<Discount> discounts = observeStep("discount-validation",
+        () -> discountService.getDiscountsByCodes(discountCodes));
+    ActiveHolds holds = observeStep("stock-holds",
+        () -> reservationService.getActiveHolds(productIds));
+
+    Map<Long, Integer> availableStock = new HashMap<>();
+    products.forEach(product -> availableStock.put(product.getId(), product.getStock()));
+    Map<Long, Integer> takenStock = new HashMap<>();
+    Map<String, Integer> takenUses = new HashMap<>();
+    List<Order> orders = new ArrayList<>();
+
+    for (PendingCheckout pending : group) {
+      // A replayed group transaction starts over with fresh entities
+      pending.order = null;
+      pending.items = null;
+      pending.failure = null;
+      try {
+        Map<Long, Integer> quantities = CheckoutService.countQuantities(pending.request);
+        holds.checkAvailable(pending.request.getUserId(), quantities, availableStock);
+        List<Discount> memberDiscounts = discountService.validateDiscounts(
+            pending.request.getDiscountCodes(), discounts, takenUses);
+        Order order = checkoutService.createOrder(pending.request, products, memberDiscounts);
+        takeStock(quantities, availableStock);
+        holds.convert(pending.request.getUserId(), quantities.keySet());
+        pending.order = order;
+        pending.items = checkoutService.createOrderItems(pending.request, products,
+            memberDiscounts);
+        orders.add(order);
+
+        quantities.forEach((id, quantity) -> takenStock.merge(id, quantity, Integer::sum));
+        memberDiscounts.forEach(discount ->
+            takenUses.merge(discount.getCode(), 1, Integer::sum));
+      } catch (RuntimeException ex) {
+        pending.failure = ex;
+      }
+    }
+
+    observeStep("commit", () -> {
+      orderRepository.saveAll(orders);
+      List<OrderItem> items = new ArrayList<>();
+      for (PendingCheckout pending : group) {
+        if (pending.order != null) {
+          pending.items.forEach(item -> item.setOrderId(pending.order.getId()));
+          items.addAll(pending.items);
+        }
+      }
+      productService.validateAndUpdateStock(products, takenStock);
+      discountService.updateDiscountUsage(takenUses);
+      orderItemRepository.insertAll(items);
+      salesRollupService.record(orders, items);
+      outboxService.record(orders, items);
+      reservationService.releaseConverted(holds);
+      return null;
+    });
+  }
+
+  private <T> T observeStep(String step, Supplier<T> work) {
+    return CheckoutObservations.observe(CheckoutObservations.step(observationRegistry, step), work);
+  }
+
+  private void takeStock(Map<Long, Integer> quantities, Map<Long, Integer> availableStock) {
+    quantities.forEach((id, quantity) -> {
+      int available = availableStock.get(id);
+      if (available < quantity) {
+        throw new InsufficientStockException(id, quantity, available);
+      }
+    });
+    quantities.forEach((id, quantity) -> availableStock.merge(id, -quantity, Integer::sum));
+  }
+
+  private static final class PendingCheckout {
+
+    private static final int WAITING = 0;
+    private static final int STARTED = 1;
+    private static final int ABANDONED = 2;
+
+    private final CheckoutRequest request;
+    private final Long authenticatedUserId;
+    private final CompletableFuture<OrderResponse> result = new CompletableFuture<>();
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+    private Order order;
+    private List<OrderItem> items;
+    private RuntimeException failure;
+
+    private PendingCheckout(CheckoutRequest request, Long authenticatedUserId) {
+      this.request = request;
+      this.authenticatedUserId = authenticatedUserId;
+    }
+
+    private boolean start() {
+      return state.compareAndSet(WAITING, STARTED);
+    }
+
+    private boolean abandon() {
+      return state.compareAndSet(WAITING, ABANDONED);
+    }
+
+    private void complete() {
+      if (failure != null) {
+        result.completeExceptionally(failure);
+      } else {
+        result.complete(new OrderResponse("Order created successfully!", order.getFinalPrice()));
+      }
+    }
+
+    private BatchOrderResult toResult(int index) {
+      try {
+        OrderResponse response = result.join();
+        return new BatchOrderResult(index, CheckoutStatus.COMPLETED, response.getMessage(),
+            response.getFinalPrice());
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause && CheckoutService.isRejection(cause)) {
+          return new BatchOrderResult(index, CheckoutStatus.FAILED, cause.getMessage(), null);
+        }
+        log.error("Batch checkout failed", e.getCause());
+        return new BatchOrderResult(index, CheckoutStatus.FAILED,
+            "An unexpected error occurred", null);
+      }
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
+import com.example.digigoods.exception.UserNotFoundException;
+import com.example.digigoods.model.IdempotencyKey;
+import com.example.digigoods.repository.IdempotencyKeyRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for idempotent checkout operations.
+ *
+ * <p>The response of every checkout placed with an idempotency key is stored in the
+ * {@code idempotency_keys} table, in the same transaction as the order, and the most recent
+ * ones are also kept in a bounded in-memory cache. Replaying a key returns the stored response
+ * without running the checkout again. A duplicate arriving while the first request is still
+ * running waits for it instead of racing it; the unique key constraint covers duplicates sent
+ * to another instance.
+ *
+ * <p>Keys are deleted in bulk batches once past their retention, which should outlast the
+ * longest time a client keeps retrying: a key replayed after that places a new order.
+ */
+@Service
+public class IdempotencyService {
+
+  static final int MAX_KEY_LENGTH = 255;
+
+  private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+  private final IdempotencyKeyRepository idempotencyKeyRepository;
+  private final UserRepository userRepository;
+  private final TransactionRetryExecutor transactionRetryExecutor;
+  private final Duration retention;
+  private final int cleanupBatchSize;
+  private final Map<String, IdempotencyKey> recentKeys;
+  private final Map<String, CompletableFuture<IdempotencyKey>> inFlightKeys =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Constructor with repositories, retry executor, front cache size and retention settings.
+   *
+   * @param idempotencyKeyRepository the idempotency key repository
+   * @param userRepository the user repository
+   * @param transactionRetryExecutor the executor running the checkout and cleanup transactions
+   * @param cacheSize the number of recent keys kept in memory
+   * @param retention how long stored keys are kept
+   * @param cleanupBatchSize the number of expired keys deleted per transaction
+   */
+  public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                            UserRepository userRepository,
+                            TransactionRetryExecutor transactionRetryExecutor,
+                            @Value("${idempotency.cache-size:10000}") int cacheSize,
+                            @Value("${checkout.idempotency.retention:24h}") Duration retention,
+                            @Value("${checkout.idempotency.cleanup-batch-size:1000}")
+                            int cleanupBatchSize) {
+    this.idempotencyKeyRepository = idempotencyKeyRepository;
+    this.userRepository = userRepository;
+    this.transactionRetryExecutor = transactionRetryExecutor;
+    this.retention = retention;
+    this.cleanupBatchSize = cleanupBatchSize;
+    this.recentKeys = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+            return size() > cacheSize;
+          }
+        });
+  }
+
+  /**
+   * Run a checkout at most once per user and idempotency key.
+   *
+   * @param userId the ID of the authenticated user
+   * @param key the idempotency key sent by the client
+   * @param request the checkout request
+   * @param checkout the checkout to run when the key was not used yet
+   * @return the response of the first checkout placed with this key
+   * @throws InvalidIdempotencyKeyException if the key is blank or too long
+   * @throws IdempotencyKeyReusedException if the key was used for a different request
+   * @throws UserNotFoundException if the user was deleted
+   */
+  public OrderResponse execute(Long userId, String key, CheckoutRequest request,
+                               Supplier<OrderResponse> checkout) {
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new InvalidIdempotencyKeyException(MAX_KEY_LENGTH);
+    }
+    String cacheKey = userId + ":" + key;
+    String requestHash = hash(request);
+
+    while (true) {
+      IdempotencyKey recent = recentKeys.get(cacheKey);
+      if (recent != null) {
+        return replay(recent, requestHash);
+      }
+
+      CompletableFuture<IdempotencyKey> claim = new CompletableFuture<>();
+      CompletableFuture<IdempotencyKey> running = inFlightKeys.putIfAbsent(cacheKey, claim);
+      if (running != null) {
+        // A failed first attempt stored nothing, so the duplicate runs the checkout itself
+        IdempotencyKey completed = running.join();
+        if (completed != null) {
+          return replay(completed, requestHash);
+        }
+        continue;
+      }
+
+      try {
+        IdempotencyKey stored = findOrPlace(userId, key, requestHash, checkout);
+        recentKeys.put(cacheKey, stored);
+        claim.complete(stored);
+        return replay(stored, requestHash);
+      } catch (RuntimeException ex) {
+        claim.complete(null);
+        throw ex;
+      } finally {
+        inFlightKeys.remove(cacheKey, claim);
+      }
+    }
+  }
+
+  /**
+   * Delete the keys stored longer ago than the retention, in batches of one bulk delete per
+   * transaction, and forget them in memory too.
+   */
+  @Scheduled(fixedDelayString = "${checkout.idempotency.cleanup-interval-ms:600000}")
+  public void deleteExpired() {
+    LocalDateTime before = LocalDateTime.now().minus(retention);
+    synchronized (recentKeys) {
+      recentKeys.values().removeIf(stored -> stored.getCreatedAt().isBefore(before));
+    }
+
+    int deleted = 0;
+    int batchSize;
+    do {
+      batchSize = transactionRetryExecutor.execute("idempotency-cleanup", () -> {
+        List<Long> expiredIds = idempotencyKeyRepository.findIdsCreatedBefore(before,
+            PageRequest.of(0, cleanupBatchSize));
+        if (!expiredIds.isEmpty()) {
+          idempotencyKeyRepository.deleteAllByIdInBatch(expiredIds);
+        }
+        return expiredIds.size();
+      });
+      deleted += batchSize;
+    } while (batchSize == cleanupBatchSize);
+
+    if (deleted > 0) {
+      log.debug("Deleted {} expired idempotency keys", deleted);
+    }
+  }
+
+  private IdempotencyKey findOrPlace(Long userId, String key, String requestHash,
+                                     Supplier<OrderResponse> checkout) {
+    try {
+      return transactionRetryExecutor.execute("checkout", () ->
+          idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+              .orElseGet(() -> {
+                OrderResponse response = checkout.get();
+                return idempotencyKeyRepository.save(new IdempotencyKey(null, userId, key,
+                    requestHash, response.getMessage(), response.getFinalPrice(), null));
+              }));
+    } catch (DataIntegrityViolationException ex) {
+      // Another instance committed the same key first, and its order won
+      Optional<IdempotencyKey> stored =
+          idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key);
+      if (stored.isPresent()) {
+        return stored.get();
+      }
+      // The checkout joined this transaction, so a deleted user is checked here, once the
+      // transaction the foreign key violation aborted has ended
+      if (!userRepository.existsById(userId)) {
+        throw new UserNotFoundException(userId);
+      }
+      throw ex;
+    }
+  }
+
+  private OrderResponse replay(IdempotencyKey stored, String requestHash) {
+    if (!stored.getRequestHash().equals(requestHash)) {
+      throw new IdempotencyKeyReusedException(stored.getIdempotencyKey());
+    }
+    return new OrderResponse(stored.getMessage(), stored.getFinalPrice());
+  }
+
+  /**
+   * Hash what a checkout request orders, in a form of its own: the user, the quantity of each
+   * product by product ID and the discount codes in request order. Fields added to the request
+   * later leave the hash of a retried request unchanged, and so do equivalent product forms.
+   *
+   * @param request the checkout request
+   * @return the hex SHA-256 of the request
+   */
+  static String hash(CheckoutRequest request) {
+    StringBuilder canonical = new StringBuilder("v1;user=").append(request.getUserId())
+        .append(";items=");
+    new TreeMap<>(CheckoutService.countQuantities(request)).forEach((productId, quantity) ->
+        canonical.append(productId).append('x').append(quantity).append(','));
+    canonical.append(";codes=");
+    if (request.getDiscountCodes() != null) {
+      // Length-prefixed, so that no code can pass for two
+      request.getDiscountCodes().forEach(code ->
+          canonical.append(code.length()).append(':').append(code).append(','));
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(
+          digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,347 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CartItem;
+import com.example.digigoods.repository.CartDetailRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cart store keeping the carts in memory, authoritative, and writing them to the cart tables in
+ * the background.
+ *
+ * <p>A cart is read from the database the first time its user touches it, for instance after a
+ * restart, and from then on reads and writes only lock the cart in memory. Changed carts are
+ * written back every {@code cart.memory.flush-interval-ms}, in batches of
+ * {@code cart.memory.flush-batch-size} carts per transaction. Once more than
+ * {@code cart.memory.max-carts} carts are in memory, the least recently used ones already
+ * written back are dropped after each flush, to be read again on their next use.
+ *
+ * <p>Changes made within a transaction reach the cart when it commits, and are seen before by
+ * that transaction alone. Changes not written back yet are lost if the process dies. The carts
+ * are only authoritative within a single instance, so requests of a user must reach the same
+ * instance.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+
+  private static final Logger log = LoggerFactory.getLogger(InMemoryCartStore.class);
+
+  private final CartDetailRepository cartDetailRepository;
+  private final TransactionRetryExecutor transactionRetryExecutor;
+  private final int maxCarts;
+  private final int flushBatchSize;
+  private final Map<Long, Cart> carts = new ConcurrentHashMap<>();
+  private final Set<Long> dirtyUserIds = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor with repository, executor and memory settings.
+   *
+   * @param cartDetailRepository the cart detail repository
+   * @param transactionRetryExecutor the executor running each flush batch
+   * @param maxCarts the number of carts kept in memory after a flush
+   * @param flushBatchSize the number of carts written back per transaction
+   */
+  public InMemoryCartStore(CartDetailRepository cartDetailRepository,
+                           TransactionRetryExecutor transactionRetryExecutor,
+                           @Value("${cart.memory.max-carts:100000}") int maxCarts,
+                           @Value("${cart.memory.flush-batch-size:500}") int flushBatchSize) {
+    this.cartDetailRepository = cartDetailRepository;
+    this.transactionRetryExecutor = transactionRetryExecutor;
+    this.maxCarts = maxCarts;
+    this.flushBatchSize = Math.max(1, flushBatchSize);
+  }
+
+  @Override
+  public Map<Long, Integer> getItems(Long userId) {
+    Map<Long, Integer> items = withCart(userId, cart -> new LinkedHashMap<>(cart.items));
+    // The changes of the current transaction, not applied to the cart before it commits
+    PendingChanges pending = pendingChanges(false);
+    if (pending != null) {
+      pending.applyTo(userId, items);
+    }
+    return items;
+  }
+
+  @Override
+  public void setQuantity(Long userId, Long productId, int quantity) {
+    change(userId, items -> items.put(productId, quantity));
+  }
+
+  @Override
+  public Map<Long, Integer> checkOutItems(Long userId) {
+    boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+    Map<Long, Integer> items = withCart(userId, cart -> {
+      if (cart.checkingOut) {
+        return new LinkedHashMap<>();
+      }
+      Map<Long, Integer> taken = new LinkedHashMap<>(cart.items);
+      if (!inTransaction) {
+        taken.keySet().forEach(cart.items::remove);
+        markDirty(userId, cart);
+      } else if (!taken.isEmpty()) {
+        cart.checkingOut = true;
+      }
+      return taken;
+    });
+    if (!inTransaction || items.isEmpty()) {
+      return items;
+    }
+
+    // Only the checked-out items leave, an item added meanwhile stays in the cart, and a rolled
+    // back checkout leaves the cart as it was
+    List<Long> removed = List.copyOf(items.keySet());
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        withCart(userId, cart -> {
+          if (status == STATUS_COMMITTED) {
+            removed.forEach(cart.items::remove);
+            markDirty(userId, cart);
+          }
+          cart.checkingOut = false;
+          return null;
+        });
+      }
+    });
+    return items;
+  }
+
+  @Override
+  public void updateItems(Long userId, Consumer<Map<Long, Integer>> change) {
+    change(userId, change);
+  }
+
+  /**
+   * Write the changed carts to the database, one batch per transaction, then drop the least
+   * recently used carts beyond the maximum. A batch the database refuses is written again cart
+   * by cart, and the carts it refuses, such as those of deleted users, are dropped. A batch
+   * failing otherwise is retried with the next flush.
+   */
+  @Scheduled(fixedDelayString = "${cart.memory.flush-interval-ms:1000}")
+  public synchronized void flush() {
+    List<Long> userIds = dirtyUserIds.stream().sorted().toList();
+    for (int from = 0; from < userIds.size(); from += flushBatchSize) {
+      Map<Long, Map<Long, Integer>> batch = new TreeMap<>();
+      for (Long userId : userIds.subList(from, Math.min(from + flushBatchSize, userIds.size()))) {
+        dirtyUserIds.remove(userId);
+        Cart cart = carts.get(userId);
+        if (cart == null) {
+          // Dropped after an earlier flush already wrote its last change
+          continue;
+        }
+        synchronized (cart) {
+          batch.put(userId, new LinkedHashMap<>(cart.items));
+          cart.dirty = false;
+        }
+      }
+
+      if (!writeBack(batch)) {
+        for (Long userId : userIds.subList(from, userIds.size())) {
+          Cart cart = carts.get(userId);
+          if (cart != null) {
+            synchronized (cart) {
+              markDirty(userId, cart);
+            }
+          }
+        }
+        return;
+      }
+    }
+    evictLeastRecentlyUsed();
+  }
+
+  /**
+   * Write the changed carts to the database before the application stops.
+   */
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  private void change(Long userId, Consumer<Map<Long, Integer>> change) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // Applied once the transaction commits, a rolled back add leaves the cart as it was
+      pendingChanges(true).add(userId, change);
+    } else {
+      apply(userId, List.of(change));
+    }
+  }
+
+  private void apply(Long userId, List<Consumer<Map<Long, Integer>>> changes) {
+    withCart(userId, cart -> {
+      changes.forEach(change -> change.accept(cart.items));
+      markDirty(userId, cart);
+      return null;
+    });
+  }
+
+  private PendingChanges pendingChanges(boolean create) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return null;
+    }
+    // Looked up among the synchronizations rather than bound as a resource, so that a suspended
+    // transaction keeps its own changes
+    for (TransactionSynchronization synchronization
+        : TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof PendingChanges pending && pending.store() == this) {
+        return pending;
+      }
+    }
+    if (!create) {
+      return null;
+    }
+    PendingChanges pending = new PendingChanges();
+    TransactionSynchronizationManager.registerSynchronization(pending);
+    return pending;
+  }
+
+  private boolean writeBack(Map<Long, Map<Long, Integer>> batch) {
+    try {
+      transactionRetryExecutor.execute("cart-flush", () -> {
+        cartDetailRepository.replaceItems(batch);
+        return null;
+      });
+      return true;
+    } catch (DataIntegrityViolationException ex) {
+      if (batch.size() > 1) {
+        // One refused cart fails the whole batch, the others are written on their own
+        for (Map.Entry<Long, Map<Long, Integer>> entry : batch.entrySet()) {
+          if (!writeBack(Map.of(entry.getKey(), entry.getValue()))) {
+            return false;
+          }
+        }
+        return true;
+      }
+      // Kept, the cart would fail every later flush and never leave memory
+      Long userId = batch.keySet().iterator().next();
+      drop(userId);
+      log.warn("Dropped the cart of user {}, refused by the database", userId, ex);
+      return true;
+    } catch (RuntimeException ex) {
+      log.warn("Writing {} carts to the database failed", batch.size(), ex);
+      return false;
+    }
+  }
+
+  private void drop(Long userId) {
+    Cart cart = carts.get(userId);
+    if (cart != null) {
+      synchronized (cart) {
+        cart.evicted = true;
+        carts.remove(userId, cart);
+      }
+    }
+    dirtyUserIds.remove(userId);
+  }
+
+  private void markDirty(Long userId, Cart cart) {
+    cart.dirty = true;
+    dirtyUserIds.add(userId);
+  }
+
+  private <T> T withCart(Long userId, Function<Cart, T> action) {
+    while (true) {
+      Cart cart = carts.get(userId);
+      if (cart == null) {
+        Cart loaded = load(userId);
+        Cart existing = carts.putIfAbsent(userId, loaded);
+        cart = existing != null ? existing : loaded;
+      }
+      synchronized (cart) {
+        // A cart dropped meanwhile is read again, it was written back before being dropped
+        if (!cart.evicted) {
+          cart.lastUsed = System.nanoTime();
+          return action.apply(cart);
+        }
+      }
+    }
+  }
+
+  private Cart load(Long userId) {
+    Cart cart = new Cart();
+    for (CartItem item : cartDetailRepository.findItemsByUserId(userId)) {
+      cart.items.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+    }
+    return cart;
+  }
+
+  private void evictLeastRecentlyUsed() {
+    int excess = carts.size() - maxCarts;
+    if (excess <= 0) {
+      return;
+    }
+    List<Map.Entry<Long, Cart>> candidates = new ArrayList<>(carts.entrySet());
+    candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+    for (Map.Entry<Long, Cart> entry : candidates) {
+      if (excess <= 0) {
+        break;
+      }
+      Cart cart = entry.getValue();
+      synchronized (cart) {
+        if (!cart.dirty && !cart.checkingOut) {
+          cart.evicted = true;
+          carts.remove(entry.getKey(), cart);
+          excess--;
+        }
+      }
+    }
+  }
+
+  /**
+   * Cart changes of a transaction, applied to the carts once it commits.
+   */
+  private final class PendingChanges implements TransactionSynchronization {
+
+    private final Map<Long, List<Consumer<Map<Long, Integer>>>> changes = new LinkedHashMap<>();
+
+    private InMemoryCartStore store() {
+      return InMemoryCartStore.this;
+    }
+
+    private void add(Long userId, Consumer<Map<Long, Integer>> change) {
+      changes.computeIfAbsent(userId, id -> new ArrayList<>()).add(change);
+    }
+
+    private void applyTo(Long userId, Map<Long, Integer> items) {
+      changes.getOrDefault(userId, List.of()).forEach(change -> change.accept(items));
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      if (status == STATUS_COMMITTED) {
+        changes.forEach(InMemoryCartStore.this::apply);
+      }
+    }
+  }
+
+  /**
+   * Cart in memory, guarded by its own monitor.
+   */
+  private static final class Cart {
+
+    private final Map<Long, Integer> items = new LinkedHashMap<>();
+    private long lastUsed;
+    private boolean dirty;
+    private boolean evicted;
+    private boolean checkingOut;
+  }
+}
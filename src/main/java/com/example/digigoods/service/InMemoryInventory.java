@@ -0,0 +1,251 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.InventoryLockMode;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Authoritative in-memory stock counters of the {@link InventoryLockMode#IN_MEMORY} products,
+ * written to the database in the background.
+ *
+ * <p>A counter starts from the product stock the first time the product is sold, and from then
+ * on only changes in memory: a sale is a compare-and-set on the counter plus one record appended
+ * to the {@link InventoryJournal}. Changed counters are written to the database in one batch
+ * every {@code inventory.in-memory.flush-interval-ms}. On startup the journal left by the
+ * previous run is replayed into the database first, so the stock is exact after a restart even
+ * when the last batches never reached the database.
+ *
+ * <p>The counters are only authoritative within a single instance, and the stock of these
+ * products must not be changed in the database while the application runs.
+ */
+@Component
+public class InMemoryInventory {
+
+  private static final Logger log = LoggerFactory.getLogger(InMemoryInventory.class);
+
+  private final ProductRepository productRepository;
+  private final TransactionRetryExecutor transactionRetryExecutor;
+  private final Path journalDirectory;
+  private final int segmentRecords;
+  private final Map<Long, AtomicLong> counters = new ConcurrentHashMap<>();
+  // Appends share the read lock, segment rotation takes the write lock
+  private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+  private final Object journalOpenLock = new Object();
+  private volatile InventoryJournal journal;
+  private volatile Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor with repository, executor and journal settings.
+   *
+   * @param productRepository the product repository
+   * @param transactionRetryExecutor the executor running each database batch
+   * @param journalDirectory the directory of the journal segment files
+   * @param segmentRecords the number of records per journal segment file
+   */
+  public InMemoryInventory(ProductRepository productRepository,
+                           TransactionRetryExecutor transactionRetryExecutor,
+                           @Value("${inventory.in-memory.journal-dir:data/inventory-journal}")
+                           String journalDirectory,
+                           @Value("${inventory.in-memory.segment-records:1048576}")
+                           int segmentRecords) {
+    this.productRepository = productRepository;
+    this.transactionRetryExecutor = transactionRetryExecutor;
+    this.journalDirectory = Path.of(journalDirectory);
+    this.segmentRecords = segmentRecords;
+  }
+
+  /**
+   * Replay the journal left by the previous run into the database.
+   */
+  @PostConstruct
+  public void recover() {
+    if (!Files.isDirectory(journalDirectory)) {
+      return;
+    }
+    InventoryJournal recovered = new InventoryJournal(journalDirectory, segmentRecords);
+    Map<Long, Integer> stock = new TreeMap<>(recovered.recover());
+    if (!stock.isEmpty()) {
+      transactionRetryExecutor.execute("inventory-recovery", () -> {
+        productRepository.overwriteStock(stock);
+        return null;
+      });
+      log.info("Recovered the stock of {} products from the inventory journal", stock.size());
+    }
+    recovered.deleteAll();
+    recovered.start();
+    journal = recovered;
+  }
+
+  /**
+   * Take stock from the counters of some products, all or nothing. Within a transaction the
+   * stock is given back when the transaction rolls back.
+   *
+   * @param products the products to take, with the stock their counters start from
+   * @param quantities the quantity to take by product ID
+   * @throws InsufficientStockException if a counter has too little stock, nothing is taken then
+   */
+  public void take(List<Product> products, Map<Long, Integer> quantities) {
+    List<Product> taken = new ArrayList<>();
+    for (Product product : products) {
+      int quantity = quantities.get(product.getId());
+      if (!add(product, -quantity)) {
+        taken.forEach(previous -> add(previous, quantities.get(previous.getId())));
+        throw new InsufficientStockException(product.getId(), quantity,
+            getStock(product.getId()));
+      }
+      taken.add(product);
+    }
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status == STATUS_ROLLED_BACK) {
+            taken.forEach(product -> add(product, quantities.get(product.getId())));
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Write the changed counters to the database in one batch, then delete the journal segments
+   * that the batch covers. A failed batch is retried with the next one.
+   */
+  @Scheduled(fixedDelayString = "${inventory.in-memory.flush-interval-ms:1000}")
+  public synchronized void flush() {
+    if (journal == null) {
+      return;
+    }
+
+    Map<Long, Integer> stock = new TreeMap<>();
+    long closedGeneration;
+    journalLock.writeLock().lock();
+    try {
+      if (dirtyIds.isEmpty()) {
+        return;
+      }
+      dirtyIds.forEach(id -> stock.put(id, getStock(id)));
+      dirtyIds = ConcurrentHashMap.newKeySet();
+      closedGeneration = journal.rotate();
+    } finally {
+      journalLock.writeLock().unlock();
+    }
+
+    try {
+      transactionRetryExecutor.execute("inventory-flush", () -> {
+        productRepository.overwriteStock(stock);
+        return null;
+      });
+    } catch (RuntimeException ex) {
+      // The journal keeps the records until a later batch covers them
+      dirtyIds.addAll(stock.keySet());
+      log.warn("Writing {} inventory counters to the database failed", stock.size(), ex);
+      return;
+    }
+    journal.deleteThrough(closedGeneration);
+  }
+
+  /**
+   * Write the changed counters to the database and release the journal. Its segments are only
+   * kept when the last batch failed, to be replayed on the next start.
+   */
+  @PreDestroy
+  public synchronized void shutdown() {
+    flush();
+    journalLock.writeLock().lock();
+    try {
+      if (journal != null) {
+        if (dirtyIds.isEmpty()) {
+          journal.deleteAll();
+        }
+        journal.close();
+        journal = null;
+      }
+    } finally {
+      journalLock.writeLock().unlock();
+    }
+  }
+
+  private boolean add(Product product, int delta) {
+    AtomicLong counter = counters.computeIfAbsent(product.getId(),
+        id -> new AtomicLong(InventoryJournal.pack(0, product.getStock())));
+    while (true) {
+      journalLock.readLock().lock();
+      try {
+        InventoryJournal current = openJournal();
+        // Reserved before the change, so that a changed counter always has a slot
+        int slot = current.reserve();
+        if (slot >= 0) {
+          long packed;
+          long next;
+          do {
+            packed = counter.get();
+            int stock = InventoryJournal.stock(packed) + delta;
+            if (stock < 0) {
+              // The empty slot is skipped by recovery
+              return false;
+            }
+            next = InventoryJournal.pack(InventoryJournal.version(packed) + 1, stock);
+          } while (!counter.compareAndSet(packed, next));
+          current.write(slot, product.getId(), next);
+          dirtyIds.add(product.getId());
+          return true;
+        }
+      } finally {
+        journalLock.readLock().unlock();
+      }
+      rotateFullSegment();
+    }
+  }
+
+  private int getStock(Long productId) {
+    return InventoryJournal.stock(counters.get(productId).get());
+  }
+
+  private InventoryJournal openJournal() {
+    InventoryJournal current = journal;
+    if (current != null) {
+      return current;
+    }
+    synchronized (journalOpenLock) {
+      if (journal == null) {
+        InventoryJournal opened = new InventoryJournal(journalDirectory, segmentRecords);
+        opened.start();
+        journal = opened;
+      }
+      return journal;
+    }
+  }
+
+  private void rotateFullSegment() {
+    journalLock.writeLock().lock();
+    try {
+      if (journal.isFull()) {
+        journal.rotate();
+      }
+    } finally {
+      journalLock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package com.example.digigoods.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the in-memory stock counters, written to memory-mapped segment files.
+ *
+ * <p>Each record holds a product ID and its packed counter: a version in the high 32 bits and
+ * the stock in the low 32 bits. Writers reserve a slot with one atomic increment and fill it with
+ * two stores into the mapped file, so an append costs no system call, and the pages reach the
+ * file through the page cache even when the process dies. Recovery keeps the record with the
+ * highest version of each product, so concurrent writers may fill their slots in any order.
+ *
+ * <p>The journal is not thread-safe on its own: appends may run concurrently with each other,
+ * but not with {@link #rotate()}, {@link #deleteAll()} or {@link #close()}.
+ */
+final class InventoryJournal implements Closeable {
+
+  private static final int RECORD_BYTES = 16;
+  private static final String SEGMENT_SUFFIX = ".journal";
+
+  private final Path directory;
+  private final int segmentRecords;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+  private Segment active;
+
+  /**
+   * Open the journal directory for this process only. Appends need a {@link #start()} first.
+   *
+   * @param directory the directory of the segment files
+   * @param segmentRecords the number of records per segment file
+   * @throws IllegalStateException if another process or instance uses the directory
+   */
+  InventoryJournal(Path directory, int segmentRecords) {
+    this.directory = directory;
+    this.segmentRecords = segmentRecords;
+    try {
+      Files.createDirectories(directory);
+      this.lockChannel = FileChannel.open(directory.resolve("journal.lock"),
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      FileLock acquired;
+      try {
+        acquired = lockChannel.tryLock();
+      } catch (OverlappingFileLockException e) {
+        acquired = null;
+      }
+      if (acquired == null) {
+        lockChannel.close();
+        throw new IllegalStateException("Inventory journal " + directory + " is already in use");
+      }
+      this.lock = acquired;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static long pack(int version, int stock) {
+    return ((long) version << 32) | (stock & 0xFFFFFFFFL);
+  }
+
+  static int version(long packed) {
+    return (int) (packed >>> 32);
+  }
+
+  static int stock(long packed) {
+    return (int) packed;
+  }
+
+  /**
+   * Read the segments left by a previous run.
+   *
+   * @return the last recorded stock by product ID
+   */
+  Map<Long, Integer> recover() {
+    Map<Long, Long> latest = new HashMap<>();
+    for (Path path : segmentPaths()) {
+      MappedByteBuffer buffer = map(path, size(path));
+      for (int offset = 0; offset + RECORD_BYTES <= buffer.capacity(); offset += RECORD_BYTES) {
+        long productId = buffer.getLong(offset);
+        // Unused and half-written slots have no product ID yet
+        if (productId != 0) {
+          long packed = buffer.getLong(offset + Long.BYTES);
+          latest.merge(productId, packed,
+              (current, candidate) -> version(candidate) > version(current) ? candidate : current);
+        }
+      }
+    }
+    Map<Long, Integer> stock = new HashMap<>();
+    latest.forEach((productId, packed) -> stock.put(productId, stock(packed)));
+    return stock;
+  }
+
+  /**
+   * Start a segment after the ones already in the directory.
+   */
+  void start() {
+    active = new Segment(nextGeneration());
+  }
+
+  /**
+   * Reserve the next record slot of the active segment.
+   *
+   * @return the slot, or -1 when the segment is full and must be rotated
+   */
+  int reserve() {
+    int slot = active.next.getAndIncrement();
+    return slot < segmentRecords ? slot : -1;
+  }
+
+  /**
+   * Fill a reserved slot. The product ID is stored last, so that a slot is only recovered once
+   * its counter is written.
+   *
+   * @param slot the reserved slot
+   * @param productId the product ID
+   * @param packed the packed counter
+   */
+  void write(int slot, long productId, long packed) {
+    int offset = slot * RECORD_BYTES;
+    active.buffer.putLong(offset + Long.BYTES, packed);
+    active.buffer.putLong(offset, productId);
+  }
+
+  boolean isFull() {
+    return active.next.get() >= segmentRecords;
+  }
+
+  /**
+   * Close the active segment and start the next one.
+   *
+   * @return the generation of the closed segment
+   */
+  long rotate() {
+    long closed = active.generation;
+    active = new Segment(closed + 1);
+    return closed;
+  }
+
+  /**
+   * Delete the closed segments up to a generation, once the database holds their counters.
+   *
+   * @param generation the last generation to delete
+   */
+  void deleteThrough(long generation) {
+    for (Path path : segmentPaths()) {
+      if (generationOf(path) <= generation) {
+        delete(path);
+      }
+    }
+  }
+
+  /**
+   * Delete all segments, including the active one. Appends need a {@link #start()} again.
+   */
+  void deleteAll() {
+    active = null;
+    segmentPaths().forEach(this::delete);
+  }
+
+  @Override
+  public void close() {
+    active = null;
+    try {
+      lock.release();
+      lockChannel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private long nextGeneration() {
+    return segmentPaths().stream()
+        .mapToLong(InventoryJournal::generationOf)
+        .max()
+        .orElse(-1) + 1;
+  }
+
+  private List<Path> segmentPaths() {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths
+          .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static long generationOf(Path path) {
+    String name = path.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static long size(Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static MappedByteBuffer map(Path path, long size) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // The mapping stays valid after the channel is closed
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void delete(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private final class Segment {
+
+    private final long generation;
+    private final MappedByteBuffer buffer;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private Segment(long generation) {
+      this.generation = generation;
+      this.buffer = map(directory.resolve(String.format("%020d%s", generation, SEGMENT_SUFFIX)),
+          (long) segmentRecords * RECORD_BYTES);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CartItem;
+import com.example.digigoods.repository.CartDetailRepository;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cart store reading and writing the cart tables directly, every call a database round trip.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+  private final CartDetailRepository cartDetailRepository;
+
+  /**
+   * Constructor with the cart detail repository.
+   *
+   * @param cartDetailRepository the cart detail repository
+   */
+  public JpaCartStore(CartDetailRepository cartDetailRepository) {
+    this.cartDetailRepository = cartDetailRepository;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, Integer> getItems(Long userId) {
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    for (CartItem item : cartDetailRepository.findItemsByUserId(userId)) {
+      items.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+    }
+    return items;
+  }
+
+  @Override
+  @Transactional
+  public void setQuantity(Long userId, Long productId, int quantity) {
+    cartDetailRepository.upsertItem(userId, productId, quantity);
+  }
+
+  @Override
+  @Transactional
+  public Map<Long, Integer> checkOutItems(Long userId) {
+    // A concurrent checkout waits for this one to end, then finds the items gone
+    if (!cartDetailRepository.lockCart(userId)) {
+      return new LinkedHashMap<>();
+    }
+    Map<Long, Integer> items = getItems(userId);
+    cartDetailRepository.deleteItems(userId, items.keySet());
+    return items;
+  }
+
+  @Override
+  @Transactional
+  public void updateItems(Long userId, Consumer<Map<Long, Integer>> change) {
+    Map<Long, Integer> current = getItems(userId);
+    Map<Long, Integer> updated = new LinkedHashMap<>(current);
+    change.accept(updated);
+
+    // Only the difference is written: one delete and one batch of upserts
+    List<Long> removed = current.keySet().stream()
+        .filter(productId -> !updated.containsKey(productId))
+        .toList();
+    Map<Long, Integer> changed = new LinkedHashMap<>();
+    updated.forEach((productId, quantity) -> {
+      if (!Objects.equals(current.get(productId), quantity)) {
+        changed.put(productId, quantity);
+      }
+    });
+    cartDetailRepository.deleteItems(userId, removed);
+    cartDetailRepository.upsertItems(userId, changed);
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.OutboxEvent;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Outbox sink writing events to the application log, the default when no broker is set up.
+ */
+@Service
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+  private static final Logger log = LoggerFactory.getLogger(LogOutboxSink.class);
+
+  @Override
+  public void publish(List<OutboxEvent> events) {
+    for (OutboxEvent event : events) {
+      log.info("Outbox event {} {} of {}: {}", event.getId(), event.getEventType(),
+          event.getAggregateId(), event.getPayload());
+    }
+  }
+}
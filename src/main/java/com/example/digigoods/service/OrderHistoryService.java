@@ -0,0 +1,132 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.OrderHistoryEntry;
+import com.example.digigoods.dto.OrderHistoryItem;
+import com.example.digigoods.dto.OrderHistoryResponse;
+import com.example.digigoods.exception.InvalidCursorException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.repository.OrderItemRepository;
+import com.example.digigoods.repository.OrderRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for order history operations.
+ *
+ * <p>Pages are read with keyset pagination on the order date and ID: the cursor is the position
+ * of the last order of the previous page, and the next page starts right after it in the user,
+ * order date and ID index. Unlike an offset, which the database has to count through, reading
+ * a page costs the same for the first page and for one thousands of orders back. Items and
+ * applied discounts of a page are read with one query each.
+ */
+@Service
+public class OrderHistoryService {
+
+  private final OrderRepository orderRepository;
+  private final OrderItemRepository orderItemRepository;
+  private final int maxLimit;
+
+  /**
+   * Constructor with repositories and page settings.
+   *
+   * @param orderRepository the order repository
+   * @param orderItemRepository the order item repository
+   * @param maxLimit the largest number of orders returned in one page
+   */
+  public OrderHistoryService(OrderRepository orderRepository,
+                             OrderItemRepository orderItemRepository,
+                             @Value("${orders.history.max-limit:100}") int maxLimit) {
+    this.orderRepository = orderRepository;
+    this.orderItemRepository = orderItemRepository;
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * Get a page of the orders of a user, newest first.
+   *
+   * @param userId the user ID
+   * @param before the cursor returned with the previous page, null for the first page
+   * @param limit the number of orders to return, capped at the maximum page size
+   * @return the page of orders, with the cursor of the next page if there is one
+   * @throws InvalidCursorException if the cursor was not issued by this service
+   */
+  @Transactional(readOnly = true)
+  public OrderHistoryResponse getOrderHistory(Long userId, String before, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, maxLimit));
+    // One more order than asked tells whether there is a next page
+    PageRequest page = PageRequest.of(0, pageSize + 1);
+    List<Order> orders;
+    if (before == null) {
+      orders = orderRepository.findNewestByUserId(userId, page);
+    } else {
+      Cursor cursor = Cursor.decode(before);
+      orders = orderRepository.findByUserIdBefore(userId, cursor.orderDate(), cursor.id(), page);
+    }
+
+    String nextCursor = null;
+    if (orders.size() > pageSize) {
+      orders = orders.subList(0, pageSize);
+      Order last = orders.get(pageSize - 1);
+      nextCursor = new Cursor(last.getOrderDate(), last.getId()).encode();
+    }
+    if (orders.isEmpty()) {
+      return new OrderHistoryResponse(List.of(), null);
+    }
+
+    orderRepository.fetchAppliedDiscounts(orders);
+    Map<Long, List<OrderItem>> items = orderItemRepository.findAllByOrderIdIn(
+            orders.stream().map(Order::getId).toList()).stream()
+        .collect(Collectors.groupingBy(OrderItem::getOrderId));
+
+    List<OrderHistoryEntry> entries = new ArrayList<>();
+    for (Order order : orders) {
+      entries.add(new OrderHistoryEntry(order.getId(), order.getOrderDate(),
+          order.getOriginalSubtotal(), order.getFinalPrice(),
+          items.getOrDefault(order.getId(), List.of()).stream()
+              .map(item -> new OrderHistoryItem(item.getProductId(), item.getQuantity(),
+                  item.getUnitPrice(), item.getDiscountedPrice()))
+              .toList(),
+          order.getAppliedDiscounts().stream()
+              .map(Discount::getCode)
+              .sorted()
+              .toList()));
+    }
+    return new OrderHistoryResponse(entries, nextCursor);
+  }
+
+  /**
+   * Position in the order history, opaque to clients.
+   */
+  record Cursor(LocalDateTime orderDate, Long id) {
+
+    String encode() {
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString((orderDate + "," + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decode(String cursor) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor),
+            StandardCharsets.UTF_8).split(",", -1);
+        if (parts.length != 2) {
+          throw new InvalidCursorException(cursor);
+        }
+        return new Cursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        throw new InvalidCursorException(cursor);
+      }
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.OrderHistoryItem;
+import com.example.digigoods.dto.OrderPlacedEvent;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.OutboxEvent;
+import com.example.digigoods.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for outbox operations.
+ *
+ * <p>Checkouts write an event per placed order to the outbox table, in the transaction placing
+ * the orders, so an event exists exactly when its order does and checkout never waits for the
+ * systems reacting to it. A background relay locks the oldest unpublished events in batches with
+ * {@code FOR UPDATE SKIP LOCKED}, hands them to the {@link OutboxSink} and marks them published
+ * in the same transaction. Relays of several instances therefore share the backlog without
+ * waiting for each other, and a batch whose publication fails stays in the outbox for the next
+ * poll, which makes delivery at least once.
+ *
+ * <p>The age of the oldest event of each poll is exported as the {@code outbox.lag} gauge, and
+ * the time from checkout to publication of every event as the {@code outbox.delivery} timer.
+ * Published events are deleted in bulk batches once past their retention.
+ */
+@Service
+public class OutboxService {
+
+  static final String ORDER_PLACED = "OrderPlaced";
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final OutboxSink outboxSink;
+  private final TransactionRetryExecutor transactionRetryExecutor;
+  private final ObjectMapper objectMapper;
+  private final boolean enabled;
+  private final int relayBatchSize;
+  private final Duration retention;
+  private final int cleanupBatchSize;
+  private final AtomicLong lagMillis = new AtomicLong();
+  private final Timer deliveryTimer;
+  private final Counter failures;
+
+  /**
+   * Constructor with repository, sink and outbox settings.
+   *
+   * @param outboxEventRepository the outbox event repository
+   * @param outboxSink the sink events are published to
+   * @param transactionRetryExecutor the executor running each relay and cleanup batch
+   * @param objectMapper the object mapper writing event payloads
+   * @param meterRegistry the meter registry for lag and delivery meters
+   * @param enabled whether checkouts write events and the relay publishes them at all
+   * @param relayBatchSize the number of events published per transaction
+   * @param retentionHours how long published events are kept
+   * @param cleanupBatchSize the number of published events deleted per transaction
+   */
+  public OutboxService(OutboxEventRepository outboxEventRepository,
+                       OutboxSink outboxSink,
+                       TransactionRetryExecutor transactionRetryExecutor,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.enabled:true}") boolean enabled,
+                       @Value("${outbox.relay.batch-size:100}") int relayBatchSize,
+                       @Value("${outbox.cleanup.retention-hours:24}") long retentionHours,
+                       @Value("${outbox.cleanup.batch-size:1000}") int cleanupBatchSize) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.outboxSink = outboxSink;
+    this.transactionRetryExecutor = transactionRetryExecutor;
+    this.objectMapper = objectMapper;
+    this.enabled = enabled;
+    this.relayBatchSize = relayBatchSize;
+    this.retention = Duration.ofHours(retentionHours);
+    this.cleanupBatchSize = cleanupBatchSize;
+    Gauge.builder("outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+        .description("Age of the oldest unpublished event at the last relay poll")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    this.deliveryTimer = Timer.builder("outbox.delivery")
+        .description("Time from writing an event to publishing it")
+        .register(meterRegistry);
+    this.failures = Counter.builder("outbox.publish.failures")
+        .description("Relay polls whose batch could not be published")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Write an event for each placed order, in the transaction placing them.
+   *
+   * @param orders the orders, already saved
+   * @param items the items of the orders
+   */
+  public void record(List<Order> orders, List<OrderItem> items) {
+    if (!enabled || orders.isEmpty()) {
+      return;
+    }
+    Map<Long, List<OrderHistoryItem>> itemsByOrder = items.stream()
+        .collect(Collectors.groupingBy(OrderItem::getOrderId,
+            Collectors.mapping(item -> new OrderHistoryItem(item.getProductId(),
+                item.getQuantity(), item.getUnitPrice(), item.getDiscountedPrice()),
+                Collectors.toList())));
+
+    LocalDateTime now = LocalDateTime.now();
+    List<OutboxEvent> events = new ArrayList<>();
+    for (Order order : orders) {
+      OrderPlacedEvent payload = new OrderPlacedEvent(order.getId(), order.getUser().getId(),
+          order.getOrderDate(), order.getOriginalSubtotal(), order.getFinalPrice(),
+          itemsByOrder.getOrDefault(order.getId(), List.of()),
+          order.getAppliedDiscounts().stream().map(Discount::getCode).sorted().toList());
+      events.add(new OutboxEvent(null, ORDER_PLACED, order.getId(), toJson(payload), now, null));
+    }
+    outboxEventRepository.saveAll(events);
+  }
+
+  /**
+   * Publish the unpublished events, one batch per transaction, until a batch comes back short
+   * or publishing fails.
+   */
+  @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+  public void relay() {
+    if (!enabled) {
+      return;
+    }
+
+    int published;
+    do {
+      try {
+        published = transactionRetryExecutor.execute("outbox-relay", this::relayBatch);
+      } catch (RuntimeException ex) {
+        // The batch rolled back unpublished and is retried at the next poll
+        failures.increment();
+        log.warn("Publishing outbox events failed, retrying at the next poll", ex);
+        return;
+      }
+    } while (published == relayBatchSize);
+  }
+
+  private int relayBatch() {
+    List<OutboxEvent> events = outboxEventRepository.lockUnpublished(relayBatchSize);
+    LocalDateTime now = LocalDateTime.now();
+    lagMillis.set(events.isEmpty() ? 0
+        : Duration.between(events.get(0).getCreatedAt(), now).toMillis());
+    if (events.isEmpty()) {
+      return 0;
+    }
+
+    outboxSink.publish(events);
+    for (OutboxEvent event : events) {
+      // Flushed as one batch of updates at commit
+      event.setPublishedAt(now);
+      deliveryTimer.record(Duration.between(event.getCreatedAt(), now));
+    }
+    return events.size();
+  }
+
+  /**
+   * Delete the events published longer ago than the retention, in batches of one bulk delete
+   * per transaction.
+   */
+  @Scheduled(fixedDelayString = "${outbox.cleanup.interval-ms:600000}")
+  public void deletePublished() {
+    if (!enabled) {
+      return;
+    }
+
+    LocalDateTime before = LocalDateTime.now().minus(retention);
+    int deleted = 0;
+    int batchSize;
+    do {
+      batchSize = transactionRetryExecutor.execute("outbox-cleanup", () -> {
+        List<Long> publishedIds = outboxEventRepository.findPublishedIdsBefore(before,
+            PageRequest.of(0, cleanupBatchSize));
+        if (!publishedIds.isEmpty()) {
+          outboxEventRepository.deleteAllByIdInBatch(publishedIds);
+        }
+        return publishedIds.size();
+      });
+      deleted += batchSize;
+    } while (batchSize == cleanupBatchSize);
+
+    if (deleted > 0) {
+      log.debug("Deleted {} published outbox events", deleted);
+    }
+  }
+
+  private String toJson(OrderPlacedEvent payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Order event " + payload.getOrderId()
+          + " cannot be written as JSON", e);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.OutboxEvent;
+import java.util.List;
+
+/**
+ * Destination the outbox relay publishes events to.
+ *
+ * <p>Delivery is at least once: a batch that fails, or whose relay stops before recording it
+ * as published, is published again. Receivers tell repeats apart by the event ID.
+ */
+public interface OutboxSink {
+
+  /**
+   * Publish a batch of events, in order.
+   *
+   * @param events the events, oldest first
+   * @throws RuntimeException if any event of the batch may not have been delivered
+   */
+  void publish(List<OutboxEvent> events);
+}
@@ -1,14 +1,22 @@
 package com.example.digigoods.service;
 
+import com.example.digigoods.dto.CartProductView;
 import com.example.digigoods.exception.InsufficientStockException;
 import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.model.InventoryLockMode;
 import com.example.digigoods.model.Product;
 import com.example.digigoods.repository.ProductRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for product operations.
@@ -17,34 +25,61 @@ import org.springframework.stereotype.Service;
 public class ProductService {
 
   private final ProductRepository productRepository;
+  private final InMemoryInventory inMemoryInventory;
+  private final InventoryLockMode defaultLockMode;
 
-  public ProductService(ProductRepository productRepository) {
+  public ProductService(ProductRepository productRepository,
+                        InMemoryInventory inMemoryInventory,
+                        @Value("${inventory.lock-mode:ATOMIC}") InventoryLockMode defaultLockMode) {
     this.productRepository = productRepository;
+    this.inMemoryInventory = inMemoryInventory;
+    this.defaultLockMode = defaultLockMode;
   }
 
   /**
    * Get products by their IDs and validate they exist.
    *
-   * @param productIds the list of product IDs
-   * @return list of products
+   * @param productIds the list of product IDs (may contain duplicates)
+   * @return list of distinct products
    * @throws ProductNotFoundException if any product is not found
    */
   public List<Product> getProductsByIds(List<Long> productIds) {
-    List<Product> products = productRepository.findAllByIdIn(productIds);
-
-    if (products.size() != productIds.size()) {
-      // Find missing product IDs
-      List<Long> foundIds = products.stream()
-          .map(Product::getId)
-          .collect(Collectors.toList());
-
-      List<Long> missingIds = productIds.stream()
-          .filter(id -> !foundIds.contains(id))
-          .collect(Collectors.toList());
+    List<Long> distinctIds = productIds.stream().distinct().toList();
+    List<Product> products = productRepository.findAllByIdIn(distinctIds);
+    validateAllFound(distinctIds, products);
+    return products;
+  }
 
-      throw new ProductNotFoundException("Products not found with IDs: " + missingIds);
-    }
+  /**
+   * Get the catalog fields of the products of a cart in one query, without loading them.
+   * Products that are no longer sold are left out rather than reported.
+   *
+   * @param productIds the product IDs
+   * @return the catalog fields of the products found, in no particular order
+   */
+  @Transactional(readOnly = true)
+  public List<CartProductView> getCartProducts(Collection<Long> productIds) {
+    return productRepository.findCartViewsByIdIn(productIds);
+  }
 
+  /**
+   * Get the products of an order for a following stock update and validate they exist.
+   *
+   * <p>Each product is read once, however many times it is ordered. When the global lock mode
+   * is {@link InventoryLockMode#PESSIMISTIC} the rows are locked as they are read, in ascending
+   * product ID order.
+   *
+   * @param productIds the list of product IDs (may contain duplicates)
+   * @return list of distinct products
+   * @throws ProductNotFoundException if any product is not found
+   */
+  @Transactional
+  public List<Product> getProductsForUpdate(List<Long> productIds) {
+    List<Long> distinctIds = productIds.stream().distinct().sorted().toList();
+    List<Product> products = defaultLockMode == InventoryLockMode.PESSIMISTIC
+        ? productRepository.findAllByIdInForUpdate(distinctIds)
+        : productRepository.findAllByIdIn(distinctIds);
+    validateAllFound(distinctIds, products);
     return products;
   }
 
@@ -53,6 +88,7 @@ public class ProductService {
    *
    * @return list of all products
    */
+  @Transactional(readOnly = true)
   public List<Product> getAllProducts() {
     return productRepository.findAll();
   }
@@ -60,40 +96,146 @@ public class ProductService {
   /**
    * Validate and update stock for products.
    *
+   * <p>Each product is updated according to its lock mode, falling back to the global
+   * {@code inventory.lock-mode}. {@link InventoryLockMode#ATOMIC} products are decremented with
+   * one conditional update per product, sent to the database as a single batch.
+   * {@link InventoryLockMode#PESSIMISTIC} products are locked before their stock is checked, and
+   * {@link InventoryLockMode#OPTIMISTIC} products are checked as read and rely on the version
+   * column to reject concurrent changes when the transaction is flushed.
+   * {@link InventoryLockMode#IN_MEMORY} products are taken from their {@link InMemoryInventory}
+   * counters without any statement. The caller's transaction is expected to roll back all
+   * decrements when any product fails.
+   *
+   * <p>Within every mode, updates are applied in ascending product ID order, so two orders
+   * sharing products take their row locks in the same order and cannot deadlock each other.
+   *
    * @param productIds the list of product IDs (with duplicates for quantity)
    * @throws InsufficientStockException if any product has insufficient stock
+   * @throws ProductNotFoundException if any product is not found
    */
+  @Transactional
   public void validateAndUpdateStock(List<Long> productIds) {
+    validateAndUpdateStock(getProductsForUpdate(productIds), productIds);
+  }
+
+  /**
+   * Validate and update stock for products that were already loaded with
+   * {@link #getProductsForUpdate(List)}, without reading them again.
+   *
+   * @param products the distinct products of the order
+   * @param productIds the list of product IDs (with duplicates for quantity)
+   * @throws InsufficientStockException if any product has insufficient stock
+   */
+  @Transactional
+  public void validateAndUpdateStock(List<Product> products, List<Long> productIds) {
     // Count quantities for each product
-    Map<Long, Long> productQuantities = productIds.stream()
-        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-    // Get all unique products
-    List<Product> products = getProductsByIds(productQuantities.keySet().stream()
-        .collect(Collectors.toList()));
-
-    // Validate stock availability
-    for (Product product : products) {
-      Long requestedQuantity = productQuantities.get(product.getId());
-      if (product.getStock() < requestedQuantity) {
-        throw new InsufficientStockException(
-            product.getId(),
-            requestedQuantity.intValue(),
-            product.getStock()
-        );
+    validateAndUpdateStock(products, productIds.stream()
+        .collect(Collectors.groupingBy(Function.identity(), Collectors.summingInt(id -> 1))));
+  }
+
+  /**
+   * Validate and update stock for products that were already loaded, by quantity.
+   *
+   * @param products the loaded products, including at least those with a quantity
+   * @param productQuantities the quantity to take from each product, by product ID
+   * @throws InsufficientStockException if any product has insufficient stock
+   */
+  @Transactional
+  public void validateAndUpdateStock(List<Product> products,
+                                     Map<Long, Integer> productQuantities) {
+    // Sorted by product ID to get a stable lock order
+    Map<Long, Integer> atomicQuantities = new TreeMap<>();
+    List<Product> inMemoryProducts = new ArrayList<>();
+    for (Product product : sortById(products)) {
+      Integer quantity = productQuantities.get(product.getId());
+      if (quantity == null) {
+        continue;
+      }
+      switch (resolveLockMode(product)) {
+        case PESSIMISTIC -> {
+          productRepository.lockForUpdate(product);
+          decrementLoadedStock(product, quantity);
+        }
+        case OPTIMISTIC -> decrementLoadedStock(product, quantity);
+        case IN_MEMORY -> inMemoryProducts.add(product);
+        default -> atomicQuantities.put(product.getId(), quantity);
       }
     }
 
-    // Update stock
-    for (Product product : products) {
-      Long requestedQuantity = productQuantities.get(product.getId());
-      product.setStock(product.getStock() - requestedQuantity.intValue());
-      productRepository.save(product);
+    // First, as it fails without a round trip
+    if (!inMemoryProducts.isEmpty()) {
+      inMemoryInventory.take(inMemoryProducts, productQuantities);
     }
+    decrementStockAtomically(atomicQuantities);
+  }
+
+  /**
+   * Get the stock of a product, without loading the product.
+   *
+   * @param productId the product ID
+   * @return the stock of the product
+   * @throws ProductNotFoundException if the product does not exist
+   */
+  public int getStockById(Long productId) {
+    return productRepository.findStockById(productId)
+        .orElseThrow(() -> new ProductNotFoundException(productId));
   }
 
   public Product getProductById(Long productId) {
     return productRepository.findById(productId)
         .orElseThrow(() -> new ProductNotFoundException("Products not found with ID: " + productId));
   }
+
+  private InventoryLockMode resolveLockMode(Product product) {
+    return product.getLockMode() != null ? product.getLockMode() : defaultLockMode;
+  }
+
+  private void decrementLoadedStock(Product product, int quantity) {
+    if (product.getStock() < quantity) {
+      throw new InsufficientStockException(product.getId(), quantity, product.getStock());
+    }
+    // Flushed by dirty checking, together with the version check
+    product.setStock(product.getStock() - quantity);
+  }
+
+  private void decrementStockAtomically(Map<Long, Integer> productQuantities) {
+    if (productQuantities.isEmpty()) {
+      return;
+    }
+
+    List<Long> failedIds = productRepository.decrementStock(productQuantities);
+    if (failedIds.isEmpty()) {
+      return;
+    }
+
+    Long productId = failedIds.get(0);
+    Integer availableStock = productRepository.findStockById(productId)
+        .orElseThrow(() -> new ProductNotFoundException(productId));
+    throw new InsufficientStockException(
+        productId,
+        productQuantities.get(productId),
+        availableStock
+    );
+  }
+
+  private List<Product> sortById(List<Product> products) {
+    return products.stream()
+        .sorted(Comparator.comparing(Product::getId))
+        .toList();
+  }
+
+  private void validateAllFound(List<Long> productIds, List<Product> products) {
+    if (products.size() != productIds.size()) {
+      // Find missing product IDs
+      List<Long> foundIds = products.stream()
+          .map(Product::getId)
+          .collect(Collectors.toList());
+
+      List<Long> missingIds = productIds.stream()
+          .filter(id -> !foundIds.contains(id))
+          .collect(Collectors.toList());
+
+      throw new ProductNotFoundException("Products not found with IDs: " + missingIds);
+    }
+  }
 }
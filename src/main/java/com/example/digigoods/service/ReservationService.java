@@ -0,0 +1,231 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CartProductView;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.model.StockReservation;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for stock reservation operations.
+ *
+ * <p>When reservations are enabled, adding a product to the cart holds the cart quantity for a
+ * limited time, so that items in one cart are not sold to another buyer meanwhile. The stock
+ * available to sell to a user is the product stock minus the active holds of other users.
+ * Checkout converts the buyer's holds into the order, and expired holds are released in bulk
+ * batches by a background sweep.
+ *
+ * <p>Holds are soft: the stock update at checkout still guards against overselling on its own,
+ * holds only stop buyers from reaching checkout for items already in someone else's cart. The
+ * holds of a product are taken one at a time under a lock row of their own, so taking a hold
+ * never waits for a checkout locking the product, nor holds up one.
+ */
+@Service
+public class ReservationService {
+
+  private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+
+  private final StockReservationRepository stockReservationRepository;
+  private final ProductRepository productRepository;
+  private final TransactionRetryExecutor transactionRetryExecutor;
+  private final boolean enabled;
+  private final Duration ttl;
+  private final int sweepBatchSize;
+
+  /**
+   * Constructor with repositories and reservation settings.
+   *
+   * @param stockReservationRepository the stock reservation repository
+   * @param productRepository the product repository
+   * @param transactionRetryExecutor the executor running each sweep batch
+   * @param enabled whether adding to the cart reserves stock at all
+   * @param ttlMinutes how long a hold lasts after the cart was last changed
+   * @param sweepBatchSize the number of expired holds released per transaction
+   */
+  public ReservationService(StockReservationRepository stockReservationRepository,
+                            ProductRepository productRepository,
+                            TransactionRetryExecutor transactionRetryExecutor,
+                            @Value("${inventory.reservation.enabled:false}") boolean enabled,
+                            @Value("${inventory.reservation.ttl-minutes:15}") long ttlMinutes,
+                            @Value("${inventory.reservation.sweep-batch-size:500}")
+                            int sweepBatchSize) {
+    this.stockReservationRepository = stockReservationRepository;
+    this.productRepository = productRepository;
+    this.transactionRetryExecutor = transactionRetryExecutor;
+    this.enabled = enabled;
+    this.ttl = Duration.ofMinutes(ttlMinutes);
+    this.sweepBatchSize = sweepBatchSize;
+  }
+
+  /**
+   * Hold a quantity of a product for a user, replacing the user's previous hold of it and
+   * restarting its expiry.
+   *
+   * @param userId the user ID
+   * @param productId the product ID
+   * @param quantity the quantity in the user's cart
+   * @param stock the stock of the product, as the caller has already read it
+   * @throws InsufficientStockException if the stock not held by others is too low
+   */
+  @Transactional
+  public void reserve(Long userId, Long productId, int quantity, int stock) {
+    if (!enabled) {
+      return;
+    }
+
+    // Holds of a product are taken one at a time, so two carts cannot share its last items
+    stockReservationRepository.lockHolds(List.of(productId));
+    LocalDateTime now = LocalDateTime.now();
+    int available = stock - (int) stockReservationRepository
+        .sumActiveQuantityHeldByOthers(productId, userId, now);
+    if (available < quantity) {
+      throw new InsufficientStockException(productId, quantity, Math.max(available, 0));
+    }
+
+    StockReservation reservation = stockReservationRepository
+        .findByUserIdAndProductId(userId, productId)
+        .orElseGet(() -> new StockReservation(null, userId, productId, null, null));
+    reservation.setQuantity(quantity);
+    reservation.setExpiresAt(now.plus(ttl));
+    stockReservationRepository.save(reservation);
+  }
+
+  /**
+   * Hold quantities of several products for a user, replacing the user's previous holds of
+   * them and restarting their expiry, with one query for the stock, one for the hold locks, one
+   * for the active holds, one for the user's holds and one batch of writes.
+   *
+   * @param userId the user ID
+   * @param quantities the quantity in the user's cart by product ID
+   * @throws ProductNotFoundException if a product does not exist
+   * @throws InsufficientStockException if the stock not held by others is too low
+   */
+  @Transactional
+  public void reserveAll(Long userId, Map<Long, Integer> quantities) {
+    if (!enabled || quantities.isEmpty()) {
+      return;
+    }
+
+    Map<Long, Integer> stock = productRepository.findCartViewsByIdIn(quantities.keySet())
+        .stream()
+        .collect(Collectors.toMap(CartProductView::getProductId, CartProductView::getStock));
+    quantities.keySet().forEach(productId -> {
+      if (!stock.containsKey(productId)) {
+        throw new ProductNotFoundException(productId);
+      }
+    });
+    // Locked in ascending ID order, so that two batches cannot deadlock
+    stockReservationRepository.lockHolds(quantities.keySet());
+    LocalDateTime now = LocalDateTime.now();
+    Map<Long, Integer> heldByOthers = new HashMap<>();
+    for (StockReservation hold : stockReservationRepository.findActiveByProductIds(
+        quantities.keySet(), now)) {
+      if (!hold.getUserId().equals(userId)) {
+        heldByOthers.merge(hold.getProductId(), hold.getQuantity(), Integer::sum);
+      }
+    }
+    quantities.forEach((productId, quantity) -> {
+      int available = stock.get(productId) - heldByOthers.getOrDefault(productId, 0);
+      if (available < quantity) {
+        throw new InsufficientStockException(productId, quantity, Math.max(available, 0));
+      }
+    });
+
+    Map<Long, StockReservation> reservations = stockReservationRepository
+        .findByUserIdAndProductIdIn(userId, quantities.keySet()).stream()
+        .collect(Collectors.toMap(StockReservation::getProductId, Function.identity()));
+    quantities.forEach((productId, quantity) -> {
+      StockReservation reservation = reservations.computeIfAbsent(productId,
+          id -> new StockReservation(null, userId, id, null, null));
+      reservation.setQuantity(quantity);
+      reservation.setExpiresAt(now.plus(ttl));
+    });
+    stockReservationRepository.saveAll(reservations.values());
+  }
+
+  /**
+   * Release the holds of a user on products that left the user's cart, with one bulk delete.
+   *
+   * @param userId the user ID
+   * @param productIds the IDs of the products removed from the cart
+   */
+  @Transactional
+  public void release(Long userId, Collection<Long> productIds) {
+    if (!enabled || productIds.isEmpty()) {
+      return;
+    }
+    stockReservationRepository.deleteByUserIdAndProductIds(userId, productIds);
+  }
+
+  /**
+   * Read the active holds of some products, with one indexed query.
+   *
+   * @param productIds the product IDs
+   * @return the active holds, none when reservations are disabled
+   */
+  ActiveHolds getActiveHolds(Collection<Long> productIds) {
+    if (!enabled || productIds.isEmpty()) {
+      return new ActiveHolds(List.of());
+    }
+    return new ActiveHolds(stockReservationRepository.findActiveByProductIds(productIds,
+        LocalDateTime.now()));
+  }
+
+  /**
+   * Delete the holds converted into orders, with one bulk delete.
+   *
+   * @param holds the holds read for the checkout
+   */
+  void releaseConverted(ActiveHolds holds) {
+    List<Long> convertedIds = holds.getConvertedIds();
+    if (!convertedIds.isEmpty()) {
+      stockReservationRepository.deleteAllByIdInBatch(convertedIds);
+    }
+  }
+
+  /**
+   * Release the expired holds, in batches of one bulk delete per transaction so that the sweep
+   * never locks many rows at once.
+   */
+  @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:60000}")
+  public void releaseExpired() {
+    if (!enabled) {
+      return;
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    int released = 0;
+    int batchSize;
+    do {
+      batchSize = transactionRetryExecutor.execute("reservation-sweep", () -> {
+        List<Long> expiredIds = stockReservationRepository.findExpiredIds(now,
+            PageRequest.of(0, sweepBatchSize));
+        if (!expiredIds.isEmpty()) {
+          stockReservationRepository.deleteAllByIdInBatch(expiredIds);
+        }
+        return expiredIds.size();
+      });
+      released += batchSize;
+    } while (batchSize == sweepBatchSize);
+
+    if (released > 0) {
+      log.debug("Released {} expired stock reservations", released);
+    }
+  }
+}
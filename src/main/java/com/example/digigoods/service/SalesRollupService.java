@@ -0,0 +1,153 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.DailyRevenueReport;
+import com.example.digigoods.dto.DiscountRedemptionReport;
+import com.example.digigoods.dto.ProductSalesReport;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.repository.DailySalesRepository;
+import com.example.digigoods.repository.DiscountDailyRedemptionsRepository;
+import com.example.digigoods.repository.ProductDailySalesRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for sales rollup operations.
+ *
+ * <p>Checkouts add their orders to daily rollups of revenue, units per product and redemptions
+ * per discount code in their own transaction, so the rollups never disagree with the orders.
+ * Reports then read one row per day, product or code instead of scanning the orders, and cost
+ * the same whatever the number of orders.
+ *
+ * <p>Rows are added to sorted by key, products before discount codes, so that checkouts sharing
+ * rows lock them in the same order. The daily revenue comes last, in a random slot of the day:
+ * every checkout adds to it, and a single row per day would queue them all on one lock.
+ */
+@Service
+public class SalesRollupService {
+
+  private final DailySalesRepository dailySalesRepository;
+  private final ProductDailySalesRepository productDailySalesRepository;
+  private final DiscountDailyRedemptionsRepository discountDailyRedemptionsRepository;
+  private final boolean enabled;
+  private final int dailySlots;
+
+  /**
+   * Constructor with repositories and rollup settings.
+   *
+   * @param dailySalesRepository the daily sales repository, which also adds to all rollups
+   * @param productDailySalesRepository the product daily sales repository
+   * @param discountDailyRedemptionsRepository the discount daily redemptions repository
+   * @param enabled whether checkouts add to the rollups at all
+   * @param dailySlots the number of rows the revenue of a day is spread over
+   */
+  public SalesRollupService(DailySalesRepository dailySalesRepository,
+                            ProductDailySalesRepository productDailySalesRepository,
+                            DiscountDailyRedemptionsRepository discountDailyRedemptionsRepository,
+                            @Value("${reports.rollup.enabled:true}") boolean enabled,
+                            @Value("${reports.rollup.daily-slots:16}") int dailySlots) {
+    this.dailySalesRepository = dailySalesRepository;
+    this.productDailySalesRepository = productDailySalesRepository;
+    this.discountDailyRedemptionsRepository = discountDailyRedemptionsRepository;
+    this.enabled = enabled;
+    this.dailySlots = Math.max(1, dailySlots);
+  }
+
+  /**
+   * Add placed orders to the rollups of their day, in the transaction placing them.
+   *
+   * @param orders the orders, already saved
+   * @param items the items of the orders
+   */
+  public void record(List<Order> orders, List<OrderItem> items) {
+    if (!enabled || orders.isEmpty()) {
+      return;
+    }
+    Map<Long, LocalDate> salesDates = orders.stream()
+        .collect(Collectors.toMap(Order::getId, SalesRollupService::salesDate));
+    Map<LocalDate, List<Order>> ordersByDate = orders.stream()
+        .collect(Collectors.groupingBy(SalesRollupService::salesDate, TreeMap::new,
+            Collectors.toList()));
+    Map<LocalDate, List<OrderItem>> itemsByDate = items.stream()
+        .collect(Collectors.groupingBy(item -> salesDates.get(item.getOrderId())));
+
+    ordersByDate.forEach((salesDate, dateOrders) -> {
+      List<OrderItem> dateItems = itemsByDate.getOrDefault(salesDate, List.of());
+      Map<Long, Long> units = dateItems.stream()
+          .collect(Collectors.groupingBy(OrderItem::getProductId, TreeMap::new,
+              Collectors.summingLong(OrderItem::getQuantity)));
+      Map<Long, BigDecimal> netRevenue = dateItems.stream()
+          .collect(Collectors.toMap(OrderItem::getProductId, SalesRollupService::lineTotal,
+              BigDecimal::add, TreeMap::new));
+      dailySalesRepository.addProductSales(salesDate, units, netRevenue);
+
+      Map<String, Long> redemptions = dateOrders.stream()
+          .flatMap(order -> order.getAppliedDiscounts().stream())
+          .collect(Collectors.groupingBy(Discount::getCode, TreeMap::new,
+              Collectors.counting()));
+      dailySalesRepository.addDiscountRedemptions(salesDate, redemptions);
+
+      dailySalesRepository.addDailySales(salesDate,
+          ThreadLocalRandom.current().nextInt(dailySlots), dateOrders.size(),
+          sum(dateOrders, Order::getOriginalSubtotal), sum(dateOrders, Order::getFinalPrice));
+    });
+  }
+
+  /**
+   * Get the revenue of each day of a period.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the revenue of each day with sales, oldest first
+   */
+  @Transactional(readOnly = true)
+  public List<DailyRevenueReport> getDailyRevenue(LocalDate from, LocalDate to) {
+    return dailySalesRepository.findDailyRevenue(from, to);
+  }
+
+  /**
+   * Get the units sold and revenue of each product over a period.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the sales of each product sold in the period, highest revenue first
+   */
+  @Transactional(readOnly = true)
+  public List<ProductSalesReport> getProductSales(LocalDate from, LocalDate to) {
+    return productDailySalesRepository.findProductSales(from, to);
+  }
+
+  /**
+   * Get the redemptions of each discount code over a period.
+   *
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @return the redemptions of each code redeemed in the period, by code
+   */
+  @Transactional(readOnly = true)
+  public List<DiscountRedemptionReport> getDiscountRedemptions(LocalDate from, LocalDate to) {
+    return discountDailyRedemptionsRepository.findDiscountRedemptions(from, to);
+  }
+
+  private static LocalDate salesDate(Order order) {
+    return order.getOrderDate().toLocalDate();
+  }
+
+  private static BigDecimal lineTotal(OrderItem item) {
+    return item.getDiscountedPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+  }
+
+  private static BigDecimal sum(List<Order> orders, Function<Order, BigDecimal> amount) {
+    return orders.stream().map(amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+  }
+}
@@ -0,0 +1,103 @@
+package com.example.digigoods.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs work in its own transaction and retries it when the database aborts the transaction
+ * because of a deadlock, a serialization failure or a lost lock race.
+ *
+ * <p>Retries back off exponentially with full jitter, so that transactions that collided once
+ * do not collide again in lockstep. Every retry and every exhausted retry budget is counted in
+ * the {@code transaction.retries} and {@code transaction.retries.exhausted} meters.
+ */
+@Component
+public class TransactionRetryExecutor {
+
+  private static final Logger log = LoggerFactory.getLogger(TransactionRetryExecutor.class);
+
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+
+  /**
+   * Constructor with transaction manager, meter registry and retry settings.
+   *
+   * @param transactionManager the transaction manager
+   * @param meterRegistry the meter registry for retry counters
+   * @param maxAttempts the maximum number of attempts, including the first one
+   * @param initialBackoffMillis the upper bound of the first backoff
+   * @param maxBackoffMillis the upper bound of any backoff
+   */
+  public TransactionRetryExecutor(PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${transaction.retry.max-attempts:3}") int maxAttempts,
+                                  @Value("${transaction.retry.initial-backoff-ms:10}")
+                                  long initialBackoffMillis,
+                                  @Value("${transaction.retry.max-backoff-ms:200}")
+                                  long maxBackoffMillis) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  /**
+   * Execute the action in a new transaction, retrying on transient concurrency failures.
+   *
+   * <p>When a transaction is already active the action simply joins it, because a retry can
+   * only be safe when the whole transaction is replayed.
+   *
+   * @param operation the operation name used to tag the retry meters
+   * @param action the work to run inside the transaction
+   * @param <T> the result type
+   * @return the result of the action
+   * @throws ConcurrencyFailureException if the last attempt still fails
+   */
+  public <T> T execute(String operation, Supplier<T> action) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return action.get();
+    }
+
+    int attempt = 1;
+    while (true) {
+      try {
+        return transactionTemplate.execute(status -> action.get());
+      } catch (ConcurrencyFailureException ex) {
+        if (attempt >= maxAttempts) {
+          meterRegistry.counter("transaction.retries.exhausted", "operation", operation)
+              .increment();
+          throw ex;
+        }
+        meterRegistry.counter("transaction.retries", "operation", operation,
+            "exception", ex.getClass().getSimpleName()).increment();
+        log.debug("Retrying {} after attempt {} failed: {}", operation, attempt, ex.getMessage());
+        backOff(attempt, ex);
+        attempt++;
+      }
+    }
+  }
+
+  private void backOff(int attempt, ConcurrencyFailureException cause) {
+    long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 16));
+    long sleepMillis = ThreadLocalRandom.current().nextLong(ceiling + 1);
+    try {
+      Thread.sleep(sleepMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw cause;
+    }
+  }
+}
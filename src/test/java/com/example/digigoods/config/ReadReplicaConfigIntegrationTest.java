@@ -0,0 +1,76 @@
+package com.example.digigoods.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for ReadReplicaConfig, with the test database standing in for the replica.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:replicatest",
+    "spring.datasource.hikari.maximum-pool-size=4",
+    "datasource.replica.url=jdbc:h2:mem:replicatest",
+    "datasource.replica.hikari.maximum-pool-size=2"
+})
+@ActiveProfiles("test")
+class ReadReplicaConfigIntegrationTest {
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @AfterEach
+  void tearDown() {
+    ReadWriteRoutingDataSource.setReplicaAllowed(false);
+    productRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Given replica URL, when reading catalog in a read request, "
+      + "then borrow from the separately sized replica pool")
+  void givenReplicaUrl_whenReadingCatalogInReadRequest_thenBorrowFromReplicaPool() {
+    // Arrange
+    productRepository.save(new Product(null, "Replica Product", new BigDecimal("5.00"), 1));
+    final double replicaAcquisitions = acquisitions("replica");
+
+    // Act
+    ReadWriteRoutingDataSource.setReplicaAllowed(true);
+    int products = productService.getAllProducts().size();
+    ReadWriteRoutingDataSource.setReplicaAllowed(false);
+
+    // Assert
+    assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+    assertEquals(1, products);
+    assertEquals(replicaAcquisitions + 1, acquisitions("replica"));
+    assertEquals(4, meterRegistry.get("hikaricp.connections.max").tag("pool", "primary")
+        .gauge().value());
+    assertEquals(2, meterRegistry.get("hikaricp.connections.max").tag("pool", "replica")
+        .gauge().value());
+  }
+
+  private double acquisitions(String pool) {
+    return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+  }
+}
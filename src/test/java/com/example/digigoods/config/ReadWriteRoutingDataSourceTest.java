@@ -0,0 +1,83 @@
+package com.example.digigoods.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests of ReadWriteRoutingDataSource, with a second in-memory database as the replica.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readOnly;
+  private TransactionTemplate readWrite;
+
+  @BeforeEach
+  void setUp() {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+        new ReadWriteRoutingDataSource(database("routing-primary"), database("routing-replica")));
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    DataSourceTransactionManager transactionManager =
+        new DataSourceTransactionManager(dataSource);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    readWrite = new TransactionTemplate(transactionManager);
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReadWriteRoutingDataSource.setReplicaAllowed(false);
+  }
+
+  @Test
+  @DisplayName("Given replica allowed, when reading in read-only transaction, then use replica")
+  void givenReplicaAllowed_whenReadingInReadOnlyTransaction_thenUseReplica() {
+    // Arrange
+    ReadWriteRoutingDataSource.setReplicaAllowed(true);
+
+    // Act & Assert
+    assertEquals("routing-replica", readOnly.execute(status -> databaseName()));
+  }
+
+  @Test
+  @DisplayName("Given replica allowed, when reading in read-write transaction, then use primary")
+  void givenReplicaAllowed_whenReadingInReadWriteTransaction_thenUsePrimary() {
+    // Arrange
+    ReadWriteRoutingDataSource.setReplicaAllowed(true);
+
+    // Act & Assert
+    assertEquals("routing-primary", readWrite.execute(status -> databaseName()));
+    assertEquals("routing-primary", databaseName());
+  }
+
+  @Test
+  @DisplayName("Given replica not allowed, when reading in read-only transaction, "
+      + "then use primary")
+  void givenReplicaNotAllowed_whenReadingInReadOnlyTransaction_thenUsePrimary() {
+    // Act & Assert
+    assertEquals("routing-primary", readOnly.execute(status -> databaseName()));
+  }
+
+  private String databaseName() {
+    return jdbcTemplate.queryForObject("SELECT name FROM database_name", String.class);
+  }
+
+  private static JdbcDataSource database(String name) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate template = new JdbcTemplate(dataSource);
+    template.execute("CREATE TABLE IF NOT EXISTS database_name (name VARCHAR(50))");
+    template.execute("DELETE FROM database_name");
+    template.update("INSERT INTO database_name VALUES (?)", name);
+    return dataSource;
+  }
+}
@@ -0,0 +1,92 @@
+package com.example.digigoods.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.digigoods.config.ReadWriteRoutingDataSource.Route;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests of ReadYourWritesInterceptor.
+ */
+class ReadYourWritesInterceptorTest {
+
+  private final ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(60_000);
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+    ReadWriteRoutingDataSource.setReplicaAllowed(false);
+  }
+
+  @Test
+  @DisplayName("Given read requests, when handling, then allow the replica only during them")
+  void givenReadRequests_whenHandling_thenAllowReplicaOnlyDuringThem() {
+    // Act & Assert
+    assertEquals(Route.REPLICA, routeDuring("GET", null));
+    assertEquals(Route.REPLICA, routeDuring("GET", "alice"));
+    assertEquals(Route.PRIMARY, routeDuring("POST", "alice"));
+    assertEquals(Route.PRIMARY, readOnlyRoute());
+  }
+
+  @Test
+  @DisplayName("Given recent write of a user, when handling read, "
+      + "then keep that user on the primary only")
+  void givenRecentWriteOfUser_whenHandlingRead_thenKeepThatUserOnPrimaryOnly() {
+    // Arrange
+    routeDuring("POST", "alice");
+
+    // Act & Assert
+    assertEquals(Route.PRIMARY, routeDuring("GET", "alice"));
+    assertEquals(Route.REPLICA, routeDuring("GET", "bob"));
+  }
+
+  @Test
+  @DisplayName("Given write older than the window, when handling read, then allow the replica")
+  void givenWriteOlderThanWindow_whenHandlingRead_thenAllowReplica() {
+    // Arrange
+    ReadYourWritesInterceptor noWindow = new ReadYourWritesInterceptor(0);
+    handle(noWindow, "POST", "alice", () -> null);
+
+    // Act & Assert
+    assertEquals(Route.REPLICA, handle(noWindow, "GET", "alice", this::readOnlyRoute));
+  }
+
+  private Route routeDuring(String method, String username) {
+    return handle(interceptor, method, username, this::readOnlyRoute);
+  }
+
+  private <T> T handle(ReadYourWritesInterceptor target, String method, String username,
+                       Supplier<T> handler) {
+    if (username != null) {
+      SecurityContextHolder.getContext().setAuthentication(
+          new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+    MockHttpServletRequest request = new MockHttpServletRequest(method, "/orders");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    target.preHandle(request, response, new Object());
+    try {
+      return handler.get();
+    } finally {
+      target.afterCompletion(request, response, new Object(), null);
+      SecurityContextHolder.clearContext();
+    }
+  }
+
+  private Route readOnlyRoute() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    try {
+      return ReadWriteRoutingDataSource.currentRoute();
+    } finally {
+      TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+  }
+}
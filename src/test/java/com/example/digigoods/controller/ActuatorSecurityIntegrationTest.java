@@ -0,0 +1,99 @@
+package com.example.digigoods.controller;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for the access rules of the actuator endpoints.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class ActuatorSecurityIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private User admin;
+  private User buyer;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+
+    admin = userRepository.save(new User(null, "report-admin", "password"));
+    buyer = userRepository.save(new User(null, "actuator-buyer", "password"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    userRepository.delete(buyer);
+    userRepository.delete(admin);
+  }
+
+  @Test
+  @DisplayName("Given no token, when reading health, then return ok")
+  void givenNoToken_whenReadingHealth_thenReturnOk() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/actuator/health"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  @DisplayName("Given no token, when scraping metrics, then return unauthorized")
+  void givenNoToken_whenScrapingMetrics_thenReturnUnauthorized() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @DisplayName("Given user without ADMIN role, when scraping metrics, then return forbidden")
+  void givenUserWithoutAdminRole_whenScrapingMetrics_thenReturnForbidden() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/actuator/prometheus")
+            .header("Authorization", bearer(buyer)))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  @DisplayName("Given user with ADMIN role, when scraping metrics, then return ok")
+  void givenUserWithAdminRole_whenScrapingMetrics_thenReturnOk() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/actuator/prometheus")
+            .header("Authorization", bearer(admin)))
+        .andExpect(status().isOk());
+  }
+
+  private String bearer(User user) {
+    return "Bearer " + jwtService.generateToken(user.getId(), user.getUsername());
+  }
+}
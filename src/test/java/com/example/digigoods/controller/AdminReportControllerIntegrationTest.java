@@ -0,0 +1,186 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.DailyRevenueReport;
+import com.example.digigoods.dto.DiscountRedemptionReport;
+import com.example.digigoods.dto.ProductSalesReport;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.OrderItemRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CheckoutService;
+import com.example.digigoods.service.JwtService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for AdminReportController.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class AdminReportControllerIntegrationTest {
+
+  private static final String FROM = LocalDate.now().minusDays(1).toString();
+  private static final String TO = LocalDate.now().plusDays(1).toString();
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private OrderItemRepository orderItemRepository;
+
+  @Autowired
+  private StockReservationRepository stockReservationRepository;
+
+  private User admin;
+  private User buyer;
+  private Product product;
+  private Discount discount;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+
+    admin = userRepository.save(new User(null, "report-admin", "password"));
+    buyer = userRepository.save(new User(null, "report-buyer", "password"));
+    product = productRepository.save(
+        new Product(null, "Report Product", new BigDecimal("20.00"), 10));
+    discount = discountRepository.save(new Discount(null, "REPORT10", new BigDecimal("10.00"),
+        DiscountType.GENERAL, LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 5,
+        new HashSet<>()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    stockReservationRepository.deleteAll();
+    orderItemRepository.deleteAll();
+    orderRepository.deleteAll();
+    discountRepository.delete(discount);
+    productRepository.deleteById(product.getId());
+    userRepository.delete(buyer);
+    userRepository.delete(admin);
+  }
+
+  @Test
+  @DisplayName("Given placed order, when reading reports, "
+      + "then revenue, product sales and redemptions include it")
+  void givenPlacedOrder_whenReadingReports_thenReportsIncludeIt() throws Exception {
+    // Arrange
+    BigDecimal netRevenueBefore = totalNetRevenue();
+    long ordersBefore = totalOrderCount();
+    checkoutService.processCheckout(new CheckoutRequest(buyer.getId(),
+        List.of(product.getId(), product.getId()), List.of("REPORT10")), buyer.getId());
+
+    // Act
+    long ordersAfter = totalOrderCount();
+    BigDecimal netRevenueAfter = totalNetRevenue();
+    List<DiscountRedemptionReport> redemptions = read("/admin/reports/discounts", admin,
+        new TypeReference<>() {});
+    final ProductSalesReport sales = read("/admin/reports/products", admin,
+        new TypeReference<List<ProductSalesReport>>() {}).stream()
+        .filter(report -> report.getProductId().equals(product.getId()))
+        .findFirst()
+        .orElseThrow();
+
+    // Assert
+    assertEquals(ordersBefore + 1, ordersAfter);
+    assertEquals(0, netRevenueBefore.add(new BigDecimal("36.00")).compareTo(netRevenueAfter));
+    assertEquals(List.of(1L), redemptions.stream()
+        .filter(report -> report.getCode().equals("REPORT10"))
+        .map(DiscountRedemptionReport::getRedemptions)
+        .toList());
+    assertEquals(2L, sales.getUnits());
+    assertEquals(0, new BigDecimal("36.00").compareTo(sales.getNetRevenue()));
+  }
+
+  @Test
+  @DisplayName("Given user without ADMIN role, when reading reports, then return forbidden")
+  void givenUserWithoutAdminRole_whenReadingReports_thenReturnForbidden() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/admin/reports/revenue")
+            .header("Authorization", bearer(buyer))
+            .param("from", FROM)
+            .param("to", TO))
+        .andExpect(status().isForbidden());
+  }
+
+  private BigDecimal totalNetRevenue() throws Exception {
+    return dailyRevenue().stream()
+        .map(DailyRevenueReport::getNetRevenue)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  }
+
+  private long totalOrderCount() throws Exception {
+    return dailyRevenue().stream().mapToLong(DailyRevenueReport::getOrderCount).sum();
+  }
+
+  private List<DailyRevenueReport> dailyRevenue() throws Exception {
+    return read("/admin/reports/revenue", admin, new TypeReference<>() {});
+  }
+
+  private <T> T read(String path, User user, TypeReference<T> type) throws Exception {
+    String body = mockMvc.perform(get(path)
+            .header("Authorization", bearer(user))
+            .param("from", FROM)
+            .param("to", TO))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readValue(body, type);
+  }
+
+  private String bearer(User user) {
+    return "Bearer " + jwtService.generateToken(user.getId(), user.getUsername());
+  }
+}
@@ -1,7 +1,9 @@
 package com.example.digigoods.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -10,11 +12,15 @@ import static org.mockito.Mockito.when;
 
 import com.example.digigoods.dto.AddToCartRequest;
 import com.example.digigoods.dto.AddToCartResponse;
+import com.example.digigoods.dto.CartOperation;
+import com.example.digigoods.dto.CartResponse;
 import com.example.digigoods.dto.GetCartResponse;
+import com.example.digigoods.dto.UpdateCartRequest;
 import com.example.digigoods.exception.MissingJwtTokenException;
 import com.example.digigoods.service.CartService;
 import com.example.digigoods.service.JwtService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.math.BigDecimal;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,6 +29,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -47,6 +54,7 @@ class CartControllerTest {
   private AddToCartRequest addToCartRequest;
   private AddToCartResponse addToCartResponse;
   private GetCartResponse getCartResponse;
+  private CartResponse cart;
 
   @BeforeEach
   void setUp() {
@@ -56,7 +64,10 @@ class CartControllerTest {
         .productId(1L)
         .productName("Test Product")
         .quantity(2)
+        .unitPrice(new BigDecimal("10.00"))
+        .lineTotal(new BigDecimal("20.00"))
         .build();
+    cart = new CartResponse(List.of(getCartResponse), new BigDecimal("20.00"));
   }
 
   @Test
@@ -141,23 +152,76 @@ class CartControllerTest {
     // Arrange
     String authHeader = "Bearer valid-jwt-token";
     Long userId = 1L;
-    List<GetCartResponse> cartItems = List.of(getCartResponse);
 
     when(httpServletRequest.getHeader("Authorization")).thenReturn(authHeader);
+    when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(null);
     when(jwtService.extractUserId("valid-jwt-token")).thenReturn(userId);
-    when(cartService.getCart(userId)).thenReturn(cartItems);
+    when(cartService.getCart(userId)).thenReturn(cart);
 
     // Act
-    ResponseEntity<List<GetCartResponse>> response = cartController.getCart(httpServletRequest);
+    ResponseEntity<CartResponse> response = cartController.getCart(httpServletRequest);
 
     // Assert
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals(cartItems, response.getBody());
+    assertEquals(cart, response.getBody());
+    assertNotNull(response.getHeaders().getETag());
+    assertEquals("no-cache, private", response.getHeaders().getCacheControl());
     verify(jwtService).extractUserId("valid-jwt-token");
     verify(cartService).getCart(userId);
   }
 
+  @Test
+  @DisplayName("Given If-None-Match with the ETag of the cart, when getCart, then return 304 "
+      + "without body")
+  void givenIfNoneMatchWithCartEtag_whenGetCart_thenReturnNotModified() {
+    // Arrange
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(null);
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(cartService.getCart(1L)).thenReturn(cart);
+    String etag = cartController.getCart(httpServletRequest).getHeaders().getETag();
+    when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH))
+        .thenReturn("\"other\", W/" + etag);
+
+    // Act
+    ResponseEntity<CartResponse> response = cartController.getCart(httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    assertNull(response.getBody());
+    assertEquals(etag, response.getHeaders().getETag());
+  }
+
+  @Test
+  @DisplayName("Given If-None-Match with an old ETag, when getCart after a price change, "
+      + "then return the cart with a new ETag")
+  void givenIfNoneMatchWithOldEtag_whenGetCartAfterPriceChange_thenReturnCartWithNewEtag() {
+    // Arrange
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(null);
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(cartService.getCart(1L)).thenReturn(cart);
+    String etag = cartController.getCart(httpServletRequest).getHeaders().getETag();
+    CartResponse repriced = new CartResponse(List.of(GetCartResponse.builder()
+        .productId(1L)
+        .productName("Test Product")
+        .quantity(2)
+        .unitPrice(new BigDecimal("12.00"))
+        .lineTotal(new BigDecimal("24.00"))
+        .build()), new BigDecimal("24.00"));
+    when(cartService.getCart(1L)).thenReturn(repriced);
+    when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(etag);
+
+    // Act
+    ResponseEntity<CartResponse> response = cartController.getCart(httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(repriced, response.getBody());
+    assertNotEquals(etag, response.getHeaders().getETag());
+  }
+
   @Test
   @DisplayName("Given request without Authorization header, when getCart, then throw MissingJwtTokenException")
   void givenRequestWithoutAuthorizationHeader_whenGetCart_thenThrowMissingJwtTokenException() {
@@ -240,20 +304,56 @@ class CartControllerTest {
     // Arrange
     String authHeader = "Bearer jwt-token-value";
     Long userId = 1L;
-    List<GetCartResponse> cartItems = List.of(getCartResponse);
 
     when(httpServletRequest.getHeader("Authorization")).thenReturn(authHeader);
+    when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(null);
     when(jwtService.extractUserId("jwt-token-value")).thenReturn(userId);
-    when(cartService.getCart(userId)).thenReturn(cartItems);
+    when(cartService.getCart(userId)).thenReturn(cart);
 
     // Act
-    ResponseEntity<List<GetCartResponse>> response = cartController.getCart(httpServletRequest);
+    ResponseEntity<CartResponse> response = cartController.getCart(httpServletRequest);
 
     // Assert
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals(cartItems, response.getBody());
+    assertEquals(cart, response.getBody());
     verify(jwtService).extractUserId("jwt-token-value");
     verify(cartService).getCart(userId);
   }
+
+  @Test
+  @DisplayName("Given valid request with Bearer token, when updateCart, then return updated cart")
+  void givenValidRequestWithBearerToken_whenUpdateCart_thenReturnUpdatedCart() {
+    // Arrange
+    Long userId = 1L;
+    UpdateCartRequest updateCartRequest = new UpdateCartRequest(List.of(
+        new CartOperation(CartOperation.Type.CLEAR, null, null),
+        new CartOperation(CartOperation.Type.SET_QUANTITY, 1L, 2)));
+
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(userId);
+    when(cartService.updateCart(updateCartRequest, userId)).thenReturn(cart);
+
+    // Act
+    ResponseEntity<CartResponse> response =
+        cartController.updateCart(updateCartRequest, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(cart, response.getBody());
+  }
+
+  @Test
+  @DisplayName("Given request without Authorization header, when updateCart, "
+      + "then throw MissingJwtTokenException")
+  void givenRequestWithoutAuthorizationHeader_whenUpdateCart_thenThrowMissingJwtTokenException() {
+    // Arrange
+    when(httpServletRequest.getHeader("Authorization")).thenReturn(null);
+    UpdateCartRequest updateCartRequest = new UpdateCartRequest(List.of(
+        new CartOperation(CartOperation.Type.CLEAR, null, null)));
+
+    // Act & Assert
+    assertThrows(MissingJwtTokenException.class,
+        () -> cartController.updateCart(updateCartRequest, httpServletRequest));
+  }
 }
@@ -0,0 +1,397 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.dto.AddToCartRequest;
+import com.example.digigoods.dto.BatchCheckoutRequest;
+import com.example.digigoods.dto.CartCheckoutRequest;
+import com.example.digigoods.dto.CheckoutLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.CheckoutStatusResponse;
+import com.example.digigoods.model.CartHeader;
+import com.example.digigoods.model.CheckoutStatus;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.CartDetailRepository;
+import com.example.digigoods.repository.CartHeaderRepository;
+import com.example.digigoods.repository.OrderItemRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for CheckoutController.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"inventory.reservation.enabled=true", "checkout.admission.enabled=true"})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class CheckoutControllerIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private OrderItemRepository orderItemRepository;
+
+  @Autowired
+  private CartHeaderRepository cartHeaderRepository;
+
+  @Autowired
+  private CartDetailRepository cartDetailRepository;
+
+  @Autowired
+  private StockReservationRepository stockReservationRepository;
+
+  private User user;
+  private Product product;
+  private String authorization;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+    user = userRepository.save(new User(null, "async-buyer", "password"));
+    product = productRepository.save(
+        new Product(null, "Async Product", new BigDecimal("25.00"), 10));
+    authorization = "Bearer " + jwtService.generateToken(user.getId(), user.getUsername());
+  }
+
+  @AfterEach
+  void tearDown() {
+    cartHeaderRepository.findByUser(user).ifPresent(cartHeaderRepository::delete);
+    stockReservationRepository.deleteAll();
+    orderItemRepository.deleteAll();
+    orderRepository.deleteAll();
+    productRepository.deleteById(product.getId());
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given Prefer respond-async, when creating order, "
+      + "then accept it and report completion on the status endpoint")
+  void givenPreferRespondAsync_whenCreatingOrder_thenAcceptAndReportCompletion()
+      throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product.getId(), product.getId()), null);
+
+    // Act
+    String body = mockMvc.perform(post("/orders")
+            .header("Authorization", authorization)
+            .header("Prefer", "respond-async")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Preference-Applied", "respond-async"))
+        .andExpect(jsonPath("$.status").value("QUEUED"))
+        .andReturn().getResponse().getContentAsString();
+    String token = objectMapper.readValue(body, CheckoutStatusResponse.class).getToken();
+
+    // Assert
+    CheckoutStatusResponse finished = awaitFinished(token);
+    assertEquals(CheckoutStatus.COMPLETED, finished.getStatus());
+    assertEquals(0, new BigDecimal("50.00").compareTo(finished.getFinalPrice()));
+    assertEquals(8, productRepository.findStockById(product.getId()).orElseThrow());
+    OrderItem item = orderItemRepository.findAll().stream()
+        .filter(candidate -> candidate.getProductId().equals(product.getId()))
+        .findFirst()
+        .orElseThrow();
+    assertEquals(2, item.getQuantity());
+    assertEquals(0, new BigDecimal("25.00").compareTo(item.getUnitPrice()));
+    assertEquals(0, new BigDecimal("25.00").compareTo(item.getDiscountedPrice()));
+  }
+
+  @Test
+  @DisplayName("Given no Prefer header, when creating order, then place it synchronously")
+  void givenNoPreferHeader_whenCreatingOrder_thenPlaceItSynchronously() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product.getId()), null);
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value("Order created successfully!"));
+    assertEquals(9, productRepository.findStockById(product.getId()).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("Given lines with quantities, when creating order, then place them by quantity")
+  void givenLinesWithQuantities_whenCreatingOrder_thenPlaceThemByQuantity() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), null, null,
+        List.of(new CheckoutLine(product.getId(), 3)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(75.00));
+    assertEquals(7, productRepository.findStockById(product.getId()).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("Given product sold out, when creating order, "
+      + "then return 409 without placing it")
+  void givenProductSoldOut_whenCreatingOrder_thenReturn409() throws Exception {
+    // Arrange
+    CheckoutRequest lastItems = new CheckoutRequest(user.getId(), null, null,
+        List.of(new CheckoutLine(product.getId(), 10)));
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product.getId()), null);
+    mockMvc.perform(post("/orders")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lastItems)))
+        .andExpect(status().isOk());
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value(
+            "Product " + product.getId() + " is sold out"));
+    assertEquals(1, orderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given neither product IDs nor lines, when creating order, then return 400")
+  void givenNeitherProductIdsNorLines_whenCreatingOrder_thenReturn400() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"userId\":" + user.getId() + "}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Product IDs or lines cannot be empty"));
+  }
+
+  @Test
+  @DisplayName("Given quantity too large for an integer, when creating order, then return 400")
+  void givenQuantityTooLargeForInteger_whenCreatingOrder_thenReturn400() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"userId\":" + user.getId() + ",\"lines\":[{\"productId\":"
+                + product.getId() + ",\"quantity\":99999999999}]}"))
+        .andExpect(status().isBadRequest());
+    assertEquals(10, productRepository.findStockById(product.getId()).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("Given items in cart, when creating order from cart, "
+      + "then price them by quantity and empty the cart")
+  void givenItemsInCart_whenCreatingOrderFromCart_thenPriceByQuantityAndEmptyCart()
+      throws Exception {
+    // Arrange
+    CartHeader cartHeader = new CartHeader();
+    cartHeader.setUser(user);
+    cartHeader.addProductToCart(product, 4);
+    cartHeaderRepository.save(cartHeader);
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/from-cart")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new CartCheckoutRequest())))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(100.00));
+    assertEquals(6, productRepository.findStockById(product.getId()).orElseThrow());
+    assertTrue(cartDetailRepository.findByUserId(user.getId()).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Given items held in another cart, when creating order, "
+      + "then reject it until the holder checks out")
+  void givenItemsHeldInAnotherCart_whenCreatingOrder_thenRejectUntilHolderChecksOut()
+      throws Exception {
+    // Arrange
+    User otherBuyer = userRepository.save(new User(null, "other-buyer", "password"));
+    String otherAuthorization = "Bearer "
+        + jwtService.generateToken(otherBuyer.getId(), otherBuyer.getUsername());
+    mockMvc.perform(post("/carts")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new AddToCartRequest(product.getId(), 8))))
+        .andExpect(status().isOk());
+    CheckoutRequest request = new CheckoutRequest(otherBuyer.getId(), null, null,
+        List.of(new CheckoutLine(product.getId(), 3)));
+
+    try {
+      // Act & Assert
+      mockMvc.perform(post("/orders")
+              .header("Authorization", otherAuthorization)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value(
+              "Insufficient stock for product " + product.getId()
+                  + ". Requested: 3, Available: 2"));
+      mockMvc.perform(post("/orders/from-cart")
+              .header("Authorization", authorization))
+          .andExpect(status().isOk());
+      assertEquals(2, productRepository.findStockById(product.getId()).orElseThrow());
+      assertTrue(stockReservationRepository.findByUserIdAndProductId(user.getId(),
+          product.getId()).isEmpty());
+    } finally {
+      userRepository.delete(otherBuyer);
+    }
+  }
+
+  @Test
+  @DisplayName("Given empty cart, when creating order from cart, then return 400")
+  void givenEmptyCart_whenCreatingOrderFromCart_thenReturn400() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/orders/from-cart")
+            .header("Authorization", authorization))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Cart is empty"));
+  }
+
+  @Test
+  @DisplayName("Given several orders, when listing orders page by page, "
+      + "then return them newest first until the last page")
+  void givenSeveralOrders_whenListingOrdersPageByPage_thenReturnNewestFirstUntilLastPage()
+      throws Exception {
+    // Arrange
+    for (int quantity = 1; quantity <= 3; quantity++) {
+      CheckoutRequest request = new CheckoutRequest(user.getId(), null, null,
+          List.of(new CheckoutLine(product.getId(), quantity)));
+      mockMvc.perform(post("/orders")
+              .header("Authorization", authorization)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().isOk());
+    }
+
+    // Act
+    String body = mockMvc.perform(get("/orders").param("limit", "2")
+            .header("Authorization", authorization))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.orders.length()").value(2))
+        .andExpect(jsonPath("$.orders[0].items[0].quantity").value(3))
+        .andExpect(jsonPath("$.orders[1].items[0].quantity").value(2))
+        .andReturn().getResponse().getContentAsString();
+    String nextCursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+    // Assert
+    mockMvc.perform(get("/orders").param("limit", "2").param("before", nextCursor)
+            .header("Authorization", authorization))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.orders.length()").value(1))
+        .andExpect(jsonPath("$.orders[0].items[0].quantity").value(1))
+        .andExpect(jsonPath("$.orders[0].finalPrice").value(25.00))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Given invalid cursor, when listing orders, then return 400")
+  void givenInvalidCursor_whenListingOrders_thenReturn400() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/orders").param("before", "not-a-cursor")
+            .header("Authorization", authorization))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Invalid cursor: not-a-cursor"));
+  }
+
+  @Test
+  @DisplayName("Given unknown token, when getting order status, then return 404")
+  void givenUnknownToken_whenGettingOrderStatus_thenReturn404() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/orders/unknown-token")
+            .header("Authorization", authorization))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.message").value("Order not found with token: unknown-token"));
+  }
+
+  @Test
+  @DisplayName("Given batch beyond the stock, when creating orders, "
+      + "then place the orders that fit and report the others failed")
+  void givenBatchBeyondStock_whenCreatingOrders_thenPlaceOrdersThatFitAndReportOthers()
+      throws Exception {
+    // Arrange
+    CheckoutRequest order = new CheckoutRequest(user.getId(), null, null,
+        List.of(new CheckoutLine(product.getId(), 3)));
+    BatchCheckoutRequest batch = new BatchCheckoutRequest(List.of(order, order, order, order));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/batch")
+            .header("Authorization", authorization)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(batch)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.placed").value(3))
+        .andExpect(jsonPath("$.failed").value(1))
+        .andExpect(jsonPath("$.results[0].status").value("COMPLETED"))
+        .andExpect(jsonPath("$.results[0].finalPrice").value(75.00))
+        .andExpect(jsonPath("$.results[3].index").value(3))
+        .andExpect(jsonPath("$.results[3].status").value("FAILED"));
+    assertEquals(1, productRepository.findStockById(product.getId()).orElseThrow());
+  }
+
+  private CheckoutStatusResponse awaitFinished(String token) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (true) {
+      String body = mockMvc.perform(get("/orders/" + token)
+              .header("Authorization", authorization))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+      CheckoutStatusResponse status = objectMapper.readValue(body, CheckoutStatusResponse.class);
+      if (status.getStatus() == CheckoutStatus.COMPLETED
+          || status.getStatus() == CheckoutStatus.FAILED) {
+        return status;
+      }
+      assertTrue(System.nanoTime() < deadline, "order was not placed in time");
+      Thread.sleep(20);
+    }
+  }
+}
@@ -5,17 +5,34 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.digigoods.dto.BatchCheckoutRequest;
+import com.example.digigoods.dto.BatchCheckoutResponse;
+import com.example.digigoods.dto.BatchOrderResult;
+import com.example.digigoods.dto.CartCheckoutRequest;
 import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.CheckoutStatusResponse;
+import com.example.digigoods.dto.OrderHistoryResponse;
 import com.example.digigoods.dto.OrderResponse;
 import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.exception.SoldOutException;
+import com.example.digigoods.model.CheckoutStatus;
+import com.example.digigoods.service.AsyncCheckoutService;
+import com.example.digigoods.service.CheckoutAdmissionGate;
 import com.example.digigoods.service.CheckoutService;
+import com.example.digigoods.service.GroupCommitCheckoutService;
+import com.example.digigoods.service.IdempotencyService;
 import com.example.digigoods.service.JwtService;
+import com.example.digigoods.service.OrderHistoryService;
 import jakarta.servlet.http.HttpServletRequest;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -33,6 +50,21 @@ class CheckoutControllerTest {
   @Mock
   private CheckoutService checkoutService;
 
+  @Mock
+  private GroupCommitCheckoutService groupCommitCheckoutService;
+
+  @Mock
+  private IdempotencyService idempotencyService;
+
+  @Mock
+  private AsyncCheckoutService asyncCheckoutService;
+
+  @Mock
+  private CheckoutAdmissionGate checkoutAdmissionGate;
+
+  @Mock
+  private OrderHistoryService orderHistoryService;
+
   @Mock
   private JwtService jwtService;
 
@@ -47,6 +79,9 @@ class CheckoutControllerTest {
 
   @BeforeEach
   void setUp() {
+    lenient().when(checkoutAdmissionGate.admit(any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<OrderResponse>>getArgument(1).get());
+
     checkoutRequest = new CheckoutRequest();
     checkoutRequest.setUserId(1L);
     checkoutRequest.setProductIds(List.of(1L, 2L));
@@ -66,10 +101,12 @@ class CheckoutControllerTest {
 
     when(httpServletRequest.getHeader("Authorization")).thenReturn(authHeader);
     when(jwtService.extractUserId("valid-jwt-token")).thenReturn(userId);
-    when(checkoutService.processCheckout(checkoutRequest, userId)).thenReturn(orderResponse);
+    when(groupCommitCheckoutService.processCheckout(checkoutRequest, userId))
+        .thenReturn(orderResponse);
 
     // Act
-    ResponseEntity<OrderResponse> response = checkoutController.createOrder(checkoutRequest, httpServletRequest);
+    ResponseEntity<OrderResponse> response =
+        checkoutController.createOrder(checkoutRequest, null, httpServletRequest);
 
     // Assert
     assertNotNull(response);
@@ -79,7 +116,7 @@ class CheckoutControllerTest {
     assertEquals(new BigDecimal("120.00"), response.getBody().getFinalPrice());
 
     verify(jwtService).extractUserId("valid-jwt-token");
-    verify(checkoutService).processCheckout(checkoutRequest, userId);
+    verify(groupCommitCheckoutService).processCheckout(checkoutRequest, userId);
   }
 
   @Test
@@ -90,7 +127,7 @@ class CheckoutControllerTest {
 
     // Act & Assert
     MissingJwtTokenException exception = assertThrows(MissingJwtTokenException.class,
-        () -> checkoutController.createOrder(checkoutRequest, httpServletRequest));
+        () -> checkoutController.createOrder(checkoutRequest, null, httpServletRequest));
 
     assertEquals("JWT token is missing or invalid", exception.getMessage());
   }
@@ -103,7 +140,7 @@ class CheckoutControllerTest {
 
     // Act & Assert
     MissingJwtTokenException exception = assertThrows(MissingJwtTokenException.class,
-        () -> checkoutController.createOrder(checkoutRequest, httpServletRequest));
+        () -> checkoutController.createOrder(checkoutRequest, null, httpServletRequest));
 
     assertEquals("JWT token is missing or invalid", exception.getMessage());
   }
@@ -116,7 +153,7 @@ class CheckoutControllerTest {
 
     // Act & Assert
     MissingJwtTokenException exception = assertThrows(MissingJwtTokenException.class,
-        () -> checkoutController.createOrder(checkoutRequest, httpServletRequest));
+        () -> checkoutController.createOrder(checkoutRequest, null, httpServletRequest));
 
     assertEquals("JWT token is missing or invalid", exception.getMessage());
   }
@@ -130,7 +167,7 @@ class CheckoutControllerTest {
 
     // Act & Assert
     RuntimeException exception = assertThrows(RuntimeException.class,
-        () -> checkoutController.createOrder(checkoutRequest, httpServletRequest));
+        () -> checkoutController.createOrder(checkoutRequest, null, httpServletRequest));
 
     assertEquals("Invalid token", exception.getMessage());
     verify(jwtService).extractUserId("");
@@ -145,16 +182,18 @@ class CheckoutControllerTest {
 
     when(httpServletRequest.getHeader("Authorization")).thenReturn(authHeader);
     when(jwtService.extractUserId("jwt-token-value")).thenReturn(userId);
-    when(checkoutService.processCheckout(checkoutRequest, userId)).thenReturn(orderResponse);
+    when(groupCommitCheckoutService.processCheckout(checkoutRequest, userId))
+        .thenReturn(orderResponse);
 
     // Act
-    ResponseEntity<OrderResponse> response = checkoutController.createOrder(checkoutRequest, httpServletRequest);
+    ResponseEntity<OrderResponse> response =
+        checkoutController.createOrder(checkoutRequest, null, httpServletRequest);
 
     // Assert
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
     verify(jwtService).extractUserId("jwt-token-value");
-    verify(checkoutService).processCheckout(checkoutRequest, userId);
+    verify(groupCommitCheckoutService).processCheckout(checkoutRequest, userId);
   }
 
   @Test
@@ -167,15 +206,17 @@ class CheckoutControllerTest {
 
     when(httpServletRequest.getHeader("Authorization")).thenReturn(authHeader);
     when(jwtService.extractUserId("valid-jwt-token")).thenReturn(jwtUserId);
-    when(checkoutService.processCheckout(checkoutRequest, jwtUserId)).thenReturn(orderResponse);
+    when(groupCommitCheckoutService.processCheckout(checkoutRequest, jwtUserId))
+        .thenReturn(orderResponse);
 
     // Act
-    ResponseEntity<OrderResponse> response = checkoutController.createOrder(checkoutRequest, httpServletRequest);
+    ResponseEntity<OrderResponse> response =
+        checkoutController.createOrder(checkoutRequest, null, httpServletRequest);
 
     // Assert
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    verify(checkoutService).processCheckout(checkoutRequest, jwtUserId);
+    verify(groupCommitCheckoutService).processCheckout(checkoutRequest, jwtUserId);
   }
 
   @Test
@@ -187,15 +228,16 @@ class CheckoutControllerTest {
 
     when(httpServletRequest.getHeader("Authorization")).thenReturn(authHeader);
     when(jwtService.extractUserId("valid-jwt-token")).thenReturn(userId);
-    when(checkoutService.processCheckout(null, userId)).thenReturn(orderResponse);
+    when(groupCommitCheckoutService.processCheckout(null, userId)).thenReturn(orderResponse);
 
     // Act
-    ResponseEntity<OrderResponse> response = checkoutController.createOrder(null, httpServletRequest);
+    ResponseEntity<OrderResponse> response =
+        checkoutController.createOrder(null, null, httpServletRequest);
 
     // Assert
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    verify(checkoutService).processCheckout(null, userId);
+    verify(groupCommitCheckoutService).processCheckout(null, userId);
   }
 
   @Test
@@ -207,15 +249,196 @@ class CheckoutControllerTest {
 
     when(httpServletRequest.getHeader("Authorization")).thenReturn(authHeader);
     when(jwtService.extractUserId("  jwt-token-with-spaces   ")).thenReturn(userId);
-    when(checkoutService.processCheckout(checkoutRequest, userId)).thenReturn(orderResponse);
+    when(groupCommitCheckoutService.processCheckout(checkoutRequest, userId))
+        .thenReturn(orderResponse);
 
     // Act
-    ResponseEntity<OrderResponse> response = checkoutController.createOrder(checkoutRequest, httpServletRequest);
+    ResponseEntity<OrderResponse> response =
+        checkoutController.createOrder(checkoutRequest, null, httpServletRequest);
 
     // Assert
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
     verify(jwtService).extractUserId("  jwt-token-with-spaces   ");
-    verify(checkoutService).processCheckout(checkoutRequest, userId);
+    verify(groupCommitCheckoutService).processCheckout(checkoutRequest, userId);
+  }
+
+  @Test
+  @DisplayName("Given request with idempotency key, when createOrder, "
+      + "then run checkout through idempotency service")
+  void givenRequestWithIdempotencyKey_whenCreateOrder_thenRunCheckoutThroughIdempotencyService() {
+    // Arrange
+    Long userId = 1L;
+
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(userId);
+    when(idempotencyService.execute(eq(userId), eq("retry-key"), eq(checkoutRequest), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<OrderResponse>>getArgument(3).get());
+    when(checkoutService.processCheckout(checkoutRequest, userId)).thenReturn(orderResponse);
+
+    // Act
+    ResponseEntity<OrderResponse> response =
+        checkoutController.createOrder(checkoutRequest, "retry-key", httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(orderResponse, response.getBody());
+    verify(idempotencyService).execute(eq(userId), eq("retry-key"), eq(checkoutRequest), any());
+  }
+
+  @Test
+  @DisplayName("Given request without idempotency key, when createOrder, "
+      + "then bypass idempotency service")
+  void givenRequestWithoutIdempotencyKey_whenCreateOrder_thenBypassIdempotencyService() {
+    // Arrange
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(groupCommitCheckoutService.processCheckout(checkoutRequest, 1L))
+        .thenReturn(orderResponse);
+
+    // Act
+    checkoutController.createOrder(checkoutRequest, null, httpServletRequest);
+
+    // Assert
+    verify(idempotencyService, never()).execute(any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Given sold out product, when createOrder, "
+      + "then reject it without placing the order")
+  void givenSoldOutProduct_whenCreateOrder_thenRejectWithoutPlacingOrder() {
+    // Arrange
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    doThrow(new SoldOutException(1L))
+        .when(checkoutAdmissionGate).admit(eq(checkoutRequest), any());
+
+    // Act & Assert
+    assertThrows(SoldOutException.class,
+        () -> checkoutController.createOrder(checkoutRequest, null, httpServletRequest));
+    verify(groupCommitCheckoutService, never()).processCheckout(any(), any());
+  }
+
+  @Test
+  @DisplayName("Given cart checkout request, when createOrderFromCart, "
+      + "then check out cart of authenticated user")
+  void givenCartCheckoutRequest_whenCreateOrderFromCart_thenCheckOutCartOfAuthenticatedUser() {
+    // Arrange
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(checkoutService.processCartCheckout(List.of("SAVE10"), 1L)).thenReturn(orderResponse);
+
+    // Act
+    ResponseEntity<OrderResponse> response = checkoutController.createOrderFromCart(
+        new CartCheckoutRequest(List.of("SAVE10")), httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(orderResponse, response.getBody());
+  }
+
+  @Test
+  @DisplayName("Given no request body, when createOrderFromCart, then check out without discounts")
+  void givenNoRequestBody_whenCreateOrderFromCart_thenCheckOutWithoutDiscounts() {
+    // Arrange
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(checkoutService.processCartCheckout(null, 1L)).thenReturn(orderResponse);
+
+    // Act
+    ResponseEntity<OrderResponse> response =
+        checkoutController.createOrderFromCart(null, httpServletRequest);
+
+    // Assert
+    assertEquals(orderResponse, response.getBody());
+  }
+
+  @Test
+  @DisplayName("Given async request, when createOrderAsync, then return 202 with status location")
+  void givenAsyncRequest_whenCreateOrderAsync_thenReturn202WithStatusLocation() {
+    // Arrange
+    CheckoutStatusResponse queued =
+        new CheckoutStatusResponse("token-1", CheckoutStatus.QUEUED, null, null);
+
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(asyncCheckoutService.submit(eq(checkoutRequest), eq(1L), any())).thenAnswer(invocation -> {
+      invocation.<Supplier<OrderResponse>>getArgument(2).get();
+      return queued;
+    });
+    when(groupCommitCheckoutService.processCheckout(checkoutRequest, 1L))
+        .thenReturn(orderResponse);
+
+    // Act
+    ResponseEntity<CheckoutStatusResponse> response =
+        checkoutController.createOrderAsync(checkoutRequest, null, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    assertEquals("/orders/token-1", response.getHeaders().getLocation().toString());
+    assertEquals(queued, response.getBody());
+    verify(groupCommitCheckoutService).processCheckout(checkoutRequest, 1L);
+  }
+
+  @Test
+  @DisplayName("Given batch of orders, when createOrders, "
+      + "then place them for the authenticated user and return their outcomes")
+  void givenBatchOfOrders_whenCreateOrders_thenPlaceForAuthenticatedUserAndReturnOutcomes() {
+    // Arrange
+    BatchCheckoutResponse outcomes = new BatchCheckoutResponse(1, 0, List.of(
+        new BatchOrderResult(0, CheckoutStatus.COMPLETED, "Order created successfully!",
+            new BigDecimal("120.00"))));
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(groupCommitCheckoutService.processBatch(List.of(checkoutRequest), 1L))
+        .thenReturn(outcomes);
+
+    // Act
+    ResponseEntity<BatchCheckoutResponse> response = checkoutController.createOrders(
+        new BatchCheckoutRequest(List.of(checkoutRequest)), httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(outcomes, response.getBody());
+    verify(checkoutAdmissionGate, never()).admit(any(), any());
+  }
+
+  @Test
+  @DisplayName("Given cursor and limit, when getOrders, "
+      + "then return the order history page of the authenticated user")
+  void givenCursorAndLimit_whenGetOrders_thenReturnOrderHistoryPageOfAuthenticatedUser() {
+    // Arrange
+    OrderHistoryResponse history = new OrderHistoryResponse(List.of(), null);
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(orderHistoryService.getOrderHistory(1L, "cursor", 10)).thenReturn(history);
+
+    // Act
+    ResponseEntity<OrderHistoryResponse> response =
+        checkoutController.getOrders("cursor", 10, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(history, response.getBody());
+  }
+
+  @Test
+  @DisplayName("Given order token, when getOrderStatus, then return status of authenticated user")
+  void givenOrderToken_whenGetOrderStatus_thenReturnStatusOfAuthenticatedUser() {
+    // Arrange
+    CheckoutStatusResponse completed = new CheckoutStatusResponse("token-1",
+        CheckoutStatus.COMPLETED, "Order created successfully!", new BigDecimal("120.00"));
+
+    when(httpServletRequest.getHeader("Authorization")).thenReturn("Bearer valid-jwt-token");
+    when(jwtService.extractUserId("valid-jwt-token")).thenReturn(1L);
+    when(asyncCheckoutService.getStatus("token-1", 1L)).thenReturn(completed);
+
+    // Act
+    ResponseEntity<CheckoutStatusResponse> response =
+        checkoutController.getOrderStatus("token-1", httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(completed, response.getBody());
   }
 }
@@ -5,12 +5,22 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.when;
 
 import com.example.digigoods.dto.ErrorResponse;
+import com.example.digigoods.exception.CheckoutNotFoundException;
+import com.example.digigoods.exception.CheckoutQueueFullException;
+import com.example.digigoods.exception.EmptyCartException;
 import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
 import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidCursorException;
 import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
 import com.example.digigoods.exception.MissingJwtTokenException;
 import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.exception.SoldOutException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.exception.UserNotFoundException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +32,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -69,6 +81,188 @@ class GlobalExceptionHandlerTest {
     assertNotNull(response.getBody().getTimestamp());
   }
 
+  @Test
+  @DisplayName("Given UserNotFoundException, when handleUserNotFoundException, "
+      + "then return 404 error response")
+  void givenUserNotFoundException_whenHandleUserNotFoundException_thenReturn404ErrorResponse() {
+    // Arrange
+    UserNotFoundException exception = new UserNotFoundException(7L);
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleUserNotFoundException(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals(404, response.getBody().getStatus());
+    assertEquals("Not Found", response.getBody().getError());
+    assertEquals("User not found with ID: 7", response.getBody().getMessage());
+    assertEquals("/test-endpoint", response.getBody().getPath());
+  }
+
+  @Test
+  @DisplayName("Given SoldOutException, when handleSoldOutException, "
+      + "then return 409 error response")
+  void givenSoldOutException_whenHandleSoldOutException_thenReturn409ErrorResponse() {
+    // Arrange
+    SoldOutException exception = new SoldOutException(1L);
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleSoldOutException(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals(409, response.getBody().getStatus());
+    assertEquals("Conflict", response.getBody().getError());
+    assertEquals("Product 1 is sold out", response.getBody().getMessage());
+    assertEquals("/test-endpoint", response.getBody().getPath());
+  }
+
+  @Test
+  @DisplayName("Given CheckoutQueueFullException, when handleCheckoutQueueFullException, "
+      + "then return 503 error response with Retry-After")
+  void givenCheckoutQueueFullException_whenHandle_thenReturn503ErrorResponseWithRetryAfter() {
+    // Arrange
+    CheckoutQueueFullException exception = new CheckoutQueueFullException();
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleCheckoutQueueFullException(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+    assertNotNull(response.getBody());
+    assertEquals(503, response.getBody().getStatus());
+    assertEquals("Service Unavailable", response.getBody().getError());
+    assertEquals("Too many pending orders, please retry later", response.getBody().getMessage());
+  }
+
+  @Test
+  @DisplayName("Given CheckoutNotFoundException, when handleCheckoutNotFoundException, "
+      + "then return 404 error response")
+  void givenCheckoutNotFoundException_whenHandle_thenReturn404ErrorResponse() {
+    // Arrange
+    CheckoutNotFoundException exception = new CheckoutNotFoundException("token-1");
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleCheckoutNotFoundException(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Order not found with token: token-1", response.getBody().getMessage());
+  }
+
+  @Test
+  @DisplayName("Given IdempotencyKeyReusedException, when handleIdempotencyKeyReusedException, "
+      + "then return 422 error response")
+  void givenIdempotencyKeyReusedException_whenHandle_thenReturn422ErrorResponse() {
+    // Arrange
+    IdempotencyKeyReusedException exception = new IdempotencyKeyReusedException("retry-key");
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleIdempotencyKeyReusedException(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals(422, response.getBody().getStatus());
+    assertEquals("Unprocessable Entity", response.getBody().getError());
+    assertEquals("Idempotency key 'retry-key' was already used for a different request",
+        response.getBody().getMessage());
+  }
+
+  @Test
+  @DisplayName("Given InvalidIdempotencyKeyException, when handleBadRequestExceptions, "
+      + "then return 400 error response")
+  void givenInvalidIdempotencyKeyException_whenHandleBadRequest_thenReturn400ErrorResponse() {
+    // Arrange
+    InvalidIdempotencyKeyException exception = new InvalidIdempotencyKeyException(255);
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleBadRequestExceptions(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Idempotency-Key header must be between 1 and 255 characters",
+        response.getBody().getMessage());
+  }
+
+  @Test
+  @DisplayName("Given unreadable body with mapping error, when handleMessageNotReadable, "
+      + "then return 400 with the mapping error")
+  void givenUnreadableBodyWithMappingError_whenHandleMessageNotReadable_thenReturn400() {
+    // Arrange
+    HttpMessageNotReadableException exception = new HttpMessageNotReadableException(
+        "JSON parse error",
+        JsonMappingException.from((JsonParser) null,
+            "lines must not contain more than 1000 entries"),
+        new MockHttpInputMessage(new byte[0]));
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleMessageNotReadableException(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("lines must not contain more than 1000 entries",
+        response.getBody().getMessage());
+  }
+
+  @Test
+  @DisplayName("Given malformed body, when handleMessageNotReadable, "
+      + "then return 400 without parser details")
+  void givenMalformedBody_whenHandleMessageNotReadable_thenReturn400WithoutParserDetails() {
+    // Arrange
+    HttpMessageNotReadableException exception = new HttpMessageNotReadableException(
+        "JSON parse error", new MockHttpInputMessage(new byte[0]));
+
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleMessageNotReadableException(exception, httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Malformed request body", response.getBody().getMessage());
+  }
+
+  @Test
+  @DisplayName("Given EmptyCartException, when handleBadRequestExceptions, "
+      + "then return 400 error response")
+  void givenEmptyCartException_whenHandleBadRequest_thenReturn400ErrorResponse() {
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleBadRequestExceptions(new EmptyCartException(), httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Cart is empty", response.getBody().getMessage());
+  }
+
+  @Test
+  @DisplayName("Given InvalidCursorException, when handleBadRequestExceptions, "
+      + "then return 400 error response")
+  void givenInvalidCursorException_whenHandleBadRequest_thenReturn400ErrorResponse() {
+    // Act
+    ResponseEntity<ErrorResponse> response = globalExceptionHandler
+        .handleBadRequestExceptions(new InvalidCursorException("abc"), httpServletRequest);
+
+    // Assert
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Invalid cursor: abc", response.getBody().getMessage());
+  }
+
   @Test
   @DisplayName("Given InvalidDiscountException, when handleBadRequestExceptions, then return 400 error response")
   void givenInvalidDiscountException_whenHandleBadRequestExceptions_thenReturn400ErrorResponse() {
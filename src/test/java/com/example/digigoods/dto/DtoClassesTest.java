@@ -1,13 +1,20 @@
 package com.example.digigoods.dto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.example.digigoods.model.CheckoutStatus;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,6 +23,8 @@ import org.junit.jupiter.api.Test;
 @DisplayName("DTO Classes Tests")
 class DtoClassesTest {
 
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
   @Nested
   @DisplayName("CheckoutRequest DTO Tests")
   class CheckoutRequestTest {
@@ -95,6 +104,59 @@ class DtoClassesTest {
       assertTrue(result.contains("1"));
       assertTrue(result.contains("TEST20"));
     }
+
+    @Test
+    @DisplayName("Given lines JSON, when deserializing, then read each line with its quantity")
+    void givenLinesJson_whenDeserializing_thenReadEachLineWithItsQuantity() throws Exception {
+      // Act
+      CheckoutRequest request = objectMapper.readValue(
+          "{\"userId\":1,\"lines\":[{\"productId\":7,\"quantity\":5000}]}",
+          CheckoutRequest.class);
+
+      // Assert
+      assertEquals(List.of(new CheckoutLine(7L, 5000)), request.getLines());
+      assertNull(request.getProductIds());
+      assertTrue(request.isProductsPresent());
+    }
+
+    @Test
+    @DisplayName("Given too many lines, when deserializing, then fail at the first extra line")
+    void givenTooManyLines_whenDeserializing_thenFailAtTheFirstExtraLine() {
+      // Arrange
+      String line = "{\"productId\":1,\"quantity\":1}";
+      String json = "{\"userId\":1,\"lines\":["
+          + String.join(",", Collections.nCopies(CheckoutRequest.MAX_LINES + 1, line)) + "]}";
+
+      // Act & Assert
+      JsonMappingException exception = assertThrows(JsonMappingException.class,
+          () -> objectMapper.readValue(json, CheckoutRequest.class));
+      assertEquals("lines must not contain more than 1000 entries",
+          exception.getOriginalMessage());
+    }
+
+    @Test
+    @DisplayName("Given too many product IDs, when deserializing, then fail")
+    void givenTooManyProductIds_whenDeserializing_thenFail() {
+      // Arrange
+      String json = "{\"userId\":1,\"productIds\":["
+          + String.join(",", Collections.nCopies(CheckoutRequest.MAX_PRODUCT_IDS + 1, "1"))
+          + "]}";
+
+      // Act & Assert
+      JsonMappingException exception = assertThrows(JsonMappingException.class,
+          () -> objectMapper.readValue(json, CheckoutRequest.class));
+      assertEquals("productIds must not contain more than 10000 entries",
+          exception.getOriginalMessage());
+    }
+
+    @Test
+    @DisplayName("Given neither product IDs nor lines, when checking presence, then be false")
+    void givenNeitherProductIdsNorLines_whenCheckingPresence_thenBeFalse() {
+      // Assert
+      assertFalse(new CheckoutRequest(1L, List.of(), null).isProductsPresent());
+      assertFalse(new CheckoutRequest(1L, null, null, List.of()).isProductsPresent());
+      assertTrue(new CheckoutRequest(1L, List.of(1L), null).isProductsPresent());
+    }
   }
 
   @Nested
@@ -314,6 +376,320 @@ class DtoClassesTest {
     }
   }
 
+  @Nested
+  @DisplayName("OrderPlacedEvent DTO Tests")
+  class OrderPlacedEventTest {
+
+    @Test
+    @DisplayName("Given OrderPlacedEvent constructor with parameters, when creating event, "
+        + "then set all fields correctly")
+    void givenConstructorWithParameters_whenCreatingEvent_thenSetAllFieldsCorrectly() {
+      // Arrange
+      LocalDateTime orderDate = LocalDateTime.of(2025, 1, 15, 10, 30);
+      OrderHistoryItem item = new OrderHistoryItem(1L, 2, new BigDecimal("50.00"),
+          new BigDecimal("40.00"));
+
+      // Act
+      OrderPlacedEvent event = new OrderPlacedEvent(7L, 3L, orderDate, new BigDecimal("100.00"),
+          new BigDecimal("80.00"), List.of(item), List.of("GENERAL20"));
+
+      // Assert
+      assertEquals(7L, event.getOrderId());
+      assertEquals(3L, event.getUserId());
+      assertEquals(orderDate, event.getOrderDate());
+      assertEquals(new BigDecimal("100.00"), event.getOriginalSubtotal());
+      assertEquals(new BigDecimal("80.00"), event.getFinalPrice());
+      assertEquals(List.of(item), event.getItems());
+      assertEquals(List.of("GENERAL20"), event.getDiscountCodes());
+    }
+  }
+
+  @Nested
+  @DisplayName("OrderHistoryResponse DTO Tests")
+  class OrderHistoryResponseTest {
+
+    @Test
+    @DisplayName("Given order history constructors with parameters, when creating response, "
+        + "then set all fields correctly")
+    void givenConstructorsWithParameters_whenCreatingResponse_thenSetAllFieldsCorrectly() {
+      // Arrange
+      LocalDateTime orderDate = LocalDateTime.of(2025, 1, 15, 10, 30);
+      OrderHistoryItem item = new OrderHistoryItem(1L, 2, new BigDecimal("50.00"),
+          new BigDecimal("40.00"));
+      OrderHistoryEntry entry = new OrderHistoryEntry(7L, orderDate, new BigDecimal("100.00"),
+          new BigDecimal("80.00"), List.of(item), List.of("GENERAL20"));
+
+      // Act
+      OrderHistoryResponse response = new OrderHistoryResponse(List.of(entry), "cursor");
+
+      // Assert
+      assertEquals("cursor", response.getNextCursor());
+      OrderHistoryEntry order = response.getOrders().get(0);
+      assertEquals(7L, order.getOrderId());
+      assertEquals(orderDate, order.getOrderDate());
+      assertEquals(new BigDecimal("100.00"), order.getOriginalSubtotal());
+      assertEquals(new BigDecimal("80.00"), order.getFinalPrice());
+      assertEquals(List.of("GENERAL20"), order.getDiscountCodes());
+      assertEquals(1L, order.getItems().get(0).getProductId());
+      assertEquals(2, order.getItems().get(0).getQuantity());
+      assertEquals(new BigDecimal("50.00"), order.getItems().get(0).getUnitPrice());
+      assertEquals(new BigDecimal("40.00"), order.getItems().get(0).getDiscountedPrice());
+    }
+
+    @Test
+    @DisplayName("Given OrderHistoryResponse no-args constructor, when creating response, "
+        + "then all fields are null")
+    void givenNoArgsConstructor_whenCreatingResponse_thenAllFieldsAreNull() {
+      // Act
+      OrderHistoryResponse response = new OrderHistoryResponse();
+
+      // Assert
+      assertNull(response.getOrders());
+      assertNull(response.getNextCursor());
+    }
+  }
+
+  @Nested
+  @DisplayName("BatchCheckoutRequest DTO Tests")
+  class BatchCheckoutRequestTest {
+
+    @Test
+    @DisplayName("Given batch JSON, when deserializing, then read every order")
+    void givenBatchJson_whenDeserializing_thenReadEveryOrder() throws Exception {
+      // Arrange
+      String json = "{\"orders\":[{\"userId\":1,\"productIds\":[1,2]},"
+          + "{\"userId\":1,\"lines\":[{\"productId\":3,\"quantity\":2}]}]}";
+
+      // Act
+      BatchCheckoutRequest request = objectMapper.readValue(json, BatchCheckoutRequest.class);
+
+      // Assert
+      assertEquals(2, request.getOrders().size());
+      assertEquals(List.of(1L, 2L), request.getOrders().get(0).getProductIds());
+      assertEquals(2, request.getOrders().get(1).getLines().get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Given too many orders, when deserializing, then fail at the first extra order")
+    void givenTooManyOrders_whenDeserializing_thenFailAtTheFirstExtraOrder() {
+      // Arrange
+      String order = "{\"userId\":1,\"productIds\":[1]}";
+      String json = "{\"orders\":["
+          + String.join(",", Collections.nCopies(BatchCheckoutRequest.MAX_ORDERS + 1, order))
+          + "]}";
+
+      // Act & Assert
+      JsonMappingException exception = assertThrows(JsonMappingException.class,
+          () -> objectMapper.readValue(json, BatchCheckoutRequest.class));
+      assertEquals("orders must not contain more than 1000 entries",
+          exception.getOriginalMessage());
+    }
+  }
+
+  @Nested
+  @DisplayName("UpdateCartRequest DTO Tests")
+  class UpdateCartRequestTest {
+
+    @Test
+    @DisplayName("Given cart update JSON, when deserializing, then read every operation in order")
+    void givenCartUpdateJson_whenDeserializing_thenReadEveryOperationInOrder() throws Exception {
+      // Arrange
+      String json = "{\"operations\":[{\"type\":\"CLEAR\"},"
+          + "{\"type\":\"SET_QUANTITY\",\"productId\":1,\"quantity\":2},"
+          + "{\"type\":\"REMOVE\",\"productId\":3}]}";
+
+      // Act
+      UpdateCartRequest request = objectMapper.readValue(json, UpdateCartRequest.class);
+
+      // Assert
+      assertEquals(List.of(new CartOperation(CartOperation.Type.CLEAR, null, null),
+              new CartOperation(CartOperation.Type.SET_QUANTITY, 1L, 2),
+              new CartOperation(CartOperation.Type.REMOVE, 3L, null)),
+          request.getOperations());
+    }
+
+    @Test
+    @DisplayName("Given operations missing their product or quantity, when validating, "
+        + "then report them incomplete")
+    void givenOperationsMissingProductOrQuantity_whenValidating_thenReportThemIncomplete() {
+      // Act & Assert
+      assertTrue(new CartOperation(CartOperation.Type.CLEAR, null, null).isProductPresent());
+      assertFalse(new CartOperation(CartOperation.Type.REMOVE, null, null).isProductPresent());
+      assertTrue(new CartOperation(CartOperation.Type.REMOVE, 1L, null).isQuantityPresent());
+      assertFalse(new CartOperation(CartOperation.Type.SET_QUANTITY, 1L, null)
+          .isQuantityPresent());
+    }
+
+    @Test
+    @DisplayName("Given too many operations, when deserializing, "
+        + "then fail at the first extra operation")
+    void givenTooManyOperations_whenDeserializing_thenFailAtTheFirstExtraOperation() {
+      // Arrange
+      String json = "{\"operations\":[" + String.join(",", Collections.nCopies(
+          UpdateCartRequest.MAX_OPERATIONS + 1, "{\"type\":\"CLEAR\"}")) + "]}";
+
+      // Act & Assert
+      JsonMappingException exception = assertThrows(JsonMappingException.class,
+          () -> objectMapper.readValue(json, UpdateCartRequest.class));
+      assertEquals("operations must not contain more than 1000 entries",
+          exception.getOriginalMessage());
+    }
+  }
+
+  @Nested
+  @DisplayName("Sales Report DTO Tests")
+  class SalesReportTest {
+
+    @Test
+    @DisplayName("Given DailyRevenueReport constructor with parameters, when creating report, "
+        + "then set all fields correctly")
+    void givenDailyRevenueReportConstructor_whenCreatingReport_thenSetAllFieldsCorrectly() {
+      // Arrange
+      LocalDate date = LocalDate.of(2025, 1, 15);
+
+      // Act
+      DailyRevenueReport revenue = new DailyRevenueReport(date, 3L, new BigDecimal("300.00"),
+          new BigDecimal("250.00"));
+
+      // Assert
+      assertEquals(date, revenue.getDate());
+      assertEquals(3L, revenue.getOrderCount());
+      assertEquals(new BigDecimal("300.00"), revenue.getGrossRevenue());
+      assertEquals(new BigDecimal("250.00"), revenue.getNetRevenue());
+    }
+
+    @Test
+    @DisplayName("Given ProductSalesReport constructor with parameters, when creating report, "
+        + "then set all fields correctly")
+    void givenProductSalesReportConstructor_whenCreatingReport_thenSetAllFieldsCorrectly() {
+      // Act
+      ProductSalesReport sales = new ProductSalesReport(1L, 5L, new BigDecimal("200.00"));
+
+      // Assert
+      assertEquals(1L, sales.getProductId());
+      assertEquals(5L, sales.getUnits());
+      assertEquals(new BigDecimal("200.00"), sales.getNetRevenue());
+    }
+
+    @Test
+    @DisplayName("Given DiscountRedemptionReport constructor with parameters, when creating "
+        + "report, then set all fields correctly")
+    void givenDiscountRedemptionReportConstructor_whenCreatingReport_thenSetAllFields() {
+      // Act
+      DiscountRedemptionReport redemptions = new DiscountRedemptionReport("GENERAL20", 2L);
+
+      // Assert
+      assertEquals("GENERAL20", redemptions.getCode());
+      assertEquals(2L, redemptions.getRedemptions());
+    }
+  }
+
+  @Nested
+  @DisplayName("CheckoutStatusResponse DTO Tests")
+  class CheckoutStatusResponseTest {
+
+    @Test
+    @DisplayName("Given CheckoutStatusResponse constructor with parameters, when creating "
+        + "response, then set all fields correctly")
+    void givenConstructorWithParameters_whenCreatingResponse_thenSetAllFieldsCorrectly() {
+      // Act
+      CheckoutStatusResponse response = new CheckoutStatusResponse("token-1",
+          CheckoutStatus.COMPLETED, "Order created successfully!", new BigDecimal("120.00"));
+
+      // Assert
+      assertEquals("token-1", response.getToken());
+      assertEquals(CheckoutStatus.COMPLETED, response.getStatus());
+      assertEquals("Order created successfully!", response.getMessage());
+      assertEquals(new BigDecimal("120.00"), response.getFinalPrice());
+    }
+
+    @Test
+    @DisplayName("Given CheckoutStatusResponse no-args constructor, when creating response, "
+        + "then all fields are null")
+    void givenNoArgsConstructor_whenCreatingResponse_thenAllFieldsAreNull() {
+      // Act
+      CheckoutStatusResponse response = new CheckoutStatusResponse();
+
+      // Assert
+      assertNull(response.getToken());
+      assertNull(response.getStatus());
+      assertNull(response.getMessage());
+      assertNull(response.getFinalPrice());
+    }
+  }
+
+  @Nested
+  @DisplayName("CartCheckoutRequest DTO Tests")
+  class CartCheckoutRequestTest {
+
+    @Test
+    @DisplayName("Given CartCheckoutRequest constructor with discount codes, when creating "
+        + "request, then set discount codes")
+    void givenConstructorWithDiscountCodes_whenCreatingRequest_thenSetDiscountCodes() {
+      // Act
+      CartCheckoutRequest request = new CartCheckoutRequest(List.of("SAVE10"));
+
+      // Assert
+      assertEquals(List.of("SAVE10"), request.getDiscountCodes());
+      assertNull(new CartCheckoutRequest().getDiscountCodes());
+    }
+  }
+
+  @Nested
+  @DisplayName("CartItem DTO Tests")
+  class CartItemTest {
+
+    @Test
+    @DisplayName("Given CartItem constructor with all parameters, when creating item, "
+        + "then set product and quantity")
+    void givenConstructorWithAllParameters_whenCreatingItem_thenSetProductAndQuantity() {
+      // Act
+      CartItem item = new CartItem(10L, 3);
+
+      // Assert
+      assertEquals(10L, item.getProductId());
+      assertEquals(3, item.getQuantity());
+      assertEquals(item, new CartItem(10L, 3));
+      assertNull(new CartItem().getProductId());
+    }
+  }
+
+  @Nested
+  @DisplayName("CartResponse DTO Tests")
+  class CartResponseTest {
+
+    @Test
+    @DisplayName("Given cart of a product view, when serializing, "
+        + "then write prices, subtotal and stock warning")
+    void givenCartOfProductView_whenSerializing_thenWritePricesSubtotalAndStockWarning()
+        throws Exception {
+      // Arrange
+      CartProductView product = new CartProductView(10L, "Ebook", new BigDecimal("4.50"), 1);
+      GetCartResponse item = GetCartResponse.builder()
+          .productId(product.getProductId())
+          .productName(product.getName())
+          .quantity(2)
+          .unitPrice(product.getPrice())
+          .lineTotal(new BigDecimal("9.00"))
+          .stockWarning(GetCartResponse.StockWarning.INSUFFICIENT_STOCK)
+          .availableStock(product.getStock())
+          .build();
+
+      // Act
+      String json = objectMapper.writeValueAsString(
+          new CartResponse(List.of(item), new BigDecimal("9.00")));
+
+      // Assert
+      assertTrue(json.contains("\"unitPrice\":4.50"));
+      assertTrue(json.contains("\"lineTotal\":9.00"));
+      assertTrue(json.contains("\"stockWarning\":\"INSUFFICIENT_STOCK\""));
+      assertTrue(json.contains("\"availableStock\":1"));
+      assertTrue(json.contains("\"subtotal\":9.00"));
+      assertNull(new CartResponse().getItems());
+      assertNull(new CartProductView().getPrice());
+    }
+  }
+
   @Nested
   @DisplayName("ErrorResponse DTO Tests")
   class ErrorResponseTest {
@@ -223,6 +223,124 @@ class ExceptionClassesTest {
     }
   }
 
+  @Nested
+  @DisplayName("CheckoutQueueFullException Tests")
+  class CheckoutQueueFullExceptionTest {
+
+    @Test
+    @DisplayName("Given no parameters, when creating exception, "
+        + "then default message should be used")
+    void givenNoParameters_whenCreatingException_thenDefaultMessageShouldBeUsed() {
+      // Arrange & Act
+      CheckoutQueueFullException exception = new CheckoutQueueFullException();
+
+      // Assert
+      assertEquals("Too many pending orders, please retry later", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
+  @Nested
+  @DisplayName("SoldOutException Tests")
+  class SoldOutExceptionTest {
+
+    @Test
+    @DisplayName("Given product ID, when creating exception, "
+        + "then message should name the product")
+    void givenProductId_whenCreatingException_thenMessageShouldNameTheProduct() {
+      // Arrange & Act
+      SoldOutException exception = new SoldOutException(7L);
+
+      // Assert
+      assertEquals("Product 7 is sold out", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
+  @Nested
+  @DisplayName("InvalidCursorException Tests")
+  class InvalidCursorExceptionTest {
+
+    @Test
+    @DisplayName("Given cursor, when creating exception, then message should name the cursor")
+    void givenCursor_whenCreatingException_thenMessageShouldNameTheCursor() {
+      // Arrange & Act
+      InvalidCursorException exception = new InvalidCursorException("abc");
+
+      // Assert
+      assertEquals("Invalid cursor: abc", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
+  @Nested
+  @DisplayName("CheckoutNotFoundException Tests")
+  class CheckoutNotFoundExceptionTest {
+
+    @Test
+    @DisplayName("Given token, when creating exception, then message should name the token")
+    void givenToken_whenCreatingException_thenMessageShouldNameTheToken() {
+      // Arrange & Act
+      CheckoutNotFoundException exception = new CheckoutNotFoundException("token-1");
+
+      // Assert
+      assertEquals("Order not found with token: token-1", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
+  @Nested
+  @DisplayName("IdempotencyKeyReusedException Tests")
+  class IdempotencyKeyReusedExceptionTest {
+
+    @Test
+    @DisplayName("Given idempotency key, when creating exception, "
+        + "then message should name the key")
+    void givenIdempotencyKey_whenCreatingException_thenMessageShouldNameTheKey() {
+      // Arrange & Act
+      IdempotencyKeyReusedException exception = new IdempotencyKeyReusedException("key-1");
+
+      // Assert
+      assertEquals("Idempotency key 'key-1' was already used for a different request",
+          exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
+  @Nested
+  @DisplayName("InvalidIdempotencyKeyException Tests")
+  class InvalidIdempotencyKeyExceptionTest {
+
+    @Test
+    @DisplayName("Given maximum length, when creating exception, "
+        + "then message should state the bounds")
+    void givenMaximumLength_whenCreatingException_thenMessageShouldStateTheBounds() {
+      // Arrange & Act
+      InvalidIdempotencyKeyException exception = new InvalidIdempotencyKeyException(64);
+
+      // Assert
+      assertEquals("Idempotency-Key header must be between 1 and 64 characters",
+          exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
+  @Nested
+  @DisplayName("EmptyCartException Tests")
+  class EmptyCartExceptionTest {
+
+    @Test
+    @DisplayName("Given no arguments, when creating exception, then message should be set")
+    void givenNoArguments_whenCreatingException_thenMessageShouldBeSet() {
+      // Arrange & Act
+      EmptyCartException exception = new EmptyCartException();
+
+      // Assert
+      assertEquals("Cart is empty", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
   @Nested
   @DisplayName("Exception Inheritance Tests")
   class ExceptionInheritanceTest {
@@ -251,4 +369,20 @@ class ExceptionClassesTest {
       assertNotNull(new UnauthorizedAccessException().getMessage());
     }
   }
+
+  @Nested
+  @DisplayName("UserNotFoundException Tests")
+  class UserNotFoundExceptionTest {
+
+    @Test
+    @DisplayName("Given user ID, when creating exception, then message should name the user")
+    void givenUserId_whenCreatingException_thenMessageShouldNameTheUser() {
+      // Arrange & Act
+      UserNotFoundException exception = new UserNotFoundException(7L);
+
+      // Assert
+      assertEquals("User not found with ID: 7", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
 }
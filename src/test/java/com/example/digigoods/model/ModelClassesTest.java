@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
@@ -179,6 +180,33 @@ class ModelClassesTest {
       assertTrue(result.contains("Test Product"));
       assertTrue(result.contains("99.99"));
     }
+
+    @Test
+    @DisplayName("Given Product catalog constructor, when creating product, "
+        + "then version and lock mode are unset")
+    void givenProductCatalogConstructor_whenCreatingProduct_thenVersionAndLockModeAreUnset() {
+      // Act
+      Product product = new Product(1L, "Test Product", new BigDecimal("99.99"), 10);
+
+      // Assert
+      assertNull(product.getVersion());
+      assertNull(product.getLockMode());
+    }
+
+    @Test
+    @DisplayName("Given Product lock mode setter, when setting value, then getter returns it")
+    void givenProductLockModeSetter_whenSettingValue_thenGetterReturnsIt() {
+      // Arrange
+      Product product = new Product();
+
+      // Act
+      product.setLockMode(InventoryLockMode.PESSIMISTIC);
+      product.setVersion(3L);
+
+      // Assert
+      assertEquals(InventoryLockMode.PESSIMISTIC, product.getLockMode());
+      assertEquals(3L, product.getVersion());
+    }
   }
 
   @Nested
@@ -518,6 +546,150 @@ class ModelClassesTest {
     }
   }
 
+  @Nested
+  @DisplayName("OrderItem Model Tests")
+  class OrderItemModelTest {
+
+    @Test
+    @DisplayName("Given OrderItem constructor with parameters, when creating item, "
+        + "then set all fields correctly")
+    void givenOrderItemConstructorWithParameters_whenCreatingItem_thenSetAllFieldsCorrectly() {
+      // Act
+      OrderItem item = new OrderItem(1L, 2L, 3, new BigDecimal("10.00"), new BigDecimal("8.00"));
+
+      // Assert
+      assertEquals(1L, item.getOrderId());
+      assertEquals(2L, item.getProductId());
+      assertEquals(3, item.getQuantity());
+      assertEquals(new BigDecimal("10.00"), item.getUnitPrice());
+      assertEquals(new BigDecimal("8.00"), item.getDiscountedPrice());
+    }
+
+    @Test
+    @DisplayName("Given OrderItemId with same order and product, when comparing, then be equal")
+    void givenOrderItemIdWithSameOrderAndProduct_whenComparing_thenBeEqual() {
+      // Arrange
+      OrderItemId id = new OrderItemId(1L, 2L);
+
+      // Assert
+      assertEquals(new OrderItemId(1L, 2L), id);
+      assertEquals(new OrderItemId(1L, 2L).hashCode(), id.hashCode());
+      assertNotEquals(new OrderItemId(1L, 3L), id);
+    }
+  }
+
+  @Nested
+  @DisplayName("StockReservation Model Tests")
+  class StockReservationModelTest {
+
+    @Test
+    @DisplayName("Given StockReservation constructor with parameters, when creating reservation, "
+        + "then set all fields correctly")
+    void givenStockReservationConstructorWithParameters_whenCreating_thenSetAllFieldsCorrectly() {
+      // Arrange
+      LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(15);
+
+      // Act
+      StockReservation reservation = new StockReservation(1L, 2L, 3L, 4, expiresAt);
+
+      // Assert
+      assertEquals(1L, reservation.getId());
+      assertEquals(2L, reservation.getUserId());
+      assertEquals(3L, reservation.getProductId());
+      assertEquals(4, reservation.getQuantity());
+      assertEquals(expiresAt, reservation.getExpiresAt());
+    }
+  }
+
+  @Nested
+  @DisplayName("OutboxEvent Model Tests")
+  class OutboxEventModelTest {
+
+    @Test
+    @DisplayName("Given OutboxEvent constructor with parameters, when creating event, "
+        + "then set all fields correctly")
+    void givenOutboxEventConstructorWithParameters_whenCreating_thenSetAllFieldsCorrectly() {
+      // Arrange
+      LocalDateTime createdAt = LocalDateTime.now();
+
+      // Act
+      OutboxEvent event = new OutboxEvent(1L, "OrderPlaced", 2L, "{}", createdAt, null);
+
+      // Assert
+      assertEquals(1L, event.getId());
+      assertEquals("OrderPlaced", event.getEventType());
+      assertEquals(2L, event.getAggregateId());
+      assertEquals("{}", event.getPayload());
+      assertEquals(createdAt, event.getCreatedAt());
+      assertNull(event.getPublishedAt());
+    }
+  }
+
+  @Nested
+  @DisplayName("CompactCart Model Tests")
+  class CompactCartModelTest {
+
+    @Test
+    @DisplayName("Given CompactCart constructor with parameters, when creating cart, "
+        + "then set all fields correctly")
+    void givenCompactCartConstructorWithParameters_whenCreating_thenSetAllFieldsCorrectly() {
+      // Arrange
+      LocalDateTime updatedAt = LocalDateTime.now();
+      byte[] items = {1, 10, 2};
+
+      // Act
+      CompactCart cart = new CompactCart(7L, items, 3L, updatedAt);
+
+      // Assert
+      assertEquals(7L, cart.getUserId());
+      assertSame(items, cart.getItems());
+      assertEquals(3L, cart.getVersion());
+      assertEquals(updatedAt, cart.getUpdatedAt());
+    }
+  }
+
+  @Nested
+  @DisplayName("Sales Rollup Model Tests")
+  class SalesRollupModelTest {
+
+    @Test
+    @DisplayName("Given DailySales constructor with parameters, when creating row, "
+        + "then set all fields correctly")
+    void givenDailySalesConstructorWithParameters_whenCreating_thenSetAllFieldsCorrectly() {
+      // Arrange
+      LocalDate today = LocalDate.now();
+
+      // Act
+      DailySales dailySales = new DailySales(today, 3, 2L, new BigDecimal("100.00"),
+          new BigDecimal("80.00"));
+
+      // Assert
+      assertEquals(today, dailySales.getSalesDate());
+      assertEquals(3, dailySales.getSlot());
+      assertEquals(2L, dailySales.getOrderCount());
+      assertEquals(new BigDecimal("100.00"), dailySales.getGrossRevenue());
+      assertEquals(new BigDecimal("80.00"), dailySales.getNetRevenue());
+    }
+
+    @Test
+    @DisplayName("Given rollup IDs with same keys, when comparing, then be equal")
+    void givenRollupIdsWithSameKeys_whenComparing_thenBeEqual() {
+      // Arrange
+      LocalDate today = LocalDate.now();
+
+      // Assert
+      assertEquals(new DailySalesId(today, 1), new DailySalesId(today, 1));
+      assertNotEquals(new DailySalesId(today, 1), new DailySalesId(today, 2));
+      assertEquals(new ProductDailySalesId(today, 1L), new ProductDailySalesId(today, 1L));
+      assertNotEquals(new ProductDailySalesId(today, 1L),
+          new ProductDailySalesId(today.minusDays(1), 1L));
+      assertEquals(new DiscountDailyRedemptionsId(today, "SAVE10"),
+          new DiscountDailyRedemptionsId(today, "SAVE10"));
+      assertNotEquals(new DiscountDailyRedemptionsId(today, "SAVE10"),
+          new DiscountDailyRedemptionsId(today, "SAVE20"));
+    }
+  }
+
   @Nested
   @DisplayName("DiscountType Enum Tests")
   class DiscountTypeTest {
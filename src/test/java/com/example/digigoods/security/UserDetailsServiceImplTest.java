@@ -10,13 +10,14 @@ import static org.mockito.Mockito.when;
 import com.example.digigoods.model.User;
 import com.example.digigoods.repository.UserRepository;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
@@ -27,13 +28,13 @@ class UserDetailsServiceImplTest {
   @Mock
   private UserRepository userRepository;
 
-  @InjectMocks
   private UserDetailsServiceImpl userDetailsService;
 
   private User testUser;
 
   @BeforeEach
   void setUp() {
+    userDetailsService = new UserDetailsServiceImpl(userRepository, Set.of("admin"));
     testUser = new User();
     testUser.setId(1L);
     testUser.setUsername("testuser");
@@ -63,6 +64,22 @@ class UserDetailsServiceImplTest {
     verify(userRepository).findByUsername(username);
   }
 
+  @Test
+  @DisplayName("Given administrator username, when loadUserByUsername, "
+      + "then grant the ADMIN role")
+  void givenAdministratorUsername_whenLoadUserByUsername_thenGrantAdminRole() {
+    // Arrange
+    testUser.setUsername("admin");
+    when(userRepository.findByUsername("admin")).thenReturn(Optional.of(testUser));
+
+    // Act
+    UserDetails userDetails = userDetailsService.loadUserByUsername("admin");
+
+    // Assert
+    assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_ADMIN")),
+        Set.copyOf(userDetails.getAuthorities()));
+  }
+
   @Test
   @DisplayName("Given non-existing username, when loadUserByUsername, then throw UsernameNotFoundException")
   void givenNonExistingUsername_whenLoadUserByUsername_thenThrowUsernameNotFoundException() {
@@ -0,0 +1,159 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.CheckoutStatusResponse;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.CheckoutNotFoundException;
+import com.example.digigoods.exception.CheckoutQueueFullException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.model.CheckoutStatus;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AsyncCheckoutServiceTest {
+
+  private static final Long USER_ID = 1L;
+
+  private AsyncCheckoutService asyncCheckoutService;
+  private CheckoutRequest checkoutRequest;
+  private OrderResponse orderResponse;
+  private CountDownLatch releaseCheckouts;
+
+  @BeforeEach
+  void setUp() {
+    asyncCheckoutService = new AsyncCheckoutService(1, 1, 100);
+    checkoutRequest = new CheckoutRequest(USER_ID, List.of(1L), null);
+    orderResponse = new OrderResponse("Order created successfully!", new BigDecimal("100.00"));
+    releaseCheckouts = new CountDownLatch(1);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    releaseCheckouts.countDown();
+    asyncCheckoutService.shutdown();
+  }
+
+  @Test
+  @DisplayName("Given queued checkout, when it completes, then status reports the order")
+  void givenQueuedCheckout_whenItCompletes_thenStatusReportsTheOrder() throws Exception {
+    // Act
+    CheckoutStatusResponse queued = asyncCheckoutService.submit(checkoutRequest, USER_ID,
+        blockingCheckout(() -> orderResponse));
+    releaseCheckouts.countDown();
+    CheckoutStatusResponse finished = awaitFinished(queued.getToken());
+
+    // Assert
+    assertEquals(CheckoutStatus.QUEUED, queued.getStatus());
+    assertEquals(CheckoutStatus.COMPLETED, finished.getStatus());
+    assertEquals("Order created successfully!", finished.getMessage());
+    assertEquals(new BigDecimal("100.00"), finished.getFinalPrice());
+  }
+
+  @Test
+  @DisplayName("Given queued checkout, when it is rejected, then status reports the reason")
+  void givenQueuedCheckout_whenItIsRejected_thenStatusReportsTheReason() throws Exception {
+    // Act
+    CheckoutStatusResponse queued = asyncCheckoutService.submit(checkoutRequest, USER_ID,
+        blockingCheckout(() -> {
+          throw new InsufficientStockException(1L, 1, 0);
+        }));
+    releaseCheckouts.countDown();
+    CheckoutStatusResponse finished = awaitFinished(queued.getToken());
+
+    // Assert
+    assertEquals(CheckoutStatus.FAILED, finished.getStatus());
+    assertEquals("Insufficient stock for product 1. Requested: 1, Available: 0",
+        finished.getMessage());
+    assertNull(finished.getFinalPrice());
+  }
+
+  @Test
+  @DisplayName("Given unexpected failure, when checkout fails, then status hides the cause")
+  void givenUnexpectedFailure_whenCheckoutFails_thenStatusHidesTheCause() throws Exception {
+    // Act
+    CheckoutStatusResponse queued = asyncCheckoutService.submit(checkoutRequest, USER_ID,
+        blockingCheckout(() -> {
+          throw new IllegalStateException("connection reset");
+        }));
+    releaseCheckouts.countDown();
+    CheckoutStatusResponse finished = awaitFinished(queued.getToken());
+
+    // Assert
+    assertEquals(CheckoutStatus.FAILED, finished.getStatus());
+    assertEquals("An unexpected error occurred", finished.getMessage());
+  }
+
+  @Test
+  @DisplayName("Given busy worker and full queue, when submitting, "
+      + "then throw CheckoutQueueFullException")
+  void givenBusyWorkerAndFullQueue_whenSubmitting_thenThrowCheckoutQueueFullException() {
+    // Arrange
+    asyncCheckoutService.submit(checkoutRequest, USER_ID, blockingCheckout(() -> orderResponse));
+    asyncCheckoutService.submit(checkoutRequest, USER_ID, blockingCheckout(() -> orderResponse));
+
+    // Act & Assert
+    assertThrows(CheckoutQueueFullException.class,
+        () -> asyncCheckoutService.submit(checkoutRequest, USER_ID,
+            blockingCheckout(() -> orderResponse)));
+  }
+
+  @Test
+  @DisplayName("Given order for another user, when submitting, "
+      + "then throw UnauthorizedAccessException")
+  void givenOrderForAnotherUser_whenSubmitting_thenThrowUnauthorizedAccessException() {
+    // Act & Assert
+    assertThrows(UnauthorizedAccessException.class,
+        () -> asyncCheckoutService.submit(checkoutRequest, 2L, () -> orderResponse));
+  }
+
+  @Test
+  @DisplayName("Given token of another user, when getting status, "
+      + "then throw CheckoutNotFoundException")
+  void givenTokenOfAnotherUser_whenGettingStatus_thenThrowCheckoutNotFoundException() {
+    // Arrange
+    String token = asyncCheckoutService.submit(checkoutRequest, USER_ID,
+        blockingCheckout(() -> orderResponse)).getToken();
+
+    // Act & Assert
+    assertThrows(CheckoutNotFoundException.class,
+        () -> asyncCheckoutService.getStatus(token, 2L));
+    assertThrows(CheckoutNotFoundException.class,
+        () -> asyncCheckoutService.getStatus("unknown", USER_ID));
+  }
+
+  private Supplier<OrderResponse> blockingCheckout(Supplier<OrderResponse> checkout) {
+    return () -> {
+      try {
+        releaseCheckouts.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return checkout.get();
+    };
+  }
+
+  private CheckoutStatusResponse awaitFinished(String token) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    CheckoutStatusResponse status = asyncCheckoutService.getStatus(token, USER_ID);
+    while (status.getStatus() != CheckoutStatus.COMPLETED
+        && status.getStatus() != CheckoutStatus.FAILED) {
+      assertTrue(System.nanoTime() < deadline, "checkout did not finish in time");
+      Thread.sleep(10);
+      status = asyncCheckoutService.getStatus(token, USER_ID);
+    }
+    return status;
+  }
+}
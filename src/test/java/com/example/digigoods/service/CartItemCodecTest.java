@@ -0,0 +1,52 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CartItemCodecTest {
+
+  @Test
+  @DisplayName("Given cart items, when encoding and decoding, then keep items and their order")
+  void givenCartItems_whenEncodingAndDecoding_thenKeepItemsAndTheirOrder() {
+    // Arrange
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    items.put(300L, 1);
+    items.put(5L, 127);
+    items.put(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    // Act
+    Map<Long, Integer> decoded = CartItemCodec.decode(CartItemCodec.encode(items));
+
+    // Assert
+    assertEquals(items, decoded);
+    assertEquals(new ArrayList<>(items.keySet()), new ArrayList<>(decoded.keySet()));
+  }
+
+  @Test
+  @DisplayName("Given small product IDs and quantities, when encoding, then take a byte each")
+  void givenSmallValues_whenEncoding_thenTakeOneByteEach() {
+    // Act
+    byte[] encoded = CartItemCodec.encode(Map.of(10L, 2));
+
+    // Assert
+    assertArrayEquals(new byte[] {1, 10, 2}, encoded);
+    assertEquals(Map.of(), CartItemCodec.decode(CartItemCodec.encode(Map.of())));
+  }
+
+  @Test
+  @DisplayName("Given bytes of an unknown format or truncated, when decoding, then throw")
+  void givenUnknownOrTruncatedBytes_whenDecoding_thenThrowIllegalArgumentException() {
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class,
+        () -> CartItemCodec.decode(new byte[] {2, 10, 2}));
+    assertThrows(IllegalArgumentException.class,
+        () -> CartItemCodec.decode(new byte[] {1, 10, (byte) 0x80}));
+  }
+}
@@ -0,0 +1,232 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.AddToCartRequest;
+import com.example.digigoods.dto.CartItem;
+import com.example.digigoods.dto.CartOperation;
+import com.example.digigoods.dto.CartResponse;
+import com.example.digigoods.dto.GetCartResponse;
+import com.example.digigoods.dto.UpdateCartRequest;
+import com.example.digigoods.exception.UserNotFoundException;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.CartDetailRepository;
+import com.example.digigoods.repository.CartHeaderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests of the cart writes against a real database.
+ */
+@SpringBootTest(properties = "inventory.reservation.enabled=true")
+@ActiveProfiles("test")
+class CartServiceIntegrationTest {
+
+  private static final int THREADS = 8;
+
+  @Autowired
+  private CartService cartService;
+
+  @Autowired
+  private CartHeaderRepository cartHeaderRepository;
+
+  @Autowired
+  private CartDetailRepository cartDetailRepository;
+
+  @Autowired
+  private StockReservationRepository stockReservationRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private User user;
+  private final List<Product> products = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User(null, "cart-upsert-buyer", "password"));
+    for (int i = 0; i < THREADS; i++) {
+      products.add(productRepository.save(
+          new Product(null, "Cart Product " + i, new BigDecimal("10.00"), 100)));
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    cartDetailRepository.deleteAll();
+    cartHeaderRepository.deleteAll();
+    stockReservationRepository.deleteAll();
+    productRepository.deleteAll(products);
+    userRepository.delete(user);
+    products.clear();
+  }
+
+  @Test
+  @DisplayName("Given product already in cart, when adding it again, "
+      + "then replace its quantity in the same cart")
+  void givenProductAlreadyInCart_whenAddingAgain_thenReplaceItsQuantity() {
+    // Arrange
+    Long productId = products.get(0).getId();
+    cartService.addToCart(new AddToCartRequest(productId, 1), user.getId());
+    cartService.addToCart(new AddToCartRequest(products.get(1).getId(), 2), user.getId());
+
+    // Act
+    cartService.addToCart(new AddToCartRequest(productId, 3), user.getId());
+
+    // Assert
+    List<GetCartResponse> cart = cartService.getCart(user.getId()).getItems().stream()
+        .sorted(Comparator.comparing(GetCartResponse::getProductId))
+        .toList();
+    assertEquals(2, cart.size());
+    assertEquals(productId, cart.get(0).getProductId());
+    assertEquals(3, cart.get(0).getQuantity());
+    assertEquals(2, cart.get(1).getQuantity());
+    assertEquals(1, cartHeaderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given deleted user, when adding to cart, then throw UserNotFoundException")
+  void givenDeletedUser_whenAddingToCart_thenThrowUserNotFoundException() {
+    // Arrange
+    AddToCartRequest request = new AddToCartRequest(products.get(0).getId(), 1);
+    Long deletedUserId = user.getId();
+    userRepository.delete(user);
+
+    // Act & Assert
+    assertThrows(UserNotFoundException.class,
+        () -> cartService.addToCart(request, deletedUserId));
+    assertEquals(0, cartHeaderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given concurrent first adds of one user, when adding to cart, "
+      + "then create a single cart holding every item")
+  void givenConcurrentFirstAdds_whenAddingToCart_thenCreateSingleCart() throws Exception {
+    // Arrange
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    for (Product product : products) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        return cartService.addToCart(new AddToCartRequest(product.getId(), 1), user.getId());
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(1, cartHeaderRepository.count());
+    assertEquals(THREADS, cartService.getCart(user.getId()).getItems().size());
+  }
+
+  @Test
+  @DisplayName("Given cart with items, when rebuilding it with one update, "
+      + "then hold exactly the new items and their reservations")
+  void givenCartWithItems_whenRebuildingWithOneUpdate_thenHoldExactlyTheNewItems() {
+    // Arrange
+    cartService.addToCart(new AddToCartRequest(products.get(0).getId(), 1), user.getId());
+    cartService.addToCart(new AddToCartRequest(products.get(1).getId(), 1), user.getId());
+    List<CartOperation> operations = new ArrayList<>();
+    operations.add(new CartOperation(CartOperation.Type.CLEAR, null, null));
+    for (int i = 1; i < THREADS; i++) {
+      operations.add(new CartOperation(CartOperation.Type.SET_QUANTITY,
+          products.get(i).getId(), i));
+    }
+
+    // Act
+    CartResponse response =
+        cartService.updateCart(new UpdateCartRequest(operations), user.getId());
+
+    // Assert
+    List<GetCartResponse> cart = response.getItems();
+    assertEquals(new BigDecimal("280.00"), response.getSubtotal());
+    assertEquals(new BigDecimal("70.00"), cart.get(THREADS - 2).getLineTotal());
+    assertEquals(THREADS - 1, cart.size());
+    assertEquals(products.get(1).getId(), cart.get(0).getProductId());
+    assertEquals(1, cart.get(0).getQuantity());
+    assertEquals(THREADS - 1, cart.get(THREADS - 2).getQuantity());
+    assertEquals(THREADS - 1, stockReservationRepository.count());
+    assertTrue(stockReservationRepository
+        .findByUserIdAndProductId(user.getId(), products.get(0).getId()).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Given carts new and existing, when replacing their items, "
+      + "then each cart holds exactly the given items")
+  void givenCartsNewAndExisting_whenReplacingItems_thenEachCartHoldsExactlyTheGivenItems() {
+    // Arrange
+    cartService.addToCart(new AddToCartRequest(products.get(0).getId(), 1), user.getId());
+    cartService.addToCart(new AddToCartRequest(products.get(1).getId(), 1), user.getId());
+    Map<Long, Integer> userItems = new LinkedHashMap<>();
+    userItems.put(products.get(1).getId(), 4);
+    userItems.put(products.get(2).getId(), 2);
+    User other = userRepository.save(new User(null, "cart-replace-buyer", "password"));
+
+    // Act
+    cartDetailRepository.replaceItems(new TreeMap<>(Map.of(
+        user.getId(), userItems,
+        other.getId(), Map.of(products.get(3).getId(), 5))));
+
+    // Assert
+    assertEquals(List.of(new CartItem(products.get(1).getId(), 4),
+            new CartItem(products.get(2).getId(), 2)),
+        cartDetailRepository.findItemsByUserId(user.getId()).stream()
+            .sorted(Comparator.comparing(CartItem::getProductId))
+            .toList());
+    assertEquals(List.of(new CartItem(products.get(3).getId(), 5)),
+        cartDetailRepository.findItemsByUserId(other.getId()));
+    assertEquals(2, cartHeaderRepository.count());
+    cartDetailRepository.deleteAll();
+    cartHeaderRepository.deleteAll();
+    userRepository.delete(other);
+  }
+
+  @Test
+  @DisplayName("Given cart with items, when deleting some of them, then keep the others")
+  void givenCartWithItems_whenDeletingSomeOfThem_thenKeepTheOthers() {
+    // Arrange
+    for (int i = 0; i < 3; i++) {
+      cartService.addToCart(new AddToCartRequest(products.get(i).getId(), 1), user.getId());
+    }
+
+    // Act
+    cartDetailRepository.deleteItems(user.getId(),
+        List.of(products.get(0).getId(), products.get(2).getId()));
+
+    // Assert
+    assertEquals(List.of(new CartItem(products.get(1).getId(), 1)),
+        cartDetailRepository.findItemsByUserId(user.getId()));
+  }
+}
@@ -2,33 +2,46 @@ package com.example.digigoods.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.digigoods.dto.AddToCartRequest;
 import com.example.digigoods.dto.AddToCartResponse;
+import com.example.digigoods.dto.CartOperation;
+import com.example.digigoods.dto.CartProductView;
+import com.example.digigoods.dto.CartResponse;
 import com.example.digigoods.dto.GetCartResponse;
+import com.example.digigoods.dto.UpdateCartRequest;
 import com.example.digigoods.exception.InsufficientStockException;
-import com.example.digigoods.model.CartDetail;
-import com.example.digigoods.model.CartHeader;
+import com.example.digigoods.exception.UserNotFoundException;
 import com.example.digigoods.model.Product;
-import com.example.digigoods.model.User;
-import com.example.digigoods.repository.CartDetailRepository;
-import com.example.digigoods.repository.CartHeaderRepository;
 import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 /**
  * Unit tests for CartService to ensure 100% code coverage.
@@ -43,41 +56,30 @@ class CartServiceTest {
   private ProductService productService;
 
   @Mock
-  private CartHeaderRepository cartHeaderRepository;
+  private CartStore cartStore;
 
   @Mock
-  private CartDetailRepository cartDetailRepository;
+  private ReservationService reservationService;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
 
   @InjectMocks
   private CartService cartService;
 
-  private User user;
   private Product product;
-  private CartHeader cartHeader;
-  private CartDetail cartDetail;
   private AddToCartRequest addToCartRequest;
 
   @BeforeEach
   void setUp() {
-    user = new User();
-    user.setId(1L);
-    user.setUsername("testuser");
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
     product = new Product();
     product.setId(1L);
     product.setName("Test Product");
     product.setStock(10);
 
-    cartHeader = new CartHeader();
-    cartHeader.setId(1L);
-    cartHeader.setUser(user);
-
-    cartDetail = new CartDetail();
-    cartDetail.setId(1L);
-    cartDetail.setCartHeader(cartHeader);
-    cartDetail.setProduct(product);
-    cartDetail.setQuantity(2);
-
     addToCartRequest = new AddToCartRequest(1L, 2);
   }
 
@@ -86,10 +88,7 @@ class CartServiceTest {
   void givenValidRequestWithExistingCart_whenAddToCart_thenAddProductToExistingCart() {
     // Arrange
     Long userId = 1L;
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-    when(productService.getProductById(1L)).thenReturn(product);
-    when(cartHeaderRepository.findByUser(user)).thenReturn(Optional.of(cartHeader));
-    when(cartHeaderRepository.save(any(CartHeader.class))).thenReturn(cartHeader);
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
 
     // Act
     AddToCartResponse response = cartService.addToCart(addToCartRequest, userId);
@@ -98,10 +97,10 @@ class CartServiceTest {
     assertNotNull(response);
     assertEquals("Product added to cart successfully!", response.getMessage());
     assertEquals("Product Name", response.getProductName());
-    verify(userRepository).findById(userId);
-    verify(productService).getProductById(1L);
-    verify(cartHeaderRepository).findByUser(user);
-    verify(cartHeaderRepository).save(cartHeader);
+    verify(productService).getStockById(1L);
+    verify(userRepository, never()).existsById(any());
+    verify(cartStore).setQuantity(1L, 1L, addToCartRequest.getQuantity());
+    verify(reservationService).reserve(1L, 1L, 2, 10);
   }
 
   @Test
@@ -109,13 +108,7 @@ class CartServiceTest {
   void givenValidRequestWithoutExistingCart_whenAddToCart_thenCreateNewCartAndAddProduct() {
     // Arrange
     Long userId = 1L;
-    CartHeader newCartHeader = new CartHeader();
-    newCartHeader.setUser(user);
-
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-    when(productService.getProductById(1L)).thenReturn(product);
-    when(cartHeaderRepository.findByUser(user)).thenReturn(Optional.empty());
-    when(cartHeaderRepository.save(any(CartHeader.class))).thenReturn(newCartHeader);
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
 
     // Act
     AddToCartResponse response = cartService.addToCart(addToCartRequest, userId);
@@ -124,140 +117,278 @@ class CartServiceTest {
     assertNotNull(response);
     assertEquals("Product added to cart successfully!", response.getMessage());
     assertEquals("Product Name", response.getProductName());
-    verify(userRepository).findById(userId);
-    verify(productService).getProductById(1L);
-    verify(cartHeaderRepository).findByUser(user);
-    verify(cartHeaderRepository, org.mockito.Mockito.times(2)).save(any(CartHeader.class));
+    verify(productService).getStockById(1L);
+    verify(userRepository, never()).existsById(any());
+    verify(cartStore).setQuantity(1L, 1L, 2);
   }
 
   @Test
-  @DisplayName("Given user not found, when addToCart, then throw RuntimeException")
-  void givenUserNotFound_whenAddToCart_thenThrowRuntimeException() {
+  @DisplayName("Given deleted user, when addToCart, then throw UserNotFoundException")
+  void givenDeletedUser_whenAddToCart_thenThrowUserNotFoundException() {
     // Arrange
     Long userId = 1L;
-    when(userRepository.findById(userId)).thenReturn(Optional.empty());
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
+    doThrow(new DataIntegrityViolationException("FK_CART_HEADERS_USER_ID"))
+        .when(cartStore).setQuantity(userId, 1L, 2);
+    when(userRepository.existsById(userId)).thenReturn(false);
 
     // Act & Assert
-    RuntimeException exception = assertThrows(RuntimeException.class,
+    UserNotFoundException exception = assertThrows(UserNotFoundException.class,
         () -> cartService.addToCart(addToCartRequest, userId));
+    assertEquals("User not found with ID: 1", exception.getMessage());
+  }
+
+  @Test
+  @DisplayName("Given integrity violation of an existing user, when addToCart, then rethrow it")
+  void givenIntegrityViolationOfExistingUser_whenAddToCart_thenRethrowIt() {
+    // Arrange
+    Long userId = 1L;
+    DataIntegrityViolationException violation = new DataIntegrityViolationException("other");
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
+    doThrow(violation).when(cartStore).setQuantity(userId, 1L, 2);
+    when(userRepository.existsById(userId)).thenReturn(true);
 
-    assertEquals("User not found", exception.getMessage());
-    verify(userRepository).findById(userId);
-    verify(productService, never()).getProductById(any());
-    verify(cartHeaderRepository, never()).findByUser(any());
-    verify(cartHeaderRepository, never()).save(any());
+    // Act & Assert
+    assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+        () -> cartService.addToCart(addToCartRequest, userId)));
   }
 
   @Test
   @DisplayName("Given insufficient stock, when addToCart, then throw InsufficientStockException")
   void givenInsufficientStock_whenAddToCart_thenThrowInsufficientStockException() {
     // Arrange
-    Long userId = 1L;
+    final Long userId = 1L;
     product.setStock(1); // Less than requested quantity (2)
     addToCartRequest = new AddToCartRequest(1L, 2);
 
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-    when(productService.getProductById(1L)).thenReturn(product);
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
 
     // Act & Assert
     InsufficientStockException exception = assertThrows(InsufficientStockException.class,
         () -> cartService.addToCart(addToCartRequest, userId));
 
     assertEquals("Insufficient stock for product 1. Requested: 2, Available: 1", exception.getMessage());
-    verify(userRepository).findById(userId);
-    verify(productService).getProductById(1L);
-    verify(cartHeaderRepository, never()).findByUser(any());
-    verify(cartHeaderRepository, never()).save(any());
+    verify(productService).getStockById(1L);
+    verify(userRepository, never()).existsById(any());
+    verify(cartStore, never()).setQuantity(any(), any(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Given stock held in other carts, when addToCart, "
+      + "then throw InsufficientStockException")
+  void givenStockHeldInOtherCarts_whenAddToCart_thenThrowInsufficientStockException() {
+    // Arrange
+    Long userId = 1L;
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
+    doThrow(new InsufficientStockException(1L, 2, 1))
+        .when(reservationService).reserve(1L, 1L, 2, 10);
+
+    // Act & Assert
+    assertThrows(InsufficientStockException.class,
+        () -> cartService.addToCart(addToCartRequest, userId));
+    verify(cartStore, never()).setQuantity(any(), any(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Given set, remove and clear operations, when updateCart, "
+      + "then validate the products set in one query and apply what the operations leave")
+  @SuppressWarnings("unchecked")
+  void givenOperations_whenUpdateCart_thenApplyWhatTheOperationsLeave() {
+    // Arrange
+    Product product2 = new Product();
+    product2.setId(2L);
+    product2.setName("Test Product 2");
+    product2.setStock(10);
+    Map<Long, Integer> current = new LinkedHashMap<>();
+    current.put(4L, 1);
+    current.put(1L, 7);
+    when(productService.getProductsByIds(List.of(1L, 2L))).thenReturn(List.of(product, product2));
+    Long userId = 1L;
+    // The cart before the update, then the cart returned after it
+    when(cartStore.getItems(userId)).thenReturn(current, Map.of());
+    UpdateCartRequest request = new UpdateCartRequest(List.of(
+        new CartOperation(CartOperation.Type.SET_QUANTITY, 3L, 1),
+        new CartOperation(CartOperation.Type.CLEAR, null, null),
+        new CartOperation(CartOperation.Type.SET_QUANTITY, 1L, 2),
+        new CartOperation(CartOperation.Type.SET_QUANTITY, 2L, 5),
+        new CartOperation(CartOperation.Type.REMOVE, 2L, null),
+        new CartOperation(CartOperation.Type.SET_QUANTITY, 2L, 3)));
+
+    // Act
+    cartService.updateCart(request, userId);
+
+    // Assert
+    verify(reservationService).reserveAll(userId, Map.of(1L, 2, 2L, 3));
+    verify(reservationService).release(userId, Set.of(4L));
+    ArgumentCaptor<Consumer<Map<Long, Integer>>> change = ArgumentCaptor.forClass(Consumer.class);
+    verify(cartStore).updateItems(eq(userId), change.capture());
+    Map<Long, Integer> items = new LinkedHashMap<>(current);
+    change.getValue().accept(items);
+    assertEquals(Map.of(1L, 2, 2L, 3), items);
   }
 
   @Test
-  @DisplayName("Given valid user ID, when getCart, then return cart items")
+  @DisplayName("Given product set beyond its stock, when updateCart, "
+      + "then throw InsufficientStockException and leave the cart alone")
+  void givenProductSetBeyondStock_whenUpdateCart_thenThrowInsufficientStockException() {
+    // Arrange
+    UpdateCartRequest request = new UpdateCartRequest(List.of(
+        new CartOperation(CartOperation.Type.SET_QUANTITY, 1L, 11)));
+    when(productService.getProductsByIds(List.of(1L))).thenReturn(List.of(product));
+
+    // Act & Assert
+    assertThrows(InsufficientStockException.class, () -> cartService.updateCart(request, 1L));
+    verify(reservationService, never()).reserveAll(any(), any());
+    verify(cartStore, never()).updateItems(any(), any());
+  }
+
+  @Test
+  @DisplayName("Given only removals, when updateCart, then read no product and reserve nothing")
+  void givenOnlyRemovals_whenUpdateCart_thenReadNoProductAndReserveNothing() {
+    // Arrange
+    UpdateCartRequest request = new UpdateCartRequest(List.of(
+        new CartOperation(CartOperation.Type.REMOVE, 1L, null)));
+    when(cartStore.getItems(1L)).thenReturn(Map.of());
+
+    // Act
+    CartResponse response = cartService.updateCart(request, 1L);
+
+    // Assert
+    assertEquals(List.of(), response.getItems());
+    verify(productService, never()).getProductsByIds(any());
+    verify(reservationService, never()).reserveAll(any(), any());
+    verify(reservationService).release(1L, Set.of(1L));
+    verify(cartStore).updateItems(eq(1L), any());
+  }
+
+  @Test
+  @DisplayName("Given valid user ID, when getCart, then return cart items with prices and subtotal")
   void givenValidUserId_whenGetCart_thenReturnCartItems() {
     // Arrange
     Long userId = 1L;
-    List<CartDetail> cartDetails = List.of(cartDetail);
-    when(cartDetailRepository.findByUserId(userId)).thenReturn(cartDetails);
+    when(cartStore.getItems(userId)).thenReturn(Map.of(1L, 2));
+    when(productService.getCartProducts(Set.of(1L))).thenReturn(List.of(
+        new CartProductView(1L, "Test Product", new BigDecimal("10.50"), 10)));
 
     // Act
-    List<GetCartResponse> response = cartService.getCart(userId);
+    CartResponse response = cartService.getCart(userId);
 
     // Assert
     assertNotNull(response);
-    assertEquals(1, response.size());
-    GetCartResponse cartResponse = response.get(0);
+    assertEquals(1, response.getItems().size());
+    GetCartResponse cartResponse = response.getItems().get(0);
     assertEquals(1L, cartResponse.getProductId());
     assertEquals("Test Product", cartResponse.getProductName());
     assertEquals(2, cartResponse.getQuantity());
-    verify(cartDetailRepository).findByUserId(userId);
+    assertEquals(new BigDecimal("10.50"), cartResponse.getUnitPrice());
+    assertEquals(new BigDecimal("21.00"), cartResponse.getLineTotal());
+    assertNull(cartResponse.getStockWarning());
+    assertNull(cartResponse.getAvailableStock());
+    assertEquals(new BigDecimal("21.00"), response.getSubtotal());
+    verify(cartStore).getItems(userId);
+    verify(productService, never()).getProductsByIds(any());
   }
 
   @Test
-  @DisplayName("Given user with empty cart, when getCart, then return empty list")
+  @DisplayName("Given user with empty cart, when getCart, then return empty cart")
   void givenUserWithEmptyCart_whenGetCart_thenReturnEmptyList() {
     // Arrange
     Long userId = 1L;
-    when(cartDetailRepository.findByUserId(userId)).thenReturn(List.of());
+    when(cartStore.getItems(userId)).thenReturn(Map.of());
 
     // Act
-    List<GetCartResponse> response = cartService.getCart(userId);
+    CartResponse response = cartService.getCart(userId);
 
     // Assert
     assertNotNull(response);
-    assertEquals(0, response.size());
-    verify(cartDetailRepository).findByUserId(userId);
+    assertEquals(0, response.getItems().size());
+    assertEquals(BigDecimal.ZERO, response.getSubtotal());
+    verify(productService, never()).getCartProducts(any());
   }
 
   @Test
-  @DisplayName("Given multiple cart items, when getCart, then return all items")
+  @DisplayName("Given multiple cart items, when getCart, then return all items in cart order")
   void givenMultipleCartItems_whenGetCart_thenReturnAllItems() {
     // Arrange
     Long userId = 1L;
-
-    Product product2 = new Product();
-    product2.setId(2L);
-    product2.setName("Test Product 2");
-
-    CartDetail cartDetail2 = new CartDetail();
-    cartDetail2.setId(2L);
-    cartDetail2.setCartHeader(cartHeader);
-    cartDetail2.setProduct(product2);
-    cartDetail2.setQuantity(3);
-
-    List<CartDetail> cartDetails = List.of(cartDetail, cartDetail2);
-    when(cartDetailRepository.findByUserId(userId)).thenReturn(cartDetails);
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    items.put(1L, 2);
+    items.put(2L, 3);
+    when(cartStore.getItems(userId)).thenReturn(items);
+    // Products come back in any order, the cart keeps its own
+    when(productService.getCartProducts(items.keySet())).thenReturn(List.of(
+        new CartProductView(2L, "Test Product 2", new BigDecimal("1.25"), 10),
+        new CartProductView(1L, "Test Product", new BigDecimal("10.00"), 10)));
 
     // Act
-    List<GetCartResponse> response = cartService.getCart(userId);
+    CartResponse response = cartService.getCart(userId);
 
     // Assert
     assertNotNull(response);
-    assertEquals(2, response.size());
+    assertEquals(2, response.getItems().size());
 
-    GetCartResponse firstItem = response.get(0);
+    GetCartResponse firstItem = response.getItems().get(0);
     assertEquals(1L, firstItem.getProductId());
     assertEquals("Test Product", firstItem.getProductName());
     assertEquals(2, firstItem.getQuantity());
 
-    GetCartResponse secondItem = response.get(1);
+    GetCartResponse secondItem = response.getItems().get(1);
     assertEquals(2L, secondItem.getProductId());
     assertEquals("Test Product 2", secondItem.getProductName());
     assertEquals(3, secondItem.getQuantity());
+    assertEquals(new BigDecimal("3.75"), secondItem.getLineTotal());
 
-    verify(cartDetailRepository).findByUserId(userId);
+    assertEquals(new BigDecimal("23.75"), response.getSubtotal());
+    verify(cartStore).getItems(userId);
+  }
+
+  @Test
+  @DisplayName("Given items short of stock or no longer sold, when getCart, "
+      + "then warn about them and leave unsold items out of the subtotal")
+  void givenItemsShortOfStockOrNoLongerSold_whenGetCart_thenWarnAboutThem() {
+    // Arrange
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    items.put(1L, 5);
+    items.put(2L, 1);
+    items.put(3L, 2);
+    Long userId = 1L;
+    when(cartStore.getItems(userId)).thenReturn(items);
+    when(productService.getCartProducts(items.keySet())).thenReturn(List.of(
+        new CartProductView(1L, "Test Product", new BigDecimal("2.00"), 3),
+        new CartProductView(2L, "Test Product 2", new BigDecimal("4.00"), 0)));
+
+    // Act
+    CartResponse response = cartService.getCart(userId);
+
+    // Assert
+    GetCartResponse shortItem = response.getItems().get(0);
+    assertEquals(GetCartResponse.StockWarning.INSUFFICIENT_STOCK, shortItem.getStockWarning());
+    assertEquals(3, shortItem.getAvailableStock());
+    assertEquals(new BigDecimal("10.00"), shortItem.getLineTotal());
+
+    GetCartResponse soldOutItem = response.getItems().get(1);
+    assertEquals(GetCartResponse.StockWarning.OUT_OF_STOCK, soldOutItem.getStockWarning());
+    assertEquals(0, soldOutItem.getAvailableStock());
+
+    GetCartResponse unsoldItem = response.getItems().get(2);
+    assertEquals(3L, unsoldItem.getProductId());
+    assertEquals(2, unsoldItem.getQuantity());
+    assertEquals(GetCartResponse.StockWarning.UNAVAILABLE, unsoldItem.getStockWarning());
+    assertNull(unsoldItem.getProductName());
+    assertNull(unsoldItem.getLineTotal());
+
+    assertEquals(new BigDecimal("14.00"), response.getSubtotal());
   }
 
   @Test
   @DisplayName("Given exact stock quantity requested, when addToCart, then add product successfully")
   void givenExactStockQuantityRequested_whenAddToCart_thenAddProductSuccessfully() {
     // Arrange
-    Long userId = 1L;
+    final Long userId = 1L;
     product.setStock(2); // Exact quantity requested
     addToCartRequest = new AddToCartRequest(1L, 2);
 
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-    when(productService.getProductById(1L)).thenReturn(product);
-    when(cartHeaderRepository.findByUser(user)).thenReturn(Optional.of(cartHeader));
-    when(cartHeaderRepository.save(any(CartHeader.class))).thenReturn(cartHeader);
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
 
     // Act
     AddToCartResponse response = cartService.addToCart(addToCartRequest, userId);
@@ -266,10 +397,9 @@ class CartServiceTest {
     assertNotNull(response);
     assertEquals("Product added to cart successfully!", response.getMessage());
     assertEquals("Product Name", response.getProductName());
-    verify(userRepository).findById(userId);
-    verify(productService).getProductById(1L);
-    verify(cartHeaderRepository).findByUser(user);
-    verify(cartHeaderRepository).save(cartHeader);
+    verify(productService).getStockById(1L);
+    verify(userRepository, never()).existsById(any());
+    verify(cartStore).setQuantity(1L, 1L, addToCartRequest.getQuantity());
   }
 
   @Test
@@ -279,10 +409,7 @@ class CartServiceTest {
     Long userId = 1L;
     addToCartRequest = new AddToCartRequest(1L, 1);
 
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-    when(productService.getProductById(1L)).thenReturn(product);
-    when(cartHeaderRepository.findByUser(user)).thenReturn(Optional.of(cartHeader));
-    when(cartHeaderRepository.save(any(CartHeader.class))).thenReturn(cartHeader);
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
 
     // Act
     AddToCartResponse response = cartService.addToCart(addToCartRequest, userId);
@@ -291,10 +418,9 @@ class CartServiceTest {
     assertNotNull(response);
     assertEquals("Product added to cart successfully!", response.getMessage());
     assertEquals("Product Name", response.getProductName());
-    verify(userRepository).findById(userId);
-    verify(productService).getProductById(1L);
-    verify(cartHeaderRepository).findByUser(user);
-    verify(cartHeaderRepository).save(cartHeader);
+    verify(productService).getStockById(1L);
+    verify(userRepository, never()).existsById(any());
+    verify(cartStore).setQuantity(1L, 1L, addToCartRequest.getQuantity());
   }
 
   @Test
@@ -302,12 +428,7 @@ class CartServiceTest {
   void givenExistingCartWithSameProduct_whenAddToCart_thenModifyExistingQuantity() {
     // Arrange
     Long userId = 1L;
-    cartHeader.addProductToCart(product, 1); // Pre-existing product in cart
-
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-    when(productService.getProductById(1L)).thenReturn(product);
-    when(cartHeaderRepository.findByUser(user)).thenReturn(Optional.of(cartHeader));
-    when(cartHeaderRepository.save(any(CartHeader.class))).thenReturn(cartHeader);
+    when(productService.getStockById(1L)).thenReturn(product.getStock());
 
     // Act
     AddToCartResponse response = cartService.addToCart(addToCartRequest, userId);
@@ -316,9 +437,8 @@ class CartServiceTest {
     assertNotNull(response);
     assertEquals("Product added to cart successfully!", response.getMessage());
     assertEquals("Product Name", response.getProductName());
-    verify(userRepository).findById(userId);
-    verify(productService).getProductById(1L);
-    verify(cartHeaderRepository).findByUser(user);
-    verify(cartHeaderRepository).save(cartHeader);
+    verify(productService).getStockById(1L);
+    verify(userRepository, never()).existsById(any());
+    verify(cartStore).setQuantity(1L, 1L, addToCartRequest.getQuantity());
   }
 }
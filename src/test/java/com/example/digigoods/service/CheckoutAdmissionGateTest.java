@@ -0,0 +1,188 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.SoldOutException;
+import com.example.digigoods.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutAdmissionGateTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  private CheckoutAdmissionGate checkoutAdmissionGate;
+  private AtomicInteger checkouts;
+  private Supplier<OrderResponse> checkout;
+
+  @BeforeEach
+  void setUp() {
+    // A long refresh interval, so that permits are only read once
+    checkoutAdmissionGate = new CheckoutAdmissionGate(productRepository, true, 60_000);
+    checkouts = new AtomicInteger();
+    checkout = () -> {
+      checkouts.incrementAndGet();
+      return new OrderResponse("Order created successfully!", BigDecimal.TEN);
+    };
+  }
+
+  @Test
+  @DisplayName("Given more buyers than stock, when admitting, "
+      + "then reject the buyers beyond the stock without running their checkout")
+  void givenMoreBuyersThanStock_whenAdmitting_thenRejectBuyersBeyondStock() {
+    // Arrange
+    when(productRepository.findStockById(1L)).thenReturn(Optional.of(2));
+
+    // Act
+    checkoutAdmissionGate.admit(request(1L), checkout);
+    checkoutAdmissionGate.admit(request(1L), checkout);
+    SoldOutException exception = assertThrows(SoldOutException.class,
+        () -> checkoutAdmissionGate.admit(request(1L), checkout));
+
+    // Assert
+    assertEquals("Product 1 is sold out", exception.getMessage());
+    assertEquals(2, checkouts.get());
+    verify(productRepository, times(1)).findStockById(1L);
+  }
+
+  @Test
+  @DisplayName("Given concurrent buyers of a drop, when admitting, "
+      + "then run as many checkouts as there is stock")
+  void givenConcurrentBuyersOfDrop_whenAdmitting_thenRunAsManyCheckoutsAsStock()
+      throws Exception {
+    // Arrange
+    when(productRepository.findStockById(1L)).thenReturn(Optional.of(5));
+    ExecutorService buyers = Executors.newFixedThreadPool(4);
+    List<Future<OrderResponse>> results = new ArrayList<>();
+
+    // Act
+    try {
+      for (int i = 0; i < 50; i++) {
+        results.add(buyers.submit(() -> checkoutAdmissionGate.admit(request(1L), checkout)));
+      }
+      int soldOut = 0;
+      for (Future<OrderResponse> result : results) {
+        try {
+          result.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+          assertEquals(SoldOutException.class, e.getCause().getClass());
+          soldOut++;
+        }
+      }
+
+      // Assert
+      assertEquals(5, checkouts.get());
+      assertEquals(45, soldOut);
+    } finally {
+      buyers.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Given failed checkout, when admitting the next buyer, "
+      + "then reuse the permits of the failed checkout")
+  void givenFailedCheckout_whenAdmittingNextBuyer_thenReusePermitsOfFailedCheckout() {
+    // Arrange
+    when(productRepository.findStockById(1L)).thenReturn(Optional.of(1));
+    assertThrows(InsufficientStockException.class,
+        () -> checkoutAdmissionGate.admit(request(1L), () -> {
+          throw new InsufficientStockException(1L, 1, 0);
+        }));
+
+    // Act
+    OrderResponse response = checkoutAdmissionGate.admit(request(1L), checkout);
+
+    // Assert
+    assertEquals(BigDecimal.TEN, response.getFinalPrice());
+    assertEquals(1, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given one product sold out, when admitting an order of several products, "
+      + "then give back the permits taken for the others")
+  void givenOneProductSoldOut_whenAdmittingSeveralProducts_thenGiveBackOtherPermits() {
+    // Arrange
+    when(productRepository.findStockById(1L)).thenReturn(Optional.of(1));
+    when(productRepository.findStockById(2L)).thenReturn(Optional.of(0));
+
+    // Act
+    assertThrows(SoldOutException.class,
+        () -> checkoutAdmissionGate.admit(request(1L, 2L), checkout));
+    checkoutAdmissionGate.admit(request(1L), checkout);
+
+    // Assert
+    assertEquals(1, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given restock after selling out, when refresh interval has passed, "
+      + "then admit buyers again")
+  void givenRestockAfterSellingOut_whenRefreshIntervalHasPassed_thenAdmitBuyersAgain() {
+    // Arrange
+    CheckoutAdmissionGate refreshing = new CheckoutAdmissionGate(productRepository, true, 0);
+    when(productRepository.findStockById(1L)).thenReturn(Optional.of(0), Optional.of(3));
+
+    // Act
+    refreshing.admit(request(1L), checkout);
+
+    // Assert
+    assertEquals(1, checkouts.get());
+    verify(productRepository, times(2)).findStockById(1L);
+  }
+
+  @Test
+  @DisplayName("Given unknown product, when admitting, then leave it to the checkout")
+  void givenUnknownProduct_whenAdmitting_thenLeaveItToTheCheckout() {
+    // Arrange
+    when(productRepository.findStockById(99L)).thenReturn(Optional.empty());
+
+    // Act
+    checkoutAdmissionGate.admit(request(99L), checkout);
+
+    // Assert
+    assertEquals(1, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given gate disabled, when admitting, then run the checkout directly")
+  void givenGateDisabled_whenAdmitting_thenRunTheCheckoutDirectly() {
+    // Arrange
+    CheckoutAdmissionGate disabled = new CheckoutAdmissionGate(productRepository, false, 1000);
+
+    // Act
+    disabled.admit(request(1L), checkout);
+
+    // Assert
+    assertEquals(1, checkouts.get());
+    verify(productRepository, never()).findStockById(1L);
+  }
+
+  private CheckoutRequest request(Long... productIds) {
+    return new CheckoutRequest(1L, List.of(productIds), null);
+  }
+}
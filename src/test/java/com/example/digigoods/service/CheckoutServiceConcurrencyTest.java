@@ -0,0 +1,291 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.exception.EmptyCartException;
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.UserNotFoundException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.CartDetailRepository;
+import com.example.digigoods.repository.CartHeaderRepository;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.IdempotencyKeyRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Concurrency tests for CheckoutService against a real database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutServiceConcurrencyTest {
+
+  private static final int THREADS = 8;
+  private static final int ORDERS_PER_THREAD = 25;
+  private static final int INITIAL_STOCK = 1000;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private IdempotencyService idempotencyService;
+
+  @Autowired
+  private IdempotencyKeyRepository idempotencyKeyRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private CartStore cartStore;
+
+  @Autowired
+  private CartDetailRepository cartDetailRepository;
+
+  @Autowired
+  private CartHeaderRepository cartHeaderRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private User user;
+  private Product productA;
+  private Product productB;
+  private double exhaustedRetriesBefore;
+
+  @BeforeEach
+  void setUp() {
+    exhaustedRetriesBefore = exhaustedRetries();
+    user = userRepository.save(new User(null, "concurrent-buyer", "password"));
+    productA = productRepository.save(new Product(null, "Product A", new BigDecimal("10.00"),
+        INITIAL_STOCK));
+    productB = productRepository.save(new Product(null, "Product B", new BigDecimal("20.00"),
+        INITIAL_STOCK));
+  }
+
+  @AfterEach
+  void tearDown() {
+    cartDetailRepository.deleteAll();
+    cartHeaderRepository.deleteAll();
+    orderRepository.deleteAll();
+    productRepository.deleteAllById(List.of(productA.getId(), productB.getId()));
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given orders with overlapping products in opposite order, when checking out "
+      + "concurrently, then every checkout commits")
+  void givenOverlappingProducts_whenCheckingOutConcurrently_thenEveryCheckoutCommits()
+      throws Exception {
+    // Arrange
+    List<Long> forward = List.of(productA.getId(), productB.getId());
+    List<Long> backward = List.of(productB.getId(), productA.getId());
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    for (int t = 0; t < THREADS; t++) {
+      List<Long> productIds = t % 2 == 0 ? forward : backward;
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+          checkoutService.processCheckout(
+              new CheckoutRequest(user.getId(), productIds, null), user.getId());
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    // Assert
+    int ordered = THREADS * ORDERS_PER_THREAD;
+    assertEquals(ordered, orderRepository.count());
+    assertEquals(INITIAL_STOCK - ordered,
+        productRepository.findStockById(productA.getId()).orElseThrow());
+    assertEquals(INITIAL_STOCK - ordered,
+        productRepository.findStockById(productB.getId()).orElseThrow());
+    assertEquals(exhaustedRetriesBefore, exhaustedRetries());
+  }
+
+  @Test
+  @DisplayName("Given one cart, when checking it out concurrently, "
+      + "then place a single order and find the cart empty in the other checkouts")
+  void givenOneCart_whenCheckingItOutConcurrently_thenPlaceSingleOrder() throws Exception {
+    // Arrange
+    cartStore.setQuantity(user.getId(), productA.getId(), 2);
+    cartStore.setQuantity(user.getId(), productB.getId(), 1);
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        return checkoutService.processCartCheckout(null, user.getId());
+      }));
+    }
+    start.countDown();
+    int placed = 0;
+    int empty = 0;
+    for (Future<?> future : futures) {
+      try {
+        future.get(60, TimeUnit.SECONDS);
+        placed++;
+      } catch (ExecutionException ex) {
+        assertInstanceOf(EmptyCartException.class, ex.getCause());
+        empty++;
+      }
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    // Assert
+    assertEquals(1, placed);
+    assertEquals(THREADS - 1, empty);
+    assertEquals(1, orderRepository.count());
+    assertEquals(INITIAL_STOCK - 2,
+        productRepository.findStockById(productA.getId()).orElseThrow());
+    assertEquals(INITIAL_STOCK - 1,
+        productRepository.findStockById(productB.getId()).orElseThrow());
+    assertTrue(cartStore.getItems(user.getId()).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Given a discount with one use left, when checking out with it concurrently, "
+      + "then place a single order and reject the others")
+  void givenDiscountWithOneUseLeft_whenCheckingOutConcurrently_thenPlaceSingleOrder()
+      throws Exception {
+    // Arrange
+    Discount discount = new Discount();
+    discount.setCode("LASTUSE");
+    discount.setPercentage(new BigDecimal("5.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(1));
+    discount.setRemainingUses(1);
+    discount.setApplicableProducts(new HashSet<>());
+    final Discount saved = discountRepository.save(discount);
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(productA.getId()),
+        List.of("LASTUSE"));
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        return checkoutService.processCheckout(request, user.getId());
+      }));
+    }
+    start.countDown();
+    int placed = 0;
+    for (Future<?> future : futures) {
+      try {
+        future.get(60, TimeUnit.SECONDS);
+        placed++;
+      } catch (ExecutionException ex) {
+        assertInstanceOf(InvalidDiscountException.class, ex.getCause());
+      }
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    // Assert
+    try {
+      assertEquals(1, placed);
+      assertEquals(1, orderRepository.count());
+      assertEquals(0, discountRepository.findById(saved.getId()).orElseThrow()
+          .getRemainingUses());
+    } finally {
+      orderRepository.deleteAll();
+      discountRepository.delete(saved);
+    }
+  }
+
+  @Test
+  @DisplayName("Given a token of a deleted user, when checking out, "
+      + "then throw UserNotFoundException and take no stock")
+  void givenTokenOfDeletedUser_whenCheckingOut_thenThrowUserNotFoundException() {
+    // Arrange
+    User deleted = userRepository.save(new User(null, "deleted-buyer", "password"));
+    userRepository.delete(deleted);
+    CheckoutRequest request = new CheckoutRequest(deleted.getId(),
+        List.of(productA.getId()), null);
+
+    // Act & Assert
+    UserNotFoundException exception = assertThrows(UserNotFoundException.class,
+        () -> checkoutService.processCheckout(request, deleted.getId()));
+    assertEquals("User not found with ID: " + deleted.getId(), exception.getMessage());
+    assertEquals(INITIAL_STOCK, productRepository.findStockById(productA.getId()).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("Given a token of a deleted user, when checking out with an idempotency key, "
+      + "then throw UserNotFoundException and store no key")
+  void givenTokenOfDeletedUser_whenCheckingOutWithKey_thenThrowUserNotFoundException() {
+    // Arrange
+    User deleted = userRepository.save(new User(null, "deleted-keyed-buyer", "password"));
+    userRepository.delete(deleted);
+    CheckoutRequest request = new CheckoutRequest(deleted.getId(),
+        List.of(productA.getId()), null);
+
+    // Act & Assert
+    UserNotFoundException exception = assertThrows(UserNotFoundException.class,
+        () -> idempotencyService.execute(deleted.getId(), "deleted-user-key", request,
+            () -> checkoutService.processCheckout(request, deleted.getId())));
+    assertEquals("User not found with ID: " + deleted.getId(), exception.getMessage());
+    assertTrue(idempotencyKeyRepository
+        .findByUserIdAndIdempotencyKey(deleted.getId(), "deleted-user-key").isEmpty());
+    assertEquals(INITIAL_STOCK, productRepository.findStockById(productA.getId()).orElseThrow());
+  }
+
+  private double exhaustedRetries() {
+    return meterRegistry.find("transaction.retries.exhausted").counters().stream()
+        .mapToDouble(counter -> counter.count())
+        .sum();
+  }
+}
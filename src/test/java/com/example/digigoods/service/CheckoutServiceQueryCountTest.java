@@ -0,0 +1,211 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Checks the number of SQL statements a checkout sends to the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutServiceQueryCountTest {
+
+  private static final List<Execution> EXECUTIONS = Collections.synchronizedList(new ArrayList<>());
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  private User user;
+  private final List<Product> products = new ArrayList<>();
+  private final List<Discount> discounts = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    discountRepository.deleteAll(discounts);
+    productRepository.deleteAllById(products.stream().map(Product::getId).toList());
+    userRepository.delete(user);
+    products.clear();
+    discounts.clear();
+  }
+
+  @ParameterizedTest(name = "{0} products, {1} discount codes")
+  @CsvSource({"1, 0", "3, 1", "5, 3"})
+  @DisplayName("Given N products and M discount codes, when checking out, "
+      + "then send a fixed number of statements")
+  void givenProductsAndDiscountCodes_whenCheckingOut_thenSendFixedNumberOfStatements(
+      int productCount, int discountCount) {
+    // Arrange
+    user = userRepository.save(new User(null, "query-count-buyer", "password"));
+    List<Long> productIds = new ArrayList<>();
+    for (int i = 0; i < productCount; i++) {
+      Product product = productRepository.save(
+          new Product(null, "Query Count " + i, new BigDecimal("10.00"), 100));
+      products.add(product);
+      // Every product is ordered twice, which must not cost extra reads
+      productIds.add(product.getId());
+      productIds.add(product.getId());
+    }
+    List<String> codes = new ArrayList<>();
+    for (int i = 0; i < discountCount; i++) {
+      // Alternate product-specific and general discounts of 5%
+      Discount discount = discountRepository.save(createDiscount("QC" + i,
+          i % 2 == 0 ? DiscountType.PRODUCT_SPECIFIC : DiscountType.GENERAL));
+      discounts.add(discount);
+      codes.add(discount.getCode());
+    }
+    CheckoutRequest request = new CheckoutRequest(user.getId(), productIds, codes);
+    QueryCountHolder.clear();
+    EXECUTIONS.clear();
+
+    // Act
+    checkoutService.processCheckout(request, user.getId());
+
+    // Assert
+    QueryCount queryCount = QueryCountHolder.getGrandTotal();
+    // Refills of the pooled id sequences depend on earlier tests, so they are not counted
+    int sequenceSelects = (int) EXECUTIONS.stream()
+        .filter(execution -> execution.query().contains("next value for"))
+        .count();
+    // Products, discounts with their applicable products
+    int expectedSelects = discountCount > 0 ? 2 : 1;
+    // Order, one batch of product links, one batch of discount links, one batch of order items,
+    // one outbox event
+    int expectedInserts = discountCount > 0 ? 5 : 4;
+    // One batch of remaining discount uses, plus one batch of stock decrements
+    int expectedUpdates = discountCount > 0 ? 2 : 1;
+    assertEquals(expectedSelects, queryCount.getSelect() - sequenceSelects);
+    assertEquals(expectedInserts, queryCount.getInsert());
+    assertEquals(expectedUpdates, queryCount.getUpdate());
+    // Sales rollup merges: one batch of products, one of discount codes, one daily revenue row
+    int expectedOthers = discountCount > 0 ? 3 : 2;
+    assertEquals(expectedOthers, queryCount.getOther());
+    assertEquals(expectedSelects + expectedInserts + expectedUpdates + expectedOthers,
+        queryCount.getTotal() - sequenceSelects);
+  }
+
+  @ParameterizedTest(name = "{0} products, {1} discount codes")
+  @CsvSource({"3, 1", "5, 3"})
+  @DisplayName("Given N products and M discount codes, when checking out, "
+      + "then insert the order links as JDBC batches")
+  void givenProductsAndDiscountCodes_whenCheckingOut_thenInsertOrderLinksAsJdbcBatches(
+      int productCount, int discountCount) {
+    // Arrange
+    user = userRepository.save(new User(null, "batch-buyer", "password"));
+    List<Long> productIds = new ArrayList<>();
+    for (int i = 0; i < productCount; i++) {
+      Product product = productRepository.save(
+          new Product(null, "Batch " + i, new BigDecimal("10.00"), 100));
+      products.add(product);
+      productIds.add(product.getId());
+    }
+    List<String> codes = new ArrayList<>();
+    for (int i = 0; i < discountCount; i++) {
+      Discount discount = discountRepository.save(createDiscount("BATCH" + i,
+          DiscountType.GENERAL));
+      discounts.add(discount);
+      codes.add(discount.getCode());
+    }
+    CheckoutRequest request = new CheckoutRequest(user.getId(), productIds, codes);
+    EXECUTIONS.clear();
+
+    // Act
+    checkoutService.processCheckout(request, user.getId());
+
+    // Assert
+    assertBatch("insert into order_products", productCount);
+    assertBatch("insert into order_applied_discounts", discountCount);
+    assertBatch("update discounts", discountCount);
+  }
+
+  private void assertBatch(String statement, int expectedSize) {
+    List<Execution> executions = EXECUTIONS.stream()
+        .filter(execution -> execution.query().toLowerCase().startsWith(statement))
+        .toList();
+    assertEquals(1, executions.size(), statement + " sent once");
+    assertTrue(executions.get(0).batch(), statement + " sent as a batch");
+    assertEquals(expectedSize, executions.get(0).batchSize());
+  }
+
+  private Discount createDiscount(String code, DiscountType type) {
+    Discount discount = new Discount();
+    discount.setCode(code);
+    discount.setPercentage(new BigDecimal("5.00"));
+    discount.setType(type);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(1));
+    discount.setRemainingUses(10);
+    discount.setApplicableProducts(type == DiscountType.PRODUCT_SPECIFIC
+        ? new HashSet<>(products) : new HashSet<>());
+    return discount;
+  }
+
+  @TestConfiguration
+  static class QueryCountConfiguration {
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (bean instanceof DataSource dataSource) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                .name("checkout")
+                .countQuery()
+                .afterQuery((executionInfo, queries) -> EXECUTIONS.add(new Execution(
+                    queries.stream().map(QueryInfo::getQuery).findFirst().orElse(""),
+                    executionInfo.isBatch(), executionInfo.getBatchSize())))
+                .build();
+          }
+          return bean;
+        }
+      };
+    }
+  }
+
+  private record Execution(String query, boolean batch, int batchSize) {
+  }
+}
@@ -5,33 +5,54 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.digigoods.dto.CheckoutLine;
 import com.example.digigoods.dto.CheckoutRequest;
 import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.EmptyCartException;
 import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.InsufficientStockException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.exception.UserNotFoundException;
 import com.example.digigoods.model.Discount;
 import com.example.digigoods.model.DiscountType;
 import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
 import com.example.digigoods.model.Product;
+import com.example.digigoods.model.StockReservation;
 import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderItemRepository;
 import com.example.digigoods.repository.OrderRepository;
 import com.example.digigoods.repository.UserRepository;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("CheckoutService Tests")
@@ -46,12 +67,35 @@ class CheckoutServiceTest {
   @Mock
   private OrderRepository orderRepository;
 
+  @Mock
+  private OrderItemRepository orderItemRepository;
+
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private CartStore cartStore;
+
+  @Mock
+  private ReservationService reservationService;
+
+  @Mock
+  private SalesRollupService salesRollupService;
+
+  @Mock
+  private OutboxService outboxService;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  @Spy
+  private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
   @InjectMocks
   private CheckoutService checkoutService;
 
+  private SimpleMeterRegistry meterRegistry;
+
   private User testUser;
   private Product product1;
   private Product product2;
@@ -61,6 +105,14 @@ class CheckoutServiceTest {
 
   @BeforeEach
   void setUp() {
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    lenient().when(reservationService.getActiveHolds(any()))
+        .thenAnswer(invocation -> new ActiveHolds(List.of()));
+    meterRegistry = new SimpleMeterRegistry();
+    observationRegistry.observationConfig()
+        .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+
     testUser = new User();
     testUser.setId(1L);
     testUser.setUsername("testuser");
@@ -111,9 +163,9 @@ class CheckoutServiceTest {
     List<Product> products = List.of(product1, product2);
     List<Discount> discounts = List.of(generalDiscount);
     
-    when(productService.getProductsByIds(checkoutRequest.getProductIds())).thenReturn(products);
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds())).thenReturn(products);
     when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes())).thenReturn(discounts);
-    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
     when(orderRepository.save(any(Order.class))).thenReturn(new Order());
 
     // Act
@@ -124,9 +176,9 @@ class CheckoutServiceTest {
     assertEquals("Order created successfully!", response.getMessage());
     assertNotNull(response.getFinalPrice());
     
-    verify(productService).getProductsByIds(checkoutRequest.getProductIds());
+    verify(productService).getProductsForUpdate(checkoutRequest.getProductIds());
     verify(discountService).validateAndGetDiscounts(checkoutRequest.getDiscountCodes());
-    verify(productService).validateAndUpdateStock(checkoutRequest.getProductIds());
+    verify(productService).validateAndUpdateStock(products, Map.of(1L, 1, 2L, 1));
     verify(discountService).updateDiscountUsage(discounts);
     verify(orderRepository).save(any(Order.class));
   }
@@ -151,9 +203,9 @@ class CheckoutServiceTest {
     checkoutRequest.setDiscountCodes(null);
     List<Product> products = List.of(product1, product2);
     
-    when(productService.getProductsByIds(checkoutRequest.getProductIds())).thenReturn(products);
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds())).thenReturn(products);
     when(discountService.validateAndGetDiscounts(null)).thenReturn(List.of());
-    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
     when(orderRepository.save(any(Order.class))).thenReturn(new Order());
 
     // Act
@@ -182,7 +234,7 @@ class CheckoutServiceTest {
     List<Product> products = List.of(product1, product2);
     List<Discount> discounts = List.of(excessiveDiscount);
     
-    when(productService.getProductsByIds(checkoutRequest.getProductIds())).thenReturn(products);
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds())).thenReturn(products);
     when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes())).thenReturn(discounts);
 
     // Act & Assert
@@ -190,6 +242,54 @@ class CheckoutServiceTest {
         () -> checkoutService.processCheckout(checkoutRequest, 1L));
   }
 
+  @Test
+  @DisplayName("Given valid checkout request, when processCheckout, "
+      + "then time the checkout and each of its steps as successful")
+  void givenValidCheckoutRequest_whenProcessCheckout_thenTimeCheckoutAndStepsAsSuccessful() {
+    // Arrange
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds()))
+        .thenReturn(List.of(product1, product2));
+    when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes()))
+        .thenReturn(List.of(generalDiscount));
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+
+    // Act
+    checkoutService.processCheckout(checkoutRequest, 1L);
+
+    // Assert
+    assertEquals(1, meterRegistry.get("checkout")
+        .tags("source", "request", "outcome", "success").timer().count());
+    for (String step : List.of("authorization", "product-validation", "stock-holds",
+        "discount-validation", "subtotal", "discount-application", "max-discount-rule",
+        "item-pricing", "commit")) {
+      assertEquals(1, meterRegistry.get("checkout.step")
+          .tags("step", step, "outcome", "success").timer().count(), step);
+    }
+  }
+
+  @Test
+  @DisplayName("Given excessive discount, when processCheckout, "
+      + "then tag the failing step and the checkout with the outcome")
+  void givenExcessiveDiscount_whenProcessCheckout_thenTagFailingStepAndCheckoutWithOutcome() {
+    // Arrange
+    generalDiscount.setPercentage(new BigDecimal("80.00"));
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds()))
+        .thenReturn(List.of(product1, product2));
+    when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes()))
+        .thenReturn(List.of(generalDiscount));
+
+    // Act
+    assertThrows(ExcessiveDiscountException.class,
+        () -> checkoutService.processCheckout(checkoutRequest, 1L));
+
+    // Assert
+    assertEquals(1, meterRegistry.get("checkout.step")
+        .tags("step", "max-discount-rule", "outcome", "excessive_discount").timer().count());
+    assertEquals(1, meterRegistry.get("checkout")
+        .tags("outcome", "excessive_discount").timer().count());
+    assertEquals(0, meterRegistry.find("checkout.step").tags("step", "commit").timers().size());
+  }
+
   @Test
   @DisplayName("Given product specific discount, when processCheckout, then apply discount correctly")
   void givenProductSpecificDiscount_whenProcessCheckout_thenApplyDiscountCorrectly() {
@@ -198,9 +298,9 @@ class CheckoutServiceTest {
     List<Product> products = List.of(product1, product2);
     List<Discount> discounts = List.of(productSpecificDiscount);
     
-    when(productService.getProductsByIds(checkoutRequest.getProductIds())).thenReturn(products);
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds())).thenReturn(products);
     when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes())).thenReturn(discounts);
-    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
     when(orderRepository.save(any(Order.class))).thenReturn(new Order());
 
     // Act
@@ -214,21 +314,76 @@ class CheckoutServiceTest {
   }
 
   @Test
-  @DisplayName("Given user not found, when processCheckout, then throw RuntimeException")
-  void givenUserNotFound_whenProcessCheckout_thenThrowRuntimeException() {
+  @DisplayName("Given valid checkout request, when processCheckout, "
+      + "then reference user without loading it")
+  void givenValidCheckoutRequest_whenProcessCheckout_thenReferenceUserWithoutLoadingIt() {
     // Arrange
     List<Product> products = List.of(product1, product2);
     List<Discount> discounts = List.of(generalDiscount);
-    
-    when(productService.getProductsByIds(checkoutRequest.getProductIds())).thenReturn(products);
+
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds())).thenReturn(products);
     when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes())).thenReturn(discounts);
-    when(userRepository.findById(1L)).thenReturn(Optional.empty());
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+    when(orderRepository.save(any(Order.class))).thenReturn(new Order());
+
+    // Act
+    checkoutService.processCheckout(checkoutRequest, 1L);
+
+    // Assert
+    verify(userRepository).getReferenceById(1L);
+    verify(userRepository, never()).findById(any());
+    verify(productService, never()).getProductsByIds(anyList());
+  }
+
+  @Test
+  @DisplayName("Given user not found, when processCheckout, then throw UserNotFoundException")
+  void givenUserNotFound_whenProcessCheckout_thenThrowUserNotFoundException() {
+    // Arrange
+    DataIntegrityViolationException violation =
+        new DataIntegrityViolationException("FK_ORDERS_USER_ID");
+    doThrow(violation).when(transactionRetryExecutor).execute(eq("checkout"), any());
+    when(userRepository.existsById(1L)).thenReturn(false);
 
     // Act & Assert
-    RuntimeException exception = assertThrows(RuntimeException.class,
+    UserNotFoundException exception = assertThrows(UserNotFoundException.class,
         () -> checkoutService.processCheckout(checkoutRequest, 1L));
-    
-    assertEquals("User not found", exception.getMessage());
+    assertEquals("User not found with ID: 1", exception.getMessage());
+    assertEquals(1, meterRegistry.get("checkout").tag("outcome", "not_found").timer().count());
+  }
+
+  @Test
+  @DisplayName("Given integrity violation of an existing user, when processCheckout, "
+      + "then rethrow it")
+  void givenIntegrityViolationOfExistingUser_whenProcessCheckout_thenRethrowIt() {
+    // Arrange
+    DataIntegrityViolationException violation =
+        new DataIntegrityViolationException("UK_ORDER_ITEMS");
+    doThrow(violation).when(transactionRetryExecutor).execute(eq("checkout"), any());
+    when(userRepository.existsById(1L)).thenReturn(true);
+
+    // Act & Assert
+    assertEquals(violation, assertThrows(DataIntegrityViolationException.class,
+        () -> checkoutService.processCheckout(checkoutRequest, 1L)));
+  }
+
+  @Test
+  @DisplayName("Given caller's transaction, when the checkout fails on a constraint, "
+      + "then leave the violation to the caller without querying the user")
+  void givenCallersTransaction_whenCheckoutFailsOnConstraint_thenLeaveViolationToCaller() {
+    // Arrange
+    DataIntegrityViolationException violation =
+        new DataIntegrityViolationException("FK_ORDERS_USER_ID");
+    doThrow(violation).when(transactionRetryExecutor).execute(eq("checkout"), any());
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+
+    // Act & Assert
+    try {
+      assertEquals(violation, assertThrows(DataIntegrityViolationException.class,
+          () -> checkoutService.processCheckout(checkoutRequest, 1L)));
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+    verify(userRepository, never()).existsById(any());
   }
 
   @Test
@@ -239,9 +394,9 @@ class CheckoutServiceTest {
     checkoutRequest.setDiscountCodes(null);
     List<Product> products = List.of(product1, product2);
     
-    when(productService.getProductsByIds(anyList())).thenReturn(products);
+    when(productService.getProductsForUpdate(anyList())).thenReturn(products);
     when(discountService.validateAndGetDiscounts(null)).thenReturn(List.of());
-    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
     when(orderRepository.save(any(Order.class))).thenReturn(new Order());
 
     // Act
@@ -271,9 +426,9 @@ class CheckoutServiceTest {
     List<Product> products = List.of(product1, product2);
     List<Discount> discounts = List.of(generalDiscount, secondGeneralDiscount);
     
-    when(productService.getProductsByIds(checkoutRequest.getProductIds())).thenReturn(products);
+    when(productService.getProductsForUpdate(checkoutRequest.getProductIds())).thenReturn(products);
     when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes())).thenReturn(discounts);
-    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
     when(orderRepository.save(any(Order.class))).thenReturn(new Order());
 
     // Act
@@ -285,4 +440,151 @@ class CheckoutServiceTest {
     // 150 * 0.8 * 0.9 = 108.00
     assertEquals(new BigDecimal("108.00"), response.getFinalPrice());
   }
+
+  @Test
+  @DisplayName("Given repeated products and discounts, when processCheckout, "
+      + "then insert one item per product with the prices paid")
+  void givenRepeatedProductsAndDiscounts_whenProcessCheckout_thenInsertItemsWithPricesPaid() {
+    // Arrange
+    checkoutRequest.setProductIds(List.of(1L, 2L, 1L));
+    checkoutRequest.setDiscountCodes(List.of("PRODUCT10", "GENERAL20"));
+    List<Product> products = List.of(product1, product2);
+    List<Discount> discounts = List.of(productSpecificDiscount, generalDiscount);
+
+    when(productService.getProductsForUpdate(List.of(1L, 2L))).thenReturn(products);
+    when(discountService.validateAndGetDiscounts(checkoutRequest.getDiscountCodes()))
+        .thenReturn(discounts);
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+    when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+      Order order = invocation.getArgument(0);
+      order.setId(42L);
+      return order;
+    });
+
+    // Act
+    checkoutService.processCheckout(checkoutRequest, 1L);
+
+    // Assert
+    // Product1: 100 - 10% = 90, then - 20% = 72; Product2: 50 - 20% = 40
+    List<OrderItem> expectedItems = List.of(
+        new OrderItem(42L, 1L, 2, new BigDecimal("100.00"), new BigDecimal("72.00")),
+        new OrderItem(42L, 2L, 1, new BigDecimal("50.00"), new BigDecimal("40.00")));
+    verify(orderItemRepository).insertAll(expectedItems);
+    verify(salesRollupService).record(argThat(orders -> orders.size() == 1
+        && orders.get(0).getId().equals(42L)), eq(expectedItems));
+    verify(outboxService).record(argThat(orders -> orders.size() == 1
+        && orders.get(0).getId().equals(42L)), eq(expectedItems));
+  }
+
+  @Test
+  @DisplayName("Given cart with quantities, when processCartCheckout, "
+      + "then price by quantity and remove the checked-out items")
+  void givenCartWithQuantities_whenProcessCartCheckout_thenPriceByQuantityAndRemoveItems() {
+    // Arrange
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    items.put(1L, 3);
+    items.put(2L, 2);
+    List<Discount> discounts = List.of(productSpecificDiscount);
+
+    when(cartStore.checkOutItems(1L)).thenReturn(items);
+    when(productService.getProductsForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(product1, product2));
+    when(discountService.validateAndGetDiscounts(List.of("PRODUCT10"))).thenReturn(discounts);
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+
+    // Act
+    OrderResponse response = checkoutService.processCartCheckout(List.of("PRODUCT10"), 1L);
+
+    // Assert
+    // 3x Product1 (100 - 10% = 90) + 2x Product2 (50) = 370
+    assertEquals(new BigDecimal("370.00"), response.getFinalPrice());
+    verify(productService).validateAndUpdateStock(List.of(product1, product2),
+        Map.of(1L, 3, 2L, 2));
+    verify(discountService).updateDiscountUsage(discounts);
+    verify(orderRepository).save(any(Order.class));
+    verify(cartStore).checkOutItems(1L);
+  }
+
+  @Test
+  @DisplayName("Given empty cart, when processCartCheckout, then throw EmptyCartException")
+  void givenEmptyCart_whenProcessCartCheckout_thenThrowEmptyCartException() {
+    // Arrange
+    when(cartStore.checkOutItems(1L)).thenReturn(Map.of());
+
+    // Act & Assert
+    EmptyCartException exception = assertThrows(EmptyCartException.class,
+        () -> checkoutService.processCartCheckout(null, 1L));
+
+    assertEquals("Cart is empty", exception.getMessage());
+    verify(orderRepository, never()).save(any(Order.class));
+  }
+
+  @Test
+  @DisplayName("Given lines and product IDs, when processCheckout, "
+      + "then price distinct products by their total quantity")
+  void givenLinesAndProductIds_whenProcessCheckout_thenPriceDistinctProductsByTotalQuantity() {
+    // Arrange
+    checkoutRequest.setLines(List.of(new CheckoutLine(1L, 5000), new CheckoutLine(2L, 2)));
+    checkoutRequest.setProductIds(List.of(2L));
+    checkoutRequest.setDiscountCodes(null);
+    List<Product> products = List.of(product1, product2);
+
+    when(productService.getProductsForUpdate(List.of(1L, 2L))).thenReturn(products);
+    when(discountService.validateAndGetDiscounts(null)).thenReturn(List.of());
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+
+    // Act
+    OrderResponse response = checkoutService.processCheckout(checkoutRequest, 1L);
+
+    // Assert
+    // 5000x Product1 (100) + 3x Product2 (50) = 500150
+    assertEquals(new BigDecimal("500150.00"), response.getFinalPrice());
+    verify(productService).validateAndUpdateStock(products, Map.of(1L, 5000, 2L, 3));
+    verify(orderItemRepository).insertAll(List.of(
+        new OrderItem(null, 1L, 5000, new BigDecimal("100.00"), new BigDecimal("100.00")),
+        new OrderItem(null, 2L, 3, new BigDecimal("50.00"), new BigDecimal("50.00"))));
+  }
+
+  @Test
+  @DisplayName("Given stock held in other carts, when processCheckout, "
+      + "then throw InsufficientStockException before pricing")
+  void givenStockHeldInOtherCarts_whenProcessCheckout_thenThrowInsufficientStockException() {
+    // Arrange
+    checkoutRequest.setLines(List.of(new CheckoutLine(1L, 2)));
+    checkoutRequest.setProductIds(null);
+    when(productService.getProductsForUpdate(List.of(1L))).thenReturn(List.of(product1));
+    when(reservationService.getActiveHolds(any())).thenReturn(new ActiveHolds(List.of(
+        new StockReservation(7L, 2L, 1L, 9, LocalDateTime.now().plusMinutes(5)))));
+
+    // Act & Assert
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+        () -> checkoutService.processCheckout(checkoutRequest, 1L));
+
+    assertEquals("Insufficient stock for product 1. Requested: 2, Available: 1",
+        exception.getMessage());
+    verify(discountService, never()).validateAndGetDiscounts(any());
+    verify(orderRepository, never()).save(any(Order.class));
+  }
+
+  @Test
+  @DisplayName("Given own holds on cart items, when processCartCheckout, "
+      + "then convert them into the order")
+  void givenOwnHoldsOnCartItems_whenProcessCartCheckout_thenConvertThemIntoTheOrder() {
+    // Arrange
+    when(cartStore.checkOutItems(1L)).thenReturn(Map.of(1L, 9));
+    when(productService.getProductsForUpdate(List.of(1L))).thenReturn(List.of(product1));
+    when(reservationService.getActiveHolds(any())).thenReturn(new ActiveHolds(List.of(
+        new StockReservation(7L, 1L, 1L, 9, LocalDateTime.now().plusMinutes(5)),
+        new StockReservation(8L, 2L, 1L, 1, LocalDateTime.now().plusMinutes(5)))));
+    when(discountService.validateAndGetDiscounts(null)).thenReturn(List.of());
+    when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+
+    // Act
+    checkoutService.processCartCheckout(null, 1L);
+
+    // Assert
+    verify(productService).validateAndUpdateStock(List.of(product1), Map.of(1L, 9));
+    verify(reservationService).releaseConverted(
+        argThat(holds -> holds.getConvertedIds().equals(List.of(7L))));
+  }
 }
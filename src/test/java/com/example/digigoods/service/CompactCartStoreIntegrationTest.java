@@ -0,0 +1,156 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.example.digigoods.model.CompactCart;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.CompactCartRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests of the single-row cart store against a real database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CompactCartStoreIntegrationTest {
+
+  private static final int THREADS = 8;
+
+  @Autowired
+  private CompactCartRepository compactCartRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private CompactCartStore cartStore;
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    cartStore = new CompactCartStore(compactCartRepository);
+    user = userRepository.save(new User(null, "compact-cart-buyer", "password"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    compactCartRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given items set and removed, when reading the cart, "
+      + "then return the remaining items in cart order from a single row")
+  void givenItemsSetAndRemoved_whenReadingCart_thenReturnRemainingItemsFromSingleRow() {
+    // Arrange
+    cartStore.setQuantity(user.getId(), 30L, 1);
+    cartStore.setQuantity(user.getId(), 10L, 2);
+    cartStore.setQuantity(user.getId(), 20L, 3);
+    cartStore.setQuantity(user.getId(), 30L, 4);
+    cartStore.updateItems(user.getId(), items -> items.remove(10L));
+
+    // Act
+    Map<Long, Integer> items = cartStore.getItems(user.getId());
+
+    // Assert
+    assertEquals(List.of(30L, 20L), new ArrayList<>(items.keySet()));
+    assertEquals(Map.of(30L, 4, 20L, 3), items);
+    assertEquals(1, compactCartRepository.count());
+    assertEquals(4L, compactCartRepository.findLatest(user.getId()).orElseThrow().getVersion());
+  }
+
+  @Test
+  @DisplayName("Given cart with items, when updating several items, then write the row once")
+  void givenCartWithItems_whenUpdatingSeveralItems_thenWriteTheRowOnce() {
+    // Arrange
+    cartStore.setQuantity(user.getId(), 10L, 1);
+
+    // Act
+    cartStore.updateItems(user.getId(), items -> {
+      items.clear();
+      items.put(20L, 2);
+      items.put(30L, 3);
+    });
+
+    // Assert
+    assertEquals(Map.of(20L, 2, 30L, 3), cartStore.getItems(user.getId()));
+    assertEquals(1L, compactCartRepository.findLatest(user.getId()).orElseThrow().getVersion());
+  }
+
+  @Test
+  @DisplayName("Given user without cart, when checking out items, "
+      + "then take nothing and create no cart")
+  void givenUserWithoutCart_whenCheckingOutItems_thenTakeNothingAndCreateNoCart() {
+    // Act
+    Map<Long, Integer> taken = cartStore.checkOutItems(user.getId());
+
+    // Assert
+    assertEquals(Map.of(), taken);
+    assertFalse(compactCartRepository.existsById(user.getId()));
+  }
+
+  @Test
+  @DisplayName("Given cart with items, when checking it out twice, "
+      + "then take the items once and leave the cart empty")
+  void givenCartWithItems_whenCheckingItOutTwice_thenTakeTheItemsOnce() {
+    // Arrange
+    cartStore.setQuantity(user.getId(), 10L, 2);
+    cartStore.setQuantity(user.getId(), 20L, 1);
+
+    // Act
+    Map<Long, Integer> first = cartStore.checkOutItems(user.getId());
+    Map<Long, Integer> second = cartStore.checkOutItems(user.getId());
+
+    // Assert
+    assertEquals(List.of(10L, 20L), new ArrayList<>(first.keySet()));
+    assertEquals(Map.of(10L, 2, 20L, 1), first);
+    assertEquals(Map.of(), second);
+    assertEquals(Map.of(), cartStore.getItems(user.getId()));
+  }
+
+  @Test
+  @DisplayName("Given concurrent changes of one cart, when setting quantities, "
+      + "then keep every change")
+  void givenConcurrentChangesOfOneCart_whenSettingQuantities_thenKeepEveryChange()
+      throws Exception {
+    // Arrange
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    for (long productId = 1; productId <= THREADS; productId++) {
+      long product = productId;
+      futures.add(executor.submit(() -> {
+        start.await();
+        cartStore.setQuantity(user.getId(), product, 1);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    CompactCart cart = compactCartRepository.findLatest(user.getId()).orElseThrow();
+    assertEquals(THREADS, cartStore.getItems(user.getId()).size());
+    assertEquals(THREADS - 1L, cart.getVersion());
+  }
+}
@@ -7,7 +7,6 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -20,6 +19,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -226,24 +226,46 @@ class DiscountServiceTest {
   }
 
   @Test
-  @DisplayName("Given discounts to update, when updateDiscountUsage, then decrease remaining uses and save")
-  void givenDiscountsToUpdate_whenUpdateDiscountUsage_thenDecreaseRemainingUsesAndSave() {
+  @DisplayName("Given discounts to update, when updateDiscountUsage, "
+      + "then decrement the uses of each code in one batch and leave the entities alone")
+  void givenDiscountsToUpdate_whenUpdateDiscountUsage_thenDecrementUsesOfEachCodeInOneBatch() {
     // Arrange
     Discount discount1 = new Discount();
+    discount1.setCode("FIRST");
     discount1.setRemainingUses(5);
 
     Discount discount2 = new Discount();
+    discount2.setCode("SECOND");
     discount2.setRemainingUses(3);
 
-    List<Discount> discounts = List.of(discount1, discount2);
+    List<Discount> discounts = List.of(discount1, discount2, discount1);
+    when(discountRepository.decrementRemainingUses(Map.of("FIRST", 2, "SECOND", 1)))
+        .thenReturn(List.of());
 
     // Act
     discountService.updateDiscountUsage(discounts);
 
     // Assert
-    assertEquals(4, discount1.getRemainingUses());
-    assertEquals(2, discount2.getRemainingUses());
-    verify(discountRepository, times(2)).save(any(Discount.class));
+    assertEquals(5, discount1.getRemainingUses());
+    assertEquals(3, discount2.getRemainingUses());
+    verify(discountRepository).decrementRemainingUses(Map.of("FIRST", 2, "SECOND", 1));
+    verify(discountRepository, never()).save(any(Discount.class));
+  }
+
+  @Test
+  @DisplayName("Given discount used up meanwhile, when updateDiscountUsage, "
+      + "then throw InvalidDiscountException")
+  void givenDiscountUsedUpMeanwhile_whenUpdateDiscountUsage_thenThrowInvalidDiscountException() {
+    // Arrange
+    when(discountRepository.decrementRemainingUses(Map.of("VALID20", 1)))
+        .thenReturn(List.of("VALID20"));
+
+    // Act & Assert
+    InvalidDiscountException exception = assertThrows(InvalidDiscountException.class,
+        () -> discountService.updateDiscountUsage(List.of(validDiscount)));
+
+    assertTrue(exception.getMessage().contains("VALID20"));
+    assertTrue(exception.getMessage().contains("discount has no remaining uses"));
   }
 
   @Test
@@ -253,9 +275,26 @@ class DiscountServiceTest {
     discountService.updateDiscountUsage(new ArrayList<>());
 
     // Assert
+    verify(discountRepository, never()).decrementRemainingUses(any());
     verify(discountRepository, never()).save(any(Discount.class));
   }
 
+  @Test
+  @DisplayName("Given uses already taken by other orders, when validating discounts, "
+      + "then reject the discount whose uses are all taken")
+  void givenUsesAlreadyTaken_whenValidatingDiscounts_thenRejectDiscountWhoseUsesAreAllTaken() {
+    // Arrange
+    List<String> discountCodes = List.of("VALID20");
+
+    // Act & Assert
+    assertEquals(List.of(validDiscount), discountService.validateDiscounts(discountCodes,
+        List.of(validDiscount), Map.of("VALID20", 4)));
+    InvalidDiscountException exception = assertThrows(InvalidDiscountException.class,
+        () -> discountService.validateDiscounts(discountCodes, List.of(validDiscount),
+            Map.of("VALID20", 5)));
+    assertTrue(exception.getMessage().contains("discount has no remaining uses"));
+  }
+
   @Test
   @DisplayName("Given multiple discount codes with one missing, when validateAndGetDiscounts, then throw InvalidDiscountException with missing code")
   void givenMultipleDiscountCodesWithOneMissing_whenValidateAndGetDiscounts_thenThrowInvalidDiscountExceptionWithMissingCode() {
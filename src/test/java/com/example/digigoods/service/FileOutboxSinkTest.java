@@ -0,0 +1,52 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.digigoods.model.OutboxEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileOutboxSinkTest {
+
+  @TempDir
+  private Path directory;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  @DisplayName("Given events with quotes and line breaks, when publishing, "
+      + "then append one valid JSON line per event with the payload as is")
+  void givenEventsWithSpecialCharacters_whenPublishing_thenAppendOneValidJsonLineEach()
+      throws Exception {
+    // Arrange
+    Path file = directory.resolve("outbox/events.jsonl");
+    FileOutboxSink sink = new FileOutboxSink(file, objectMapper);
+    LocalDateTime createdAt = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+    OutboxEvent quoted = new OutboxEvent(1L, "Order\"Placed\\\n", 7L,
+        "{\"orderId\":7,\"note\":\"a \\\"b\\\"\"}", createdAt, null);
+    OutboxEvent plain = new OutboxEvent(2L, "OrderPlaced", 8L, "{\"orderId\":8}", createdAt,
+        null);
+
+    // Act
+    sink.publish(List.of(quoted, plain));
+    sink.publish(List.of(plain));
+
+    // Assert
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(3, lines.size());
+    JsonNode first = objectMapper.readTree(lines.get(0));
+    assertEquals(1L, first.get("id").asLong());
+    assertEquals("Order\"Placed\\\n", first.get("type").asText());
+    assertEquals(7L, first.get("aggregateId").asLong());
+    assertEquals("2026-01-02T03:04:05", first.get("createdAt").asText());
+    assertEquals(objectMapper.readTree(quoted.getPayload()), first.get("payload"));
+    assertEquals("OrderPlaced", objectMapper.readTree(lines.get(2)).get("type").asText());
+  }
+}
@@ -0,0 +1,416 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.BatchCheckoutResponse;
+import com.example.digigoods.dto.BatchOrderResult;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.CheckoutQueueFullException;
+import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.model.CheckoutStatus;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.OrderItemRepository;
+import com.example.digigoods.repository.OrderRepository;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitCheckoutServiceTest {
+
+  private static final int GROUP_SIZE = 3;
+
+  @Mock
+  private CheckoutService checkoutService;
+
+  @Mock
+  private ProductService productService;
+
+  @Mock
+  private DiscountService discountService;
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private OrderItemRepository orderItemRepository;
+
+  @Mock
+  private ReservationService reservationService;
+
+  @Mock
+  private SalesRollupService salesRollupService;
+
+  @Mock
+  private OutboxService outboxService;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+  private SimpleMeterRegistry meterRegistry;
+  private GroupCommitCheckoutService groupCommitCheckoutService;
+  private ExecutorService buyers;
+  private Product hotProduct;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    lenient().when(reservationService.getActiveHolds(any()))
+        .thenAnswer(invocation -> new ActiveHolds(List.of()));
+    meterRegistry = new SimpleMeterRegistry();
+    observationRegistry.observationConfig()
+        .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+
+    hotProduct = new Product(1L, "Hot Product", new BigDecimal("10.00"), 100);
+    lenient().when(productService.getProductsForUpdate(List.of(1L)))
+        .thenReturn(List.of(hotProduct));
+    lenient().when(discountService.getDiscountsByCodes(List.of())).thenReturn(List.of());
+    lenient().when(discountService.validateDiscounts(any(), anyList(), anyMap()))
+        .thenReturn(List.of());
+
+    // A long window, so that the group is closed by its size
+    groupCommitCheckoutService = new GroupCommitCheckoutService(checkoutService, productService,
+        discountService, orderRepository, orderItemRepository, reservationService,
+        salesRollupService, outboxService, transactionRetryExecutor, observationRegistry, true,
+        10_000, GROUP_SIZE, 1, GROUP_SIZE, 100, 10_000);
+    buyers = Executors.newFixedThreadPool(GROUP_SIZE);
+  }
+
+  @AfterEach
+  void tearDown() {
+    buyers.shutdownNow();
+    groupCommitCheckoutService.shutdown();
+  }
+
+  @Test
+  @DisplayName("Given concurrent checkouts of a hot product, when processing, "
+      + "then place them with one aggregated stock update")
+  void givenConcurrentCheckoutsOfHotProduct_whenProcessing_thenPlaceWithOneStockUpdate()
+      throws Exception {
+    // Arrange
+    when(checkoutService.createOrder(any(), anyList(), anyList()))
+        .thenAnswer(invocation -> order(new BigDecimal("10.00")));
+    when(checkoutService.createOrderItems(any(), anyList(), anyList()))
+        .thenAnswer(invocation -> List.of(new OrderItem(null, 1L, 1, new BigDecimal("10.00"),
+            new BigDecimal("10.00"))));
+
+    // Act
+    List<Future<OrderResponse>> results = checkoutConcurrently(
+        request(1L), request(2L), request(3L));
+
+    // Assert
+    for (Future<OrderResponse> result : results) {
+      assertEquals(new BigDecimal("10.00"), result.get(10, TimeUnit.SECONDS).getFinalPrice());
+    }
+    verify(productService, times(1)).getProductsForUpdate(List.of(1L));
+    verify(productService).validateAndUpdateStock(List.of(hotProduct), Map.of(1L, GROUP_SIZE));
+    verify(discountService).updateDiscountUsage(Map.of());
+    verify(orderItemRepository).insertAll(argThat(items -> items.size() == GROUP_SIZE));
+    verify(salesRollupService).record(argThat(orders -> orders.size() == GROUP_SIZE),
+        argThat(items -> items.size() == GROUP_SIZE));
+    verify(outboxService).record(argThat(orders -> orders.size() == GROUP_SIZE),
+        argThat(items -> items.size() == GROUP_SIZE));
+    verify(transactionRetryExecutor, times(1)).execute(eq("checkout-group"), any());
+    verify(checkoutService, never()).processCheckout(any(), any());
+  }
+
+  @Test
+  @DisplayName("Given one member fails pricing, when processing group, "
+      + "then reject only that member")
+  void givenOneMemberFailsPricing_whenProcessingGroup_thenRejectOnlyThatMember()
+      throws Exception {
+    // Arrange
+    when(checkoutService.createOrder(any(), anyList(), anyList())).thenAnswer(invocation -> {
+      CheckoutRequest request = invocation.getArgument(0);
+      if (request.getUserId() == 2L) {
+        throw new ExcessiveDiscountException();
+      }
+      return order(new BigDecimal("10.00"));
+    });
+
+    // Act
+    List<Future<OrderResponse>> results = checkoutConcurrently(
+        request(1L), request(2L), request(3L));
+
+    // Assert
+    int placed = 0;
+    for (Future<OrderResponse> result : results) {
+      try {
+        result.get(10, TimeUnit.SECONDS);
+        placed++;
+      } catch (ExecutionException e) {
+        assertInstanceOf(ExcessiveDiscountException.class, e.getCause());
+      }
+    }
+    assertEquals(2, placed);
+    verify(productService).validateAndUpdateStock(List.of(hotProduct), Map.of(1L, 2));
+  }
+
+  @Test
+  @DisplayName("Given group with a rejected member, when processing group, "
+      + "then time each member, the group and its steps")
+  void givenGroupWithRejectedMember_whenProcessingGroup_thenTimeMembersGroupAndSteps()
+      throws Exception {
+    // Arrange
+    hotProduct.setStock(2);
+    when(checkoutService.createOrder(any(), anyList(), anyList()))
+        .thenAnswer(invocation -> order(new BigDecimal("10.00")));
+
+    // Act
+    List<Future<OrderResponse>> results = checkoutConcurrently(
+        request(1L), request(2L), request(3L));
+    for (Future<OrderResponse> result : results) {
+      try {
+        result.get(10, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertInstanceOf(InsufficientStockException.class, e.getCause());
+      }
+    }
+
+    // Assert
+    assertEquals(2, meterRegistry.get("checkout").tag("source", "group")
+        .tag("outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get("checkout").tag("source", "group")
+        .tag("outcome", "insufficient_stock").timer().count());
+    assertEquals(1, meterRegistry.get("checkout.group").tag("outcome", "success").timer()
+        .count());
+    for (String step : List.of("product-validation", "discount-validation", "stock-holds",
+        "commit")) {
+      assertEquals(1, meterRegistry.get("checkout.step").tag("step", step)
+          .tag("outcome", "success").timer().count(), step);
+    }
+  }
+
+  @Test
+  @DisplayName("Given more demand than stock, when processing group, "
+      + "then reject the members beyond the stock")
+  void givenMoreDemandThanStock_whenProcessingGroup_thenRejectMembersBeyondStock()
+      throws Exception {
+    // Arrange
+    hotProduct.setStock(2);
+    when(checkoutService.createOrder(any(), anyList(), anyList()))
+        .thenAnswer(invocation -> order(new BigDecimal("10.00")));
+
+    // Act
+    List<Future<OrderResponse>> results = checkoutConcurrently(
+        request(1L), request(2L), request(3L));
+
+    // Assert
+    int rejected = 0;
+    for (Future<OrderResponse> result : results) {
+      try {
+        result.get(10, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertInstanceOf(InsufficientStockException.class, e.getCause());
+        rejected++;
+      }
+    }
+    assertEquals(1, rejected);
+    verify(productService).validateAndUpdateStock(List.of(hotProduct), Map.of(1L, 2));
+  }
+
+  @Test
+  @DisplayName("Given group transaction fails, when processing group, "
+      + "then place every member on its own")
+  void givenGroupTransactionFails_whenProcessingGroup_thenPlaceEveryMemberOnItsOwn()
+      throws Exception {
+    // Arrange
+    when(checkoutService.createOrder(any(), anyList(), anyList()))
+        .thenAnswer(invocation -> order(new BigDecimal("10.00")));
+    doThrow(new InsufficientStockException(1L, GROUP_SIZE, 1))
+        .when(productService).validateAndUpdateStock(anyList(), anyMap());
+    when(checkoutService.processAuthorizedCheckout(any())).thenAnswer(invocation ->
+        new OrderResponse("Order created successfully!", new BigDecimal("10.00")));
+
+    // Act
+    List<Future<OrderResponse>> results = checkoutConcurrently(
+        request(1L), request(2L), request(3L));
+
+    // Assert
+    for (Future<OrderResponse> result : results) {
+      assertEquals(new BigDecimal("10.00"), result.get(10, TimeUnit.SECONDS).getFinalPrice());
+    }
+    verify(checkoutService, times(GROUP_SIZE)).processAuthorizedCheckout(any());
+    verify(checkoutService, never()).processCheckout(any(), any());
+    assertEquals(GROUP_SIZE, meterRegistry.get("checkout").tag("source", "group")
+        .tag("outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get("checkout.group").tag("outcome", "insufficient_stock")
+        .timer().count());
+  }
+
+  @Test
+  @DisplayName("Given group commit disabled, when processing, then place the order directly")
+  void givenGroupCommitDisabled_whenProcessing_thenPlaceTheOrderDirectly() {
+    // Arrange
+    GroupCommitCheckoutService disabled = new GroupCommitCheckoutService(checkoutService,
+        productService, discountService, orderRepository, orderItemRepository,
+        reservationService, salesRollupService, outboxService, transactionRetryExecutor,
+        observationRegistry, false, 3, GROUP_SIZE, 1, GROUP_SIZE, 100, 10_000);
+    CheckoutRequest request = request(1L);
+    OrderResponse expected = new OrderResponse("Order created successfully!", BigDecimal.TEN);
+    when(checkoutService.processCheckout(request, 1L)).thenReturn(expected);
+
+    // Act
+    OrderResponse response = disabled.processCheckout(request, 1L);
+
+    // Assert
+    assertEquals(expected, response);
+    verify(transactionRetryExecutor, never()).execute(anyString(), any());
+  }
+
+  @Test
+  @DisplayName("Given committer busy and queue full, when processing, "
+      + "then refuse waiting checkouts without placing them")
+  void givenCommitterBusyAndQueueFull_whenProcessing_thenRefuseWaitingCheckouts()
+      throws Exception {
+    // Arrange
+    // Groups of one, a queue of one, and a short wait for a group
+    GroupCommitCheckoutService bounded = new GroupCommitCheckoutService(checkoutService,
+        productService, discountService, orderRepository, orderItemRepository,
+        reservationService, salesRollupService, outboxService, transactionRetryExecutor,
+        observationRegistry, true, 10_000, 1, 1, GROUP_SIZE, 1, 200);
+    CountDownLatch placing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(checkoutService.processCheckout(any(), any())).thenAnswer(invocation -> {
+      placing.countDown();
+      release.await(10, TimeUnit.SECONDS);
+      return new OrderResponse("Order created successfully!", BigDecimal.TEN);
+    });
+    try {
+      final Future<OrderResponse> first =
+          buyers.submit(() -> bounded.processCheckout(request(1L), 1L));
+      assertTrue(placing.await(10, TimeUnit.SECONDS));
+
+      // Act
+      // One of them waits in the queue until refused, the other finds the queue full
+      Future<OrderResponse> second = buyers.submit(() -> bounded.processCheckout(request(1L), 1L));
+      Future<OrderResponse> third = buyers.submit(() -> bounded.processCheckout(request(1L), 1L));
+
+      // Assert
+      for (Future<OrderResponse> refused : List.of(second, third)) {
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> refused.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(CheckoutQueueFullException.class, exception.getCause());
+      }
+      release.countDown();
+      assertEquals(BigDecimal.TEN, first.get(10, TimeUnit.SECONDS).getFinalPrice());
+      verify(checkoutService, after(300).times(1)).processCheckout(any(), any());
+    } finally {
+      release.countDown();
+      bounded.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("Given batch larger than a chunk, when processing batch, "
+      + "then place each chunk in one transaction and report every order")
+  void givenBatchLargerThanChunk_whenProcessingBatch_thenPlaceEachChunkInOneTransaction() {
+    // Arrange
+    when(checkoutService.createOrder(any(), anyList(), anyList()))
+        .thenAnswer(invocation -> order(new BigDecimal("10.00")));
+    List<CheckoutRequest> requests = new ArrayList<>();
+    for (int i = 0; i < GROUP_SIZE + 2; i++) {
+      requests.add(request(1L));
+    }
+
+    // Act
+    BatchCheckoutResponse response = groupCommitCheckoutService.processBatch(requests, 1L);
+
+    // Assert
+    assertEquals(GROUP_SIZE + 2, response.getPlaced());
+    assertEquals(0, response.getFailed());
+    assertEquals(GROUP_SIZE + 1, response.getResults().get(GROUP_SIZE + 1).getIndex());
+    verify(transactionRetryExecutor, times(2)).execute(eq("checkout-group"), any());
+    verify(productService).validateAndUpdateStock(List.of(hotProduct), Map.of(1L, GROUP_SIZE));
+    verify(productService).validateAndUpdateStock(List.of(hotProduct), Map.of(1L, 2));
+  }
+
+  @Test
+  @DisplayName("Given batch with rejected orders, when processing batch, "
+      + "then report them failed and place the others")
+  void givenBatchWithRejectedOrders_whenProcessingBatch_thenReportThemFailedAndPlaceOthers() {
+    // Arrange
+    hotProduct.setStock(1);
+    when(checkoutService.createOrder(any(), anyList(), anyList()))
+        .thenAnswer(invocation -> order(new BigDecimal("10.00")));
+    lenient().doThrow(new UnauthorizedAccessException("Orders only for yourself"))
+        .when(checkoutService).validateUserAuthorization(2L, 1L);
+
+    // Act
+    BatchCheckoutResponse response = groupCommitCheckoutService.processBatch(
+        List.of(request(1L), request(2L), request(1L)), 1L);
+
+    // Assert
+    assertEquals(1, response.getPlaced());
+    assertEquals(2, response.getFailed());
+    List<BatchOrderResult> results = response.getResults();
+    assertEquals(CheckoutStatus.COMPLETED, results.get(0).getStatus());
+    assertEquals(new BigDecimal("10.00"), results.get(0).getFinalPrice());
+    assertEquals(CheckoutStatus.FAILED, results.get(1).getStatus());
+    assertEquals("Orders only for yourself", results.get(1).getMessage());
+    assertEquals(CheckoutStatus.FAILED, results.get(2).getStatus());
+    assertEquals(new InsufficientStockException(1L, 1, 0).getMessage(),
+        results.get(2).getMessage());
+  }
+
+  private List<Future<OrderResponse>> checkoutConcurrently(CheckoutRequest... requests) {
+    List<Future<OrderResponse>> results = new ArrayList<>();
+    for (CheckoutRequest request : requests) {
+      results.add(buyers.submit(
+          () -> groupCommitCheckoutService.processCheckout(request, request.getUserId())));
+    }
+    return results;
+  }
+
+  private CheckoutRequest request(Long userId) {
+    return new CheckoutRequest(userId, List.of(1L), null);
+  }
+
+  private Order order(BigDecimal finalPrice) {
+    Order order = new Order();
+    order.setOriginalSubtotal(finalPrice);
+    order.setFinalPrice(finalPrice);
+    return order;
+  }
+}
@@ -0,0 +1,357 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.CheckoutLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
+import com.example.digigoods.exception.UserNotFoundException;
+import com.example.digigoods.model.IdempotencyKey;
+import com.example.digigoods.repository.IdempotencyKeyRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+  private static final Long USER_ID = 1L;
+  private static final String KEY = "retry-key";
+
+  @Mock
+  private IdempotencyKeyRepository idempotencyKeyRepository;
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  private IdempotencyService idempotencyService;
+
+  private CheckoutRequest checkoutRequest;
+  private OrderResponse orderResponse;
+  private AtomicInteger checkouts;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    lenient().when(idempotencyKeyRepository.save(any(IdempotencyKey.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    idempotencyService = new IdempotencyService(idempotencyKeyRepository, userRepository,
+        transactionRetryExecutor, 100, Duration.ofHours(24), 2);
+    checkoutRequest = new CheckoutRequest(USER_ID, List.of(1L, 2L), List.of("SAVE10"));
+    orderResponse = new OrderResponse("Order created successfully!", new BigDecimal("120.00"));
+    checkouts = new AtomicInteger();
+  }
+
+  @Test
+  @DisplayName("Given new key, when executing, then run checkout and store its response")
+  void givenNewKey_whenExecuting_thenRunCheckoutAndStoreItsResponse() {
+    // Arrange
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+
+    // Act
+    OrderResponse response = idempotencyService.execute(USER_ID, KEY, checkoutRequest,
+        this::checkout);
+
+    // Assert
+    assertEquals(orderResponse, response);
+    assertEquals(1, checkouts.get());
+    verify(idempotencyKeyRepository).save(any(IdempotencyKey.class));
+  }
+
+  @Test
+  @DisplayName("Given recently used key, when executing again, "
+      + "then replay response from memory")
+  void givenRecentlyUsedKey_whenExecutingAgain_thenReplayResponseFromMemory() {
+    // Arrange
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+    idempotencyService.execute(USER_ID, KEY, checkoutRequest, this::checkout);
+
+    // Act
+    OrderResponse response = idempotencyService.execute(USER_ID, KEY, checkoutRequest,
+        this::checkout);
+
+    // Assert
+    assertEquals(orderResponse, response);
+    assertEquals(1, checkouts.get());
+    verify(idempotencyKeyRepository, times(1)).findByUserIdAndIdempotencyKey(USER_ID, KEY);
+  }
+
+  @Test
+  @DisplayName("Given key stored in database, when executing, then replay stored response")
+  void givenKeyStoredInDatabase_whenExecuting_thenReplayStoredResponse() {
+    // Arrange
+    IdempotencyKey stored = storeWithAnotherInstance();
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.of(stored));
+
+    // Act
+    OrderResponse response = idempotencyService.execute(USER_ID, KEY, checkoutRequest,
+        this::checkout);
+
+    // Assert
+    assertEquals(orderResponse, response);
+    assertEquals(1, checkouts.get()); // only the other instance's checkout
+  }
+
+  @Test
+  @DisplayName("Given key used for another request, when executing, "
+      + "then throw IdempotencyKeyReusedException")
+  void givenKeyUsedForAnotherRequest_whenExecuting_thenThrowIdempotencyKeyReusedException() {
+    // Arrange
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+    idempotencyService.execute(USER_ID, KEY, checkoutRequest, this::checkout);
+    CheckoutRequest otherRequest = new CheckoutRequest(USER_ID, List.of(3L), List.of());
+
+    // Act & Assert
+    IdempotencyKeyReusedException exception = assertThrows(IdempotencyKeyReusedException.class,
+        () -> idempotencyService.execute(USER_ID, KEY, otherRequest, this::checkout));
+    assertEquals("Idempotency key 'retry-key' was already used for a different request",
+        exception.getMessage());
+    assertEquals(1, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given same order as lines or product IDs, when hashing, "
+      + "then give the same hash, and another one for other codes")
+  void givenSameOrderInEitherForm_whenHashing_thenGiveSameHash() throws Exception {
+    // Arrange
+    CheckoutRequest productIds = new CheckoutRequest(USER_ID, List.of(2L, 1L, 2L),
+        List.of("SAVE10"));
+    CheckoutRequest lines = new CheckoutRequest(USER_ID, null, List.of("SAVE10"),
+        List.of(new CheckoutLine(1L, 1), new CheckoutLine(2L, 2)));
+    CheckoutRequest otherCodes = new CheckoutRequest(USER_ID, List.of(2L, 1L, 2L),
+        List.of("SAVE", "10"));
+
+    // Act & Assert
+    assertEquals(IdempotencyService.hash(productIds), IdempotencyService.hash(lines));
+    assertNotEquals(IdempotencyService.hash(productIds), IdempotencyService.hash(otherCodes));
+    // Pinned, so that a change of the hashed form shows up here before it breaks retries
+    assertEquals(IdempotencyService.hash(productIds),
+        sha256("v1;user=1;items=1x1,2x2,;codes=6:SAVE10,"));
+  }
+
+  @Test
+  @DisplayName("Given blank or oversized key, when executing, "
+      + "then throw InvalidIdempotencyKeyException")
+  void givenBlankOrOversizedKey_whenExecuting_thenThrowInvalidIdempotencyKeyException() {
+    // Arrange
+    String oversizedKey = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+
+    // Act & Assert
+    assertThrows(InvalidIdempotencyKeyException.class,
+        () -> idempotencyService.execute(USER_ID, " ", checkoutRequest, this::checkout));
+    assertThrows(InvalidIdempotencyKeyException.class,
+        () -> idempotencyService.execute(USER_ID, oversizedKey, checkoutRequest,
+            this::checkout));
+    assertEquals(0, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given failed checkout, when executing again, then run checkout again")
+  void givenFailedCheckout_whenExecutingAgain_thenRunCheckoutAgain() {
+    // Arrange
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+    assertThrows(InsufficientStockException.class,
+        () -> idempotencyService.execute(USER_ID, KEY, checkoutRequest, () -> {
+          throw new InsufficientStockException(1L, 1, 0);
+        }));
+
+    // Act
+    OrderResponse response = idempotencyService.execute(USER_ID, KEY, checkoutRequest,
+        this::checkout);
+
+    // Assert
+    assertEquals(orderResponse, response);
+    assertEquals(1, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given key committed by another instance, when saving fails, "
+      + "then replay the other instance's response")
+  void givenKeyCommittedByAnotherInstance_whenSavingFails_thenReplayOtherResponse() {
+    // Arrange
+    IdempotencyKey stored = storeWithAnotherInstance();
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty(), Optional.of(stored));
+    when(idempotencyKeyRepository.save(any(IdempotencyKey.class)))
+        .thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_user_id_key"));
+
+    // Act
+    OrderResponse response = idempotencyService.execute(USER_ID, KEY, checkoutRequest,
+        this::checkout);
+
+    // Assert
+    assertEquals(orderResponse, response);
+  }
+
+  @Test
+  @DisplayName("Given deleted user, when the checkout fails on the foreign key, "
+      + "then throw UserNotFoundException once the transaction has ended")
+  void givenDeletedUser_whenCheckoutFailsOnForeignKey_thenThrowUserNotFoundException() {
+    // Arrange
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+    when(userRepository.existsById(USER_ID)).thenReturn(false);
+
+    // Act & Assert
+    assertThrows(UserNotFoundException.class,
+        () -> idempotencyService.execute(USER_ID, KEY, checkoutRequest, () -> {
+          throw new DataIntegrityViolationException("fk_orders_user_id");
+        }));
+    verify(transactionRetryExecutor, times(1)).execute(anyString(), any());
+  }
+
+  @Test
+  @DisplayName("Given existing user, when the checkout fails on a constraint, "
+      + "then rethrow the violation")
+  void givenExistingUser_whenCheckoutFailsOnConstraint_thenRethrowViolation() {
+    // Arrange
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+    when(userRepository.existsById(USER_ID)).thenReturn(true);
+    DataIntegrityViolationException violation =
+        new DataIntegrityViolationException("chk_products_stock");
+
+    // Act & Assert
+    DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+        () -> idempotencyService.execute(USER_ID, KEY, checkoutRequest, () -> {
+          throw violation;
+        }));
+    assertEquals(violation, thrown);
+  }
+
+  @Test
+  @DisplayName("Given concurrent duplicates, when executing, then run checkout once")
+  void givenConcurrentDuplicates_whenExecuting_thenRunCheckoutOnce() throws Exception {
+    // Arrange
+    when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+    int duplicates = 4;
+    CountDownLatch checkoutStarted = new CountDownLatch(1);
+    CountDownLatch releaseCheckout = new CountDownLatch(1);
+    Supplier<OrderResponse> slowCheckout = () -> {
+      checkoutStarted.countDown();
+      try {
+        releaseCheckout.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return checkout();
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+    List<Future<OrderResponse>> futures = new ArrayList<>();
+
+    // Act
+    futures.add(executor.submit(
+        () -> idempotencyService.execute(USER_ID, KEY, checkoutRequest, slowCheckout)));
+    checkoutStarted.await(10, TimeUnit.SECONDS);
+    for (int i = 1; i < duplicates; i++) {
+      futures.add(executor.submit(
+          () -> idempotencyService.execute(USER_ID, KEY, checkoutRequest, slowCheckout)));
+    }
+    releaseCheckout.countDown();
+
+    // Assert
+    for (Future<OrderResponse> future : futures) {
+      assertEquals(orderResponse, future.get(10, TimeUnit.SECONDS));
+    }
+    executor.shutdown();
+    assertEquals(1, checkouts.get());
+    verify(idempotencyKeyRepository, times(1)).save(any(IdempotencyKey.class));
+  }
+
+  @Test
+  @DisplayName("Given more keys than a batch past retention, when cleaning up, "
+      + "then delete them one batch per transaction and run their checkout again on replay")
+  void givenMoreKeysThanBatchPastRetention_whenCleaningUp_thenDeleteOneBatchPerTransaction() {
+    // Arrange
+    when(idempotencyKeyRepository.save(any(IdempotencyKey.class))).thenAnswer(invocation -> {
+      IdempotencyKey stored = invocation.getArgument(0);
+      stored.setCreatedAt(LocalDateTime.now().minusDays(2));
+      return stored;
+    });
+    idempotencyService.execute(USER_ID, KEY, checkoutRequest, this::checkout);
+    when(idempotencyKeyRepository.findIdsCreatedBefore(any(), any(Pageable.class)))
+        .thenReturn(List.of(1L, 2L), List.of(3L));
+
+    // Act
+    idempotencyService.deleteExpired();
+
+    // Assert
+    verify(idempotencyKeyRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(idempotencyKeyRepository).deleteAllByIdInBatch(List.of(3L));
+    verify(transactionRetryExecutor, times(2)).execute(eq("idempotency-cleanup"), any());
+    idempotencyService.execute(USER_ID, KEY, checkoutRequest, this::checkout);
+    assertEquals(2, checkouts.get());
+  }
+
+  private OrderResponse checkout() {
+    checkouts.incrementAndGet();
+    return orderResponse;
+  }
+
+  private IdempotencyKey storeWithAnotherInstance() {
+    AtomicReference<IdempotencyKey> saved = new AtomicReference<>();
+    IdempotencyKeyRepository otherRepository = mock(IdempotencyKeyRepository.class);
+    when(otherRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY))
+        .thenReturn(Optional.empty());
+    when(otherRepository.save(any(IdempotencyKey.class))).thenAnswer(invocation -> {
+      saved.set(invocation.getArgument(0));
+      return saved.get();
+    });
+    new IdempotencyService(otherRepository, userRepository, transactionRetryExecutor, 100,
+        Duration.ofHours(24), 2)
+        .execute(USER_ID, KEY, checkoutRequest, this::checkout);
+    return saved.get();
+  }
+
+  private static String sha256(String value) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+        .digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,188 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.AddToCartRequest;
+import com.example.digigoods.dto.CartItem;
+import com.example.digigoods.dto.GetCartResponse;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.CartDetailRepository;
+import com.example.digigoods.repository.CartHeaderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests of the cart service with the carts kept in memory, against a real database.
+ */
+@SpringBootTest(properties = {"cart.store=memory", "cart.memory.flush-interval-ms=3600000",
+    "inventory.reservation.enabled=true"})
+@ActiveProfiles("test")
+class InMemoryCartStoreIntegrationTest {
+
+  private static final List<Execution> EXECUTIONS = Collections.synchronizedList(new ArrayList<>());
+
+  @Autowired
+  private CartService cartService;
+
+  @Autowired
+  private InMemoryCartStore cartStore;
+
+  @Autowired
+  private CartHeaderRepository cartHeaderRepository;
+
+  @Autowired
+  private CartDetailRepository cartDetailRepository;
+
+  @Autowired
+  private StockReservationRepository stockReservationRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private User user;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User(null, "memory-cart-buyer", "password"));
+    product = productRepository.save(new Product(null, "Memory Cart Product",
+        new BigDecimal("10.00"), 100));
+  }
+
+  @AfterEach
+  void tearDown() {
+    cartDetailRepository.deleteAll();
+    cartHeaderRepository.deleteAll();
+    stockReservationRepository.deleteAll();
+    jdbcTemplate.update("DELETE FROM stock_hold_locks WHERE product_id = ?", product.getId());
+    productRepository.deleteById(product.getId());
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given cart already in memory, when adding to it, "
+      + "then send only the stock and hold statements and leave the cart tables alone")
+  void givenCartInMemory_whenAddingToIt_thenSendOnlyStockAndHoldStatements() {
+    // Arrange
+    cartService.addToCart(new AddToCartRequest(product.getId(), 1), user.getId());
+    EXECUTIONS.clear();
+
+    // Act
+    cartService.addToCart(new AddToCartRequest(product.getId(), 2), user.getId());
+
+    // Assert
+    List<String> statements = statementsOf(Thread.currentThread().getName());
+    // Stock, hold lock, holds of others, own hold, its update
+    assertEquals(5, statements.size(), statements::toString);
+    assertTrue(statements.stream().noneMatch(statement -> statement.contains("cart_")),
+        statements::toString);
+    assertEquals(2, cartService.getCart(user.getId()).getItems().get(0).getQuantity());
+  }
+
+  @Test
+  @DisplayName("Given items added, when flushing, then write the cart to the cart tables")
+  void givenItemsAdded_whenFlushing_thenWriteCartToCartTables() {
+    // Arrange
+    cartService.addToCart(new AddToCartRequest(product.getId(), 3), user.getId());
+    List<CartItem> beforeFlush = cartDetailRepository.findItemsByUserId(user.getId());
+
+    // Act
+    cartStore.flush();
+
+    // Assert
+    assertTrue(beforeFlush.isEmpty());
+    List<CartItem> written = cartDetailRepository.findItemsByUserId(user.getId());
+    assertEquals(1, written.size());
+    assertEquals(product.getId(), written.get(0).getProductId());
+    assertEquals(3, written.get(0).getQuantity());
+    List<GetCartResponse> cart = cartService.getCart(user.getId()).getItems();
+    assertEquals(1, cart.size());
+    assertEquals(3, cart.get(0).getQuantity());
+  }
+
+  @Test
+  @DisplayName("Given cart of a user deleted since, when flushing, "
+      + "then write the other carts and drop the cart of the deleted user")
+  void givenCartOfDeletedUser_whenFlushing_thenWriteOtherCartsAndDropIt() {
+    // Arrange
+    User deleted = userRepository.save(new User(null, "memory-cart-deleted", "password"));
+    cartService.addToCart(new AddToCartRequest(product.getId(), 1), deleted.getId());
+    cartService.addToCart(new AddToCartRequest(product.getId(), 2), user.getId());
+    jdbcTemplate.update("DELETE FROM stock_reservations WHERE user_id = ?", deleted.getId());
+    userRepository.delete(deleted);
+
+    // Act
+    cartStore.flush();
+
+    // Assert
+    List<CartItem> written = cartDetailRepository.findItemsByUserId(user.getId());
+    assertEquals(1, written.size());
+    assertEquals(2, written.get(0).getQuantity());
+    assertTrue(cartDetailRepository.findItemsByUserId(deleted.getId()).isEmpty());
+    assertTrue(cartStore.getItems(deleted.getId()).isEmpty());
+  }
+
+  private List<String> statementsOf(String threadName) {
+    synchronized (EXECUTIONS) {
+      // Refills of the pooled id sequences depend on earlier tests, so they are not counted
+      return EXECUTIONS.stream()
+          .filter(execution -> execution.threadName().equals(threadName))
+          .map(Execution::query)
+          .map(String::toLowerCase)
+          .filter(query -> !query.contains("next value for"))
+          .toList();
+    }
+  }
+
+  @TestConfiguration
+  static class StatementRecordingConfiguration {
+
+    @Bean
+    static BeanPostProcessor statementRecordingDataSourcePostProcessor() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (bean instanceof DataSource dataSource) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                .name("memory-cart")
+                .afterQuery((executionInfo, queries) -> EXECUTIONS.add(new Execution(
+                    queries.stream().map(QueryInfo::getQuery).findFirst().orElse(""),
+                    Thread.currentThread().getName())))
+                .build();
+          }
+          return bean;
+        }
+      };
+    }
+  }
+
+  private record Execution(String query, String threadName) {
+  }
+}
@@ -0,0 +1,250 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.CartItem;
+import com.example.digigoods.repository.CartDetailRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryCartStoreTest {
+
+  @Mock
+  private CartDetailRepository cartDetailRepository;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  private InMemoryCartStore cartStore;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    cartStore = new InMemoryCartStore(cartDetailRepository, transactionRetryExecutor, 1, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Given cart in the database, when reading it twice, then load it only once")
+  void givenCartInDatabase_whenReadingTwice_thenLoadItOnlyOnce() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(1L))
+        .thenReturn(List.of(new CartItem(10L, 2), new CartItem(11L, 1)));
+
+    // Act
+    cartStore.getItems(1L);
+    Map<Long, Integer> items = cartStore.getItems(1L);
+
+    // Assert
+    assertEquals(Map.of(10L, 2, 11L, 1), items);
+    verify(cartDetailRepository, times(1)).findItemsByUserId(1L);
+  }
+
+  @Test
+  @DisplayName("Given changed carts, when flushing, then write them one batch per transaction "
+      + "and leave unchanged carts alone")
+  void givenChangedCarts_whenFlushing_thenWriteOneBatchPerTransaction() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(any())).thenReturn(List.of());
+    cartStore = new InMemoryCartStore(cartDetailRepository, transactionRetryExecutor, 10, 2);
+    cartStore.setQuantity(3L, 30L, 1);
+    cartStore.setQuantity(1L, 10L, 2);
+    cartStore.setQuantity(2L, 20L, 3);
+    cartStore.getItems(4L);
+
+    // Act
+    cartStore.flush();
+    cartStore.flush();
+
+    // Assert
+    verify(cartDetailRepository).replaceItems(Map.of(1L, Map.of(10L, 2), 2L, Map.of(20L, 3)));
+    verify(cartDetailRepository).replaceItems(Map.of(3L, Map.of(30L, 1)));
+    verify(transactionRetryExecutor, times(2)).execute(eq("cart-flush"), any());
+  }
+
+  @Test
+  @DisplayName("Given failing write, when flushing, then write the carts again at the next flush")
+  void givenFailingWrite_whenFlushing_thenWriteCartsAgainAtNextFlush() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(1L)).thenReturn(List.of());
+    cartStore.setQuantity(1L, 10L, 2);
+    doThrow(new IllegalStateException("Database down"))
+        .doNothing()
+        .when(cartDetailRepository).replaceItems(Map.of(1L, Map.of(10L, 2)));
+
+    // Act
+    cartStore.flush();
+    cartStore.flush();
+
+    // Assert
+    verify(cartDetailRepository, times(2)).replaceItems(Map.of(1L, Map.of(10L, 2)));
+  }
+
+  @Test
+  @DisplayName("Given cart refused by the database, when flushing its batch, "
+      + "then write the other carts on their own and drop the refused one")
+  void givenCartRefusedByDatabase_whenFlushing_thenWriteOthersAndDropRefusedCart() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(any())).thenReturn(List.of());
+    cartStore = new InMemoryCartStore(cartDetailRepository, transactionRetryExecutor, 10, 2);
+    cartStore.setQuantity(1L, 10L, 2);
+    cartStore.setQuantity(2L, 20L, 3);
+    DataIntegrityViolationException refused = new DataIntegrityViolationException("User deleted");
+    // Lenient, as the carts are then written with other arguments
+    lenient().doThrow(refused)
+        .when(cartDetailRepository).replaceItems(Map.of(1L, Map.of(10L, 2), 2L, Map.of(20L, 3)));
+    lenient().doThrow(refused)
+        .when(cartDetailRepository).replaceItems(Map.of(2L, Map.of(20L, 3)));
+
+    // Act
+    cartStore.flush();
+    cartStore.flush();
+
+    // Assert
+    verify(cartDetailRepository).replaceItems(Map.of(1L, Map.of(10L, 2)));
+    verify(cartDetailRepository, times(1)).replaceItems(Map.of(2L, Map.of(20L, 3)));
+    verify(cartDetailRepository, times(1))
+        .replaceItems(Map.of(1L, Map.of(10L, 2), 2L, Map.of(20L, 3)));
+    assertEquals(Map.of(), cartStore.getItems(2L));
+  }
+
+  @Test
+  @DisplayName("Given transaction rolled back, when it set a quantity, "
+      + "then show the change to that transaction only and leave the cart as it was")
+  void givenTransactionRolledBack_whenItSetQuantity_thenLeaveCartAsItWas() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(1L)).thenReturn(List.of(new CartItem(10L, 2)));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    cartStore.setQuantity(1L, 11L, 1);
+    final Map<Long, Integer> inTransaction = cartStore.getItems(1L);
+    TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    TransactionSynchronizationManager.clearSynchronization();
+    cartStore.flush();
+
+    // Assert
+    assertEquals(Map.of(10L, 2, 11L, 1), inTransaction);
+    assertEquals(Map.of(10L, 2), cartStore.getItems(1L));
+    verify(cartDetailRepository, never()).replaceItems(any());
+  }
+
+  @Test
+  @DisplayName("Given more carts than the maximum, when flushing, "
+      + "then drop the least recently used one and read it again on its next use")
+  void givenMoreCartsThanMaximum_whenFlushing_thenDropLeastRecentlyUsed() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(1L))
+        .thenReturn(List.of(), List.of(new CartItem(10L, 2)));
+    when(cartDetailRepository.findItemsByUserId(2L)).thenReturn(List.of());
+    cartStore.setQuantity(1L, 10L, 2);
+    cartStore.setQuantity(2L, 20L, 3);
+
+    // Act
+    cartStore.flush();
+    Map<Long, Integer> items = cartStore.getItems(1L);
+
+    // Assert
+    assertEquals(Map.of(10L, 2), items);
+    verify(cartDetailRepository, times(2)).findItemsByUserId(1L);
+    verify(cartDetailRepository, times(1)).findItemsByUserId(2L);
+  }
+
+  @Test
+  @DisplayName("Given cart in the database, when updating its items, "
+      + "then change them in memory and write the cart back once")
+  void givenCartInDatabase_whenUpdatingItems_thenChangeInMemoryAndWriteBackOnce() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(1L))
+        .thenReturn(List.of(new CartItem(10L, 2), new CartItem(11L, 1)));
+
+    // Act
+    cartStore.updateItems(1L, items -> {
+      items.remove(10L);
+      items.put(12L, 4);
+    });
+    cartStore.flush();
+
+    // Assert
+    assertEquals(Map.of(11L, 1, 12L, 4), cartStore.getItems(1L));
+    verify(cartDetailRepository).replaceItems(Map.of(1L, Map.of(11L, 1, 12L, 4)));
+  }
+
+  @Test
+  @DisplayName("Given transaction in progress, when checking out items, "
+      + "then refuse them to another checkout and remove them only after the commit")
+  void givenTransactionInProgress_whenCheckingOutItems_thenRemoveThemOnlyAfterCommit() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(1L))
+        .thenReturn(List.of(new CartItem(10L, 2), new CartItem(11L, 1)));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    Map<Long, Integer> taken = cartStore.checkOutItems(1L);
+    cartStore.setQuantity(1L, 12L, 3);
+    Map<Long, Integer> takenByOther = cartStore.checkOutItems(1L);
+    final Map<Long, Integer> beforeCommit = cartStore.getItems(1L);
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    synchronizations.forEach(synchronization ->
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+    // Assert
+    assertEquals(Map.of(10L, 2, 11L, 1), taken);
+    assertEquals(Map.of(), takenByOther);
+    assertEquals(Map.of(10L, 2, 11L, 1, 12L, 3), beforeCommit);
+    assertEquals(Map.of(12L, 3), cartStore.getItems(1L));
+    // The checkout and the change made after it
+    assertEquals(2, synchronizations.size());
+    verify(cartDetailRepository, never()).replaceItems(any());
+  }
+
+  @Test
+  @DisplayName("Given checkout rolled back, when checking out again, "
+      + "then take the items left in the cart")
+  void givenCheckoutRolledBack_whenCheckingOutAgain_thenTakeTheItemsLeftInCart() {
+    // Arrange
+    when(cartDetailRepository.findItemsByUserId(1L)).thenReturn(List.of(new CartItem(10L, 2)));
+    TransactionSynchronizationManager.initSynchronization();
+    cartStore.checkOutItems(1L);
+    TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    TransactionSynchronizationManager.clearSynchronization();
+
+    // Act
+    Map<Long, Integer> taken = cartStore.checkOutItems(1L);
+
+    // Assert
+    assertEquals(Map.of(10L, 2), taken);
+    assertEquals(Map.of(), cartStore.getItems(1L));
+  }
+}
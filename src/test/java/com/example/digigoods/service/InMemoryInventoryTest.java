@@ -0,0 +1,209 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryInventoryTest {
+
+  @TempDir
+  private Path journalDirectory;
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  private InMemoryInventory inMemoryInventory;
+  private Product product1;
+  private Product product2;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    inMemoryInventory = inventory(4);
+    product1 = new Product(1L, "Product 1", new BigDecimal("10.00"), 5);
+    product2 = new Product(2L, "Product 2", new BigDecimal("20.00"), 3);
+  }
+
+  @AfterEach
+  void tearDown() {
+    inMemoryInventory.shutdown();
+  }
+
+  @Test
+  @DisplayName("Given repeated sales, when flushing, then write each counter once")
+  void givenRepeatedSales_whenFlushing_thenWriteEachCounterOnce() {
+    // Act
+    for (int i = 0; i < 5; i++) {
+      inMemoryInventory.take(List.of(product1), Map.of(1L, 1));
+    }
+    inMemoryInventory.flush();
+
+    // Assert
+    verify(productRepository).overwriteStock(Map.of(1L, 0));
+    assertThrows(InsufficientStockException.class,
+        () -> inMemoryInventory.take(List.of(product1), Map.of(1L, 1)));
+  }
+
+  @Test
+  @DisplayName("Given sales across full journal segments, when flushing, "
+      + "then write the current stock in one batch")
+  void givenSalesAcrossFullSegments_whenFlushing_thenWriteCurrentStockInOneBatch() {
+    // Act
+    for (int i = 0; i < 3; i++) {
+      inMemoryInventory.take(List.of(product1, product2), Map.of(1L, 1, 2L, 1));
+    }
+    inMemoryInventory.flush();
+    inMemoryInventory.flush();
+
+    // Assert
+    verify(productRepository).overwriteStock(Map.of(1L, 2, 2L, 0));
+    assertEquals(5, product1.getStock());
+  }
+
+  @Test
+  @DisplayName("Given one product short of stock, when taking, then take nothing")
+  void givenOneProductShortOfStock_whenTaking_thenTakeNothing() {
+    // Act & Assert
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+        () -> inMemoryInventory.take(List.of(product1, product2), Map.of(1L, 2, 2L, 4)));
+
+    assertEquals("Insufficient stock for product 2. Requested: 4, Available: 3",
+        exception.getMessage());
+    inMemoryInventory.take(List.of(product1), Map.of(1L, 5));
+  }
+
+  @Test
+  @DisplayName("Given transaction rolls back, when taking, then give the stock back")
+  void givenTransactionRollsBack_whenTaking_thenGiveTheStockBack() {
+    // Arrange
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      inMemoryInventory.take(List.of(product2), Map.of(2L, 3));
+
+      // Act
+      TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+          synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    // Assert
+    inMemoryInventory.take(List.of(product2), Map.of(2L, 3));
+  }
+
+  @Test
+  @DisplayName("Given database down at shutdown, when restarting, "
+      + "then replay the journal into the database")
+  void givenDatabaseDownAtShutdown_whenRestarting_thenReplayTheJournal() {
+    // Arrange
+    inMemoryInventory.take(List.of(product1, product2), Map.of(1L, 4, 2L, 1));
+    inMemoryInventory.take(List.of(product1), Map.of(1L, 1));
+    doThrow(new DataAccessResourceFailureException("database down"))
+        .when(productRepository).overwriteStock(anyMap());
+    inMemoryInventory.shutdown();
+    reset(productRepository);
+
+    // Act
+    inMemoryInventory = inventory(4);
+    inMemoryInventory.recover();
+
+    // Assert
+    verify(productRepository).overwriteStock(Map.of(1L, 0, 2L, 2));
+  }
+
+  @Test
+  @DisplayName("Given clean shutdown, when restarting, then replay nothing")
+  void givenCleanShutdown_whenRestarting_thenReplayNothing() {
+    // Arrange
+    inMemoryInventory.take(List.of(product1), Map.of(1L, 2));
+    inMemoryInventory.shutdown();
+    verify(productRepository).overwriteStock(Map.of(1L, 3));
+    reset(productRepository);
+
+    // Act
+    inMemoryInventory = inventory(4);
+    inMemoryInventory.recover();
+
+    // Assert
+    verify(productRepository, never()).overwriteStock(anyMap());
+  }
+
+  @Test
+  @DisplayName("Given concurrent buyers, when taking, then never sell more than the stock")
+  void givenConcurrentBuyers_whenTaking_thenNeverSellMoreThanTheStock() throws Exception {
+    // Arrange
+    inMemoryInventory = inventory(1_024);
+    Product hotProduct = new Product(3L, "Hot Product", new BigDecimal("1.00"), 1_500);
+    ExecutorService buyers = Executors.newFixedThreadPool(4);
+    List<Future<Integer>> results = new ArrayList<>();
+
+    // Act
+    for (int t = 0; t < 4; t++) {
+      results.add(buyers.submit(() -> {
+        int sold = 0;
+        for (int i = 0; i < 500; i++) {
+          try {
+            inMemoryInventory.take(List.of(hotProduct), Map.of(3L, 1));
+            sold++;
+          } catch (InsufficientStockException e) {
+            // Sold out
+          }
+        }
+        return sold;
+      }));
+    }
+    int sold = 0;
+    for (Future<Integer> result : results) {
+      sold += result.get(30, TimeUnit.SECONDS);
+    }
+    buyers.shutdown();
+    inMemoryInventory.flush();
+
+    // Assert
+    assertEquals(1_500, sold);
+    verify(productRepository).overwriteStock(Map.of(3L, 0));
+  }
+
+  private InMemoryInventory inventory(int segmentRecords) {
+    return new InMemoryInventory(productRepository, transactionRetryExecutor,
+        journalDirectory.toString(), segmentRecords);
+  }
+}
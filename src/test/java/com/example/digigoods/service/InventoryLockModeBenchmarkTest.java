@@ -0,0 +1,137 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.model.InventoryLockMode;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Throughput comparison of inventory lock modes under low and high contention.
+ *
+ * <p>Excluded from the default build; run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"transaction.retry.max-attempts=10",
+    "inventory.in-memory.journal-dir=target/benchmark-inventory-journal"})
+@ActiveProfiles("test")
+class InventoryLockModeBenchmarkTest {
+
+  private static final int THREADS = 8;
+  private static final int OPS_PER_THREAD = 200;
+  private static final int INITIAL_STOCK = 1_000_000;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  @Autowired
+  private InMemoryInventory inMemoryInventory;
+
+  @ParameterizedTest
+  @EnumSource(InventoryLockMode.class)
+  @DisplayName("Given each buyer has their own product, when buying concurrently, "
+      + "then report throughput without losing updates")
+  void givenLowContention_whenBuyingConcurrently_thenReportThroughput(InventoryLockMode mode)
+      throws Exception {
+    List<Product> products = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      products.add(createProduct(mode));
+    }
+    run("low", mode, products);
+  }
+
+  @ParameterizedTest
+  @EnumSource(InventoryLockMode.class)
+  @DisplayName("Given all buyers share one product, when buying concurrently, "
+      + "then report throughput without losing updates")
+  void givenHighContention_whenBuyingConcurrently_thenReportThroughput(InventoryLockMode mode)
+      throws Exception {
+    Product product = createProduct(mode);
+    List<Product> products = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      products.add(product);
+    }
+    run("high", mode, products);
+  }
+
+  private void run(String contention, InventoryLockMode mode, List<Product> productPerThread)
+      throws Exception {
+    AtomicInteger succeeded = new AtomicInteger();
+    AtomicInteger aborted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (Product product : productPerThread) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < OPS_PER_THREAD; i++) {
+          try {
+            transactionRetryExecutor.execute("benchmark", () -> {
+              productService.validateAndUpdateStock(List.of(product.getId()));
+              return null;
+            });
+            succeeded.incrementAndGet();
+          } catch (ConcurrencyFailureException e) {
+            aborted.incrementAndGet();
+          }
+        }
+        return null;
+      }));
+    }
+
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(5, TimeUnit.MINUTES);
+    }
+    long elapsedNanos = System.nanoTime() - startedAt;
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    System.out.printf("inventory lock mode %-11s contention %-4s: %8.0f ops/s, %d aborted%n",
+        mode, contention, succeeded.get() * 1e9 / elapsedNanos, aborted.get());
+
+    // In-memory counters reach the database with the next batch
+    inMemoryInventory.flush();
+    int remaining = productPerThread.stream().distinct()
+        .mapToInt(p -> productRepository.findStockById(p.getId()).orElseThrow())
+        .sum();
+    int initial = (int) productPerThread.stream().distinct().count() * INITIAL_STOCK;
+    assertEquals(initial - succeeded.get(), remaining);
+
+    productRepository.deleteAllById(productPerThread.stream().map(Product::getId).distinct()
+        .toList());
+  }
+
+  private Product createProduct(InventoryLockMode mode) {
+    Product product = new Product(null, "Benchmark " + mode, new BigDecimal("1.00"),
+        INITIAL_STOCK);
+    product.setLockMode(mode);
+    return productRepository.save(product);
+  }
+}
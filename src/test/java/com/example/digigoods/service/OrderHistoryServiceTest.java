@@ -0,0 +1,135 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.OrderHistoryEntry;
+import com.example.digigoods.dto.OrderHistoryResponse;
+import com.example.digigoods.exception.InvalidCursorException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.repository.OrderItemRepository;
+import com.example.digigoods.repository.OrderRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+@ExtendWith(MockitoExtension.class)
+class OrderHistoryServiceTest {
+
+  private static final Long USER_ID = 1L;
+  private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private OrderItemRepository orderItemRepository;
+
+  private OrderHistoryService orderHistoryService;
+
+  @BeforeEach
+  void setUp() {
+    orderHistoryService = new OrderHistoryService(orderRepository, orderItemRepository, 100);
+  }
+
+  @Test
+  @DisplayName("Given more orders than the limit, when getting history, "
+      + "then return a page with its items, discounts and a next cursor")
+  void givenMoreOrdersThanLimit_whenGettingHistory_thenReturnPageWithNextCursor() {
+    // Arrange
+    Order newest = order(3L, NOW);
+    Discount discount = new Discount();
+    discount.setCode("GENERAL20");
+    newest.setAppliedDiscounts(Set.of(discount));
+    Order older = order(2L, NOW.minusDays(1));
+    when(orderRepository.findNewestByUserId(USER_ID, PageRequest.of(0, 3)))
+        .thenReturn(List.of(newest, older, order(1L, NOW.minusDays(2))));
+    when(orderItemRepository.findAllByOrderIdIn(List.of(3L, 2L))).thenReturn(List.of(
+        new OrderItem(3L, 10L, 2, new BigDecimal("50.00"), new BigDecimal("40.00"))));
+
+    // Act
+    OrderHistoryResponse response = orderHistoryService.getOrderHistory(USER_ID, null, 2);
+
+    // Assert
+    assertEquals(2, response.getOrders().size());
+    OrderHistoryEntry first = response.getOrders().get(0);
+    assertEquals(3L, first.getOrderId());
+    assertEquals(List.of("GENERAL20"), first.getDiscountCodes());
+    assertEquals(10L, first.getItems().get(0).getProductId());
+    assertEquals(2, first.getItems().get(0).getQuantity());
+    assertEquals(List.of(), response.getOrders().get(1).getItems());
+    assertNotNull(response.getNextCursor());
+    verify(orderRepository).fetchAppliedDiscounts(List.of(newest, older));
+  }
+
+  @Test
+  @DisplayName("Given next cursor, when getting history, "
+      + "then read the orders after the last order of the previous page")
+  void givenNextCursor_whenGettingHistory_thenReadOrdersAfterLastOrderOfPreviousPage() {
+    // Arrange
+    when(orderRepository.findNewestByUserId(USER_ID, PageRequest.of(0, 2)))
+        .thenReturn(List.of(order(3L, NOW), order(2L, NOW)));
+    String cursor = orderHistoryService.getOrderHistory(USER_ID, null, 1).getNextCursor();
+    when(orderRepository.findByUserIdBefore(USER_ID, NOW, 3L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(order(2L, NOW)));
+
+    // Act
+    OrderHistoryResponse response = orderHistoryService.getOrderHistory(USER_ID, cursor, 1);
+
+    // Assert
+    assertEquals(2L, response.getOrders().get(0).getOrderId());
+    assertNull(response.getNextCursor());
+  }
+
+  @Test
+  @DisplayName("Given limit above maximum, when getting history, then cap the page size")
+  void givenLimitAboveMaximum_whenGettingHistory_thenCapThePageSize() {
+    // Arrange
+    when(orderRepository.findNewestByUserId(USER_ID, PageRequest.of(0, 101)))
+        .thenReturn(List.of());
+
+    // Act
+    OrderHistoryResponse response = orderHistoryService.getOrderHistory(USER_ID, null, 5000);
+
+    // Assert
+    assertEquals(List.of(), response.getOrders());
+    assertNull(response.getNextCursor());
+    verify(orderItemRepository, never()).findAllByOrderIdIn(any());
+  }
+
+  @Test
+  @DisplayName("Given cursor not issued by the service, when getting history, "
+      + "then throw InvalidCursorException")
+  void givenForeignCursor_whenGettingHistory_thenThrowInvalidCursorException() {
+    // Act & Assert
+    assertThrows(InvalidCursorException.class,
+        () -> orderHistoryService.getOrderHistory(USER_ID, "not-a-cursor", 20));
+    assertThrows(InvalidCursorException.class,
+        () -> orderHistoryService.getOrderHistory(USER_ID, "%%%", 20));
+  }
+
+  private Order order(Long id, LocalDateTime orderDate) {
+    Order order = new Order();
+    order.setId(id);
+    order.setOrderDate(orderDate);
+    order.setOriginalSubtotal(new BigDecimal("100.00"));
+    order.setFinalPrice(new BigDecimal("80.00"));
+    return order;
+  }
+}
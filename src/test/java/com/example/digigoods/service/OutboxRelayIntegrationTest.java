@@ -0,0 +1,154 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.OutboxEvent;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.OutboxEventRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests of the outbox relay against a real database.
+ */
+@SpringBootTest(properties = "outbox.relay.interval-ms=3600000")
+@ActiveProfiles("test")
+class OutboxRelayIntegrationTest {
+
+  private static final List<OutboxEvent> PUBLISHED =
+      Collections.synchronizedList(new ArrayList<>());
+
+  @Autowired
+  private OutboxService outboxService;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private OutboxEventRepository outboxEventRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private User user;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    // Events of other test classes sharing the database are not this test's to publish
+    outboxEventRepository.deleteAll();
+    PUBLISHED.clear();
+    user = userRepository.save(new User(null, "outbox-buyer", "password"));
+    product = productRepository.save(
+        new Product(null, "Outbox Product", new BigDecimal("10.00"), 10));
+  }
+
+  @AfterEach
+  void tearDown() {
+    outboxEventRepository.deleteAll();
+    orderRepository.deleteAll();
+    productRepository.deleteById(product.getId());
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given placed order, when relaying, then publish its event once")
+  void givenPlacedOrder_whenRelaying_thenPublishItsEventOnce() {
+    // Arrange
+    checkoutService.processCheckout(
+        new CheckoutRequest(user.getId(), List.of(product.getId()), List.of()), user.getId());
+
+    // Act
+    outboxService.relay();
+    outboxService.relay();
+
+    // Assert
+    assertEquals(1, PUBLISHED.size());
+    OutboxEvent event = PUBLISHED.get(0);
+    assertEquals(OutboxService.ORDER_PLACED, event.getEventType());
+    assertEquals(orderRepository.findAll().get(0).getId(), event.getAggregateId());
+    assertTrue(event.getPayload().contains("\"productId\":" + product.getId()));
+    assertNotNull(outboxEventRepository.findById(event.getId()).orElseThrow().getPublishedAt());
+  }
+
+  @Test
+  @DisplayName("Given events locked by another relay, when relaying, "
+      + "then skip them without waiting")
+  void givenEventsLockedByAnotherRelay_whenRelaying_thenSkipThemWithoutWaiting()
+      throws Exception {
+    // Arrange
+    outboxEventRepository.saveAll(List.of(
+        new OutboxEvent(null, OutboxService.ORDER_PLACED, 1L, "{}", LocalDateTime.now(), null),
+        new OutboxEvent(null, OutboxService.ORDER_PLACED, 2L, "{}", LocalDateTime.now(), null)));
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    final CompletableFuture<Integer> otherRelay = CompletableFuture.supplyAsync(() ->
+        new TransactionTemplate(transactionManager).execute(status -> {
+          int lockedEvents = outboxEventRepository.lockUnpublished(10).size();
+          locked.countDown();
+          try {
+            release.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return lockedEvents;
+        }));
+    assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+    // Act
+    outboxService.relay();
+    int publishedWhileLocked = PUBLISHED.size();
+    release.countDown();
+    int lockedByOther = otherRelay.get(10, TimeUnit.SECONDS);
+    outboxService.relay();
+
+    // Assert
+    assertEquals(0, publishedWhileLocked);
+    assertEquals(2, lockedByOther);
+    assertEquals(2, PUBLISHED.size());
+  }
+
+  @TestConfiguration
+  static class RecordingSinkConfig {
+
+    @Bean
+    @Primary
+    OutboxSink recordingOutboxSink() {
+      return PUBLISHED::addAll;
+    }
+  }
+}
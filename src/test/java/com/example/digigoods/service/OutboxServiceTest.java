@@ -0,0 +1,188 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.OutboxEvent;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+  @Mock
+  private OutboxEventRepository outboxEventRepository;
+
+  @Mock
+  private OutboxSink outboxSink;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  private SimpleMeterRegistry meterRegistry;
+  private OutboxService outboxService;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    meterRegistry = new SimpleMeterRegistry();
+    outboxService = outboxService(true);
+  }
+
+  @Test
+  @DisplayName("Given placed orders, when recording, then write one event per order "
+      + "with its items and discount codes")
+  @SuppressWarnings("unchecked")
+  void givenPlacedOrders_whenRecording_thenWriteOneEventPerOrder() {
+    // Arrange
+    Order first = order(1L);
+    Discount discount = new Discount();
+    discount.setCode("GENERAL20");
+    first.setAppliedDiscounts(Set.of(discount));
+    List<OrderItem> items = List.of(
+        new OrderItem(1L, 10L, 2, new BigDecimal("50.00"), new BigDecimal("40.00")));
+
+    // Act
+    outboxService.record(List.of(first, order(2L)), items);
+
+    // Assert
+    ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+    verify(outboxEventRepository).saveAll(captor.capture());
+    List<OutboxEvent> events = captor.getValue();
+    assertEquals(2, events.size());
+    OutboxEvent event = events.get(0);
+    assertEquals(OutboxService.ORDER_PLACED, event.getEventType());
+    assertEquals(1L, event.getAggregateId());
+    assertNotNull(event.getCreatedAt());
+    assertNull(event.getPublishedAt());
+    assertTrue(event.getPayload().contains("\"orderId\":1"));
+    assertTrue(event.getPayload().contains("\"userId\":7"));
+    assertTrue(event.getPayload().contains("\"productId\":10"));
+    assertTrue(event.getPayload().contains("\"discountCodes\":[\"GENERAL20\"]"));
+    assertTrue(events.get(1).getPayload().contains("\"items\":[]"));
+  }
+
+  @Test
+  @DisplayName("Given outbox disabled, when recording, then write nothing")
+  void givenOutboxDisabled_whenRecording_thenWriteNothing() {
+    // Act
+    outboxService(false).record(List.of(order(1L)), List.of());
+
+    // Assert
+    verifyNoInteractions(outboxEventRepository);
+  }
+
+  @Test
+  @DisplayName("Given more unpublished events than a batch, when relaying, "
+      + "then publish them one batch per transaction and mark them published")
+  void givenMoreEventsThanBatch_whenRelaying_thenPublishOneBatchPerTransaction() {
+    // Arrange
+    List<OutboxEvent> firstBatch = List.of(event(1L), event(2L));
+    List<OutboxEvent> secondBatch = List.of(event(3L));
+    when(outboxEventRepository.lockUnpublished(2)).thenReturn(firstBatch, secondBatch);
+
+    // Act
+    outboxService.relay();
+
+    // Assert
+    verify(outboxSink).publish(firstBatch);
+    verify(outboxSink).publish(secondBatch);
+    verify(transactionRetryExecutor, times(2)).execute(eq("outbox-relay"), any());
+    assertNotNull(firstBatch.get(0).getPublishedAt());
+    assertNotNull(secondBatch.get(0).getPublishedAt());
+    assertEquals(3, meterRegistry.get("outbox.delivery").timer().count());
+    assertTrue(meterRegistry.get("outbox.lag").gauge().value() >= 60);
+  }
+
+  @Test
+  @DisplayName("Given sink failing, when relaying, then leave the batch unpublished "
+      + "and count the failure")
+  void givenSinkFailing_whenRelaying_thenLeaveBatchUnpublished() {
+    // Arrange
+    List<OutboxEvent> batch = List.of(event(1L), event(2L));
+    when(outboxEventRepository.lockUnpublished(2)).thenReturn(batch);
+    doThrow(new IllegalStateException("Broker down")).when(outboxSink).publish(batch);
+
+    // Act
+    outboxService.relay();
+
+    // Assert
+    assertNull(batch.get(0).getPublishedAt());
+    verify(transactionRetryExecutor, times(1)).execute(eq("outbox-relay"), any());
+    assertEquals(1, meterRegistry.get("outbox.publish.failures").counter().count());
+  }
+
+  @Test
+  @DisplayName("Given more published events than a batch past retention, when cleaning up, "
+      + "then delete them one batch per transaction")
+  void givenMorePublishedEventsThanBatch_whenCleaningUp_thenDeleteOneBatchPerTransaction() {
+    // Arrange
+    when(outboxEventRepository.findPublishedIdsBefore(any(), any(Pageable.class)))
+        .thenReturn(List.of(1L, 2L), List.of(3L));
+
+    // Act
+    outboxService.deletePublished();
+
+    // Assert
+    verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+    verify(transactionRetryExecutor, times(2)).execute(eq("outbox-cleanup"), any());
+  }
+
+  private OutboxService outboxService(boolean enabled) {
+    JsonMapper objectMapper = JsonMapper.builder()
+        .findAndAddModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    return new OutboxService(outboxEventRepository, outboxSink, transactionRetryExecutor,
+        objectMapper, meterRegistry, enabled, 2, 24, 2);
+  }
+
+  private Order order(Long id) {
+    User user = new User();
+    user.setId(7L);
+    Order order = new Order();
+    order.setId(id);
+    order.setUser(user);
+    order.setOrderDate(LocalDateTime.of(2025, 1, 15, 10, 30));
+    order.setOriginalSubtotal(new BigDecimal("100.00"));
+    order.setFinalPrice(new BigDecimal("80.00"));
+    return order;
+  }
+
+  private OutboxEvent event(Long id) {
+    return new OutboxEvent(id, OutboxService.ORDER_PLACED, id, "{}",
+        LocalDateTime.now().minusMinutes(1), null);
+  }
+}
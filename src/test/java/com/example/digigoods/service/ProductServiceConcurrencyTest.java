@@ -0,0 +1,127 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Concurrency tests for stock updates in ProductService against a real database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceConcurrencyTest {
+
+  private static final int THREADS = 16;
+  private static final int ATTEMPTS_PER_THREAD = 10;
+  private static final int INITIAL_STOCK = 50;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+
+    product = new Product();
+    product.setName("Limited Edition");
+    product.setPrice(new BigDecimal("10.00"));
+    product.setStock(INITIAL_STOCK);
+    product = productRepository.save(product);
+  }
+
+  @AfterEach
+  void tearDown() {
+    productRepository.deleteById(product.getId());
+  }
+
+  @Test
+  @DisplayName("Given more buyers than stock, when updating stock concurrently, "
+      + "then never oversell")
+  void givenMoreBuyersThanStock_whenUpdatingStockConcurrently_thenNeverOversell()
+      throws Exception {
+    // Arrange
+    AtomicInteger succeeded = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+          try {
+            transactionTemplate.executeWithoutResult(status ->
+                productService.validateAndUpdateStock(List.of(product.getId())));
+            succeeded.incrementAndGet();
+          } catch (InsufficientStockException e) {
+            rejected.incrementAndGet();
+          }
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    // Assert
+    assertEquals(INITIAL_STOCK, succeeded.get());
+    assertEquals(THREADS * ATTEMPTS_PER_THREAD - INITIAL_STOCK, rejected.get());
+    assertEquals(0, productRepository.findStockById(product.getId()).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("Given stock decremented atomically, when saving a copy read before, "
+      + "then reject it on its version")
+  void givenStockDecrementedAtomically_whenSavingCopyReadBefore_thenRejectIt() {
+    // Arrange
+    Product stale = productRepository.findById(product.getId()).orElseThrow();
+    transactionTemplate.executeWithoutResult(status ->
+        productRepository.decrementStock(Map.of(product.getId(), 1)));
+    stale.setStock(stale.getStock() - 1);
+
+    // Act & Assert
+    assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> productRepository.save(stale));
+    assertEquals(INITIAL_STOCK - 1,
+        productRepository.findById(product.getId()).orElseThrow().getStock());
+  }
+}
@@ -3,22 +3,25 @@ package com.example.digigoods.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.digigoods.exception.InsufficientStockException;
 import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.model.InventoryLockMode;
 import com.example.digigoods.model.Product;
 import com.example.digigoods.repository.ProductRepository;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -28,7 +31,9 @@ class ProductServiceTest {
   @Mock
   private ProductRepository productRepository;
 
-  @InjectMocks
+  @Mock
+  private InMemoryInventory inMemoryInventory;
+
   private ProductService productService;
 
   private Product product1;
@@ -36,6 +41,8 @@ class ProductServiceTest {
 
   @BeforeEach
   void setUp() {
+    productService = new ProductService(productRepository, inMemoryInventory,
+        InventoryLockMode.ATOMIC);
     product1 = new Product(1L, "Product 1", new BigDecimal("10.00"), 5);
     product2 = new Product(2L, "Product 2", new BigDecimal("20.00"), 3);
   }
@@ -70,21 +77,53 @@ class ProductServiceTest {
         () -> productService.getProductsByIds(productIds));
   }
 
+  @Test
+  @DisplayName("Given duplicate product IDs, when getting products by IDs, "
+      + "then return each product once")
+  void givenDuplicateProductIds_whenGettingProductsByIds_thenReturnEachProductOnce() {
+    // Arrange
+    when(productRepository.findAllByIdIn(List.of(2L, 1L))).thenReturn(List.of(product1, product2));
+
+    // Act
+    List<Product> actualProducts = productService.getProductsByIds(List.of(2L, 1L, 2L));
+
+    // Assert
+    assertEquals(List.of(product1, product2), actualProducts);
+  }
+
+  @Test
+  @DisplayName("Given loaded products, when validating and updating stock, "
+      + "then do not read products again")
+  void givenLoadedProducts_whenValidatingAndUpdatingStock_thenDoNotReadProductsAgain() {
+    // Arrange
+    when(productRepository.decrementStock(Map.of(1L, 2, 2L, 1))).thenReturn(List.of());
+
+    // Act
+    productService.validateAndUpdateStock(List.of(product1, product2), List.of(1L, 2L, 1L));
+
+    // Assert
+    verify(productRepository).decrementStock(Map.of(1L, 2, 2L, 1));
+    verify(productRepository, never()).findAllByIdIn(any());
+    verify(productRepository, never()).findAllByIdInForUpdate(any());
+  }
+
   @Test
   @DisplayName("Given sufficient stock, when validating and updating stock, "
-      + "then update stock successfully")
-  void givenSufficientStock_whenValidatingAndUpdatingStock_thenUpdateStockSuccessfully() {
+      + "then decrement stock in one batch")
+  void givenSufficientStock_whenValidatingAndUpdatingStock_thenDecrementStockInOneBatch() {
     // Arrange
     List<Long> productIds = List.of(1L, 1L, 2L); // 2 of product1, 1 of product2
     when(productRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(product1, product2));
+    when(productRepository.decrementStock(Map.of(1L, 2, 2L, 1))).thenReturn(List.of());
 
     // Act
     productService.validateAndUpdateStock(productIds);
 
     // Assert
-    assertEquals(3, product1.getStock()); // 5 - 2 = 3
-    assertEquals(2, product2.getStock()); // 3 - 1 = 2
-    verify(productRepository, times(2)).save(any(Product.class));
+    verify(productRepository).decrementStock(Map.of(1L, 2, 2L, 1));
+    verify(productRepository, never()).findStockById(any());
+    verify(productRepository, never()).save(any(Product.class));
+    assertEquals(5, product1.getStock()); // decremented in the database only
   }
 
   @Test
@@ -93,11 +132,140 @@ class ProductServiceTest {
   void givenInsufficientStock_whenValidatingAndUpdatingStock_thenThrowInsufficientStockException() {
     // Arrange
     List<Long> productIds = List.of(1L, 1L, 1L, 1L, 1L, 1L); // 6 of product1, but only 5 in stock
-    when(productRepository.findAllByIdIn(anyList())).thenReturn(List.of(product1));
+    when(productRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(product1));
+    when(productRepository.decrementStock(Map.of(1L, 6))).thenReturn(List.of(1L));
+    when(productRepository.findStockById(1L)).thenReturn(Optional.of(5));
 
     // Act & Assert
-    assertThrows(InsufficientStockException.class,
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
         () -> productService.validateAndUpdateStock(productIds));
+
+    assertEquals("Insufficient stock for product 1. Requested: 6, Available: 5",
+        exception.getMessage());
+  }
+
+  @Test
+  @DisplayName("Given unknown product, when validating and updating stock, "
+      + "then throw ProductNotFoundException")
+  void givenUnknownProduct_whenValidatingAndUpdatingStock_thenThrowProductNotFoundException() {
+    // Arrange
+    List<Long> productIds = List.of(999L);
+    when(productRepository.findAllByIdIn(List.of(999L))).thenReturn(List.of());
+
+    // Act & Assert
+    ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
+        () -> productService.validateAndUpdateStock(productIds));
+
+    assertEquals("Products not found with IDs: [999]", exception.getMessage());
+    verify(productRepository, never()).decrementStock(any());
+  }
+
+  @Test
+  @DisplayName("Given product deleted concurrently, when validating and updating stock, "
+      + "then throw ProductNotFoundException")
+  void givenProductDeletedConcurrently_whenValidatingAndUpdatingStock_thenThrowNotFound() {
+    // Arrange
+    when(productRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(product1));
+    when(productRepository.decrementStock(Map.of(1L, 1))).thenReturn(List.of(1L));
+    when(productRepository.findStockById(1L)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
+        () -> productService.validateAndUpdateStock(List.of(1L)));
+
+    assertEquals("Product not found with ID: 1", exception.getMessage());
+  }
+
+  @Test
+  @DisplayName("Given optimistic product, when validating and updating stock, "
+      + "then decrement loaded entity")
+  void givenOptimisticProduct_whenValidatingAndUpdatingStock_thenDecrementLoadedEntity() {
+    // Arrange
+    product1.setLockMode(InventoryLockMode.OPTIMISTIC);
+    when(productRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(product2, product1));
+    when(productRepository.decrementStock(Map.of(2L, 1))).thenReturn(List.of());
+
+    // Act
+    productService.validateAndUpdateStock(List.of(2L, 1L, 1L));
+
+    // Assert
+    assertEquals(3, product1.getStock());
+    verify(productRepository).decrementStock(Map.of(2L, 1));
+    verify(productRepository, never()).lockForUpdate(any());
+  }
+
+  @Test
+  @DisplayName("Given pessimistic product, when validating and updating stock, "
+      + "then lock row before decrementing")
+  void givenPessimisticProduct_whenValidatingAndUpdatingStock_thenLockRowBeforeDecrementing() {
+    // Arrange
+    product2.setLockMode(InventoryLockMode.PESSIMISTIC);
+    when(productRepository.findAllByIdIn(List.of(2L))).thenReturn(List.of(product2));
+
+    // Act
+    productService.validateAndUpdateStock(List.of(2L, 2L));
+
+    // Assert
+    InOrder inOrder = inOrder(productRepository);
+    inOrder.verify(productRepository).findAllByIdIn(List.of(2L));
+    inOrder.verify(productRepository).lockForUpdate(product2);
+    assertEquals(1, product2.getStock());
+    verify(productRepository, never()).decrementStock(any());
+  }
+
+  @Test
+  @DisplayName("Given in-memory product, when validating and updating stock, "
+      + "then take it from its counter without a statement")
+  void givenInMemoryProduct_whenValidatingAndUpdatingStock_thenTakeItFromItsCounter() {
+    // Arrange
+    product1.setLockMode(InventoryLockMode.IN_MEMORY);
+    when(productRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(product1, product2));
+    when(productRepository.decrementStock(Map.of(2L, 1))).thenReturn(List.of());
+
+    // Act
+    productService.validateAndUpdateStock(List.of(1L, 1L, 2L));
+
+    // Assert
+    verify(inMemoryInventory).take(List.of(product1), Map.of(1L, 2, 2L, 1));
+    verify(productRepository).decrementStock(Map.of(2L, 1));
+    assertEquals(5, product1.getStock());
+  }
+
+  @Test
+  @DisplayName("Given pessimistic product without enough stock, when validating and updating "
+      + "stock, then throw InsufficientStockException")
+  void givenPessimisticProductWithoutStock_whenValidatingAndUpdatingStock_thenThrow() {
+    // Arrange
+    product2.setLockMode(InventoryLockMode.PESSIMISTIC);
+    when(productRepository.findAllByIdIn(List.of(2L))).thenReturn(List.of(product2));
+
+    // Act & Assert
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+        () -> productService.validateAndUpdateStock(List.of(2L, 2L, 2L, 2L)));
+
+    assertEquals("Insufficient stock for product 2. Requested: 4, Available: 3",
+        exception.getMessage());
+    assertEquals(3, product2.getStock());
+  }
+
+  @Test
+  @DisplayName("Given global pessimistic mode, when validating and updating stock, "
+      + "then load products with row locks")
+  void givenGlobalPessimisticMode_whenValidatingAndUpdatingStock_thenLoadProductsWithRowLocks() {
+    // Arrange
+    productService = new ProductService(productRepository, inMemoryInventory,
+        InventoryLockMode.PESSIMISTIC);
+    when(productRepository.findAllByIdInForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(product1, product2));
+
+    // Act
+    productService.validateAndUpdateStock(List.of(2L, 1L));
+
+    // Assert
+    assertEquals(4, product1.getStock());
+    assertEquals(2, product2.getStock());
+    verify(productRepository, never()).findAllByIdIn(any());
+    verify(productRepository, never()).decrementStock(any());
   }
 
   @Test
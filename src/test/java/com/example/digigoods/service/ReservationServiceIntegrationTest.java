@@ -0,0 +1,142 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests of the stock holds against a real database.
+ */
+@SpringBootTest(properties = "inventory.reservation.enabled=true")
+@ActiveProfiles("test")
+class ReservationServiceIntegrationTest {
+
+  @Autowired
+  private ReservationService reservationService;
+
+  @Autowired
+  private StockReservationRepository stockReservationRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private User user;
+  private User otherUser;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User(null, "hold-buyer", "password"));
+    otherUser = userRepository.save(new User(null, "hold-other-buyer", "password"));
+    product = productRepository.save(new Product(null, "Held Product", new BigDecimal("10.00"),
+        1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    stockReservationRepository.deleteAll();
+    jdbcTemplate.update("DELETE FROM stock_hold_locks WHERE product_id = ?", product.getId());
+    productRepository.deleteById(product.getId());
+    userRepository.deleteAllById(List.of(user.getId(), otherUser.getId()));
+  }
+
+  @Test
+  @DisplayName("Given hold taken in an open transaction, when locking the product for checkout, "
+      + "then do not wait for the hold")
+  void givenHoldInOpenTransaction_whenLockingProduct_thenDoNotWaitForTheHold()
+      throws Exception {
+    // Arrange
+    CountDownLatch held = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Void> hold = holdUntilReleased(user, held, release);
+    assertTrue(held.await(10, TimeUnit.SECONDS));
+
+    // Act
+    CompletableFuture<List<Product>> locked = CompletableFuture.supplyAsync(() ->
+        new TransactionTemplate(transactionManager).execute(status ->
+            productRepository.findAllByIdInForUpdate(List.of(product.getId()))));
+
+    // Assert
+    try {
+      assertEquals(1, locked.get(10, TimeUnit.SECONDS).size());
+    } finally {
+      release.countDown();
+    }
+    hold.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  @DisplayName("Given last item held in an open transaction, when another user holds it, "
+      + "then wait for that hold and throw InsufficientStockException")
+  void givenLastItemHeldInOpenTransaction_whenAnotherUserHoldsIt_thenWaitAndThrow()
+      throws Exception {
+    // Arrange
+    CountDownLatch held = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    final CompletableFuture<Void> hold = holdUntilReleased(user, held, release);
+    assertTrue(held.await(10, TimeUnit.SECONDS));
+
+    // Act
+    CompletableFuture<Void> other = CompletableFuture.runAsync(() ->
+        reservationService.reserve(otherUser.getId(), product.getId(), 1, 1));
+    Thread.sleep(200);
+    boolean doneWhileHeld = other.isDone();
+    release.countDown();
+    hold.get(10, TimeUnit.SECONDS);
+
+    // Assert
+    assertFalse(doneWhileHeld);
+    ExecutionException exception = assertThrows(ExecutionException.class,
+        () -> other.get(10, TimeUnit.SECONDS));
+    assertInstanceOf(InsufficientStockException.class, exception.getCause());
+    assertEquals(1, stockReservationRepository.count());
+  }
+
+  private CompletableFuture<Void> holdUntilReleased(User holder, CountDownLatch held,
+                                                    CountDownLatch release) {
+    return CompletableFuture.runAsync(() ->
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+          reservationService.reserve(holder.getId(), product.getId(), 1, 1);
+          held.countDown();
+          try {
+            release.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }));
+  }
+}
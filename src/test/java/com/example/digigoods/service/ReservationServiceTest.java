@@ -0,0 +1,271 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.CartProductView;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.model.StockReservation;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+  private static final Long USER_ID = 1L;
+  private static final Long OTHER_USER_ID = 2L;
+  private static final Long PRODUCT_ID = 10L;
+
+  @Mock
+  private StockReservationRepository stockReservationRepository;
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private TransactionRetryExecutor transactionRetryExecutor;
+
+  private ReservationService reservationService;
+  private CartProductView product;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionRetryExecutor.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    reservationService = new ReservationService(stockReservationRepository, productRepository,
+        transactionRetryExecutor, true, 15, 2);
+    product = new CartProductView(PRODUCT_ID, "Held Product", new BigDecimal("10.00"), 5);
+  }
+
+  @Test
+  @DisplayName("Given stock not held by others, when reserving, then hold it until the expiry")
+  void givenStockNotHeldByOthers_whenReserving_thenHoldItUntilTheExpiry() {
+    // Arrange
+    when(stockReservationRepository.sumActiveQuantityHeldByOthers(eq(PRODUCT_ID), eq(USER_ID),
+        any())).thenReturn(2L);
+    when(stockReservationRepository.findByUserIdAndProductId(USER_ID, PRODUCT_ID))
+        .thenReturn(Optional.empty());
+    LocalDateTime before = LocalDateTime.now();
+
+    // Act
+    reservationService.reserve(USER_ID, PRODUCT_ID, 3, 5);
+
+    // Assert
+    ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+    verify(stockReservationRepository).save(saved.capture());
+    assertFalse(saved.getValue().getExpiresAt().isBefore(before.plusMinutes(15)));
+    assertEquals(USER_ID, saved.getValue().getUserId());
+    assertEquals(PRODUCT_ID, saved.getValue().getProductId());
+    assertEquals(3, saved.getValue().getQuantity());
+    verify(stockReservationRepository).lockHolds(List.of(PRODUCT_ID));
+    verifyNoInteractions(productRepository);
+  }
+
+  @Test
+  @DisplayName("Given existing hold, when reserving again, then replace its quantity")
+  void givenExistingHold_whenReservingAgain_thenReplaceItsQuantity() {
+    // Arrange
+    StockReservation existing = new StockReservation(7L, USER_ID, PRODUCT_ID, 4,
+        LocalDateTime.now().plusMinutes(1));
+    when(stockReservationRepository.sumActiveQuantityHeldByOthers(eq(PRODUCT_ID), eq(USER_ID),
+        any())).thenReturn(0L);
+    when(stockReservationRepository.findByUserIdAndProductId(USER_ID, PRODUCT_ID))
+        .thenReturn(Optional.of(existing));
+
+    // Act
+    reservationService.reserve(USER_ID, PRODUCT_ID, 5, 5);
+
+    // Assert
+    verify(stockReservationRepository).save(existing);
+    assertEquals(5, existing.getQuantity());
+  }
+
+  @Test
+  @DisplayName("Given stock held by others, when reserving, "
+      + "then throw InsufficientStockException")
+  void givenStockHeldByOthers_whenReserving_thenThrowInsufficientStockException() {
+    // Arrange
+    when(stockReservationRepository.sumActiveQuantityHeldByOthers(eq(PRODUCT_ID), eq(USER_ID),
+        any())).thenReturn(4L);
+
+    // Act & Assert
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+        () -> reservationService.reserve(USER_ID, PRODUCT_ID, 2, 5));
+
+    assertEquals("Insufficient stock for product 10. Requested: 2, Available: 1",
+        exception.getMessage());
+    verify(stockReservationRepository, never()).save(any());
+  }
+
+  @Test
+  @DisplayName("Given several products, when reserving them all, "
+      + "then hold them with one query each for stock and holds and one batch of writes")
+  @SuppressWarnings("unchecked")
+  void givenSeveralProducts_whenReservingAll_thenHoldThemWithOneBatchOfWrites() {
+    // Arrange
+    Long otherProductId = 11L;
+    CartProductView otherProduct = new CartProductView(otherProductId, "Other Product",
+        new BigDecimal("5.00"), 3);
+    LocalDateTime expiry = LocalDateTime.now().plusMinutes(1);
+    StockReservation existing = new StockReservation(7L, USER_ID, PRODUCT_ID, 1, expiry);
+    when(productRepository.findCartViewsByIdIn(Set.of(PRODUCT_ID, otherProductId)))
+        .thenReturn(List.of(product, otherProduct));
+    when(stockReservationRepository.findActiveByProductIds(
+        eq(Set.of(PRODUCT_ID, otherProductId)), any()))
+        .thenReturn(List.of(existing,
+            new StockReservation(8L, OTHER_USER_ID, PRODUCT_ID, 2, expiry)));
+    when(stockReservationRepository.findByUserIdAndProductIdIn(USER_ID,
+        Set.of(PRODUCT_ID, otherProductId))).thenReturn(List.of(existing));
+
+    // Act
+    reservationService.reserveAll(USER_ID, Map.of(PRODUCT_ID, 3, otherProductId, 3));
+
+    // Assert
+    ArgumentCaptor<Iterable<StockReservation>> saved = ArgumentCaptor.forClass(Iterable.class);
+    verify(stockReservationRepository).saveAll(saved.capture());
+    Map<Long, StockReservation> byProduct = new HashMap<>();
+    saved.getValue().forEach(reservation -> byProduct.put(reservation.getProductId(), reservation));
+    assertEquals(2, byProduct.size());
+    assertSame(existing, byProduct.get(PRODUCT_ID));
+    assertEquals(3, existing.getQuantity());
+    assertEquals(3, byProduct.get(otherProductId).getQuantity());
+    assertEquals(USER_ID, byProduct.get(otherProductId).getUserId());
+    verify(stockReservationRepository).lockHolds(Set.of(PRODUCT_ID, otherProductId));
+    verify(stockReservationRepository, never()).save(any());
+  }
+
+  @Test
+  @DisplayName("Given missing product, when reserving all, "
+      + "then throw ProductNotFoundException and lock nothing")
+  void givenMissingProduct_whenReservingAll_thenThrowProductNotFoundException() {
+    // Arrange
+    when(productRepository.findCartViewsByIdIn(Set.of(PRODUCT_ID, 11L)))
+        .thenReturn(List.of(product));
+
+    // Act & Assert
+    ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
+        () -> reservationService.reserveAll(USER_ID, Map.of(PRODUCT_ID, 1, 11L, 1)));
+
+    assertEquals("Product not found with ID: 11", exception.getMessage());
+    verify(stockReservationRepository, never()).lockHolds(any());
+  }
+
+  @Test
+  @DisplayName("Given one product held by others, when reserving all, "
+      + "then throw InsufficientStockException and hold nothing")
+  void givenOneProductHeldByOthers_whenReservingAll_thenThrowAndHoldNothing() {
+    // Arrange
+    when(productRepository.findCartViewsByIdIn(Set.of(PRODUCT_ID))).thenReturn(List.of(product));
+    when(stockReservationRepository.findActiveByProductIds(eq(Set.of(PRODUCT_ID)), any()))
+        .thenReturn(List.of(new StockReservation(8L, OTHER_USER_ID, PRODUCT_ID, 4,
+            LocalDateTime.now().plusMinutes(1))));
+
+    // Act & Assert
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+        () -> reservationService.reserveAll(USER_ID, Map.of(PRODUCT_ID, 2)));
+
+    assertEquals("Insufficient stock for product 10. Requested: 2, Available: 1",
+        exception.getMessage());
+    verify(stockReservationRepository, never()).saveAll(any());
+  }
+
+  @Test
+  @DisplayName("Given products removed from the cart, when releasing, "
+      + "then delete their holds with one bulk delete")
+  void givenProductsRemovedFromCart_whenReleasing_thenDeleteTheirHoldsWithOneBulkDelete() {
+    // Act
+    reservationService.release(USER_ID, List.of(PRODUCT_ID));
+    reservationService.release(USER_ID, List.of());
+
+    // Assert
+    verify(stockReservationRepository, times(1))
+        .deleteByUserIdAndProductIds(USER_ID, List.of(PRODUCT_ID));
+  }
+
+  @Test
+  @DisplayName("Given reservations disabled, when reserving, then touch nothing")
+  void givenReservationsDisabled_whenReserving_thenTouchNothing() {
+    // Arrange
+    ReservationService disabled = new ReservationService(stockReservationRepository,
+        productRepository, transactionRetryExecutor, false, 15, 2);
+
+    // Act
+    disabled.reserve(USER_ID, PRODUCT_ID, 100, 5);
+    disabled.reserveAll(USER_ID, Map.of(PRODUCT_ID, 100));
+    disabled.release(USER_ID, List.of(PRODUCT_ID));
+    disabled.releaseExpired();
+
+    // Assert
+    assertTrue(disabled.getActiveHolds(List.of(PRODUCT_ID)).getConvertedIds().isEmpty());
+    verifyNoInteractions(stockReservationRepository, productRepository);
+  }
+
+  @Test
+  @DisplayName("Given holds of several users, when checking and converting, "
+      + "then count only the holds of others")
+  void givenHoldsOfSeveralUsers_whenCheckingAndConverting_thenCountOnlyHoldsOfOthers() {
+    // Arrange
+    LocalDateTime expiry = LocalDateTime.now().plusMinutes(5);
+    when(stockReservationRepository.findActiveByProductIds(eq(List.of(PRODUCT_ID)), any()))
+        .thenReturn(List.of(new StockReservation(7L, USER_ID, PRODUCT_ID, 3, expiry),
+            new StockReservation(8L, OTHER_USER_ID, PRODUCT_ID, 2, expiry)));
+    ActiveHolds holds = reservationService.getActiveHolds(List.of(PRODUCT_ID));
+    Map<Long, Integer> stock = Map.of(PRODUCT_ID, 5);
+
+    // Act & Assert
+    holds.checkAvailable(USER_ID, Map.of(PRODUCT_ID, 3), stock);
+    assertThrows(InsufficientStockException.class,
+        () -> holds.checkAvailable(OTHER_USER_ID, Map.of(PRODUCT_ID, 3), stock));
+    holds.convert(USER_ID, List.of(PRODUCT_ID));
+    holds.checkAvailable(OTHER_USER_ID, Map.of(PRODUCT_ID, 5), stock);
+    reservationService.releaseConverted(holds);
+    verify(stockReservationRepository).deleteAllByIdInBatch(List.of(7L));
+  }
+
+  @Test
+  @DisplayName("Given more expired holds than a batch, when sweeping, "
+      + "then release them one batch per transaction")
+  void givenMoreExpiredHoldsThanBatch_whenSweeping_thenReleaseOneBatchPerTransaction() {
+    // Arrange
+    when(stockReservationRepository.findExpiredIds(any(), any(Pageable.class)))
+        .thenReturn(List.of(1L, 2L), List.of(3L));
+
+    // Act
+    reservationService.releaseExpired();
+
+    // Assert
+    verify(stockReservationRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(stockReservationRepository).deleteAllByIdInBatch(List.of(3L));
+    verify(transactionRetryExecutor, times(2)).execute(eq("reservation-sweep"), any());
+  }
+}
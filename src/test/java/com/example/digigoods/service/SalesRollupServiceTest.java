@@ -0,0 +1,146 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.DailyRevenueReport;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.repository.DailySalesRepository;
+import com.example.digigoods.repository.DiscountDailyRedemptionsRepository;
+import com.example.digigoods.repository.ProductDailySalesRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+  @Mock
+  private DailySalesRepository dailySalesRepository;
+
+  @Mock
+  private ProductDailySalesRepository productDailySalesRepository;
+
+  @Mock
+  private DiscountDailyRedemptionsRepository discountDailyRedemptionsRepository;
+
+  private SalesRollupService salesRollupService;
+
+  @BeforeEach
+  void setUp() {
+    salesRollupService = new SalesRollupService(dailySalesRepository,
+        productDailySalesRepository, discountDailyRedemptionsRepository, true, 16);
+  }
+
+  @Test
+  @DisplayName("Given orders of one day, when recording, "
+      + "then add products, then discount codes, then the revenue of the day")
+  void givenOrdersOfOneDay_whenRecording_thenAddProductsDiscountsThenRevenue() {
+    // Arrange
+    Order first = order(1L, NOW, "100.00", "80.00", "GENERAL20");
+    Order second = order(2L, NOW.plusHours(1), "50.00", "50.00");
+    List<OrderItem> items = List.of(
+        new OrderItem(1L, 10L, 2, new BigDecimal("50.00"), new BigDecimal("40.00")),
+        new OrderItem(2L, 10L, 1, new BigDecimal("50.00"), new BigDecimal("50.00")));
+
+    // Act
+    salesRollupService.record(List.of(first, second), items);
+
+    // Assert
+    LocalDate today = NOW.toLocalDate();
+    InOrder order = inOrder(dailySalesRepository);
+    order.verify(dailySalesRepository).addProductSales(today, Map.of(10L, 3L),
+        Map.of(10L, new BigDecimal("130.00")));
+    order.verify(dailySalesRepository).addDiscountRedemptions(today, Map.of("GENERAL20", 1L));
+    order.verify(dailySalesRepository).addDailySales(eq(today), anyInt(), eq(2L),
+        eq(new BigDecimal("150.00")), eq(new BigDecimal("130.00")));
+  }
+
+  @Test
+  @DisplayName("Given orders of two days, when recording, then add each to its own day")
+  void givenOrdersOfTwoDays_whenRecording_thenAddEachToItsOwnDay() {
+    // Arrange
+    Order lateOrder = order(1L, NOW.withHour(23).withMinute(59), "30.00", "30.00");
+    Order earlyOrder = order(2L, NOW.plusDays(1).withHour(0), "20.00", "20.00");
+
+    // Act
+    salesRollupService.record(List.of(lateOrder, earlyOrder), List.of(
+        new OrderItem(1L, 10L, 1, new BigDecimal("30.00"), new BigDecimal("30.00")),
+        new OrderItem(2L, 11L, 1, new BigDecimal("20.00"), new BigDecimal("20.00"))));
+
+    // Assert
+    verify(dailySalesRepository).addProductSales(NOW.toLocalDate(), Map.of(10L, 1L),
+        Map.of(10L, new BigDecimal("30.00")));
+    verify(dailySalesRepository).addProductSales(NOW.toLocalDate().plusDays(1),
+        Map.of(11L, 1L), Map.of(11L, new BigDecimal("20.00")));
+    verify(dailySalesRepository).addDailySales(eq(NOW.toLocalDate()), anyInt(), eq(1L),
+        any(), eq(new BigDecimal("30.00")));
+    verify(dailySalesRepository).addDailySales(eq(NOW.toLocalDate().plusDays(1)), anyInt(),
+        eq(1L), any(), eq(new BigDecimal("20.00")));
+  }
+
+  @Test
+  @DisplayName("Given rollups disabled, when recording, then leave the rollups untouched")
+  void givenRollupsDisabled_whenRecording_thenLeaveRollupsUntouched() {
+    // Arrange
+    SalesRollupService disabled = new SalesRollupService(dailySalesRepository,
+        productDailySalesRepository, discountDailyRedemptionsRepository, false, 16);
+
+    // Act
+    disabled.record(List.of(order(1L, NOW, "10.00", "10.00")), List.of());
+
+    // Assert
+    verifyNoInteractions(dailySalesRepository);
+  }
+
+  @Test
+  @DisplayName("Given period, when getting daily revenue, then read the rollups of the period")
+  void givenPeriod_whenGettingDailyRevenue_thenReadRollupsOfThePeriod() {
+    // Arrange
+    LocalDate from = NOW.toLocalDate().minusDays(7);
+    LocalDate to = NOW.toLocalDate();
+    List<DailyRevenueReport> expected = List.of(new DailyRevenueReport(to, 2L,
+        new BigDecimal("150.00"), new BigDecimal("130.00")));
+    when(dailySalesRepository.findDailyRevenue(from, to)).thenReturn(expected);
+
+    // Act
+    List<DailyRevenueReport> revenue = salesRollupService.getDailyRevenue(from, to);
+
+    // Assert
+    assertEquals(expected, revenue);
+  }
+
+  private Order order(Long id, LocalDateTime orderDate, String subtotal, String finalPrice,
+                      String... discountCodes) {
+    Order order = new Order();
+    order.setId(id);
+    order.setOrderDate(orderDate);
+    order.setOriginalSubtotal(new BigDecimal(subtotal));
+    order.setFinalPrice(new BigDecimal(finalPrice));
+    for (String code : discountCodes) {
+      Discount discount = new Discount();
+      discount.setCode(code);
+      order.getAppliedDiscounts().add(discount);
+    }
+    return order;
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionRetryExecutor Tests")
+class TransactionRetryExecutorTest {
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private SimpleMeterRegistry meterRegistry;
+  private TransactionRetryExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    executor = new TransactionRetryExecutor(transactionManager, meterRegistry, 3, 0, 0);
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+  }
+
+  @Test
+  @DisplayName("Given action succeeds, when execute, then run once and record no retries")
+  void givenActionSucceeds_whenExecute_thenRunOnceAndRecordNoRetries() {
+    // Act
+    String result = executor.execute("checkout", () -> "done");
+
+    // Assert
+    assertEquals("done", result);
+    verify(transactionManager).commit(any());
+    assertEquals(0, meterRegistry.find("transaction.retries").counters().size());
+  }
+
+  @Test
+  @DisplayName("Given deadlock on first attempt, when execute, then retry and succeed")
+  void givenDeadlockOnFirstAttempt_whenExecute_thenRetryAndSucceed() {
+    // Arrange
+    AtomicInteger attempts = new AtomicInteger();
+
+    // Act
+    String result = executor.execute("checkout", () -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new CannotAcquireLockException("deadlock detected");
+      }
+      return "done";
+    });
+
+    // Assert
+    assertEquals("done", result);
+    assertEquals(2, attempts.get());
+    verify(transactionManager, times(2)).getTransaction(any());
+    assertEquals(1.0, meterRegistry.get("transaction.retries")
+        .tag("operation", "checkout")
+        .tag("exception", "CannotAcquireLockException")
+        .counter().count());
+  }
+
+  @Test
+  @DisplayName("Given deadlock on every attempt, when execute, then give up after max attempts")
+  void givenDeadlockOnEveryAttempt_whenExecute_thenGiveUpAfterMaxAttempts() {
+    // Arrange
+    AtomicInteger attempts = new AtomicInteger();
+
+    // Act & Assert
+    assertThrows(CannotAcquireLockException.class, () -> executor.execute("checkout", () -> {
+      attempts.incrementAndGet();
+      throw new CannotAcquireLockException("deadlock detected");
+    }));
+
+    assertEquals(3, attempts.get());
+    assertEquals(2.0, meterRegistry.get("transaction.retries").counter().count());
+    assertEquals(1.0, meterRegistry.get("transaction.retries.exhausted").counter().count());
+  }
+
+  @Test
+  @DisplayName("Given non-transient failure, when execute, then do not retry")
+  void givenNonTransientFailure_whenExecute_thenDoNotRetry() {
+    // Arrange
+    AtomicInteger attempts = new AtomicInteger();
+
+    // Act & Assert
+    assertThrows(DataIntegrityViolationException.class, () -> executor.execute("checkout", () -> {
+      attempts.incrementAndGet();
+      throw new DataIntegrityViolationException("constraint violated");
+    }));
+
+    assertEquals(1, attempts.get());
+    assertEquals(0, meterRegistry.find("transaction.retries").counters().size());
+  }
+}